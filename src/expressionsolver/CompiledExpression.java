@@ -0,0 +1,265 @@
+package expressionsolver;
+
+import java.util.function.ToIntFunction;
+
+import org.nfunk.jep.ASTConstant;
+import org.nfunk.jep.ASTFunNode;
+import org.nfunk.jep.ASTVarNode;
+import org.nfunk.jep.JEP;
+import org.nfunk.jep.Node;
+import org.nfunk.jep.type.DoubleNumberFactory;
+
+/**
+ * Expression compiled to a postfix program over doubles, for expressions
+ * which are evaluated many times with different values of their variables
+ * (e.g., once per configuration).
+ *
+ * Supported operators are the arithmetic ones yielded by parametric model
+ * checking (+, -, *, / and ^) and the logical ones of presence conditions
+ * (&&, || and !, where any non-zero value is true and results are 0 or 1).
+ * Variables are resolved to indices at compilation time, so evaluation only
+ * reads primitive arrays. Instances are immutable, hence thread-safe as long
+ * as each thread uses its own stack.
+ */
+public final class CompiledExpression {
+
+    private static final int CONSTANT = 0;
+    private static final int VARIABLE = 1;
+    private static final int ADD = 2;
+    private static final int SUBTRACT = 3;
+    private static final int MULTIPLY = 4;
+    private static final int DIVIDE = 5;
+    private static final int POWER = 6;
+    private static final int NEGATE = 7;
+    private static final int AND = 8;
+    private static final int OR = 9;
+    private static final int NOT = 10;
+
+    private final int[] opcodes;
+    /**
+     * Value of each CONSTANT instruction (unused by the others).
+     */
+    private final double[] constants;
+    /**
+     * Index of each VARIABLE instruction (unused by the others).
+     */
+    private final int[] indices;
+    private final int stackSize;
+
+    private CompiledExpression(int[] opcodes, double[] constants, int[] indices, int stackSize) {
+        this.opcodes = opcodes;
+        this.constants = constants;
+        this.indices = indices;
+        this.stackSize = stackSize;
+    }
+
+    /**
+     * Compiles an expression.
+     *
+     * The constants true, True, false and False are understood as 1 and 0.
+     *
+     * @param expression
+     * @param variableIndex Index of each variable in the arrays to be given
+     *          to the evaluation methods.
+     * @throws IllegalArgumentException if the expression cannot be parsed or
+     *          uses an unsupported operator.
+     */
+    public static CompiledExpression compile(String expression, ToIntFunction<String> variableIndex) {
+        JEP parser = new JEP(false, true, true, new DoubleNumberFactory());
+        parser.setAllowUndeclared(true);
+        parser.parseExpression(expression);
+        if (parser.hasError()) {
+            throw new IllegalArgumentException("Parser error: " + parser.getErrorInfo());
+        }
+        Node root = parser.getTopNode();
+        int length = countNodes(root);
+        Compiler compiler = new Compiler(length, variableIndex);
+        compiler.emit(root);
+        return new CompiledExpression(compiler.opcodes, compiler.constants, compiler.indices, compiler.maxDepth);
+    }
+
+    /**
+     * @return the minimum length of the stacks given to the evaluation methods.
+     */
+    public int getStackSize() {
+        return stackSize;
+    }
+
+    /**
+     * Evaluates the expression.
+     *
+     * @param variables Values of the variables, by index.
+     * @param stack Scratch space of at least {@link #getStackSize()} elements.
+     */
+    public double evaluate(double[] variables, double[] stack) {
+        return run(variables, null, stack);
+    }
+
+    /**
+     * Evaluates the expression, taking variables as bits of a bit set
+     * (e.g., a logical formula over features).
+     *
+     * @param bits Values of the variables, by index (bit i of the set is
+     *          {@code bits[i / 64] >>> (i % 64) & 1}).
+     * @param stack Scratch space of at least {@link #getStackSize()} elements.
+     */
+    public double evaluate(long[] bits, double[] stack) {
+        return run(null, bits, stack);
+    }
+
+    private double run(double[] variables, long[] bits, double[] stack) {
+        int top = -1;
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            switch (opcodes[pc]) {
+            case CONSTANT:
+                stack[++top] = constants[pc];
+                break;
+            case VARIABLE:
+                int index = indices[pc];
+                stack[++top] = (bits != null) ? (bits[index >>> 6] >>> index) & 1L
+                                              : variables[index];
+                break;
+            case NEGATE:
+                stack[top] = -stack[top];
+                break;
+            case NOT:
+                stack[top] = (stack[top] != 0) ? 0 : 1;
+                break;
+            default:
+                double right = stack[top--];
+                stack[top] = apply(opcodes[pc], stack[top], right);
+            }
+        }
+        return stack[0];
+    }
+
+    private static double apply(int opcode, double left, double right) {
+        switch (opcode) {
+        case ADD:
+            return left + right;
+        case SUBTRACT:
+            return left - right;
+        case MULTIPLY:
+            return left * right;
+        case DIVIDE:
+            return left / right;
+        case POWER:
+            return Math.pow(left, right);
+        case AND:
+            return (left != 0 && right != 0) ? 1 : 0;
+        case OR:
+            return (left != 0 || right != 0) ? 1 : 0;
+        default:
+            throw new IllegalStateException("Unknown opcode " + opcode);
+        }
+    }
+
+    private static int countNodes(Node node) {
+        int count = 1;
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            count += countNodes(node.jjtGetChild(i));
+        }
+        return count;
+    }
+
+    /**
+     * Emits the postfix program of a parse tree, tracking the stack depth.
+     */
+    private static class Compiler {
+        private int[] opcodes;
+        private double[] constants;
+        private int[] indices;
+        private ToIntFunction<String> variableIndex;
+        private int length = 0;
+        private int depth = 0;
+        private int maxDepth = 0;
+
+        Compiler(int length, ToIntFunction<String> variableIndex) {
+            this.opcodes = new int[length];
+            this.constants = new double[length];
+            this.indices = new int[length];
+            this.variableIndex = variableIndex;
+        }
+
+        void emit(Node node) {
+            if (node instanceof ASTConstant) {
+                Object value = ((ASTConstant) node).getValue();
+                if (!(value instanceof Number)) {
+                    throw new IllegalArgumentException("Unsupported constant: " + value);
+                }
+                pushConstant(((Number) value).doubleValue());
+            } else if (node instanceof ASTVarNode) {
+                emitVariable(((ASTVarNode) node).getName());
+            } else if (node instanceof ASTFunNode) {
+                for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+                    emit(node.jjtGetChild(i));
+                }
+                emitOperator(((ASTFunNode) node).getName().replace("\"", ""), node.jjtGetNumChildren());
+            } else {
+                throw new IllegalArgumentException("Unsupported expression node: " + node);
+            }
+        }
+
+        private void emitVariable(String name) {
+            switch (name) {
+            case "true":
+            case "True":
+                pushConstant(1);
+                break;
+            case "false":
+            case "False":
+                pushConstant(0);
+                break;
+            default:
+                indices[length] = variableIndex.applyAsInt(name);
+                push(VARIABLE);
+            }
+        }
+
+        private void emitOperator(String operator, int arity) {
+            if (arity == 1 && "-".equals(operator)) {
+                opcodes[length++] = NEGATE;
+            } else if (arity == 1 && "!".equals(operator)) {
+                opcodes[length++] = NOT;
+            } else if (arity == 2) {
+                opcodes[length++] = binaryOpcode(operator);
+                depth--;
+            } else {
+                throw new IllegalArgumentException("Unsupported operator: " + operator);
+            }
+        }
+
+        private static int binaryOpcode(String operator) {
+            switch (operator) {
+            case "+":
+                return ADD;
+            case "-":
+                return SUBTRACT;
+            case "*":
+                return MULTIPLY;
+            case "/":
+                return DIVIDE;
+            case "^":
+                return POWER;
+            case "&&":
+                return AND;
+            case "||":
+                return OR;
+            default:
+                throw new IllegalArgumentException("Unsupported operator: " + operator);
+            }
+        }
+
+        private void pushConstant(double value) {
+            constants[length] = value;
+            push(CONSTANT);
+        }
+
+        private void push(int opcode) {
+            opcodes[length++] = opcode;
+            depth++;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+    }
+
+}
@@ -0,0 +1,220 @@
+package expressionsolver;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.nfunk.jep.ASTConstant;
+import org.nfunk.jep.ASTFunNode;
+import org.nfunk.jep.ASTVarNode;
+import org.nfunk.jep.JEP;
+import org.nfunk.jep.Node;
+import org.nfunk.jep.type.DoubleNumberFactory;
+
+/**
+ * Symbolic differentiation of the algebraic expressions yielded by parametric
+ * model checking (i.e., rational functions using +, -, *, / and ^ with
+ * constant exponents).
+ *
+ * The expression is parsed only once, so that partial derivatives with respect
+ * to many variables can be taken from the same instance. Derivatives are
+ * returned as expressions in the same syntax as the input, which means they
+ * can be handed to {@link ExpressionSolver} just like any other formula.
+ *
+ * @author thiago
+ */
+public class SymbolicDifferentiator {
+
+    private static final String ZERO = "0";
+    private static final String ONE = "1";
+
+    private Node parseTree;
+    private Set<String> variables;
+
+    /**
+     * @param expression Expression to be differentiated.
+     * @throws IllegalArgumentException if the expression cannot be parsed.
+     */
+    public SymbolicDifferentiator(String expression) {
+        JEP parser = new JEP(false, true, true, new DoubleNumberFactory());
+        parser.setAllowUndeclared(true);
+        parser.parseExpression(expression);
+        if (parser.hasError()) {
+            throw new IllegalArgumentException("Parser error: " + parser.getErrorInfo());
+        }
+        this.parseTree = parser.getTopNode();
+        this.variables = new HashSet<String>();
+        collectVariables(parseTree);
+    }
+
+    /**
+     * Free variables of the differentiated expression.
+     */
+    public Set<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Returns the partial derivative of the expression with respect to
+     * {@code variable}, or "0" if the expression does not depend on it.
+     *
+     * @param variable
+     * @return an expression for the partial derivative.
+     */
+    public String differentiate(String variable) {
+        if (!variables.contains(variable)) {
+            return ZERO;
+        }
+        return derive(parseTree, variable);
+    }
+
+    private void collectVariables(Node node) {
+        if (node instanceof ASTVarNode) {
+            variables.add(((ASTVarNode) node).getName());
+        }
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            collectVariables(node.jjtGetChild(i));
+        }
+    }
+
+    private String derive(Node node, String variable) {
+        if (node instanceof ASTConstant) {
+            return ZERO;
+        } else if (node instanceof ASTVarNode) {
+            return ((ASTVarNode) node).getName().equals(variable) ? ONE : ZERO;
+        } else if (node instanceof ASTFunNode) {
+            return deriveFunction((ASTFunNode) node, variable);
+        }
+        throw new IllegalArgumentException("Unsupported expression node: " + node);
+    }
+
+    private String deriveFunction(ASTFunNode node, String variable) {
+        String operator = getOperator(node);
+        if (node.jjtGetNumChildren() == 1) {
+            if ("-".equals(operator)) {
+                return negate(derive(node.jjtGetChild(0), variable));
+            }
+            throw new IllegalArgumentException("Unsupported unary operator: " + operator);
+        }
+
+        Node left = node.jjtGetChild(0);
+        Node right = node.jjtGetChild(1);
+        switch (operator) {
+        case "+":
+            return sum(derive(left, variable), derive(right, variable));
+        case "-":
+            return difference(derive(left, variable), derive(right, variable));
+        case "*":
+            // (uv)' = u'v + uv'
+            return sum(product(derive(left, variable), print(right)),
+                       product(print(left), derive(right, variable)));
+        case "/":
+            // (u/v)' = (u'v - uv')/v^2
+            String numerator = difference(product(derive(left, variable), print(right)),
+                                          product(print(left), derive(right, variable)));
+            return quotient(numerator, power(print(right), 2));
+        case "^":
+            // (u^n)' = n*u^(n-1)*u', for constant n
+            if (!(right instanceof ASTConstant)) {
+                throw new IllegalArgumentException("Exponent must be constant.");
+            }
+            double exponent = (Double) ((ASTConstant) right).getValue();
+            return product(product(formatNumber(exponent), power(print(left), exponent - 1)),
+                           derive(left, variable));
+        default:
+            throw new IllegalArgumentException("Unsupported operator: " + operator);
+        }
+    }
+
+    /**
+     * Prints a parse (sub)tree back into the expression syntax.
+     */
+    private String print(Node node) {
+        if (node instanceof ASTConstant) {
+            return formatNumber((Double) ((ASTConstant) node).getValue());
+        } else if (node instanceof ASTVarNode) {
+            return ((ASTVarNode) node).getName();
+        }
+        ASTFunNode function = (ASTFunNode) node;
+        String operator = getOperator(function);
+        if (function.jjtGetNumChildren() == 1) {
+            return "-" + parenthesize(print(function.jjtGetChild(0)));
+        }
+        return parenthesize(print(function.jjtGetChild(0)))
+                + operator
+                + parenthesize(print(function.jjtGetChild(1)));
+    }
+
+    /**
+     * JEP names operators with surrounding double quotes (e.g., "+").
+     */
+    private static String getOperator(ASTFunNode node) {
+        return node.getName().replace("\"", "");
+    }
+
+    private static String sum(String a, String b) {
+        if (ZERO.equals(a)) {
+            return b;
+        } else if (ZERO.equals(b)) {
+            return a;
+        }
+        return parenthesize(a) + "+" + parenthesize(b);
+    }
+
+    private static String difference(String a, String b) {
+        if (ZERO.equals(b)) {
+            return a;
+        } else if (ZERO.equals(a)) {
+            return negate(b);
+        }
+        return parenthesize(a) + "-" + parenthesize(b);
+    }
+
+    private static String negate(String a) {
+        if (ZERO.equals(a)) {
+            return ZERO;
+        }
+        return "-" + parenthesize(a);
+    }
+
+    private static String product(String a, String b) {
+        if (ZERO.equals(a) || ZERO.equals(b)) {
+            return ZERO;
+        } else if (ONE.equals(a)) {
+            return b;
+        } else if (ONE.equals(b)) {
+            return a;
+        }
+        return parenthesize(a) + "*" + parenthesize(b);
+    }
+
+    private static String quotient(String a, String b) {
+        if (ZERO.equals(a)) {
+            return ZERO;
+        } else if (ONE.equals(b)) {
+            return a;
+        }
+        return parenthesize(a) + "/" + parenthesize(b);
+    }
+
+    private static String power(String base, double exponent) {
+        if (exponent == 0) {
+            return ONE;
+        } else if (exponent == 1) {
+            return base;
+        }
+        return parenthesize(base) + "^" + parenthesize(formatNumber(exponent));
+    }
+
+    private static String parenthesize(String expression) {
+        if (expression.matches("[A-Za-z_][A-Za-z0-9_]*|[0-9]+(\\.[0-9]+)?")) {
+            return expression;
+        }
+        return "(" + expression + ")";
+    }
+
+    private static String formatNumber(double number) {
+        return BigDecimal.valueOf(number).stripTrailingZeros().toPlainString();
+    }
+
+}
@@ -0,0 +1,253 @@
+package fdtmc;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, compact representation of an FDTMC's transition system.
+ *
+ * States are numbered densely from 0 and transitions are kept in compressed
+ * sparse row (CSR) form: the outgoing transitions of state {@code s} are the
+ * ones indexed from {@code getTransitionsStart(s)} (inclusive) to
+ * {@code getTransitionsEnd(s)} (exclusive). Numeric probabilities are stored
+ * as doubles, whereas symbolic ones (e.g., "1-rSqlite") are stored as indices
+ * into a table of interned expressions. Labels live in a side table as well.
+ *
+ * This is meant for traversal-heavy consumers (such as model checkers) of
+ * large models; interfaces are not represented. Currently, only the
+ * in-process numeric solver ({@link paramwrapper.NumericReachabilitySolver})
+ * uses it. {@link FDTMC} remains the representation for building, inlining,
+ * reduction, equality and PARAM/PRISM output, which need State identities,
+ * interfaces and the original state numbering.
+ */
+public final class CompactFDTMC {
+    private static final int NO_LABEL = -1;
+    private static final int NUMERIC = -1;
+
+    private final int initialState;
+    private final int[] transitionsStart;
+    private final int[] targets;
+    private final double[] numericProbabilities;
+    private final int[] symbolicProbabilities;
+    private final String[] symbols;
+    private final int[] stateLabels;
+    private final String[] labels;
+
+    private CompactFDTMC(Builder builder) {
+        int statesNumber = builder.statesNumber;
+        int transitionsNumber = builder.transitionsNumber;
+        this.initialState = builder.initialState;
+        this.symbols = new String[builder.symbols.size()];
+        for (Map.Entry<String, Integer> symbol: builder.symbols.entrySet()) {
+            symbols[symbol.getValue()] = symbol.getKey();
+        }
+        this.labels = new String[builder.labels.size()];
+        for (Map.Entry<String, Integer> label: builder.labels.entrySet()) {
+            labels[label.getValue()] = label.getKey();
+        }
+        this.stateLabels = Arrays.copyOf(builder.stateLabels, statesNumber);
+
+        // Counting sort of the transitions by source state, which keeps
+        // their creation order within each state.
+        this.transitionsStart = new int[statesNumber + 1];
+        for (int i = 0; i < transitionsNumber; i++) {
+            transitionsStart[builder.sources[i] + 1]++;
+        }
+        for (int s = 0; s < statesNumber; s++) {
+            transitionsStart[s + 1] += transitionsStart[s];
+        }
+        this.targets = new int[transitionsNumber];
+        this.numericProbabilities = new double[transitionsNumber];
+        this.symbolicProbabilities = new int[transitionsNumber];
+        int[] fill = Arrays.copyOf(transitionsStart, statesNumber);
+        for (int i = 0; i < transitionsNumber; i++) {
+            int k = fill[builder.sources[i]]++;
+            targets[k] = builder.targets[i];
+            numericProbabilities[k] = builder.numericProbabilities[i];
+            symbolicProbabilities[k] = builder.symbolicProbabilities[i];
+        }
+    }
+
+    /**
+     * Builds the compact form of {@code fdtmc}. States are numbered in
+     * creation order.
+     */
+    public static CompactFDTMC of(FDTMC fdtmc) {
+        Map<State, List<Transition>> transitionSystem = fdtmc.getTransitions();
+        Builder builder = new Builder();
+        Map<State, Integer> indices = new HashMap<State, Integer>(2 * transitionSystem.size());
+        for (State state: transitionSystem.keySet()) {
+            indices.put(state, builder.createState(state.getLabel()));
+        }
+        builder.setInitialState(indices.get(fdtmc.getInitialState()));
+        for (Map.Entry<State, List<Transition>> entry: transitionSystem.entrySet()) {
+            if (entry.getValue() != null) {
+                int source = indices.get(entry.getKey());
+                for (Transition transition: entry.getValue()) {
+                    builder.createTransition(source,
+                                             indices.get(transition.getTarget()),
+                                             transition.getProbability());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    public int getStatesNumber() {
+        return stateLabels.length;
+    }
+
+    public int getTransitionsNumber() {
+        return targets.length;
+    }
+
+    public int getInitialState() {
+        return initialState;
+    }
+
+    /**
+     * @return the label of {@code state} or null if it has none.
+     */
+    public String getLabel(int state) {
+        int label = stateLabels[state];
+        return (label == NO_LABEL) ? null : labels[label];
+    }
+
+    public int getTransitionsStart(int state) {
+        return transitionsStart[state];
+    }
+
+    public int getTransitionsEnd(int state) {
+        return transitionsStart[state + 1];
+    }
+
+    public int getTarget(int transition) {
+        return targets[transition];
+    }
+
+    /**
+     * @return whether the probability of {@code transition} is a number.
+     */
+    public boolean isNumeric(int transition) {
+        return symbolicProbabilities[transition] == NUMERIC;
+    }
+
+    /**
+     * @return the probability of a numeric transition.
+     */
+    public double getNumericProbability(int transition) {
+        return numericProbabilities[transition];
+    }
+
+    /**
+     * @return the index of a symbolic transition's probability in the
+     *          table of symbolic expressions.
+     */
+    public int getSymbolIndex(int transition) {
+        return symbolicProbabilities[transition];
+    }
+
+    /**
+     * @return the interned symbolic expressions, indexed by {@link #getSymbolIndex(int)}.
+     */
+    public String getSymbol(int index) {
+        return symbols[index];
+    }
+
+    public int getSymbolsNumber() {
+        return symbols.length;
+    }
+
+    /**
+     * @return the probability of {@code transition}, as it was given.
+     */
+    public String getProbability(int transition) {
+        if (isNumeric(transition)) {
+            double probability = numericProbabilities[transition];
+            return (probability == Math.rint(probability)) ? Long.toString((long) probability)
+                                                           : Double.toString(probability);
+        }
+        return symbols[symbolicProbabilities[transition]];
+    }
+
+    /**
+     * Incremental builder of {@link CompactFDTMC}s, mirroring the
+     * {@code createState}/{@code createTransition} API of {@link FDTMC},
+     * with states identified by their indices. As in {@link FDTMC},
+     * the first state created is the initial one.
+     */
+    public static final class Builder {
+        private int statesNumber = 0;
+        private int transitionsNumber = 0;
+        private int initialState = 0;
+        private int[] stateLabels = new int[16];
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private double[] numericProbabilities = new double[16];
+        private int[] symbolicProbabilities = new int[16];
+        private Map<String, Integer> symbols = new HashMap<String, Integer>();
+        private Map<String, Integer> labels = new HashMap<String, Integer>();
+
+        public int createState() {
+            return createState(null);
+        }
+
+        public int createState(String label) {
+            if (statesNumber == stateLabels.length) {
+                stateLabels = Arrays.copyOf(stateLabels, 2 * statesNumber);
+            }
+            int labelIndex = NO_LABEL;
+            if (label != null) {
+                labelIndex = labels.computeIfAbsent(label, k -> labels.size());
+            }
+            stateLabels[statesNumber] = labelIndex;
+            return statesNumber++;
+        }
+
+        public Builder setInitialState(int state) {
+            checkState(state);
+            initialState = state;
+            return this;
+        }
+
+        public Builder createTransition(int source, int target, String probability) {
+            checkState(source);
+            checkState(target);
+            if (transitionsNumber == sources.length) {
+                int capacity = 2 * transitionsNumber;
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                numericProbabilities = Arrays.copyOf(numericProbabilities, capacity);
+                symbolicProbabilities = Arrays.copyOf(symbolicProbabilities, capacity);
+            }
+            sources[transitionsNumber] = source;
+            targets[transitionsNumber] = target;
+            Double numeric = Transition.parseNumber(probability);
+            if (numeric != null) {
+                numericProbabilities[transitionsNumber] = numeric;
+                symbolicProbabilities[transitionsNumber] = NUMERIC;
+            } else {
+                numericProbabilities[transitionsNumber] = Double.NaN;
+                symbolicProbabilities[transitionsNumber] = symbols.computeIfAbsent(probability, k -> symbols.size());
+            }
+            transitionsNumber++;
+            return this;
+        }
+
+        public CompactFDTMC build() {
+            if (statesNumber == 0) {
+                throw new IllegalStateException("An FDTMC must have at least one state.");
+            }
+            return new CompactFDTMC(this);
+        }
+
+        private void checkState(int state) {
+            if (state < 0 || state >= statesNumber) {
+                throw new IllegalArgumentException("Unknown state: " + state);
+            }
+        }
+    }
+
+}
@@ -9,6 +9,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 public class FDTMC {
 
@@ -16,6 +17,11 @@ public class FDTMC {
 	private String variableName;
 	private Map<State, List<Transition>> transitionSystem;
 	private Map<String, List<Interface>> interfaces;
+	/**
+	 * Actions run whenever this model changes (e.g., for resetting hashes
+	 * cached by the RDG nodes which own it). Most models have none.
+	 */
+	private List<Runnable> changeListeners;
 
 
 	public FDTMC() {
@@ -31,6 +37,7 @@ public class FDTMC {
 
 	public void setVariableName(String name) {
 		variableName = name;
+		changed();
 	}
 
 	public String getVariableName() {
@@ -42,15 +49,21 @@ public class FDTMC {
 	}
 
 	public State createState() {
-		return stateHandler.createState();
+		State state = stateHandler.createState();
+		changed();
+		return state;
 	}
 
 	public State createState(String label) {
-		return stateHandler.createState(label);
+		State state = stateHandler.createState(label);
+		changed();
+		return state;
 	}
 
     public State createInitialState() {
-        return stateHandler.createInitialState();
+        State state = stateHandler.createInitialState();
+        changed();
+        return state;
     }
 
     private void setInitialState(State initialState) {
@@ -62,7 +75,9 @@ public class FDTMC {
     }
     
     public State createSuccessState() {
-        return stateHandler.createSuccessState();
+        State state = stateHandler.createSuccessState();
+        changed();
+        return state;
     }
 
     private void setSuccessState(State successState) {
@@ -74,7 +89,9 @@ public class FDTMC {
     }
 
     public State createErrorState() {
-        return stateHandler.createErrorState();
+        State state = stateHandler.createErrorState();
+        changed();
+        return state;
     }
 
     private void setErrorState(State errorState) {
@@ -98,6 +115,7 @@ public class FDTMC {
 		Transition newTransition = new Transition(source, target, action, reliability);
 		boolean success = l.add(newTransition);
 		transitionSystem.put(source, l);
+		changed();
 		return success ? newTransition : null;
 	}
 
@@ -131,9 +149,31 @@ public class FDTMC {
 	        interfaces.put(id, interfaceOccurrences);
 	    }
 	    interfaceOccurrences.add(newInterface);
+	    changed();
 	    return newInterface;
 	}
 
+	/**
+	 * Registers an action to be run whenever a state, transition or
+	 * interface is added to this model, or its variable is renamed.
+	 *
+	 * @param listener
+	 */
+	public void addChangeListener(Runnable listener) {
+	    if (changeListeners == null) {
+	        changeListeners = new LinkedList<Runnable>();
+	    }
+	    changeListeners.add(listener);
+	}
+
+	private void changed() {
+	    if (changeListeners != null) {
+	        for (Runnable listener : changeListeners) {
+	            listener.run();
+	        }
+	    }
+	}
+
 	public State getStateByLabel(String label) {
 		return stateHandler.getStateByLabel(label);
 	}
@@ -227,6 +267,10 @@ public class FDTMC {
 		return transitionSystem;
 	}
 
+    public Map<String, List<Interface>> getInterfaces() {
+        return interfaces;
+    }
+
 	/**
 	 * Inlines the given FDTMCs whenever there is an interface corresponding
 	 * to the string in the respective index.
@@ -254,7 +298,11 @@ public class FDTMC {
         return inlined;
     }
 
-	private Map<State, State> getCopyForInlining(FDTMC origin) {
+	Map<State, State> getCopyForInlining(FDTMC origin) {
+		return getCopyForInlining(origin, Transition::getProbability);
+	}
+
+	private Map<State, State> getCopyForInlining(FDTMC origin, Function<Transition, String> probabilities) {
 		variableName = origin.getVariableName();
 
         Map<State, State> statesMapping = inlineStates(origin);
@@ -262,7 +310,7 @@ public class FDTMC {
         setSuccessState(statesMapping.get(origin.getSuccessState()));
         setErrorState(statesMapping.get(origin.getErrorState()));
 
-        inlineTransitions(origin, statesMapping);
+        inlineTransitions(origin, statesMapping, probabilities);
 		return statesMapping;
 	}
 
@@ -278,14 +326,16 @@ public class FDTMC {
      */
     public FDTMC decoratedWithPresence(String presenceVariable) {
         FDTMC decorated = copy();
+        State originalInitial = decorated.getInitialState();
+        State initial = decorated.createInitialState();
 
         // Enter the original chain in case of presence
-        decorated.createTransition(decorated.createInitialState(),
-        		 				   decorated.getInitialState(),
+        decorated.createTransition(initial,
+                                   originalInitial,
                                    "",
                                    presenceVariable);
         // Short-circuit in case of absence
-        decorated.createTransition(decorated.createInitialState(),
+        decorated.createTransition(initial,
                                    decorated.getSuccessState(),
                                    "",
                                    "1-"+presenceVariable);
@@ -312,22 +362,49 @@ public class FDTMC {
     }
 
     /**
-     * Copies this FDTMC.
-     * @return a new FDTMC which is a copy of this one.
+     * Returns a copy of this FDTMC in which the probability of each transition
+     * not belonging to an interface is given by {@code probabilities}.
+     *
+     * The function is applied to the transitions of this FDTMC. Since states
+     * are copied in creation order, states in the copy are equal (i.e., have
+     * the same indices) to the respective ones in the original FDTMC.
+     *
+     * @param probabilities
+     * @return a new FDTMC with rewritten transition probabilities.
      */
-    private FDTMC copy() {
+    public FDTMC withProbabilities(Function<Transition, String> probabilities) {
         FDTMC copied = new FDTMC();
-        Map<State, State> statesMapping = getCopyForInlining(copied);
+        Map<State, State> statesMapping = copied.getCopyForInlining(this, probabilities);
         copied.inlineInterfaces(this, statesMapping);
         return copied;
     }
 
+    /**
+     * Returns a reduced FDTMC which is equivalent to this one with respect to
+     * the probabilities of reaching labeled states. Unreachable states are
+     * dropped, chains of constant-probability transitions are collapsed and
+     * bisimilar states are merged, whereas interfaces are kept intact.
+     *
+     * @return a new (reduced) FDTMC.
+     */
+    public FDTMC reduced() {
+        return new FDTMCReducer(this).reduce();
+    }
+
+    /**
+     * Copies this FDTMC.
+     * @return a new FDTMC which is a copy of this one.
+     */
+    private FDTMC copy() {
+        return withProbabilities(Transition::getProbability);
+    }
+
     /**
      * Inlines all states from {@code fdtmc} stripped of their labels.
      * @param fdtmc
      * @return
      */
-    private Map<State, State> inlineStates(FDTMC fdtmc) {
+    Map<State, State> inlineStates(FDTMC fdtmc) {
         Map<State, State> statesOldToNew = new HashMap<State, State>();
         for (State state: fdtmc.getStates()) {
             State newState = this.createState();
@@ -342,14 +419,18 @@ public class FDTMC {
      * @param fdtmc
      * @param statesOldToNew
      */
-    private void inlineTransitions(FDTMC fdtmc, Map<State, State> statesOldToNew) {
+    void inlineTransitions(FDTMC fdtmc, Map<State, State> statesOldToNew) {
+        inlineTransitions(fdtmc, statesOldToNew, Transition::getProbability);
+    }
+
+    private void inlineTransitions(FDTMC fdtmc, Map<State, State> statesOldToNew, Function<Transition, String> probabilities) {
         Set<Transition> interfaceTransitions = fdtmc.getInterfaceTransitions();
         for (Map.Entry<State, List<Transition>> entry : fdtmc.getTransitions().entrySet()) {
             List<Transition> transitions = entry.getValue();
             if (transitions != null) {
                 for (Transition transition : transitions) {
                     if (!interfaceTransitions.contains(transition)) {
-                        inlineTransition(transition, statesOldToNew);
+                        inlineTransition(transition, statesOldToNew, probabilities.apply(transition));
                     }
                 }
             }
@@ -357,11 +438,14 @@ public class FDTMC {
     }
 
     private Transition inlineTransition(Transition transition, Map<State, State> statesOldToNew) {
+        return inlineTransition(transition, statesOldToNew, transition.getProbability());
+    }
 
+    private Transition inlineTransition(Transition transition, Map<State, State> statesOldToNew, String probability) {
         return createTransition(statesOldToNew.get(transition.getSource()),
         						statesOldToNew.get(transition.getTarget()),
                                 transition.getActionName(),
-                                transition.getProbability());
+                                probability);
     }
 
     /**
@@ -0,0 +1,364 @@
+package fdtmc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Reduces FDTMCs while preserving the probability of reaching each labeled
+ * state, as well as all interfaces (along with their states and transitions).
+ *
+ * The reduction comprises three steps:
+ *     - unreachable states are dropped;
+ *     - states all of whose outgoing transitions have constant probabilities
+ *       (such as "1" glue transitions or message states) are bypassed, their
+ *       predecessors being linked directly to their successors (probabilities
+ *       are multiplied exactly, and only when both of them are constants,
+ *       unless the bypassed transition has probability 1);
+ *     - states which are equivalent under probabilistic bisimulation are merged.
+ *
+ * Initial, success and error states, labeled states and interface states are
+ * never removed. Action names are not kept.
+ */
+final class FDTMCReducer {
+    private static final BigDecimal ONE = BigDecimal.ONE;
+
+    private final FDTMC fdtmc;
+    private final Set<State> protectedStates = new HashSet<State>();
+    /**
+     * Reachable states in creation order -> non-interface outgoing edges.
+     */
+    private final Map<State, List<Edge>> edges = new LinkedHashMap<State, List<Edge>>();
+    private final Map<State, Set<State>> predecessors = new HashMap<State, Set<State>>();
+
+    FDTMCReducer(FDTMC fdtmc) {
+        this.fdtmc = fdtmc;
+    }
+
+    FDTMC reduce() {
+        if (fdtmc.getInitialState() == null) {
+            return fdtmc;
+        }
+        Set<Transition> interfaceTransitions = collectProtected();
+        collectReachable(interfaceTransitions);
+        bypassConstantStates();
+        Map<State, State> representatives = mergeBisimilarStates();
+        return build(representatives);
+    }
+
+    private Set<Transition> collectProtected() {
+        protectedStates.add(fdtmc.getInitialState());
+        for (State state: fdtmc.getStates()) {
+            if (state.getLabel() != null) {
+                protectedStates.add(state);
+            }
+        }
+        Set<Transition> interfaceTransitions = Collections.newSetFromMap(new IdentityHashMap<Transition, Boolean>());
+        for (List<Interface> interfaces: fdtmc.getInterfaces().values()) {
+            for (Interface iface: interfaces) {
+                protectedStates.add(iface.getInitial());
+                protectedStates.add(iface.getSuccess());
+                protectedStates.add(iface.getError());
+                interfaceTransitions.add(iface.getSuccessTransition());
+                interfaceTransitions.add(iface.getErrorTransition());
+            }
+        }
+        protectedStates.remove(null);
+        return interfaceTransitions;
+    }
+
+    private void collectReachable(Set<Transition> interfaceTransitions) {
+        Set<State> reached = new HashSet<State>();
+        LinkedList<State> frontier = new LinkedList<State>();
+        reached.add(fdtmc.getInitialState());
+        frontier.add(fdtmc.getInitialState());
+        while (!frontier.isEmpty()) {
+            State state = frontier.poll();
+            List<Transition> transitions = fdtmc.getTransitions().get(state);
+            if (transitions != null) {
+                for (Transition transition: transitions) {
+                    if (reached.add(transition.getTarget())) {
+                        frontier.add(transition.getTarget());
+                    }
+                }
+            }
+        }
+        for (Map.Entry<State, List<Transition>> entry: fdtmc.getTransitions().entrySet()) {
+            State source = entry.getKey();
+            if (!reached.contains(source)) {
+                continue;
+            }
+            List<Edge> outgoing = new ArrayList<Edge>();
+            if (entry.getValue() != null) {
+                for (Transition transition: entry.getValue()) {
+                    if (!interfaceTransitions.contains(transition)) {
+                        addEdge(outgoing, source, new Edge(transition.getTarget(), transition.getProbability()));
+                    }
+                }
+            }
+            edges.put(source, outgoing);
+        }
+    }
+
+    /**
+     * Bypasses unprotected states whose outgoing transitions all have constant
+     * probabilities, until no more states can be bypassed.
+     */
+    private void bypassConstantStates() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (State state: new ArrayList<State>(edges.keySet())) {
+                if (canBypass(state)) {
+                    bypass(state);
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private boolean canBypass(State state) {
+        List<Edge> outgoing = edges.get(state);
+        if (protectedStates.contains(state) || outgoing.isEmpty()) {
+            return false;
+        }
+        for (Edge edge: outgoing) {
+            if (edge.numeric == null || edge.target.equals(state)) {
+                return false;
+            }
+        }
+        boolean isGlue = outgoing.size() == 1 && outgoing.get(0).numeric.compareTo(ONE) == 0;
+        for (State predecessor: predecessors.getOrDefault(state, Collections.<State>emptySet())) {
+            for (Edge edge: edges.get(predecessor)) {
+                if (edge.target.equals(state) && edge.numeric == null && !isGlue) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void bypass(State state) {
+        List<Edge> outgoing = edges.remove(state);
+        for (Edge edge: outgoing) {
+            predecessors.get(edge.target).remove(state);
+        }
+        Set<State> statePredecessors = predecessors.remove(state);
+        if (statePredecessors == null) {
+            return;
+        }
+        for (State predecessor: statePredecessors) {
+            List<Edge> predecessorEdges = edges.get(predecessor);
+            List<Edge> bypassed = new ArrayList<Edge>();
+            for (Edge edge: predecessorEdges) {
+                if (edge.target.equals(state)) {
+                    bypassed.add(edge);
+                }
+            }
+            predecessorEdges.removeAll(bypassed);
+            for (Edge incoming: bypassed) {
+                for (Edge edge: outgoing) {
+                    addEdge(predecessorEdges, predecessor, incoming.followedBy(edge));
+                }
+            }
+        }
+    }
+
+    /**
+     * Partition refinement: states start grouped by protection (each protected
+     * state on its own) and are split according to the probabilities of going
+     * to each group, until the partition is stable.
+     *
+     * @return the representative (first created state) of each state's block.
+     */
+    private Map<State, State> mergeBisimilarStates() {
+        Map<State, Integer> blocks = new HashMap<State, Integer>();
+        int blocksNumber = 0;
+        for (State state: edges.keySet()) {
+            blocks.put(state, protectedStates.contains(state) ? ++blocksNumber : 0);
+        }
+        blocksNumber++;
+        while (true) {
+            Map<String, Integer> signatures = new HashMap<String, Integer>();
+            Map<State, Integer> refined = new HashMap<State, Integer>();
+            for (State state: edges.keySet()) {
+                String signature = blocks.get(state) + "|" + getSignature(state, blocks);
+                Integer block = signatures.get(signature);
+                if (block == null) {
+                    block = signatures.size();
+                    signatures.put(signature, block);
+                }
+                refined.put(state, block);
+            }
+            blocks = refined;
+            if (signatures.size() == blocksNumber) {
+                break;
+            }
+            blocksNumber = signatures.size();
+        }
+
+        Map<Integer, State> blockRepresentatives = new HashMap<Integer, State>();
+        Map<State, State> representatives = new LinkedHashMap<State, State>();
+        for (State state: edges.keySet()) {
+            State representative = blockRepresentatives.get(blocks.get(state));
+            if (representative == null) {
+                // Protected states are alone in their blocks.
+                representative = state;
+                blockRepresentatives.put(blocks.get(state), state);
+            }
+            representatives.put(state, representative);
+        }
+        return representatives;
+    }
+
+    private String getSignature(State state, Map<State, Integer> blocks) {
+        TreeMap<Integer, BigDecimal> numeric = new TreeMap<Integer, BigDecimal>();
+        List<String> symbolic = new ArrayList<String>();
+        for (Edge edge: edges.get(state)) {
+            Integer block = blocks.get(edge.target);
+            if (edge.numeric != null) {
+                numeric.merge(block, edge.numeric, BigDecimal::add);
+            } else {
+                symbolic.add(block + ":" + edge.probability);
+            }
+        }
+        Collections.sort(symbolic);
+        StringBuilder signature = new StringBuilder();
+        for (Map.Entry<Integer, BigDecimal> entry: numeric.entrySet()) {
+            signature.append(entry.getKey()).append(':').append(entry.getValue().stripTrailingZeros().toPlainString()).append(';');
+        }
+        for (String entry: symbolic) {
+            signature.append(entry).append(';');
+        }
+        return signature.toString();
+    }
+
+    private FDTMC build(Map<State, State> representatives) {
+        FDTMC reduced = new FDTMC();
+        reduced.setVariableName(fdtmc.getVariableName());
+        Map<State, State> newStates = new HashMap<State, State>();
+        State initial = fdtmc.getInitialState();
+        newStates.put(initial, reduced.createInitialState());
+        for (State state: representatives.keySet()) {
+            if (representatives.get(state) != state || state.equals(initial)) {
+                continue;
+            }
+            State newState;
+            if (state.equals(fdtmc.getSuccessState())) {
+                newState = reduced.createSuccessState();
+            } else if (state.equals(fdtmc.getErrorState())) {
+                newState = reduced.createErrorState();
+            } else {
+                newState = reduced.createState(state.getLabel());
+            }
+            newStates.put(state, newState);
+        }
+        for (Map.Entry<State, State> entry: representatives.entrySet()) {
+            if (entry.getValue() == entry.getKey()) {
+                List<Edge> merged = new ArrayList<Edge>();
+                for (Edge edge: edges.get(entry.getKey())) {
+                    addEdge(merged, null, new Edge(representatives.get(edge.target), edge.probability));
+                }
+                for (Edge edge: merged) {
+                    reduced.createTransition(newStates.get(entry.getKey()),
+                                             newStates.get(edge.target),
+                                             "",
+                                             edge.probability);
+                }
+            }
+        }
+        for (Map.Entry<String, List<Interface>> entry: fdtmc.getInterfaces().entrySet()) {
+            for (Interface iface: entry.getValue()) {
+                if (newStates.containsKey(iface.getInitial())) {
+                    reduced.createInterface(entry.getKey(),
+                                            newStates.get(iface.getInitial()),
+                                            newStates.get(iface.getSuccess()),
+                                            newStates.get(iface.getError()));
+                }
+            }
+        }
+        return reduced;
+    }
+
+    /**
+     * Adds an edge, merging it with a parallel one if there is any.
+     * If {@code source} is not null, predecessors are updated accordingly.
+     */
+    private void addEdge(List<Edge> outgoing, State source, Edge edge) {
+        for (int i = 0; i < outgoing.size(); i++) {
+            Edge parallel = outgoing.get(i);
+            if (parallel.target.equals(edge.target)) {
+                outgoing.set(i, parallel.plus(edge));
+                return;
+            }
+        }
+        outgoing.add(edge);
+        if (source != null) {
+            predecessors.computeIfAbsent(edge.target, k -> new LinkedHashSet<State>()).add(source);
+        }
+    }
+
+    /**
+     * Transition under reduction. Constant probabilities are kept as exact
+     * decimals, so that no rounding is introduced.
+     */
+    private static final class Edge {
+        final State target;
+        final String probability;
+        final BigDecimal numeric;
+
+        Edge(State target, String probability) {
+            this(target, probability, parse(probability));
+        }
+
+        private Edge(State target, String probability, BigDecimal numeric) {
+            this.target = target;
+            this.probability = probability;
+            this.numeric = numeric;
+        }
+
+        private static Edge numeric(State target, BigDecimal value) {
+            return new Edge(target, value.stripTrailingZeros().toPlainString(), value);
+        }
+
+        /**
+         * Edge to the target of {@code next} with the probability of
+         * taking this edge and then {@code next}.
+         */
+        Edge followedBy(Edge next) {
+            if (next.numeric.compareTo(ONE) == 0) {
+                return new Edge(next.target, probability, numeric);
+            }
+            return numeric(next.target, numeric.multiply(next.numeric));
+        }
+
+        Edge plus(Edge other) {
+            if (numeric != null && other.numeric != null) {
+                return numeric(target, numeric.add(other.numeric));
+            }
+            return new Edge(target, "(" + probability + ")+(" + other.probability + ")", null);
+        }
+
+        private static BigDecimal parse(String probability) {
+            if (Transition.parseNumber(probability) == null) {
+                return null;
+            }
+            try {
+                return new BigDecimal(probability.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+}
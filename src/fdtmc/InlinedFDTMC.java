@@ -0,0 +1,132 @@
+package fdtmc;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lazily inlined FDTMC, i.e., a view of an FDTMC (the host) along with the
+ * (lazily inlined) FDTMCs to be inlined in its interfaces.
+ *
+ * Composing views only references the fragments instead of copying their
+ * states and transitions, as {@link FDTMC#inline(Map)} does. The actual FDTMC
+ * is only built by {@link #materialize()}, which yields the same result
+ * as the corresponding sequence of eager inlinings.
+ *
+ * Views are immutable and compared by the identity of their host and
+ * fragments, so that they can be interned: views of equal subtrees derived
+ * for different configurations are then shared.
+ */
+public final class InlinedFDTMC {
+    private final FDTMC host;
+    private final Map<String, InlinedFDTMC> fragments;
+    private final int hashCode;
+
+    private InlinedFDTMC(FDTMC host, Map<String, InlinedFDTMC> fragments) {
+        this.host = host;
+        this.fragments = fragments;
+        int hash = System.identityHashCode(host);
+        for (Map.Entry<String, InlinedFDTMC> fragment: fragments.entrySet()) {
+            hash += fragment.getKey().hashCode() ^ System.identityHashCode(fragment.getValue());
+        }
+        this.hashCode = hash;
+    }
+
+    /**
+     * @return a view of {@code fdtmc} with nothing inlined.
+     */
+    public static InlinedFDTMC of(FDTMC fdtmc) {
+        return new InlinedFDTMC(fdtmc, Collections.<String, InlinedFDTMC>emptyMap());
+    }
+
+    /**
+     * Lazy counterpart of {@code host.inline(indexedModels)}.
+     *
+     * @param host
+     * @param indexedModels Views to be inlined in the interfaces of
+     *          {@code host} with the respective ids.
+     */
+    public static InlinedFDTMC of(FDTMC host, Map<String, InlinedFDTMC> indexedModels) {
+        Map<String, InlinedFDTMC> fragments = new HashMap<String, InlinedFDTMC>();
+        for (String dependencyId: host.getInterfaces().keySet()) {
+            InlinedFDTMC fragment = indexedModels.get(dependencyId);
+            if (fragment != null) {
+                fragments.put(dependencyId, fragment);
+            }
+        }
+        return new InlinedFDTMC(host, fragments);
+    }
+
+    /**
+     * Builds the FDTMC represented by this view.
+     */
+    public FDTMC materialize() {
+        FDTMC inlined = new FDTMC();
+        Map<State, State> statesMapping = inlined.getCopyForInlining(host);
+        inlineFragments(inlined, statesMapping);
+        return inlined;
+    }
+
+    private void inlineFragments(FDTMC inlined, Map<State, State> statesMapping) {
+        for (Map.Entry<String, List<Interface>> entry: host.getInterfaces().entrySet()) {
+            InlinedFDTMC fragment = fragments.get(entry.getKey());
+            if (fragment != null) {
+                for (Interface iface: entry.getValue()) {
+                    fragment.inlineInInterface(inlined,
+                                               statesMapping.get(iface.getInitial()),
+                                               statesMapping.get(iface.getSuccess()),
+                                               statesMapping.get(iface.getError()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the FDTMC represented by this view straight into {@code inlined},
+     * linking it to the given interface states.
+     */
+    private void inlineInInterface(FDTMC inlined, State initial, State success, State error) {
+        Map<State, State> statesMapping = inlined.inlineStates(host);
+        inlined.inlineTransitions(host, statesMapping);
+        inlineFragments(inlined, statesMapping);
+
+        inlined.createTransition(initial,
+                                 statesMapping.get(host.getInitialState()),
+                                 "",
+                                 "1");
+        inlined.createTransition(statesMapping.get(host.getSuccessState()),
+                                 success,
+                                 "",
+                                 "1");
+        if (host.getErrorState() != null) {
+            inlined.createTransition(statesMapping.get(host.getErrorState()),
+                                     error,
+                                     "",
+                                     "1");
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj != null && obj instanceof InlinedFDTMC) {
+            InlinedFDTMC other = (InlinedFDTMC) obj;
+            if (host != other.host || fragments.size() != other.fragments.size()) {
+                return false;
+            }
+            for (Map.Entry<String, InlinedFDTMC> fragment: fragments.entrySet()) {
+                if (other.fragments.get(fragment.getKey()) != fragment.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+}
@@ -5,6 +5,8 @@ public class Transition {
 	private String actionName;
 	private String probability;
 	private State source, target;
+	private Double numericProbability;
+	private boolean isProbabilityParsed = false;
 
 	public Transition(State source, State target, String actionName, String probability) {
 		this.source = source;
@@ -40,7 +42,7 @@ public class Transition {
             Transition other = (Transition) obj;
             return source.equals(other.source)
                     && target.equals(other.target)
-                    && areEqualProbabilities(probability, other.probability);
+                    && areEqualProbabilities(this, other);
         }
         return false;
     }
@@ -51,28 +53,50 @@ public class Transition {
     }
 
     /**
-     * Returns true if {@code p1} and {@code p2} are equal double values.
+     * Returns true if the probabilities of {@code t1} and {@code t2} are equal double values.
      * If they contain variable names, even different ones, the result is also true.
-     * @param p1
-     * @param p2
+     * @param t1
+     * @param t2
      * @return
      */
-    private boolean areEqualProbabilities(String p1, String p2) {
-        double prob1 = 0;
-        double prob2 = 0;
-        boolean isVariable = false;
-        try {
-            prob1 = Double.parseDouble(p1);
-        } catch (NumberFormatException e) {
-            isVariable = true;
+    private boolean areEqualProbabilities(Transition t1, Transition t2) {
+        Double prob1 = t1.getNumericProbability();
+        Double prob2 = t2.getNumericProbability();
+        if (prob1 == null && prob2 == null) {
+            return true;
+        }
+        return ((prob1 != null) ? prob1 : 0) == ((prob2 != null) ? prob2 : 0);
+    }
+
+    /**
+     * Returns the probability of this transition as a number, or null if it
+     * is not a numeric literal. The value is parsed only once.
+     */
+    public Double getNumericProbability() {
+        if (!isProbabilityParsed) {
+            numericProbability = parseNumber(probability);
+            isProbabilityParsed = true;
+        }
+        return numericProbability;
+    }
+
+    /**
+     * Parses a numeric literal, returning null for anything else (e.g.,
+     * variable names or expressions). Obviously non-numeric strings are
+     * rejected without the cost of a NumberFormatException.
+     */
+    static Double parseNumber(String probability) {
+        if (probability == null || probability.isEmpty()) {
+            return null;
+        }
+        char first = probability.charAt(0);
+        if (!Character.isDigit(first) && first != '.' && first != '-' && first != '+' && first != ' ') {
+            return null;
         }
         try {
-            prob2 = Double.parseDouble(p2);
+            return Double.valueOf(probability);
         } catch (NumberFormatException e) {
-            if (isVariable) {
-                return true;
-            }
+            return null;
         }
-        return prob1 == prob2;
     }
 }
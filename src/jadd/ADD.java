@@ -196,6 +196,15 @@ public class ADD {
         return StreamSupport.stream(new CubeSpliterator(), true);
     }
 
+    /**
+     * Returns a sampler which draws valid (non-zero) configurations of this
+     * ADD uniformly at random.
+     * @return
+     */
+    public ConfigurationSampler getConfigurationSampler() {
+        return new ConfigurationSampler(dd, function, variableStore);
+    }
+
     /**
     * Returns the number of internal nodes in this ADD.
     * @return
@@ -0,0 +1,222 @@
+package jadd;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.bridj.Pointer;
+
+import bigcudd.BigcuddLibrary;
+import bigcudd.BigcuddLibrary.DdManager;
+import bigcudd.DdChildren;
+import bigcudd.DdNode;
+
+/**
+ * Uniform sampler of the valid (non-zero) configurations of an ADD, e.g.,
+ * of a feature model.
+ *
+ * Each node is weighted by the number of paths (i.e., of assignments to the
+ * variables below it) which lead to a non-zero terminal. Weights are kept as
+ * base-2 logarithms, since they exceed the range of a double beyond about a
+ * thousand variables. A configuration is
+ * drawn by a random descent from the root, in which each branch is taken with
+ * probability proportional to its weight, and variables skipped by the ADD
+ * ("don't care") are set at random. Hence every valid configuration is drawn
+ * with the same probability.
+ *
+ * The diagram is copied to Java arrays on construction, so sampling needs
+ * neither the CUDD manager nor synchronization: a sampler can be shared by
+ * any number of threads (as long as each one has its own {@link Random}).
+ */
+public class ConfigurationSampler {
+
+    private final String[] variablesByLevel;
+    private final int root;
+    /**
+     * Level (position in the variable order) of each internal node.
+     */
+    private final int[] levels;
+    private final int[] thenChildren;
+    private final int[] elseChildren;
+    /**
+     * Probability of taking the "then" branch at each internal node.
+     */
+    private final double[] thenProbabilities;
+    /**
+     * Base-2 logarithm of the number of valid configurations.
+     */
+    private final double validConfigurationsLog2;
+
+    ConfigurationSampler(Pointer<DdManager> dd, Pointer<DdNode> function, VariableStore variableStore) {
+        int variablesNumber = variableStore.getNumberOfVariables();
+        this.variablesByLevel = new String[variablesNumber];
+        for (int level = 0; level < variablesNumber; level++) {
+            variablesByLevel[level] = variableStore.getName((short) BigcuddLibrary.Cudd_ReadInvPerm(dd, level));
+        }
+
+        Builder builder = new Builder(dd, variablesNumber);
+        this.root = builder.visit(function);
+        int size = builder.levels.size();
+        this.levels = new int[size];
+        this.thenChildren = new int[size];
+        this.elseChildren = new int[size];
+        this.thenProbabilities = new double[size];
+        for (int i = 0; i < size; i++) {
+            levels[i] = builder.levels.get(i);
+            thenChildren[i] = builder.thenChildren.get(i);
+            elseChildren[i] = builder.elseChildren.get(i);
+            thenProbabilities[i] = builder.thenProbabilities.get(i);
+        }
+        this.validConfigurationsLog2 = builder.weight(root, 0);
+    }
+
+    /**
+     * @return the number of valid configurations (as a double, since it can
+     *          be astronomical), or infinity if it exceeds the range of a
+     *          double (see {@link #getValidConfigurationsLog2()}).
+     */
+    public double getValidConfigurationsCount() {
+        return Math.pow(2, validConfigurationsLog2);
+    }
+
+    /**
+     * @return the base-2 logarithm of the number of valid configurations
+     *          (negative infinity if there is none).
+     */
+    public double getValidConfigurationsLog2() {
+        return validConfigurationsLog2;
+    }
+
+    /**
+     * Draws a valid configuration uniformly at random.
+     *
+     * @return the names of the present variables, in variable order.
+     * @throws IllegalStateException if there is no valid configuration.
+     */
+    public List<String> sample(Random random) {
+        if (validConfigurationsLog2 == Double.NEGATIVE_INFINITY) {
+            throw new IllegalStateException("There is no valid configuration to sample");
+        }
+        List<String> configuration = new ArrayList<String>();
+        int level = 0;
+        int node = root;
+        while (node >= 0) {
+            level = chooseFreely(level, levels[node], random, configuration);
+            if (random.nextDouble() < thenProbabilities[node]) {
+                configuration.add(variablesByLevel[level]);
+                node = thenChildren[node];
+            } else {
+                node = elseChildren[node];
+            }
+            level++;
+        }
+        chooseFreely(level, variablesByLevel.length, random, configuration);
+        return configuration;
+    }
+
+    /**
+     * Sets the variables in levels [from, to) at random.
+     *
+     * @return {@code to}.
+     */
+    private int chooseFreely(int from, int to, Random random, List<String> configuration) {
+        for (int level = from; level < to; level++) {
+            if (random.nextBoolean()) {
+                configuration.add(variablesByLevel[level]);
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Copies the internal nodes of a diagram, numbering them in post-order.
+     * Terminals are encoded as -1 (non-zero) and -2 (zero).
+     */
+    private static class Builder {
+        private static final int NON_ZERO = -1;
+        private static final int ZERO = -2;
+
+        private final Pointer<DdManager> dd;
+        private final int variablesNumber;
+        private final Map<Long, Integer> ids = new HashMap<Long, Integer>();
+        private final List<Integer> levels = new ArrayList<Integer>();
+        private final List<Integer> thenChildren = new ArrayList<Integer>();
+        private final List<Integer> elseChildren = new ArrayList<Integer>();
+        private final List<Double> thenProbabilities = new ArrayList<Double>();
+        /**
+         * Base-2 logarithm of the number of non-zero paths from each
+         * internal node, over the variables from its level on.
+         */
+        private final List<Double> log2Counts = new ArrayList<Double>();
+
+        Builder(Pointer<DdManager> dd, int variablesNumber) {
+            this.dd = dd;
+            this.variablesNumber = variablesNumber;
+        }
+
+        int visit(Pointer<DdNode> node) {
+            if (BigcuddLibrary.Cudd_IsNonConstant(node) != 1) {
+                return (Double.doubleToRawLongBits(node.get().type().value()) != 0) ? NON_ZERO : ZERO;
+            }
+            Integer known = ids.get(node.getPeer());
+            if (known != null) {
+                return known;
+            }
+            int level = BigcuddLibrary.Cudd_ReadPerm(dd, BigcuddLibrary.Cudd_NodeReadIndex(node));
+            DdChildren kids = node.get().type().kids();
+            int thenChild = visit(kids.T());
+            int elseChild = visit(kids.E());
+            double thenWeight = weight(thenChild, level + 1);
+            double elseWeight = weight(elseChild, level + 1);
+
+            int id = levels.size();
+            levels.add(level);
+            thenChildren.add(thenChild);
+            elseChildren.add(elseChild);
+            thenProbabilities.add(thenProbability(thenWeight, elseWeight));
+            log2Counts.add(log2Sum(thenWeight, elseWeight));
+            ids.put(node.getPeer(), id);
+            return id;
+        }
+
+        /**
+         * Base-2 logarithm of the number of non-zero paths from a node, over
+         * the variables from {@code fromLevel} on (those above the node's
+         * level being free).
+         */
+        double weight(int node, int fromLevel) {
+            if (node == ZERO) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            int level = (node == NON_ZERO) ? variablesNumber : levels.get(node);
+            double log2Count = (node == NON_ZERO) ? 0 : log2Counts.get(node);
+            return log2Count + (level - fromLevel);
+        }
+
+        /**
+         * @return log2(2^a + 2^b).
+         */
+        private static double log2Sum(double a, double b) {
+            double max = Math.max(a, b);
+            if (max == Double.NEGATIVE_INFINITY) {
+                return max;
+            }
+            return max + Math.log1p(Math.pow(2, Math.min(a, b) - max)) / Math.log(2);
+        }
+
+        /**
+         * @return 2^then / (2^then + 2^else), or 0 if both are zero.
+         */
+        private static double thenProbability(double thenWeight, double elseWeight) {
+            if (thenWeight == Double.NEGATIVE_INFINITY) {
+                return 0;
+            }
+            // 1 if the "else" weight is zero, and 0 if the "then" one is
+            // negligible in comparison.
+            return 1 / (1 + Math.pow(2, elseWeight - thenWeight));
+        }
+    }
+
+}
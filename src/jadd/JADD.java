@@ -47,6 +47,15 @@ public class JADD {
         }
     }
 
+    /**
+     * Returns the number of nodes currently in the manager's unique table
+     * (dead ones not yet reclaimed included). It only reads a counter, so
+     * it can be polled while ADDs are being built in another thread.
+     */
+    public long getNodeCount() {
+        return BigcuddLibrary.Cudd_ReadKeys(dd);
+    }
+
     /**
     * Performs an optimal reordering of the variables for the managed ADDs
     * based on the sifting heuristic.
@@ -18,6 +18,7 @@ import parsing.exceptions.UnsupportedFragmentTypeException;
 import parsing.sequencediagrams.Fragment;
 import parsing.sequencediagrams.SDReader;
 import tool.RDGNode;
+import tool.RdgSession;
 import transformation.Transformer;
 import fdtmc.FDTMC;
 
@@ -46,9 +47,10 @@ public class DiagramAPI implements IModelerAPI {
 
 
 		/* (non-Javadoc)
-		 * @see modeling.IModelerAPI#transform()
+		 * @see modeling.IModelerAPI#transform(tool.RdgSession)
 		 */
-		public RDGNode transform() throws InvalidNumberOfOperandsException, InvalidNodeClassException, InvalidNodeType {
+		public RDGNode transform(RdgSession session) throws InvalidNumberOfOperandsException, InvalidNodeClassException, InvalidNodeType {
+			transformer = new Transformer(session);
 			RDGNode topLevel = transformer.transformSingleAD(adParser);
 			for (SDReader sdParser : this.sdParsers) {
 				RDGNode sdRDG = transformer.transformSingleSD(sdParser.getSD());
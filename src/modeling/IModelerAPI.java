@@ -9,16 +9,30 @@ import parsing.exceptions.InvalidNodeType;
 import parsing.exceptions.InvalidNumberOfOperandsException;
 import parsing.sequencediagrams.SDReader;
 import tool.RDGNode;
+import tool.RdgSession;
 import fdtmc.FDTMC;
 
 public interface IModelerAPI {
 
 	/**
-	 * Triggers the applicable transformations, either AD or SD based
+	 * Triggers the applicable transformations, either AD or SD based,
+	 * creating the RDG nodes in a fresh session.
 	 * @throws InvalidNumberOfOperandsException
 	 * @throws InvalidNodeClassException
 	 */
-	public abstract RDGNode transform()
+	public default RDGNode transform()
+			throws InvalidNumberOfOperandsException, InvalidNodeClassException,
+			InvalidNodeType {
+		return transform(new RdgSession());
+	}
+
+	/**
+	 * Triggers the applicable transformations, either AD or SD based.
+	 * @param session Session which owns the created RDG nodes.
+	 * @throws InvalidNumberOfOperandsException
+	 * @throws InvalidNodeClassException
+	 */
+	public abstract RDGNode transform(RdgSession session)
 			throws InvalidNumberOfOperandsException, InvalidNodeClassException,
 			InvalidNodeType;
 
@@ -0,0 +1,138 @@
+package paramwrapper;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * Immutable arbitrary-precision rational number, always kept in lowest terms
+ * and with a positive denominator.
+ */
+final class BigRational implements Comparable<BigRational> {
+    static final BigRational ZERO = new BigRational(BigInteger.ZERO, BigInteger.ONE);
+    static final BigRational ONE = new BigRational(BigInteger.ONE, BigInteger.ONE);
+
+    private final BigInteger numerator;
+    private final BigInteger denominator;
+
+    private BigRational(BigInteger numerator, BigInteger denominator) {
+        this.numerator = numerator;
+        this.denominator = denominator;
+    }
+
+    static BigRational valueOf(BigInteger numerator, BigInteger denominator) {
+        if (denominator.signum() == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (denominator.signum() < 0) {
+            numerator = numerator.negate();
+            denominator = denominator.negate();
+        }
+        BigInteger gcd = numerator.gcd(denominator);
+        if (!gcd.equals(BigInteger.ONE) && gcd.signum() != 0) {
+            numerator = numerator.divide(gcd);
+            denominator = denominator.divide(gcd);
+        }
+        return new BigRational(numerator, denominator);
+    }
+
+    /**
+     * Exact conversion of a decimal number (e.g., 0.999 becomes 999/1000).
+     */
+    static BigRational valueOf(BigDecimal decimal) {
+        if (decimal.scale() > 0) {
+            return valueOf(decimal.unscaledValue(), BigInteger.TEN.pow(decimal.scale()));
+        }
+        return valueOf(decimal.toBigIntegerExact(), BigInteger.ONE);
+    }
+
+    /**
+     * Converts a double by means of its shortest decimal representation,
+     * so that, e.g., 0.1 yields exactly 1/10.
+     */
+    static BigRational valueOf(double value) {
+        return valueOf(BigDecimal.valueOf(value));
+    }
+
+    BigInteger getNumerator() {
+        return numerator;
+    }
+
+    BigInteger getDenominator() {
+        return denominator;
+    }
+
+    BigRational add(BigRational other) {
+        if (denominator.equals(other.denominator)) {
+            return valueOf(numerator.add(other.numerator), denominator);
+        }
+        return valueOf(numerator.multiply(other.denominator).add(other.numerator.multiply(denominator)),
+                       denominator.multiply(other.denominator));
+    }
+
+    BigRational subtract(BigRational other) {
+        return add(other.negate());
+    }
+
+    BigRational multiply(BigRational other) {
+        return valueOf(numerator.multiply(other.numerator),
+                       denominator.multiply(other.denominator));
+    }
+
+    BigRational divide(BigRational other) {
+        return valueOf(numerator.multiply(other.denominator),
+                       denominator.multiply(other.numerator));
+    }
+
+    BigRational negate() {
+        return new BigRational(numerator.negate(), denominator);
+    }
+
+    int signum() {
+        return numerator.signum();
+    }
+
+    boolean isZero() {
+        return numerator.signum() == 0;
+    }
+
+    boolean isOne() {
+        return numerator.equals(denominator);
+    }
+
+    boolean isInteger() {
+        return denominator.equals(BigInteger.ONE);
+    }
+
+    double doubleValue() {
+        return new BigDecimal(numerator).divide(new BigDecimal(denominator), MathContext.DECIMAL64).doubleValue();
+    }
+
+    @Override
+    public int compareTo(BigRational other) {
+        return numerator.multiply(other.denominator).compareTo(other.numerator.multiply(denominator));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj != null && obj instanceof BigRational) {
+            BigRational other = (BigRational) obj;
+            return numerator.equals(other.numerator) && denominator.equals(other.denominator);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * numerator.hashCode() + denominator.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        if (isInteger()) {
+            return numerator.toString();
+        }
+        return numerator + "/" + denominator;
+    }
+
+}
@@ -0,0 +1,102 @@
+package paramwrapper;
+
+import java.io.File;
+import java.util.logging.Logger;
+
+import fdtmc.FDTMC;
+
+/**
+ * Decorator which looks model checking results up in a persistent cache
+ * before delegating to the actual model checker.
+ *
+ * Keys are computed from the canonical PARAM model text, which depends only
+ * on the FDTMC's states, transitions and labels, so identical models yield
+ * the same key regardless of the run in which they were built. They also
+ * cover the checker's identity and the in-process numeric solver's settings
+ * (or its absence), so that results are never reused across settings.
+ *
+ * Models which the numeric solver handles in-process are cheaper to solve
+ * than to look up, so they bypass the cache.
+ */
+public class CachingModelChecker implements ParametricModelChecker {
+    private static final Logger LOGGER = Logger.getLogger(CachingModelChecker.class.getName());
+
+    private ParametricModelChecker modelChecker;
+    private ModelCheckingCache cache;
+    private String checkerIdentity;
+    private NumericReachabilitySolver numericSolver;
+    private IModelCollector modelCollector;
+
+    /**
+     * @param modelChecker Model checker to be decorated.
+     * @param cache Persistent cache.
+     * @param checkerIdentity String identifying the model checker, so that
+     *          results from different checkers (or versions) are kept apart.
+     * @param modelCollector Collector of cache hits and misses.
+     */
+    public CachingModelChecker(ParametricModelChecker modelChecker,
+                               ModelCheckingCache cache,
+                               String checkerIdentity,
+                               IModelCollector modelCollector) {
+        this(modelChecker, cache, checkerIdentity, null, modelCollector);
+    }
+
+    /**
+     * @param modelChecker Model checker to be decorated.
+     * @param cache Persistent cache.
+     * @param checkerIdentity String identifying the model checker, so that
+     *          results from different checkers (or versions) are kept apart.
+     * @param numericSolver Solver used in-process by {@code modelChecker}
+     *          for parameter-free models (null if there is none).
+     * @param modelCollector Collector of cache hits and misses.
+     */
+    public CachingModelChecker(ParametricModelChecker modelChecker,
+                               ModelCheckingCache cache,
+                               String checkerIdentity,
+                               NumericReachabilitySolver numericSolver,
+                               IModelCollector modelCollector) {
+        this.modelChecker = modelChecker;
+        this.cache = cache;
+        this.checkerIdentity = checkerIdentity;
+        this.numericSolver = numericSolver;
+        this.modelCollector = (modelCollector != null) ? modelCollector : new NoopModelCollector();
+    }
+
+    /**
+     * Identifies a model checker by its path and, for external executables,
+     * by their modification time (so that upgrades invalidate the cache).
+     */
+    public static String getCheckerIdentity(String paramPath) {
+        File executable = new File(paramPath.trim().split("\\s+")[0]);
+        if (executable.exists()) {
+            return paramPath + "@" + executable.lastModified();
+        }
+        return paramPath;
+    }
+
+    @Override
+    public String getReliability(FDTMC fdtmc) {
+        ParamModel model = new ParamModel(fdtmc);
+        if (numericSolver != null && numericSolver.solves(model)) {
+            return modelChecker.getReliability(fdtmc);
+        }
+        String key = ModelCheckingCache.makeKey(model,
+                                                ParamWrapper.RELIABILITY_PROPERTY,
+                                                checkerIdentity,
+                                                (numericSolver != null) ? numericSolver.getIdentity() : "external");
+        String formula = cache.get(key);
+        if (formula != null) {
+            modelCollector.collectCacheHit();
+            return formula;
+        }
+        modelCollector.collectCacheMiss();
+        formula = modelChecker.getReliability(fdtmc);
+        if (formula != null && !formula.isEmpty()) {
+            cache.put(key, formula);
+        } else {
+            LOGGER.warning("Not caching empty model checking result.");
+        }
+        return formula;
+    }
+
+}
@@ -0,0 +1,224 @@
+package paramwrapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import fdtmc.FDTMC;
+import fdtmc.State;
+import fdtmc.Transition;
+
+/**
+ * Canonical form of an FDTMC with respect to reliability analysis.
+ *
+ * States are renumbered in breadth-first order from the initial state
+ * (transitions being visited in an order which depends only on their
+ * probabilities' shape), unreachable states and labels other than "success"
+ * are dropped, and parameters are renamed to placeholders in order of first
+ * occurrence. Action names and the state variable are ignored altogether.
+ * Thus, models which differ only in these respects get the same key and
+ * their reliability formulae are equal up to parameter renaming.
+ *
+ * The key fully describes the canonical model, so equal keys always mean
+ * isomorphic models (the converse does not necessarily hold, since ties in
+ * the ordering of transitions are broken by creation order).
+ */
+public final class CanonicalModel {
+    private static final String SUCCESS_LABEL = "success";
+    private static final String PLACEHOLDER_PREFIX = "v";
+
+    private static final Pattern TOKEN = Pattern.compile(
+            "(\\d+\\.?\\d*(?:[eE][-+]?\\d+)?|\\.\\d+(?:[eE][-+]?\\d+)?)"
+            + "|([A-Za-z_][A-Za-z0-9_]*)"
+            + "|(\\S)");
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\b" + PLACEHOLDER_PREFIX + "(\\d+)\\b");
+
+    private final String key;
+    private final List<String> parameters;
+    private final FDTMC fdtmc;
+    private final Map<State, Integer> stateIndices;
+
+    private CanonicalModel(String key, List<String> parameters, FDTMC fdtmc, Map<State, Integer> stateIndices) {
+        this.key = key;
+        this.parameters = parameters;
+        this.fdtmc = fdtmc;
+        this.stateIndices = stateIndices;
+    }
+
+    /**
+     * @param original A model with an initial state.
+     */
+    public static CanonicalModel of(FDTMC original) {
+        Map<String, Integer> parameterIndices = new LinkedHashMap<String, Integer>();
+        Map<State, Integer> stateIndices = new HashMap<State, Integer>();
+        List<State> order = new ArrayList<State>();
+        LinkedList<State> frontier = new LinkedList<State>();
+
+        State initial = original.getInitialState();
+        stateIndices.put(initial, 0);
+        order.add(initial);
+        frontier.add(initial);
+
+        StringBuilder key = new StringBuilder();
+        List<List<String[]>> canonicalTransitions = new ArrayList<List<String[]>>();
+        while (!frontier.isEmpty()) {
+            State state = frontier.poll();
+            key.append(stateIndices.get(state));
+            if (isSuccess(state)) {
+                key.append('!');
+            }
+            key.append(':');
+
+            List<Transition> transitions = original.getTransitions().get(state);
+            List<Transition> sorted = (transitions != null) ? new ArrayList<Transition>(transitions)
+                                                            : Collections.<Transition>emptyList();
+            sorted.sort(Comparator.comparing(CanonicalModel::getShape));
+
+            List<String[]> outgoing = new ArrayList<String[]>();
+            for (Transition transition: sorted) {
+                State target = transition.getTarget();
+                Integer targetIndex = stateIndices.get(target);
+                if (targetIndex == null) {
+                    targetIndex = order.size();
+                    stateIndices.put(target, targetIndex);
+                    order.add(target);
+                    frontier.add(target);
+                }
+                String probability = normalize(transition.getProbability(), parameterIndices);
+                key.append(targetIndex).append('(').append(probability).append(')');
+                outgoing.add(new String[] {targetIndex.toString(), probability});
+            }
+            key.append(';');
+            canonicalTransitions.add(outgoing);
+        }
+
+        FDTMC canonical = new FDTMC();
+        canonical.setVariableName("s");
+        List<State> states = new ArrayList<State>();
+        for (State state: order) {
+            states.add(canonical.createState(isSuccess(state) ? SUCCESS_LABEL : null));
+        }
+        for (int i = 0; i < states.size(); i++) {
+            for (String[] transition: canonicalTransitions.get(i)) {
+                canonical.createTransition(states.get(i),
+                                           states.get(Integer.parseInt(transition[0])),
+                                           null,
+                                           transition[1]);
+            }
+        }
+        return new CanonicalModel(key.toString(),
+                                  new ArrayList<String>(parameterIndices.keySet()),
+                                  canonical,
+                                  stateIndices);
+    }
+
+    /**
+     * @return a string which identifies this model up to isomorphism.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the parameters of the original model, in the order of their
+     *          placeholders in the key.
+     */
+    public List<String> getParameters() {
+        return Collections.unmodifiableList(parameters);
+    }
+
+    /**
+     * @return the index in the canonical model of a state of the original
+     *          one, or -1 if it was dropped (i.e., it is unreachable).
+     */
+    public int getStateIndex(State state) {
+        Integer index = stateIndices.get(state);
+        return (index != null) ? index : -1;
+    }
+
+    /**
+     * @return the canonical model itself, in terms of placeholder parameters.
+     */
+    FDTMC getFDTMC() {
+        return fdtmc;
+    }
+
+    /**
+     * Renames the placeholders in a formula computed for the canonical model
+     * back to the parameters of the original model.
+     */
+    String restoreParameters(String formula) {
+        Matcher matcher = PLACEHOLDER.matcher(formula);
+        StringBuffer restored = new StringBuffer();
+        while (matcher.find()) {
+            String parameter = parameters.get(Integer.parseInt(matcher.group(1)));
+            matcher.appendReplacement(restored, Matcher.quoteReplacement(parameter));
+        }
+        matcher.appendTail(restored);
+        return restored.toString();
+    }
+
+    private static boolean isSuccess(State state) {
+        return SUCCESS_LABEL.equals(state.getLabel());
+    }
+
+    /**
+     * Probability with whitespace removed, numbers in a normal form and
+     * parameters replaced by placeholders (assigned in order of occurrence).
+     */
+    private static String normalize(String probability, Map<String, Integer> parameterIndices) {
+        StringBuilder normalized = new StringBuilder();
+        Matcher matcher = TOKEN.matcher(probability);
+        while (matcher.find()) {
+            if (matcher.group(1) != null) {
+                normalized.append(normalizeNumber(matcher.group(1)));
+            } else if (matcher.group(2) != null) {
+                Integer index = parameterIndices.get(matcher.group(2));
+                if (index == null) {
+                    index = parameterIndices.size();
+                    parameterIndices.put(matcher.group(2), index);
+                }
+                normalized.append(PLACEHOLDER_PREFIX).append(index);
+            } else {
+                normalized.append(matcher.group(3));
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Probability with whitespace removed, numbers in a normal form and
+     * any parameter replaced by "?", used for ordering transitions
+     * independently of parameter names.
+     */
+    private static String getShape(Transition transition) {
+        StringBuilder shape = new StringBuilder();
+        Matcher matcher = TOKEN.matcher(transition.getProbability());
+        while (matcher.find()) {
+            if (matcher.group(1) != null) {
+                shape.append(normalizeNumber(matcher.group(1)));
+            } else if (matcher.group(2) != null) {
+                shape.append('?');
+            } else {
+                shape.append(matcher.group(3));
+            }
+        }
+        if (isSuccess(transition.getTarget())) {
+            shape.append('!');
+        }
+        return shape.toString();
+    }
+
+    private static String normalizeNumber(String number) {
+        return new BigDecimal(number).stripTrailingZeros().toPlainString();
+    }
+
+}
@@ -0,0 +1,130 @@
+package paramwrapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import fdtmc.FDTMC;
+import fdtmc.State;
+import fdtmc.Transition;
+
+/**
+ * Parameter-free FDTMC in PRISM's explicit format, i.e., a sparse transition
+ * matrix (.tra) and a labelling (.lab), to be imported by PRISM with
+ * {@code -importtrans} and {@code -importlabels}.
+ *
+ * This spares PRISM from parsing guarded commands and building the model
+ * symbolically, which dominates checking time for large (e.g., 150%) models.
+ * Both files are written directly from the FDTMC's adjacency lists.
+ */
+class ExplicitModel {
+    private static final String INIT_LABEL = "init";
+    private static final String INITIAL_STATE_LABEL = "initial";
+
+    private FDTMC fdtmc;
+    /**
+     * PRISM requires states to be numbered from 0 to n-1.
+     */
+    private Map<State, Integer> denseIndices = new HashMap<State, Integer>();
+    private List<State> states = new ArrayList<State>();
+    private int transitionsNumber = 0;
+
+    public ExplicitModel(FDTMC fdtmc) {
+        this.fdtmc = fdtmc;
+        List<State> ordered = new ArrayList<State>(fdtmc.getTransitions().keySet());
+        ordered.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        for (State state: ordered) {
+            denseIndices.put(state, states.size());
+            states.add(state);
+            List<Transition> transitions = fdtmc.getTransitions().get(state);
+            transitionsNumber += (transitions == null) ? 1 : countDistinctTargets(transitions);
+        }
+    }
+
+    public int getStatesNumber() {
+        return states.size();
+    }
+
+    /**
+     * Writes the transition matrix: a "states transitions" header followed
+     * by "source target probability" lines, sorted by source and target.
+     * Transitions between the same pair of states are summed up, and states
+     * without outgoing transitions get a self-loop.
+     */
+    public void writeTransitions(Writer out) throws IOException {
+        ProbabilityEvaluator evaluator = new ProbabilityEvaluator();
+        out.write(states.size() + " " + transitionsNumber + "\n");
+        for (State state: states) {
+            String source = denseIndices.get(state).toString();
+            List<Transition> transitions = fdtmc.getTransitions().get(state);
+            if (transitions == null) {
+                out.write(source + " " + source + " 1\n");
+                continue;
+            }
+            TreeMap<Integer, Double> row = new TreeMap<Integer, Double>();
+            for (Transition transition: transitions) {
+                row.merge(denseIndices.get(transition.getTarget()),
+                          evaluator.evaluate(transition.getProbability()),
+                          Double::sum);
+            }
+            for (Map.Entry<Integer, Double> entry: row.entrySet()) {
+                out.write(source);
+                out.write(" ");
+                out.write(entry.getKey().toString());
+                out.write(" ");
+                out.write(Double.toString(entry.getValue()));
+                out.write("\n");
+            }
+        }
+    }
+
+    /**
+     * Writes the labelling: a header declaring the labels
+     * (the first one being "init") followed by "state: label..." lines.
+     */
+    public void writeLabels(Writer out) throws IOException {
+        Map<String, Integer> labels = new TreeMap<String, Integer>();
+        for (State state: states) {
+            String label = state.getLabel();
+            if (label != null && !label.isEmpty() && !INITIAL_STATE_LABEL.equals(label)) {
+                labels.putIfAbsent(label, 0);
+            }
+        }
+        out.write("0=\"" + INIT_LABEL + "\"");
+        int labelIndex = 1;
+        for (Map.Entry<String, Integer> label: labels.entrySet()) {
+            label.setValue(labelIndex);
+            out.write(" " + labelIndex + "=\"" + label.getKey() + "\"");
+            labelIndex++;
+        }
+        out.write("\n");
+
+        State initial = fdtmc.getInitialState();
+        for (State state: states) {
+            Integer stateLabel = (state.getLabel() != null) ? labels.get(state.getLabel()) : null;
+            boolean isInitial = state.equals(initial);
+            if (isInitial || stateLabel != null) {
+                out.write(denseIndices.get(state) + ":");
+                if (isInitial) {
+                    out.write(" 0");
+                }
+                if (stateLabel != null) {
+                    out.write(" " + stateLabel);
+                }
+                out.write("\n");
+            }
+        }
+    }
+
+    private int countDistinctTargets(List<Transition> transitions) {
+        if (transitions.size() == 1) {
+            return 1;
+        }
+        return (int) transitions.stream().map(Transition::getTarget).distinct().count();
+    }
+
+}
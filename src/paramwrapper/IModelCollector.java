@@ -6,6 +6,8 @@ public interface IModelCollector {
 
     public void collectModel(int variables, int states);
     public void collectModelCheckingTime(long elapsedTimeNanos);
+    public void collectCacheHit();
+    public void collectCacheMiss();
     public void printStats(PrintStream out);
 
 }
@@ -0,0 +1,76 @@
+package paramwrapper;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import fdtmc.FDTMC;
+
+/**
+ * Decorator which model checks isomorphic FDTMCs only once.
+ *
+ * Sequence diagram fragments are often structurally identical apart from
+ * state numbering and message names (hence parameter names). Each model is
+ * reduced to its {@link CanonicalModel}, which is checked by the decorated
+ * model checker at most once per distinct canonical key; the resulting
+ * formula is then shared by all isomorphic models, with its parameters
+ * renamed to the ones at each model's interfaces.
+ *
+ * At most a given number of formulae are kept, the least recently used one
+ * being evicted to make room for a new one.
+ */
+public class IsomorphismDeduplicatingModelChecker implements ParametricModelChecker {
+    private static final Logger LOGGER = Logger.getLogger(IsomorphismDeduplicatingModelChecker.class.getName());
+
+    /**
+     * Default maximum number of formulae kept.
+     */
+    public static final int DEFAULT_MAX_MODELS = 4096;
+
+    private ParametricModelChecker modelChecker;
+    /**
+     * Canonical key -> reliability formula in terms of placeholders, in
+     * access order. Model checking happens outside of its lock.
+     */
+    private Map<String, String> formulae;
+
+    public IsomorphismDeduplicatingModelChecker(ParametricModelChecker modelChecker) {
+        this(modelChecker, DEFAULT_MAX_MODELS);
+    }
+
+    /**
+     * @param modelChecker Decorated model checker.
+     * @param maxModels Maximum number of formulae kept for reuse.
+     */
+    public IsomorphismDeduplicatingModelChecker(ParametricModelChecker modelChecker, int maxModels) {
+        if (maxModels < 1) {
+            throw new IllegalArgumentException("At least one formula must be kept");
+        }
+        this.modelChecker = modelChecker;
+        this.formulae = Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxModels;
+            }
+        });
+    }
+
+    @Override
+    public String getReliability(FDTMC fdtmc) {
+        CanonicalModel canonical = CanonicalModel.of(fdtmc);
+        String formula = formulae.get(canonical.getKey());
+        if (formula == null) {
+            formula = modelChecker.getReliability(canonical.getFDTMC());
+            if (formula != null && !formula.isEmpty()) {
+                formulae.putIfAbsent(canonical.getKey(), formula);
+            }
+        } else {
+            LOGGER.finer("Reusing the formula of an isomorphic model.");
+        }
+        return (formula != null) ? canonical.restoreParameters(formula) : null;
+    }
+
+}
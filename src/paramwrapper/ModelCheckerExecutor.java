@@ -0,0 +1,232 @@
+package paramwrapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs external model checker processes.
+ *
+ * This executor bounds the number of concurrently running processes,
+ * kills processes which exceed a timeout, drains their output streams
+ * asynchronously (so that they never block on a full pipe) and retries
+ * failed runs. Each job gets its own directory inside a scratch directory,
+ * which is deleted as soon as the job is done.
+ *
+ * @author thiago
+ */
+public class ModelCheckerExecutor {
+    private static final Logger LOGGER = Logger.getLogger(ModelCheckerExecutor.class.getName());
+
+    /**
+     * Number of output lines kept for diagnosing failed runs.
+     */
+    private static final int OUTPUT_TAIL_LINES = 20;
+
+    private Semaphore slots;
+    private long timeoutMillis;
+    private int retries;
+    private Path scratchBase;
+    private Path scratchDirectory;
+
+    private ExecutorService drainers = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "model-checker-output-drainer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates an executor which allows for as many concurrent processes as
+     * there are available processors, with no timeout, a single retry and
+     * the system's temporary directory as scratch base.
+     */
+    public ModelCheckerExecutor() {
+        this(Runtime.getRuntime().availableProcessors(),
+             0,
+             1,
+             Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * @param concurrency Maximum number of concurrently running processes.
+     * @param timeoutMillis Time after which a process is killed (0 means no timeout).
+     * @param retries Number of times a failed run is retried.
+     * @param scratchBase Directory under which job files are written
+     *          (e.g., a tmpfs mount point such as /dev/shm).
+     */
+    public ModelCheckerExecutor(int concurrency, long timeoutMillis, int retries, Path scratchBase) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1.");
+        }
+        this.slots = new Semaphore(concurrency, true);
+        this.timeoutMillis = timeoutMillis;
+        this.retries = Math.max(0, retries);
+        this.scratchBase = scratchBase;
+    }
+
+    /**
+     * Creates a fresh directory for a job's files. It should be disposed
+     * of by means of {@link #deleteJobDirectory(Path)}.
+     */
+    public Path createJobDirectory() throws IOException {
+        return Files.createTempDirectory(getScratchDirectory(), "job");
+    }
+
+    /**
+     * Recursively deletes a job directory. Failures are only logged.
+     */
+    public void deleteJobDirectory(Path jobDirectory) {
+        if (jobDirectory != null) {
+            deleteRecursively(jobDirectory);
+        }
+    }
+
+    /**
+     * Runs the given command until it exits successfully and produces the
+     * expected result file, retrying on failure.
+     *
+     * @param command Command line (executable and arguments).
+     * @param resultFile File which must exist after a successful run.
+     * @throws IOException if all attempts fail.
+     */
+    public void execute(List<String> command, Path resultFile) throws IOException {
+        IOException lastFailure = null;
+        for (int attempt = 0; attempt <= retries; attempt++) {
+            if (attempt > 0) {
+                LOGGER.warning("Retrying (" + attempt + "/" + retries + "): " + command);
+            }
+            try {
+                runOnce(command);
+                if (Files.exists(resultFile)) {
+                    return;
+                }
+                lastFailure = new IOException("Model checker produced no result file: " + resultFile);
+            } catch (IOException e) {
+                lastFailure = e;
+            }
+            LOGGER.warning(lastFailure.getMessage());
+        }
+        throw lastFailure;
+    }
+
+    private void runOnce(List<String> command) throws IOException {
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a model checker slot", e);
+        }
+        try {
+            LOGGER.fine(String.join(" ", command));
+            Process process = new ProcessBuilder(command).start();
+            OutputTail stdout = drain(process.getInputStream());
+            OutputTail stderr = drain(process.getErrorStream());
+
+            boolean finished;
+            if (timeoutMillis > 0) {
+                finished = process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS);
+            } else {
+                process.waitFor();
+                finished = true;
+            }
+            if (!finished) {
+                process.destroyForcibly().waitFor();
+                throw new IOException("Model checker timed out after " + timeoutMillis + " ms: " + command);
+            }
+            int exitCode = process.exitValue();
+            if (exitCode != 0) {
+                throw new IOException("Model checker exited with code " + exitCode + ": " + command
+                        + "\nstdout: " + stdout + "\nstderr: " + stderr);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the model checker", e);
+        } finally {
+            slots.release();
+        }
+    }
+
+    private OutputTail drain(InputStream stream) {
+        OutputTail tail = new OutputTail();
+        drainers.execute(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, Charset.forName("UTF-8")))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    tail.add(line);
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, e.toString(), e);
+            }
+        });
+        return tail;
+    }
+
+    private synchronized Path getScratchDirectory() throws IOException {
+        if (scratchDirectory == null) {
+            Files.createDirectories(scratchBase);
+            scratchDirectory = Files.createTempDirectory(scratchBase, "reana");
+            Path toDelete = scratchDirectory;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteRecursively(toDelete)));
+        }
+        return scratchDirectory;
+    }
+
+    private static void deleteRecursively(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not delete " + directory, e);
+        }
+    }
+
+    /**
+     * Last lines written to a process' output stream.
+     */
+    private static class OutputTail {
+        private LinkedList<String> lines = new LinkedList<String>();
+
+        synchronized void add(String line) {
+            lines.add(line);
+            if (lines.size() > OUTPUT_TAIL_LINES) {
+                lines.removeFirst();
+            }
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.join("\n", lines);
+        }
+    }
+
+}
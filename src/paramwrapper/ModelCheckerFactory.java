@@ -0,0 +1,52 @@
+package paramwrapper;
+
+/**
+ * Creates the parametric model checker to be used for a given
+ * {@code --param-path} setting.
+ */
+public class ModelCheckerFactory {
+
+    /**
+     * Path value which selects the in-process state-elimination
+     * model checker instead of an external executable.
+     */
+    public static final String BUILTIN = "builtin";
+
+    private ModelCheckerFactory() {
+        // NO-OP
+    }
+
+    public static ParametricModelChecker createModelChecker(String paramPath, IModelCollector modelCollector) {
+        return createModelChecker(paramPath, modelCollector, new ModelCheckerExecutor());
+    }
+
+    /**
+     * @param paramPath
+     * @param modelCollector
+     * @param executor Executor for external model checker processes
+     *          (unused by the built-in model checker).
+     */
+    public static ParametricModelChecker createModelChecker(String paramPath, IModelCollector modelCollector, ModelCheckerExecutor executor) {
+        return createModelChecker(paramPath, modelCollector, executor, new NumericReachabilitySolver());
+    }
+
+    /**
+     * @param paramPath
+     * @param modelCollector
+     * @param executor Executor for external model checker processes
+     *          (unused by the built-in model checker).
+     * @param numericSolver Solver for parameter-free models given to an
+     *          external model checker (null to always use the external one).
+     */
+    public static ParametricModelChecker createModelChecker(String paramPath,
+                                                            IModelCollector modelCollector,
+                                                            ModelCheckerExecutor executor,
+                                                            NumericReachabilitySolver numericSolver) {
+        IModelCollector collector = (modelCollector != null) ? modelCollector : new NoopModelCollector();
+        if (BUILTIN.equals(paramPath)) {
+            return new StateEliminationModelChecker(collector);
+        }
+        return new ParamWrapper(paramPath, collector, executor, numericSolver);
+    }
+
+}
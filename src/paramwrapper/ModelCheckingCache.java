@@ -0,0 +1,214 @@
+package paramwrapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent content-addressed store of model checking results.
+ *
+ * Entries are keyed by the SHA-256 hash of the model checker's input (i.e.,
+ * model text, property and checker identity) and stored as one small file per
+ * entry, so that the cache survives across runs and can be shared by
+ * concurrent processes. The total size of the entries is bounded, the least
+ * recently used ones being evicted first (recency is persisted as the files'
+ * modification times).
+ */
+public class ModelCheckingCache {
+    private static final Logger LOGGER = Logger.getLogger(ModelCheckingCache.class.getName());
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    private static final String ENTRY_SUFFIX = ".formula";
+
+    private Path directory;
+    private long maxSizeInBytes;
+    private long sizeInBytes = 0;
+    /**
+     * Key -> entry size, in access order (least recently used first).
+     */
+    private LinkedHashMap<String, Long> entries = new LinkedHashMap<String, Long>(16, 0.75f, true);
+
+    /**
+     * @param directory Directory where entries are stored (created if needed).
+     * @param maxSizeInBytes Maximum total size of the stored entries.
+     * @throws IOException if the directory cannot be created or read.
+     */
+    public ModelCheckingCache(Path directory, long maxSizeInBytes) throws IOException {
+        this.directory = directory;
+        this.maxSizeInBytes = maxSizeInBytes;
+        Files.createDirectories(directory);
+        loadEntries();
+    }
+
+    /**
+     * Computes the key of a model checking task.
+     */
+    public static String makeKey(String... inputs) {
+        MessageDigest digest = newDigest();
+        update(digest, inputs);
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Computes the key of a model checking task whose first input is the
+     * text of a PARAM model. The text is digested as it is written, rather
+     * than built as a string, but the key is the same as
+     * {@code makeKey(model.toString(), inputs...)}.
+     */
+    static String makeKey(ParamModel model, String... inputs) {
+        MessageDigest digest = newDigest();
+        OutputStream digesting = new OutputStream() {
+            @Override
+            public void write(int b) {
+                digest.update((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                digest.update(b, off, len);
+            }
+        };
+        try (Writer writer = new OutputStreamWriter(digesting, CHARSET)) {
+            model.writeTo(writer, ParamModel.PARAM_KEYWORD);
+        } catch (IOException e) {
+            // Digesting does not throw.
+            throw new UncheckedIOException(e);
+        }
+        digest.update((byte) 0);
+        update(digest, inputs);
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String... inputs) {
+        for (String input: inputs) {
+            digest.update(input.getBytes(CHARSET));
+            // Separator, so that ("ab", "c") and ("a", "bc") differ.
+            digest.update((byte) 0);
+        }
+    }
+
+    private static String toHex(byte[] hash) {
+        StringBuilder key = new StringBuilder();
+        for (byte b: hash) {
+            key.append(String.format("%02x", b));
+        }
+        return key.toString();
+    }
+
+    /**
+     * @return the stored result for {@code key} or null if there is none.
+     */
+    public synchronized String get(String key) {
+        // The file system is the source of truth, since other processes
+        // may share the same cache directory.
+        Path entry = getEntryPath(key);
+        byte[] content;
+        try {
+            content = Files.readAllBytes(entry);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            LOGGER.log(Level.FINEST, e.toString(), e);
+            Long size = entries.remove(key);
+            if (size != null) {
+                sizeInBytes -= size;
+            }
+            return null;
+        }
+        if (entries.get(key) == null) {
+            entries.put(key, (long) content.length);
+            sizeInBytes += content.length;
+            evict();
+        }
+        return new String(content, CHARSET);
+    }
+
+    /**
+     * Stores a result, evicting least recently used entries if needed.
+     */
+    public synchronized void put(String key, String result) {
+        byte[] content = result.getBytes(CHARSET);
+        Path entry = getEntryPath(key);
+        try {
+            // Write-then-move, so that concurrent readers never see partial entries.
+            Path temporary = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temporary, content);
+            Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not store model checking result in cache", e);
+            return;
+        }
+        Long previousSize = entries.put(key, (long) content.length);
+        sizeInBytes += content.length - ((previousSize != null) ? previousSize : 0);
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (sizeInBytes > maxSizeInBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            try {
+                Files.deleteIfExists(getEntryPath(entry.getKey()));
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, e.toString(), e);
+            }
+            sizeInBytes -= entry.getValue();
+            eldest.remove();
+        }
+    }
+
+    private void loadEntries() throws IOException {
+        List<Path> files = new ArrayList<Path>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + ENTRY_SUFFIX)) {
+            for (Path file: stream) {
+                files.add(file);
+            }
+        }
+        List<FileTime> times = new ArrayList<FileTime>();
+        for (Path file: files) {
+            times.add(Files.getLastModifiedTime(file));
+        }
+        List<Integer> order = new ArrayList<Integer>();
+        for (int i = 0; i < files.size(); i++) {
+            order.add(i);
+        }
+        order.sort((i, j) -> times.get(i).compareTo(times.get(j)));
+        for (int i: order) {
+            Path file = files.get(i);
+            String fileName = file.getFileName().toString();
+            String key = fileName.substring(0, fileName.length() - ENTRY_SUFFIX.length());
+            long size = Files.size(file);
+            entries.put(key, size);
+            sizeInBytes += size;
+        }
+        evict();
+    }
+
+    private Path getEntryPath(String key) {
+        return directory.resolve(key + ENTRY_SUFFIX);
+    }
+
+}
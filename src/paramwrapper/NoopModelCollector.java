@@ -14,6 +14,16 @@ public class NoopModelCollector implements IModelCollector {
         // NO-OP
     }
 
+    @Override
+    public void collectCacheHit() {
+        // NO-OP
+    }
+
+    @Override
+    public void collectCacheMiss() {
+        // NO-OP
+    }
+
     @Override
     public void printStats(PrintStream out) {
         // NO-OP
@@ -0,0 +1,309 @@
+package paramwrapper;
+
+import java.util.Arrays;
+
+import fdtmc.CompactFDTMC;
+import fdtmc.FDTMC;
+
+/**
+ * Numeric solver for the reliability property (P=? [ F "success" ]) of
+ * parameter-free FDTMCs.
+ *
+ * The transition matrix is taken from the model's {@link CompactFDTMC} and
+ * split into strongly connected components, which are solved in reverse
+ * topological order. Acyclic parts (the usual case for sequence diagrams)
+ * are thus solved exactly by back substitution, and only non-trivial
+ * components need Gauss-Seidel iterations up to the given tolerance.
+ *
+ * @author thiago
+ */
+public class NumericReachabilitySolver {
+    private static final String SUCCESS_LABEL = "success";
+
+    public static final double DEFAULT_TOLERANCE = 1e-12;
+    public static final int DEFAULT_MAX_ITERATIONS = 100000;
+    public static final int DEFAULT_MAX_STATES = Integer.MAX_VALUE;
+
+    private double tolerance;
+    private int maxIterations;
+    private int maxStates;
+
+    public NumericReachabilitySolver() {
+        this(DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * @param tolerance Maximum absolute change between Gauss-Seidel iterations
+     *          for a component to be considered solved.
+     * @param maxIterations Maximum number of iterations per component.
+     */
+    public NumericReachabilitySolver(double tolerance, int maxIterations) {
+        this(tolerance, maxIterations, DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * @param tolerance Maximum absolute change between Gauss-Seidel iterations
+     *          for a component to be considered solved.
+     * @param maxIterations Maximum number of iterations per component.
+     * @param maxStates Maximum number of states of the models this solver
+     *          handles. Larger ones are left to the external model checker
+     *          (e.g., PRISM, which imports them in its explicit format).
+     */
+    public NumericReachabilitySolver(double tolerance, int maxIterations, int maxStates) {
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * @return whether this solver handles {@code model} (i.e., whether it is
+     *          parameter-free and not too large), instead of an external
+     *          model checker.
+     */
+    boolean solves(ParamModel model) {
+        return model.getParametersNumber() == 0 && model.getStatesNumber() <= maxStates;
+    }
+
+    /**
+     * @return a string which identifies the settings affecting this solver's
+     *          results (e.g., for keying cached results).
+     */
+    public String getIdentity() {
+        return "numeric(tolerance=" + tolerance + ",maxIterations=" + maxIterations + ",maxStates=" + maxStates + ")";
+    }
+
+    /**
+     * @return the probability of eventually reaching a success state
+     *          from the initial state of {@code fdtmc}.
+     */
+    public double solve(FDTMC fdtmc) {
+        SparseMatrix matrix = new SparseMatrix(fdtmc);
+        double[] probabilities = new double[matrix.size];
+        boolean[] relevant = matrix.canReachTargets();
+
+        int[] components = matrix.stronglyConnectedComponents(relevant);
+        // Tarjan's algorithm yields components in reverse topological
+        // order, i.e., successors of a component are solved before it.
+        int start = 0;
+        while (start < components.length) {
+            int end = start;
+            while (components[end] >= 0) {
+                end++;
+            }
+            solveComponent(matrix, components, start, end, probabilities);
+            start = end + 1;
+        }
+        return probabilities[matrix.initial];
+    }
+
+    /**
+     * Solves the states in components[start..end), assuming all their
+     * successors outside the component are already solved.
+     */
+    private void solveComponent(SparseMatrix matrix, int[] components, int start, int end, double[] x) {
+        if (end - start == 1) {
+            int state = components[start];
+            if (matrix.isTarget[state]) {
+                x[state] = 1;
+                return;
+            }
+            double value = 0;
+            double loop = 0;
+            for (int k = matrix.rowStart[state]; k < matrix.rowStart[state+1]; k++) {
+                int target = matrix.columns[k];
+                if (target == state) {
+                    loop += matrix.values[k];
+                } else {
+                    value += matrix.values[k] * x[target];
+                }
+            }
+            x[state] = (loop < 1) ? value / (1 - loop) : 0;
+            return;
+        }
+        for (int i = start; i < end; i++) {
+            if (matrix.isTarget[components[i]]) {
+                x[components[i]] = 1;
+            }
+        }
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            double maxChange = 0;
+            for (int i = start; i < end; i++) {
+                int state = components[i];
+                if (matrix.isTarget[state]) {
+                    continue;
+                }
+                double value = 0;
+                for (int k = matrix.rowStart[state]; k < matrix.rowStart[state+1]; k++) {
+                    value += matrix.values[k] * x[matrix.columns[k]];
+                }
+                maxChange = Math.max(maxChange, Math.abs(value - x[state]));
+                x[state] = value;
+            }
+            if (maxChange < tolerance) {
+                return;
+            }
+        }
+        throw new IllegalStateException("Numeric solver did not converge after " + maxIterations + " iterations.");
+    }
+
+    /**
+     * Transition matrix in compressed sparse row form, with states
+     * numbered densely in creation order.
+     */
+    private static class SparseMatrix {
+        final int size;
+        final int initial;
+        final int[] rowStart;
+        final int[] columns;
+        final double[] values;
+        final boolean[] isTarget;
+
+        SparseMatrix(FDTMC fdtmc) {
+            CompactFDTMC compact = CompactFDTMC.of(fdtmc);
+            size = compact.getStatesNumber();
+            initial = compact.getInitialState();
+            isTarget = new boolean[size];
+            rowStart = new int[size + 1];
+            for (int state = 0; state < size; state++) {
+                isTarget[state] = SUCCESS_LABEL.equals(compact.getLabel(state));
+                rowStart[state] = compact.getTransitionsStart(state);
+            }
+            rowStart[size] = compact.getTransitionsNumber();
+
+            // Symbolic probabilities (e.g., "1 - 0.99") are interned, so
+            // each one of them needs to be evaluated only once.
+            ProbabilityEvaluator evaluator = new ProbabilityEvaluator();
+            double[] symbolValues = new double[compact.getSymbolsNumber()];
+            for (int i = 0; i < symbolValues.length; i++) {
+                symbolValues[i] = evaluator.evaluate(compact.getSymbol(i));
+            }
+            columns = new int[compact.getTransitionsNumber()];
+            values = new double[columns.length];
+            for (int k = 0; k < columns.length; k++) {
+                columns[k] = compact.getTarget(k);
+                values[k] = compact.isNumeric(k) ? compact.getNumericProbability(k)
+                                                 : symbolValues[compact.getSymbolIndex(k)];
+            }
+        }
+
+        /**
+         * Backward reachability from targets over non-zero transitions.
+         */
+        boolean[] canReachTargets() {
+            int[] predecessorsStart = new int[size + 1];
+            for (int k = 0; k < columns.length; k++) {
+                if (values[k] != 0) {
+                    predecessorsStart[columns[k] + 1]++;
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                predecessorsStart[i + 1] += predecessorsStart[i];
+            }
+            int[] predecessors = new int[predecessorsStart[size]];
+            int[] fill = Arrays.copyOf(predecessorsStart, size);
+            for (int source = 0; source < size; source++) {
+                for (int k = rowStart[source]; k < rowStart[source+1]; k++) {
+                    if (values[k] != 0) {
+                        predecessors[fill[columns[k]]++] = source;
+                    }
+                }
+            }
+
+            boolean[] reached = new boolean[size];
+            int[] stack = new int[size];
+            int top = 0;
+            for (int i = 0; i < size; i++) {
+                if (isTarget[i]) {
+                    reached[i] = true;
+                    stack[top++] = i;
+                }
+            }
+            while (top > 0) {
+                int state = stack[--top];
+                for (int k = predecessorsStart[state]; k < predecessorsStart[state+1]; k++) {
+                    int predecessor = predecessors[k];
+                    if (!reached[predecessor]) {
+                        reached[predecessor] = true;
+                        stack[top++] = predecessor;
+                    }
+                }
+            }
+            return reached;
+        }
+
+        /**
+         * Iterative Tarjan's algorithm restricted to relevant states. Targets
+         * are not expanded, since their probability is known beforehand.
+         *
+         * @return relevant states grouped by component, in reverse topological
+         *          order, each component followed by -1.
+         */
+        int[] stronglyConnectedComponents(boolean[] relevant) {
+            int[] index = new int[size];
+            int[] lowLink = new int[size];
+            boolean[] onStack = new boolean[size];
+            Arrays.fill(index, -1);
+            int[] sccStack = new int[size];
+            int sccTop = 0;
+            int[] callStack = new int[size];
+            int[] edgeCursor = new int[size];
+            int relevantNumber = 0;
+            for (boolean r: relevant) {
+                relevantNumber += r ? 1 : 0;
+            }
+            int[] result = new int[2 * relevantNumber];
+            int resultSize = 0;
+            int counter = 0;
+
+            for (int root = 0; root < size; root++) {
+                if (!relevant[root] || index[root] >= 0) {
+                    continue;
+                }
+                int callTop = 0;
+                callStack[callTop++] = root;
+                index[root] = lowLink[root] = counter++;
+                edgeCursor[root] = rowStart[root];
+                sccStack[sccTop++] = root;
+                onStack[root] = true;
+
+                while (callTop > 0) {
+                    int state = callStack[callTop - 1];
+                    int end = isTarget[state] ? edgeCursor[state] : rowStart[state+1];
+                    if (edgeCursor[state] < end) {
+                        int k = edgeCursor[state]++;
+                        int target = columns[k];
+                        if (values[k] == 0 || !relevant[target]) {
+                            continue;
+                        }
+                        if (index[target] < 0) {
+                            index[target] = lowLink[target] = counter++;
+                            edgeCursor[target] = rowStart[target];
+                            sccStack[sccTop++] = target;
+                            onStack[target] = true;
+                            callStack[callTop++] = target;
+                        } else if (onStack[target]) {
+                            lowLink[state] = Math.min(lowLink[state], index[target]);
+                        }
+                    } else {
+                        callTop--;
+                        if (callTop > 0) {
+                            int parent = callStack[callTop - 1];
+                            lowLink[parent] = Math.min(lowLink[parent], lowLink[state]);
+                        }
+                        if (lowLink[state] == index[state]) {
+                            int member;
+                            do {
+                                member = sccStack[--sccTop];
+                                onStack[member] = false;
+                                result[resultSize++] = member;
+                            } while (member != state);
+                            result[resultSize++] = -1;
+                        }
+                    }
+                }
+            }
+            return Arrays.copyOf(result, resultSize);
+        }
+    }
+
+}
@@ -1,9 +1,12 @@
 package paramwrapper;
 
-import java.util.Collection;
-import java.util.Collections;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -18,33 +21,45 @@ import fdtmc.State;
 import fdtmc.Transition;
 
 
-
+/**
+ * PARAM (or PRISM) model of an FDTMC.
+ *
+ * The model is not built as a string: everything needed for its header
+ * (parameters, state range and labels) is gathered in a single pass over
+ * the FDTMC's transitions, and the commands are then written straight from
+ * the FDTMC to a {@link Writer} by {@link #writeTo(Writer, String)}.
+ */
 class ParamModel {
+	private static final Pattern VALID_IDENTIFIER = Pattern.compile("(^|\\d+-)([A-Za-z_][A-Za-z0-9_]*)");
+
+	static final String PARAM_KEYWORD = "param";
+	static final String PRISM_KEYWORD = "const";
+
 	private String stateVariable = "s";
 	// TODO Deixar nome do módulo PARAM configurável.
 	private String moduleName = "dummyModule";
 	// TODO Inferir estado inicial a partir da topologia da FDTMC.
 	private int initialState = 0;
 
+	private FDTMC fdtmc;
+	private List<State> states;
 	private Set<String> parameters;
 	private Map<String, Set<Integer>> labels;
-	private Map<Integer, Command> commands;
 
 	private int stateRangeStart;
 	private int stateRangeEnd;
 
 	public ParamModel(FDTMC fdtmc) {
+		this.fdtmc = fdtmc;
 		if (fdtmc.getVariableName() != null) {
 			stateVariable = fdtmc.getVariableName();
 		}
 		initialState = fdtmc.getInitialState().getIndex();
-		commands = getCommands(fdtmc);
-		labels = getLabels(fdtmc);
-		stateRangeStart = Collections.min(commands.keySet());
+		collectStatesParametersAndLabels();
+		stateRangeStart = states.get(0).getIndex();
 		// PARAM não deixa declarar um intervalo com apenas um número.
 		stateRangeEnd = Math.max(stateRangeStart + 1,
-								 Collections.max(commands.keySet()));
-		parameters = getParameters(commands.values());
+								 states.get(states.size() - 1).getIndex());
 	}
 
     public int getParametersNumber() {
@@ -59,124 +74,122 @@ class ParamModel {
 	    return stateRangeEnd+1;
 	}
 
-	private Map<String, Set<Integer>> getLabels(FDTMC fdtmc) {
-		Map<String, Set<Integer>> labeledStates = new TreeMap<String, Set<Integer>>();
-		Collection<State> states = fdtmc.getStates();
-		for (State s : states) {
-			String label = s.getLabel();
-			if (label != null && !label.isEmpty()) {
-				if (!labeledStates.containsKey(label)) {
-					labeledStates.put(label, new TreeSet<Integer>());
-				}
-				labeledStates.get(label).add(s.getIndex());
-			}
-		}
-		return labeledStates;
-	}
+	private void collectStatesParametersAndLabels() {
+		states = new ArrayList<State>(fdtmc.getTransitions().size());
+		parameters = new HashSet<String>();
+		labels = new TreeMap<String, Set<Integer>>();
 
-	private Map<Integer, Command> getCommands(FDTMC fdtmc) {
-		Map<Integer, Command> tmpCommands = new TreeMap<Integer, Command>();
+		boolean sorted = true;
 		for (Entry<State, List<Transition>> entry : fdtmc.getTransitions().entrySet()) {
-		    int initState = entry.getKey().getIndex();
-			Command command = new Command(initState);
-			if (entry.getValue() != null) {
-			    for (Transition transition : entry.getValue()) {
-			        command.addUpdate(transition.getProbability(),
-			                          transition.getTarget().getIndex());
-			    }
-			} else {
-			    // Workaround: manually adding self-loops in case no
-			    // transition was specified for a given state.
-			    command.addUpdate("1", initState);
+			State state = entry.getKey();
+			if (!states.isEmpty() && states.get(states.size() - 1).getIndex() > state.getIndex()) {
+				sorted = false;
 			}
-			tmpCommands.put(initState, command);
-		}
-		return tmpCommands;
-	}
+			states.add(state);
 
-	private Set<String> getParameters(Collection<Command> commands) {
-		Set<String> tmpParameters = new HashSet<String>();
-
-		Pattern validIdentifier = Pattern.compile("(^|\\d+-)([A-Za-z_][A-Za-z0-9_]*)");
-		for (Command command : commands) {
-			for (String probability : command.getUpdatesProbabilities()) {
-				Matcher m = validIdentifier.matcher(probability);
-				while (m.find()) {
-					tmpParameters.add(m.group(2));
+			String label = state.getLabel();
+			if (label != null && !label.isEmpty()) {
+				labels.computeIfAbsent(label, k -> new TreeSet<Integer>()).add(state.getIndex());
+			}
+			if (entry.getValue() != null) {
+				for (Transition transition : entry.getValue()) {
+					Matcher m = VALID_IDENTIFIER.matcher(transition.getProbability());
+					while (m.find()) {
+						parameters.add(m.group(2));
+					}
 				}
 			}
 		}
-		return tmpParameters;
+		if (!sorted) {
+			states.sort(Comparator.comparingInt(State::getIndex));
+		}
 	}
 
-	@Override
-	public String toString() {
-		String params = "";
+	/**
+	 * Writes this model to {@code out} using {@code parameterKeyword} for
+	 * declaring parameters ({@link #PARAM_KEYWORD} for PARAM or
+	 * {@link #PRISM_KEYWORD} for PRISM).
+	 */
+	public void writeTo(Writer out, String parameterKeyword) throws IOException {
+		out.write("dtmc\n\n");
 		for (String parameter : parameters) {
-			params += "param double "+parameter+";\n";
+			out.write(parameterKeyword);
+			out.write(" double ");
+			out.write(parameter);
+			out.write(";\n");
 		}
-		String module =
-				"dtmc\n" +
-				"\n" +
-				params +
-				"\n" +
-				"module " + moduleName + "\n" +
-				"	"+stateVariable+ " : ["+stateRangeStart+".."+stateRangeEnd+"] init "+initialState+";" +
-				"\n";
-		for (Command command : commands.values()) {
-			module += "	"+command.makeString(stateVariable) + "\n";
+		out.write("\nmodule ");
+		out.write(moduleName);
+		out.write("\n\t");
+		out.write(stateVariable);
+		out.write(" : [" + stateRangeStart + ".." + stateRangeEnd + "] init " + initialState + ";\n");
+		for (State state : states) {
+			writeCommand(out, state, fdtmc.getTransitions().get(state));
 		}
-		module += "endmodule\n\n";
+		out.write("endmodule\n\n");
 		for (Map.Entry<String, Set<Integer>> entry : labels.entrySet()) {
-			String label = entry.getKey();
-			module += "label \""+label+"\" = ";
-
-			Set<Integer> states = entry.getValue();
-			int count = 1;
-			for (Integer state : states) {
-				module += stateVariable+"="+state;
-				if (count < states.size()) {
-					module += " | ";
+			out.write("label \"");
+			out.write(entry.getKey());
+			out.write("\" = ");
+			boolean needsBar = false;
+			for (Integer state : entry.getValue()) {
+				if (needsBar) {
+					out.write(" | ");
+				} else {
+					needsBar = true;
 				}
-				count++;
+				out.write(stateVariable);
+				out.write("=");
+				out.write(state.toString());
 			}
-			module += ";\n";
+			out.write(";\n");
 		}
-		return module;
-	}
-}
-
-class Command {
-	private int initialState;
-	private List<String> updatesProbabilities;
-	private List<Integer> updatesActions;
-
-	public Command(int initialState) {
-		this.initialState = initialState;
-        this.updatesProbabilities = new LinkedList<String>();
-        this.updatesActions = new LinkedList<Integer>();
 	}
 
-	public void addUpdate(String probability, int update) {
-		updatesProbabilities.add(probability);
-		updatesActions.add(update);
+	private void writeCommand(Writer out, State state, List<Transition> transitions) throws IOException {
+		String source = Integer.toString(state.getIndex());
+		out.write("\t[] ");
+		out.write(stateVariable);
+		out.write("=");
+		out.write(source);
+		out.write(" -> ");
+		if (transitions != null) {
+			boolean needsPlus = false;
+			for (Transition transition : transitions) {
+				if (needsPlus) {
+					out.write(" + ");
+				} else {
+					needsPlus = true;
+				}
+				writeUpdate(out, transition.getProbability(), Integer.toString(transition.getTarget().getIndex()));
+			}
+		} else {
+		    // Workaround: manually adding self-loops in case no
+		    // transition was specified for a given state.
+			writeUpdate(out, "1", source);
+		}
+		out.write(";\n");
 	}
 
-	public Collection<String> getUpdatesProbabilities() {
-		return updatesProbabilities;
+	private void writeUpdate(Writer out, String probability, String target) throws IOException {
+		out.write("(");
+		out.write(probability);
+		out.write(") : (");
+		out.write(stateVariable);
+		out.write("'=");
+		out.write(target);
+		out.write(")");
 	}
 
-	public String makeString(String stateVariable) {
-		String command = "[] "+stateVariable+"="+initialState+" -> ";
-		boolean needsPlus = false;
-		for (int i = 0; i < updatesProbabilities.size(); i++) {
-		    if (needsPlus) {
-		        command += " + ";
-		    } else {
-		        needsPlus = true;
-		    }
-			command += "("+updatesProbabilities.get(i)+") : ("+stateVariable+"'="+updatesActions.get(i)+")";
+	@Override
+	public String toString() {
+		StringWriter writer = new StringWriter();
+		try {
+			writeTo(writer, PARAM_KEYWORD);
+		} catch (IOException e) {
+			// StringWriter does not throw.
+			throw new UncheckedIOException(e);
 		}
-		return command+";";
+		return writer.toString();
 	}
-}
\ No newline at end of file
+}
@@ -3,12 +3,15 @@
  */
 package paramwrapper;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -24,18 +27,49 @@ import fdtmc.FDTMC;
 public class ParamWrapper implements ParametricModelChecker {
     private static final Logger LOGGER = Logger.getLogger(ParamWrapper.class.getName());
 
+    /**
+     * Probability of eventually reaching a success state.
+     */
+    static final String RELIABILITY_PROPERTY = "P=? [ F \"success\" ]";
+
 	private String paramPath;
 	private IModelCollector modelCollector;
 	private boolean usePrism = false;
+	private ModelCheckerExecutor executor;
+	private NumericReachabilitySolver numericSolver;
 
     public ParamWrapper(String paramPath) {
         this(paramPath, new NoopModelCollector());
     }
 
     public ParamWrapper(String paramPath, IModelCollector modelCollector) {
+        this(paramPath, modelCollector, new ModelCheckerExecutor());
+    }
+
+    /**
+     * @param paramPath Path to the PARAM or PRISM executable.
+     * @param modelCollector
+     * @param executor Executor to which the model checker processes are submitted.
+     */
+    public ParamWrapper(String paramPath, IModelCollector modelCollector, ModelCheckerExecutor executor) {
+        this(paramPath, modelCollector, executor, new NumericReachabilitySolver());
+    }
+
+    /**
+     * @param paramPath Path to the PARAM or PRISM executable.
+     * @param modelCollector
+     * @param executor Executor to which the model checker processes are submitted.
+     * @param numericSolver Solver used in-process for the parameter-free
+     *          models it {@link NumericReachabilitySolver#solves(ParamModel) handles}
+     *          (if null, such models are also given to the external model
+     *          checker, PRISM getting them in its explicit format).
+     */
+    public ParamWrapper(String paramPath, IModelCollector modelCollector, ModelCheckerExecutor executor, NumericReachabilitySolver numericSolver) {
         this.paramPath = paramPath;
         this.usePrism = paramPath.contains("prism");
         this.modelCollector = modelCollector;
+        this.executor = executor;
+        this.numericSolver = numericSolver;
     }
 
 	public String fdtmcToParam(FDTMC fdtmc) {
@@ -48,54 +82,79 @@ public class ParamWrapper implements ParametricModelChecker {
 	public String getReliability(FDTMC fdtmc) {
 	    ParamModel model = new ParamModel(fdtmc);
         modelCollector.collectModel(model.getParametersNumber(), model.getStatesNumber());
-		String modelString = model.toString();
-
-		if (usePrism) {
-		    modelString = modelString.replace("param", "const");
-		}
-		String reliabilityProperty = "P=? [ F \"success\" ]";
+        if (numericSolver != null && numericSolver.solves(model)) {
+            return solveNumerically(fdtmc);
+        }
+		return evaluate(fdtmc, model, RELIABILITY_PROPERTY);
+	}
 
-		return evaluate(modelString, reliabilityProperty, model);
+	/**
+	 * Concrete models (e.g., products) are solved in-process, which is much
+	 * cheaper than spawning a model checker for each one of them.
+	 */
+	private String solveNumerically(FDTMC fdtmc) {
+	    long startTime = System.nanoTime();
+	    double reliability = numericSolver.solve(fdtmc);
+	    modelCollector.collectModelCheckingTime(System.nanoTime() - startTime);
+	    // Plain notation, since the expression parser does not take exponents.
+	    return BigDecimal.valueOf(reliability).toPlainString();
 	}
 
-	private String evaluate(String modelString, String property, ParamModel model) {
+	private String evaluate(FDTMC fdtmc, ParamModel model, String property) {
+		Path jobDirectory = null;
 		try {
-		    LOGGER.finer(modelString);
-			File modelFile = File.createTempFile("model", "param");
-			FileWriter modelWriter = new FileWriter(modelFile);
-			modelWriter.write(modelString);
-			modelWriter.flush();
-			modelWriter.close();
-
-			File propertyFile = File.createTempFile("property", "prop");
-			FileWriter propertyWriter = new FileWriter(propertyFile);
-			propertyWriter.write(property);
-			propertyWriter.flush();
-			propertyWriter.close();
+		    if (LOGGER.isLoggable(Level.FINER)) {
+		        LOGGER.finer(model.toString());
+		    }
+		    jobDirectory = executor.createJobDirectory();
+			Path propertyFile = jobDirectory.resolve("property.prop");
+			Files.write(propertyFile, property.getBytes(Charset.forName("UTF-8")));
 
-			File resultsFile = File.createTempFile("result", null);
+			Path resultsFile = jobDirectory.resolve("result");
 
 			String formula;
 			long startTime = System.nanoTime();
-			if (usePrism && !modelString.contains("const")) {
-			    formula = invokeModelChecker(modelFile.getAbsolutePath(),
-			                                 propertyFile.getAbsolutePath(),
-			                                 resultsFile.getAbsolutePath());
-			} else if(usePrism) {
-			    formula = invokeParametricPRISM(model,
-			                                    modelFile.getAbsolutePath(),
-                                                propertyFile.getAbsolutePath(),
-                                                resultsFile.getAbsolutePath());
+			if (usePrism && model.getParametersNumber() == 0) {
+			    // Concrete models are handed to PRISM in its explicit format,
+			    // which it imports without building the model symbolically.
+			    ExplicitModel explicitModel = new ExplicitModel(fdtmc);
+			    Path transitionsFile = jobDirectory.resolve("model.tra");
+			    try (Writer writer = Files.newBufferedWriter(transitionsFile, Charset.forName("UTF-8"))) {
+			        explicitModel.writeTransitions(writer);
+			    }
+			    Path labelsFile = jobDirectory.resolve("model.lab");
+			    try (Writer writer = Files.newBufferedWriter(labelsFile, Charset.forName("UTF-8"))) {
+			        explicitModel.writeLabels(writer);
+			    }
+			    formula = invokeExplicitModelChecker(transitionsFile.toString(),
+			                                         labelsFile.toString(),
+			                                         propertyFile.toString(),
+			                                         resultsFile.toString());
 			} else {
-			    formula = invokeParametricModelChecker(modelFile.getAbsolutePath(),
-			                                           propertyFile.getAbsolutePath(),
-			                                           resultsFile.getAbsolutePath());
+			    Path modelFile = jobDirectory.resolve("model.param");
+			    // The model is streamed straight into the file (which lives in
+			    // memory if the scratch directory is on a tmpfs).
+			    try (Writer writer = Files.newBufferedWriter(modelFile, Charset.forName("UTF-8"))) {
+			        model.writeTo(writer, usePrism ? ParamModel.PRISM_KEYWORD : ParamModel.PARAM_KEYWORD);
+			    }
+			    if (usePrism) {
+			        formula = invokeParametricPRISM(model,
+			                                        modelFile.toString(),
+			                                        propertyFile.toString(),
+			                                        resultsFile.toString());
+			    } else {
+			        formula = invokeParametricModelChecker(modelFile.toString(),
+			                                               propertyFile.toString(),
+			                                               resultsFile.toString());
+			    }
 			}
 			long elapsedTime = System.nanoTime() - startTime;
             modelCollector.collectModelCheckingTime(elapsedTime);
 			return formula.trim().replaceAll("\\s+", "");
 		} catch (IOException e) {
 			LOGGER.log(Level.SEVERE, e.toString(), e);
+		} finally {
+		    executor.deleteJobDirectory(jobDirectory);
 		}
 		return "";
 	}
@@ -103,10 +162,9 @@ public class ParamWrapper implements ParametricModelChecker {
 	private String invokeParametricModelChecker(String modelPath,
 												String propertyPath,
 												String resultsPath) throws IOException {
-		String commandLine = paramPath+" "
-							 +modelPath+" "
-							 +propertyPath+" "
-							 +"--result-file "+resultsPath;
+		List<String> commandLine = makeCommandLine(modelPath,
+		                                           propertyPath,
+		                                           "--result-file", resultsPath);
 		return invokeAndGetResult(commandLine, resultsPath+".out");
 	}
 
@@ -114,11 +172,10 @@ public class ParamWrapper implements ParametricModelChecker {
                                          String modelPath,
                                          String propertyPath,
                                          String resultsPath) throws IOException {
-        String commandLine = paramPath+" "
-                             +modelPath+" "
-                             +propertyPath+" "
-                             +"-exportresults "+resultsPath+" "
-                             +"-param "+String.join(",", model.getParameters());
+        List<String> commandLine = makeCommandLine(modelPath,
+                                                   propertyPath,
+                                                   "-exportresults", resultsPath,
+                                                   "-param", String.join(",", model.getParameters()));
         String rawResult = invokeAndGetResult(commandLine, resultsPath);
         int openBracket = rawResult.indexOf("{");
         int closeBracket = rawResult.indexOf("}");
@@ -126,27 +183,32 @@ public class ParamWrapper implements ParametricModelChecker {
         return expression.trim().replace('|', '/');
     }
 
-	private String invokeModelChecker(String modelPath,
-									  String propertyPath,
-									  String resultsPath) throws IOException {
-		String commandLine = paramPath+" "
-				 			 +modelPath+" "
-				 			 +propertyPath+" "
-				 			 +"-exportresults "+resultsPath;
+	private String invokeExplicitModelChecker(String transitionsPath,
+	                                          String labelsPath,
+	                                          String propertyPath,
+	                                          String resultsPath) throws IOException {
+		List<String> commandLine = makeCommandLine("-importtrans", transitionsPath,
+		                                           "-importlabels", labelsPath,
+		                                           "-dtmc",
+		                                           propertyPath,
+		                                           "-exportresults", resultsPath);
 		return invokeAndGetResult(commandLine, resultsPath);
 	}
 
-	private String invokeAndGetResult(String commandLine, String resultsPath) throws IOException {
-	    LOGGER.fine(commandLine);
-		Process program = Runtime.getRuntime().exec(commandLine);
-		int exitCode = 0;
-		try {
-			exitCode = program.waitFor();
-		} catch (InterruptedException e) {
-			LOGGER.severe("Exit code: " + exitCode);
-			LOGGER.log(Level.SEVERE, e.toString(), e);
-		}
-		List<String> lines = Files.readAllLines(Paths.get(resultsPath), Charset.forName("UTF-8"));
+	/**
+	 * The executable path is split on whitespace, just as Runtime.exec
+	 * would do, so that extra leading arguments can be given with it.
+	 */
+	private List<String> makeCommandLine(String... arguments) {
+	    List<String> commandLine = new LinkedList<String>(Arrays.asList(paramPath.trim().split("\\s+")));
+	    commandLine.addAll(Arrays.asList(arguments));
+	    return commandLine;
+	}
+
+	private String invokeAndGetResult(List<String> commandLine, String resultsPath) throws IOException {
+	    Path results = Paths.get(resultsPath);
+	    executor.execute(commandLine, results);
+		List<String> lines = Files.readAllLines(results, Charset.forName("UTF-8"));
 		lines.removeIf(String::isEmpty);
 		// Formula
 		return lines.get(lines.size()-1);
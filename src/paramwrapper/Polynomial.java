@@ -0,0 +1,257 @@
+package paramwrapper;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable multivariate polynomial with rational coefficients.
+ */
+final class Polynomial {
+    static final Polynomial ZERO = new Polynomial(Collections.<Monomial, BigRational>emptyMap());
+    static final Polynomial ONE = constant(BigRational.ONE);
+
+    /**
+     * Monomial -> (non-zero) coefficient.
+     */
+    private final Map<Monomial, BigRational> terms;
+
+    private Polynomial(Map<Monomial, BigRational> terms) {
+        this.terms = terms;
+    }
+
+    static Polynomial constant(BigRational value) {
+        if (value.isZero()) {
+            return ZERO;
+        }
+        Map<Monomial, BigRational> terms = new HashMap<Monomial, BigRational>();
+        terms.put(Monomial.ONE, value);
+        return new Polynomial(terms);
+    }
+
+    static Polynomial variable(String name) {
+        Map<Monomial, BigRational> terms = new HashMap<Monomial, BigRational>();
+        terms.put(Monomial.variable(name), BigRational.ONE);
+        return new Polynomial(terms);
+    }
+
+    Polynomial add(Polynomial other) {
+        if (isZero()) {
+            return other;
+        } else if (other.isZero()) {
+            return this;
+        }
+        Map<Monomial, BigRational> sum = new HashMap<Monomial, BigRational>(terms);
+        for (Map.Entry<Monomial, BigRational> term: other.terms.entrySet()) {
+            addTerm(sum, term.getKey(), term.getValue());
+        }
+        return new Polynomial(sum);
+    }
+
+    Polynomial subtract(Polynomial other) {
+        return add(other.negate());
+    }
+
+    Polynomial negate() {
+        return scale(BigRational.ONE.negate());
+    }
+
+    Polynomial multiply(Polynomial other) {
+        if (isZero() || other.isZero()) {
+            return ZERO;
+        } else if (isOne()) {
+            return other;
+        } else if (other.isOne()) {
+            return this;
+        }
+        Map<Monomial, BigRational> product = new HashMap<Monomial, BigRational>();
+        for (Map.Entry<Monomial, BigRational> a: terms.entrySet()) {
+            for (Map.Entry<Monomial, BigRational> b: other.terms.entrySet()) {
+                addTerm(product,
+                        a.getKey().multiply(b.getKey()),
+                        a.getValue().multiply(b.getValue()));
+            }
+        }
+        return new Polynomial(product);
+    }
+
+    Polynomial scale(BigRational factor) {
+        if (factor.isZero()) {
+            return ZERO;
+        } else if (factor.isOne()) {
+            return this;
+        }
+        Map<Monomial, BigRational> scaled = new HashMap<Monomial, BigRational>();
+        for (Map.Entry<Monomial, BigRational> term: terms.entrySet()) {
+            scaled.put(term.getKey(), term.getValue().multiply(factor));
+        }
+        return new Polynomial(scaled);
+    }
+
+    boolean isZero() {
+        return terms.isEmpty();
+    }
+
+    boolean isOne() {
+        return isConstant() && getConstantValue().isOne();
+    }
+
+    boolean isConstant() {
+        return terms.isEmpty() || (terms.size() == 1 && terms.containsKey(Monomial.ONE));
+    }
+
+    BigRational getConstantValue() {
+        BigRational value = terms.get(Monomial.ONE);
+        return (value != null) ? value : BigRational.ZERO;
+    }
+
+    Set<String> getVariables() {
+        Set<String> variables = new TreeSet<String>();
+        for (Monomial monomial: terms.keySet()) {
+            variables.addAll(monomial.powers.keySet());
+        }
+        return variables;
+    }
+
+    /**
+     * Least common multiple of the coefficients' denominators, i.e., the
+     * smallest positive integer which makes all coefficients integers.
+     */
+    BigInteger getCoefficientsDenominatorsLcm() {
+        BigInteger lcm = BigInteger.ONE;
+        for (BigRational coefficient: terms.values()) {
+            BigInteger denominator = coefficient.getDenominator();
+            lcm = lcm.multiply(denominator).divide(lcm.gcd(denominator));
+        }
+        return lcm;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj != null && obj instanceof Polynomial) {
+            return terms.equals(((Polynomial) obj).terms);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return terms.hashCode();
+    }
+
+    /**
+     * Prints this polynomial in the same format used by PARAM, i.e., terms
+     * ordered by decreasing degree, each one with an explicit coefficient
+     * (e.g., -1*r0*rFail+1*r0).
+     */
+    @Override
+    public String toString() {
+        if (isZero()) {
+            return "0";
+        }
+        List<Monomial> monomials = new ArrayList<Monomial>(terms.keySet());
+        Collections.sort(monomials);
+
+        StringBuilder builder = new StringBuilder();
+        for (Monomial monomial: monomials) {
+            String coefficient = terms.get(monomial).toString();
+            if (builder.length() > 0 && !coefficient.startsWith("-")) {
+                builder.append("+");
+            }
+            builder.append(coefficient);
+            if (!monomial.equals(Monomial.ONE)) {
+                builder.append("*").append(monomial);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void addTerm(Map<Monomial, BigRational> terms, Monomial monomial, BigRational coefficient) {
+        BigRational current = terms.get(monomial);
+        BigRational updated = (current == null) ? coefficient : current.add(coefficient);
+        if (updated.isZero()) {
+            terms.remove(monomial);
+        } else {
+            terms.put(monomial, updated);
+        }
+    }
+
+    /**
+     * Product of variables raised to positive integer powers.
+     */
+    private static final class Monomial implements Comparable<Monomial> {
+        static final Monomial ONE = new Monomial(new TreeMap<String, Integer>());
+
+        private final TreeMap<String, Integer> powers;
+        private final int degree;
+
+        private Monomial(TreeMap<String, Integer> powers) {
+            this.powers = powers;
+            int totalDegree = 0;
+            for (Integer power: powers.values()) {
+                totalDegree += power;
+            }
+            this.degree = totalDegree;
+        }
+
+        static Monomial variable(String name) {
+            TreeMap<String, Integer> powers = new TreeMap<String, Integer>();
+            powers.put(name, 1);
+            return new Monomial(powers);
+        }
+
+        Monomial multiply(Monomial other) {
+            TreeMap<String, Integer> product = new TreeMap<String, Integer>(powers);
+            for (Map.Entry<String, Integer> power: other.powers.entrySet()) {
+                product.merge(power.getKey(), power.getValue(), Integer::sum);
+            }
+            return new Monomial(product);
+        }
+
+        /**
+         * Higher degrees first, then lexicographic order of variables.
+         */
+        @Override
+        public int compareTo(Monomial other) {
+            if (degree != other.degree) {
+                return Integer.compare(other.degree, degree);
+            }
+            return toString().compareTo(other.toString());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj != null && obj instanceof Monomial) {
+                return powers.equals(((Monomial) obj).powers);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return powers.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            for (Map.Entry<String, Integer> power: powers.entrySet()) {
+                if (builder.length() > 0) {
+                    builder.append("*");
+                }
+                builder.append(power.getKey());
+                if (power.getValue() > 1) {
+                    builder.append("^").append(power.getValue());
+                }
+            }
+            return builder.toString();
+        }
+    }
+
+}
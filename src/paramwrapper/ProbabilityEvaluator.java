@@ -0,0 +1,40 @@
+package paramwrapper;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.nfunk.jep.JEP;
+import org.nfunk.jep.type.DoubleNumberFactory;
+
+/**
+ * Evaluates parameter-free transition probabilities (e.g., "0.999" or
+ * "1 - 0.999") to numbers, caching the ones already seen.
+ *
+ * Instances are not thread-safe.
+ */
+final class ProbabilityEvaluator {
+    private JEP parser;
+    private Map<String, Double> evaluated = new HashMap<String, Double>();
+
+    ProbabilityEvaluator() {
+        parser = new JEP(false, true, true, new DoubleNumberFactory());
+    }
+
+    double evaluate(String probability) {
+        Double value = evaluated.get(probability);
+        if (value == null) {
+            try {
+                value = Double.parseDouble(probability);
+            } catch (NumberFormatException e) {
+                parser.parseExpression(probability);
+                if (parser.hasError()) {
+                    throw new IllegalArgumentException("Invalid probability <" + probability + ">: " + parser.getErrorInfo());
+                }
+                value = parser.getValue();
+            }
+            evaluated.put(probability, value);
+        }
+        return value;
+    }
+
+}
@@ -0,0 +1,136 @@
+package paramwrapper;
+
+import java.math.BigInteger;
+import java.util.Set;
+
+/**
+ * Immutable quotient of two polynomials.
+ *
+ * Rational functions are kept in a normal form in which constant denominators
+ * are folded into the numerator. No polynomial GCD is computed, so non-constant
+ * denominators are only cancelled when equal to the numerator.
+ */
+final class RationalFunction {
+    static final RationalFunction ZERO = new RationalFunction(Polynomial.ZERO, Polynomial.ONE);
+    static final RationalFunction ONE = new RationalFunction(Polynomial.ONE, Polynomial.ONE);
+
+    private final Polynomial numerator;
+    private final Polynomial denominator;
+
+    private RationalFunction(Polynomial numerator, Polynomial denominator) {
+        this.numerator = numerator;
+        this.denominator = denominator;
+    }
+
+    static RationalFunction valueOf(Polynomial numerator, Polynomial denominator) {
+        if (denominator.isZero()) {
+            throw new ArithmeticException("Division by zero");
+        } else if (numerator.isZero()) {
+            return ZERO;
+        } else if (numerator.equals(denominator)) {
+            return ONE;
+        } else if (denominator.isConstant()) {
+            BigRational factor = BigRational.ONE.divide(denominator.getConstantValue());
+            return new RationalFunction(numerator.scale(factor), Polynomial.ONE);
+        }
+        return new RationalFunction(numerator, denominator);
+    }
+
+    static RationalFunction constant(BigRational value) {
+        return new RationalFunction(Polynomial.constant(value), Polynomial.ONE);
+    }
+
+    static RationalFunction variable(String name) {
+        return new RationalFunction(Polynomial.variable(name), Polynomial.ONE);
+    }
+
+    RationalFunction add(RationalFunction other) {
+        if (isZero()) {
+            return other;
+        } else if (other.isZero()) {
+            return this;
+        } else if (denominator.equals(other.denominator)) {
+            return valueOf(numerator.add(other.numerator), denominator);
+        }
+        return valueOf(numerator.multiply(other.denominator).add(other.numerator.multiply(denominator)),
+                       denominator.multiply(other.denominator));
+    }
+
+    RationalFunction subtract(RationalFunction other) {
+        return add(other.negate());
+    }
+
+    RationalFunction negate() {
+        return new RationalFunction(numerator.negate(), denominator);
+    }
+
+    RationalFunction multiply(RationalFunction other) {
+        if (isZero() || other.isZero()) {
+            return ZERO;
+        }
+        // Cross-cancellation of equal factors avoids needless growth
+        // when eliminating states with parametric self-loops.
+        if (denominator.equals(other.numerator)) {
+            return valueOf(numerator, other.denominator);
+        } else if (numerator.equals(other.denominator)) {
+            return valueOf(other.numerator, denominator);
+        }
+        return valueOf(numerator.multiply(other.numerator),
+                       denominator.multiply(other.denominator));
+    }
+
+    RationalFunction divide(RationalFunction other) {
+        return multiply(other.reciprocal());
+    }
+
+    RationalFunction reciprocal() {
+        return valueOf(denominator, numerator);
+    }
+
+    boolean isZero() {
+        return numerator.isZero();
+    }
+
+    boolean isConstant() {
+        return numerator.isConstant() && denominator.isConstant();
+    }
+
+    Set<String> getVariables() {
+        Set<String> variables = numerator.getVariables();
+        variables.addAll(denominator.getVariables());
+        return variables;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj != null && obj instanceof RationalFunction) {
+            RationalFunction other = (RationalFunction) obj;
+            return numerator.equals(other.numerator) && denominator.equals(other.denominator);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * numerator.hashCode() + denominator.hashCode();
+    }
+
+    /**
+     * Prints this function in the same format used by PARAM: polynomials with
+     * integer coefficients are printed as such, whereas anything else is
+     * printed as (numerator)/(denominator), with integer coefficients
+     * on both sides (e.g., (9801)/(10000)).
+     */
+    @Override
+    public String toString() {
+        BigInteger lcm = numerator.getCoefficientsDenominatorsLcm();
+        BigInteger denominatorLcm = denominator.getCoefficientsDenominatorsLcm();
+        lcm = lcm.multiply(denominatorLcm).divide(lcm.gcd(denominatorLcm));
+        if (denominator.isOne() && lcm.equals(BigInteger.ONE)) {
+            return numerator.toString();
+        }
+        BigRational factor = BigRational.valueOf(lcm, BigInteger.ONE);
+        return "(" + numerator.scale(factor) + ")/(" + denominator.scale(factor) + ")";
+    }
+
+}
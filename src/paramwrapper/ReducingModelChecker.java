@@ -0,0 +1,29 @@
+package paramwrapper;
+
+import java.util.logging.Logger;
+
+import fdtmc.FDTMC;
+
+/**
+ * Decorator which reduces FDTMCs (see {@link FDTMC#reduced()}) before
+ * handing them to the actual model checker. Smaller models are faster
+ * to check and yield smaller formulae.
+ */
+public class ReducingModelChecker implements ParametricModelChecker {
+    private static final Logger LOGGER = Logger.getLogger(ReducingModelChecker.class.getName());
+
+    private ParametricModelChecker modelChecker;
+
+    public ReducingModelChecker(ParametricModelChecker modelChecker) {
+        this.modelChecker = modelChecker;
+    }
+
+    @Override
+    public String getReliability(FDTMC fdtmc) {
+        FDTMC reduced = fdtmc.reduced();
+        LOGGER.finer(() -> "Reduced model from " + fdtmc.getStates().size()
+                           + " to " + reduced.getStates().size() + " states.");
+        return modelChecker.getReliability(reduced);
+    }
+
+}
@@ -0,0 +1,266 @@
+package paramwrapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import org.nfunk.jep.ASTConstant;
+import org.nfunk.jep.ASTFunNode;
+import org.nfunk.jep.ASTVarNode;
+import org.nfunk.jep.JEP;
+import org.nfunk.jep.Node;
+import org.nfunk.jep.type.DoubleNumberFactory;
+
+import fdtmc.FDTMC;
+import fdtmc.State;
+import fdtmc.Transition;
+
+/**
+ * In-process parametric model checker which computes the reliability
+ * property (P=? [ F "success" ]) by means of state elimination over
+ * rational functions, much like PARAM does.
+ *
+ * No external process or temporary file is needed, and results are exact
+ * (decimal probabilities are converted to rational numbers).
+ *
+ * @author thiago
+ */
+public class StateEliminationModelChecker implements ParametricModelChecker {
+    private static final Logger LOGGER = Logger.getLogger(StateEliminationModelChecker.class.getName());
+
+    private static final String SUCCESS_LABEL = "success";
+
+    private IModelCollector modelCollector;
+
+    public StateEliminationModelChecker() {
+        this(new NoopModelCollector());
+    }
+
+    public StateEliminationModelChecker(IModelCollector modelCollector) {
+        this.modelCollector = modelCollector;
+    }
+
+    @Override
+    public String getReliability(FDTMC fdtmc) {
+        long startTime = System.nanoTime();
+        ProbabilityParser parser = new ProbabilityParser();
+
+        Set<State> targets = new HashSet<State>();
+        Map<State, Map<State, RationalFunction>> successors = new LinkedHashMap<State, Map<State, RationalFunction>>();
+        for (Map.Entry<State, List<Transition>> entry: fdtmc.getTransitions().entrySet()) {
+            State source = entry.getKey();
+            if (SUCCESS_LABEL.equals(source.getLabel())) {
+                targets.add(source);
+            }
+            Map<State, RationalFunction> outgoing = new LinkedHashMap<State, RationalFunction>();
+            if (entry.getValue() != null) {
+                for (Transition transition: entry.getValue()) {
+                    RationalFunction probability = parser.parse(transition.getProbability());
+                    if (!probability.isZero()) {
+                        outgoing.merge(transition.getTarget(), probability, RationalFunction::add);
+                    }
+                }
+            }
+            successors.put(source, outgoing);
+        }
+        modelCollector.collectModel(parser.getVariables().size(), successors.size());
+
+        RationalFunction reliability = eliminate(fdtmc.getInitialState(), targets, successors);
+
+        modelCollector.collectModelCheckingTime(System.nanoTime() - startTime);
+        String formula = reliability.toString();
+        LOGGER.finer("Reliability by state elimination: " + formula);
+        return formula;
+    }
+
+    /**
+     * Computes the probability of eventually reaching {@code targets} from
+     * {@code initial} by successively eliminating all other states.
+     *
+     * For every remaining state s, the equation x_s = sum_t P(s,t)*x_t + b_s
+     * is kept, where b_s is the probability of reaching a target in one step.
+     * Eliminating a state s redirects each transition u -> s to the successors
+     * of s, scaled by 1/(1 - P(s,s)).
+     */
+    private RationalFunction eliminate(State initial, Set<State> targets, Map<State, Map<State, RationalFunction>> successors) {
+        if (targets.contains(initial)) {
+            return RationalFunction.ONE;
+        }
+        Set<State> relevant = canReachTargets(targets, successors);
+        if (!relevant.contains(initial)) {
+            return RationalFunction.ZERO;
+        }
+
+        Map<State, Map<State, RationalFunction>> out = new LinkedHashMap<State, Map<State, RationalFunction>>();
+        Map<State, Set<State>> in = new HashMap<State, Set<State>>();
+        Map<State, RationalFunction> oneStep = new HashMap<State, RationalFunction>();
+        for (State state: relevant) {
+            if (targets.contains(state)) {
+                continue;
+            }
+            Map<State, RationalFunction> outgoing = new LinkedHashMap<State, RationalFunction>();
+            RationalFunction toTargets = RationalFunction.ZERO;
+            for (Map.Entry<State, RationalFunction> transition: successors.get(state).entrySet()) {
+                State target = transition.getKey();
+                if (targets.contains(target)) {
+                    toTargets = toTargets.add(transition.getValue());
+                } else if (relevant.contains(target)) {
+                    outgoing.put(target, transition.getValue());
+                    in.computeIfAbsent(target, k -> new HashSet<State>()).add(state);
+                }
+            }
+            out.put(state, outgoing);
+            oneStep.put(state, toTargets);
+        }
+
+        // States closer to the end of the chain are eliminated first,
+        // which keeps intermediate expressions small for sequential models.
+        List<State> eliminationOrder = new ArrayList<State>(out.keySet());
+        Collections.reverse(eliminationOrder);
+        for (State state: eliminationOrder) {
+            if (state.equals(initial)) {
+                continue;
+            }
+            Map<State, RationalFunction> outgoing = out.remove(state);
+            RationalFunction loop = outgoing.remove(state);
+            RationalFunction scale = (loop == null) ? RationalFunction.ONE
+                                                    : RationalFunction.ONE.subtract(loop).reciprocal();
+            RationalFunction toTargets = oneStep.remove(state);
+            Set<State> predecessors = in.getOrDefault(state, Collections.<State>emptySet());
+            for (State predecessor: predecessors) {
+                if (predecessor.equals(state)) {
+                    continue;
+                }
+                Map<State, RationalFunction> predecessorOut = out.get(predecessor);
+                RationalFunction factor = predecessorOut.remove(state).multiply(scale);
+                for (Map.Entry<State, RationalFunction> transition: outgoing.entrySet()) {
+                    State target = transition.getKey();
+                    predecessorOut.merge(target, factor.multiply(transition.getValue()), RationalFunction::add);
+                    in.get(target).add(predecessor);
+                }
+                oneStep.put(predecessor, oneStep.get(predecessor).add(factor.multiply(toTargets)));
+            }
+            for (State target: outgoing.keySet()) {
+                in.get(target).remove(state);
+            }
+            in.remove(state);
+        }
+
+        RationalFunction loop = out.get(initial).get(initial);
+        RationalFunction reliability = oneStep.get(initial);
+        if (loop != null) {
+            reliability = reliability.divide(RationalFunction.ONE.subtract(loop));
+        }
+        return reliability;
+    }
+
+    /**
+     * Backward reachability: states from which some target is reachable
+     * through transitions with non-zero probability.
+     */
+    private Set<State> canReachTargets(Set<State> targets, Map<State, Map<State, RationalFunction>> successors) {
+        Map<State, Collection<State>> predecessors = new HashMap<State, Collection<State>>();
+        for (Map.Entry<State, Map<State, RationalFunction>> entry: successors.entrySet()) {
+            for (State target: entry.getValue().keySet()) {
+                predecessors.computeIfAbsent(target, k -> new LinkedList<State>()).add(entry.getKey());
+            }
+        }
+        Set<State> reached = new HashSet<State>(targets);
+        LinkedList<State> frontier = new LinkedList<State>(targets);
+        while (!frontier.isEmpty()) {
+            State state = frontier.poll();
+            for (State predecessor: predecessors.getOrDefault(state, Collections.<State>emptyList())) {
+                if (reached.add(predecessor)) {
+                    frontier.add(predecessor);
+                }
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Parses transition probabilities into rational functions, caching
+     * the ones already seen (most probabilities are repeated many times).
+     */
+    private static class ProbabilityParser {
+        private JEP parser;
+        private Map<String, RationalFunction> parsed = new HashMap<String, RationalFunction>();
+        private Set<String> variables = new HashSet<String>();
+
+        ProbabilityParser() {
+            parser = new JEP(false, true, true, new DoubleNumberFactory());
+            parser.setAllowUndeclared(true);
+        }
+
+        Set<String> getVariables() {
+            return variables;
+        }
+
+        RationalFunction parse(String probability) {
+            RationalFunction result = parsed.get(probability);
+            if (result == null) {
+                parser.parseExpression(probability);
+                if (parser.hasError()) {
+                    throw new IllegalArgumentException("Invalid probability <" + probability + ">: " + parser.getErrorInfo());
+                }
+                result = toRationalFunction(parser.getTopNode());
+                variables.addAll(result.getVariables());
+                parsed.put(probability, result);
+            }
+            return result;
+        }
+
+        private RationalFunction toRationalFunction(Node node) {
+            if (node instanceof ASTConstant) {
+                return RationalFunction.constant(BigRational.valueOf((Double) ((ASTConstant) node).getValue()));
+            } else if (node instanceof ASTVarNode) {
+                return RationalFunction.variable(((ASTVarNode) node).getName());
+            } else if (node instanceof ASTFunNode) {
+                String operator = ((ASTFunNode) node).getName().replace("\"", "");
+                if (node.jjtGetNumChildren() == 1 && "-".equals(operator)) {
+                    return toRationalFunction(node.jjtGetChild(0)).negate();
+                }
+                RationalFunction left = toRationalFunction(node.jjtGetChild(0));
+                switch (operator) {
+                case "+":
+                    return left.add(toRationalFunction(node.jjtGetChild(1)));
+                case "-":
+                    return left.subtract(toRationalFunction(node.jjtGetChild(1)));
+                case "*":
+                    return left.multiply(toRationalFunction(node.jjtGetChild(1)));
+                case "/":
+                    return left.divide(toRationalFunction(node.jjtGetChild(1)));
+                case "^":
+                    return power(left, node.jjtGetChild(1));
+                default:
+                    break;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported probability expression: " + node);
+        }
+
+        private RationalFunction power(RationalFunction base, Node exponentNode) {
+            if (!(exponentNode instanceof ASTConstant)) {
+                throw new IllegalArgumentException("Exponents must be integer constants.");
+            }
+            double exponent = (Double) ((ASTConstant) exponentNode).getValue();
+            if (exponent != Math.rint(exponent)) {
+                throw new IllegalArgumentException("Exponents must be integer constants.");
+            }
+            RationalFunction result = RationalFunction.ONE;
+            for (int i = 0; i < Math.abs(exponent); i++) {
+                result = result.multiply(base);
+            }
+            return (exponent < 0) ? result.reciprocal() : result;
+        }
+    }
+
+}
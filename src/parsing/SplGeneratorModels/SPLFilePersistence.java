@@ -27,6 +27,7 @@ import parsing.SplGeneratorModels.Transformer;
 import splar.core.fm.FeatureModel;
 import splar.core.fm.FeatureTreeNode;
 import tool.RDGNode;
+import tool.RdgSession;
 
 public class SPLFilePersistence {
 
@@ -243,7 +244,7 @@ public class SPLFilePersistence {
 			dir.mkdirs(); 
 			
 			FM2JavaCNF(spl.getFeatureModel());
-			Transformer t = new Transformer(); 
+			Transformer t = new Transformer(new RdgSession());
 			RDGNode r = t.transformAD(spl.getActivityDiagram());
 			rdg2Dot(r, "rdg");
 			
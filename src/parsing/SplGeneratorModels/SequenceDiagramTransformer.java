@@ -12,22 +12,32 @@ import parsing.SplGeneratorModels.SequenceDiagram;
 import parsing.SplGeneratorModels.SequenceDiagramElement;
 import parsing.SplGeneratorModels.SPLFilePersistence;
 import tool.RDGNode;
+import tool.RdgSession;
 import fdtmc.*;
 
 public class SequenceDiagramTransformer {
 
 	RDGNode root;
 	HashMap<String, fdtmc.State> fdtmcStateById;
+	RdgSession session;
 
+	/**
+	 * Creates the RDG nodes in a fresh session.
+	 */
 	public SequenceDiagramTransformer() {
+		this(new RdgSession());
+	}
+
+	public SequenceDiagramTransformer(RdgSession session) {
 		fdtmcStateById = new HashMap<String, fdtmc.State>();
 		root = null;
+		this.session = session;
 	}
 
 	public RDGNode transformSD(SequenceDiagram s, String id) {
 		FDTMC f = new FDTMC();
 		f.setVariableName(s.getName() + "_s");
-		RDGNode answer = new RDGNode(id, s.getGuardCondition(), f);
+		RDGNode answer = session.createNode(id, s.getGuardCondition(), f);
 		root = answer;
 
 		State s0 = f.createInitialState();
@@ -78,8 +88,8 @@ public class SequenceDiagramTransformer {
 			if (fr.getType() == Fragment.OPTIONAL) {
 				SequenceDiagram onlySD = fr.getSequenceDiagrams()
 						.getFirst();
-				SequenceDiagramTransformer transformer = new SequenceDiagramTransformer();
-				RDGNode dependencyNode = transformer.transformSD(onlySD, RDGNode.getNextId());
+				SequenceDiagramTransformer transformer = new SequenceDiagramTransformer(session);
+				RDGNode dependencyNode = transformer.transformSD(onlySD, session.getNextId());
 				this.root.addDependency(dependencyNode);
 
 				String dependencyName = dependencyNode.getId();
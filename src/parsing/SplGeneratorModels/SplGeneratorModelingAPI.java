@@ -10,6 +10,7 @@ import parsing.exceptions.InvalidNodeType;
 import parsing.exceptions.InvalidNumberOfOperandsException;
 import parsing.sequencediagrams.SDReader;
 import tool.RDGNode;
+import tool.RdgSession;
 import fdtmc.FDTMC;
 import modeling.IModelerAPI;
 
@@ -26,9 +27,9 @@ public class SplGeneratorModelingAPI implements IModelerAPI {
 	}
 	
 	@Override
-	public RDGNode transform() throws InvalidNumberOfOperandsException,
+	public RDGNode transform(RdgSession session) throws InvalidNumberOfOperandsException,
 			InvalidNodeClassException, InvalidNodeType {
-		Transformer t = new Transformer(); 
+		Transformer t = new Transformer(session);
 		RDGNode root = t.transformAD(spl.getActivityDiagram());
 		return root;
 	}
@@ -16,6 +16,7 @@ import parsing.SplGeneratorModels.Transition;
 import parsing.SplGeneratorModels.SPLFilePersistence;
 //import splGenerator.transformation.SequenceDiagramTransformer;
 import tool.RDGNode;
+import tool.RdgSession;
 
 public class Transformer {
 	
@@ -24,6 +25,22 @@ public class Transformer {
 	private HashMap<String, fdtmc.State> fdtmcStateById = new HashMap<String, fdtmc.State>();
 	private RDGNode root;
 	private HashMap<ActivityDiagramElement, State> stateByAdElement = new HashMap<ActivityDiagramElement, State>();
+	private RdgSession session;
+
+	/**
+	 * Creates the RDG nodes in a fresh session.
+	 */
+	public Transformer() {
+		this(new RdgSession());
+	}
+
+	/**
+	 * @param session
+	 *            session to which the created RDG nodes belong.
+	 */
+	public Transformer(RdgSession session) {
+		this.session = session;
+	}
 
 	/**
 	 * This method is responsible for creating an RDG structure for a whole SPL
@@ -37,7 +54,7 @@ public class Transformer {
 	public RDGNode transformAD(ActivityDiagram ad) {
 		FDTMC f = new FDTMC();
 		f.setVariableName(ad.getName() + "_s");
-		RDGNode answer = new RDGNode(ad.getName(), "true", f);
+		RDGNode answer = session.createNode(ad.getName(), "true", f);
 		root = answer;
 
 		// Takes the first element (init) and transform it into its FDTMC
@@ -100,7 +117,7 @@ public class Transformer {
 				fdtmcStateById.put(adElem.getElementName(), source);
 				// TODO Throw exception if there is more than one associated SD
 				SequenceDiagram onlyAssociatedSD = a.getSequenceDiagrams().getFirst();
-				SequenceDiagramTransformer sdt = new SequenceDiagramTransformer();
+				SequenceDiagramTransformer sdt = new SequenceDiagramTransformer(session);
 				RDGNode dependencyNode = sdt.transformSD(onlyAssociatedSD, onlyAssociatedSD.getName());
 				this.root.addDependency(dependencyNode);
 
@@ -7,20 +7,45 @@ import jadd.ADD;
 import jadd.JADD;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
 import java.util.stream.Stream;
 
 import paramwrapper.IModelCollector;
-import paramwrapper.ParamWrapper;
+import paramwrapper.IsomorphismDeduplicatingModelChecker;
+import paramwrapper.ModelCheckerFactory;
 import paramwrapper.ParametricModelChecker;
+import paramwrapper.ReducingModelChecker;
+import tool.analyzers.ADDReliabilityResults;
+import tool.analyzers.AnalysisBudget;
+import tool.analyzers.AnalysisMetrics;
+import tool.analyzers.AnalysisStrategy;
+import tool.analyzers.AutoReliabilityResults;
+import tool.analyzers.BudgetExceededException;
 import tool.analyzers.IPruningStrategy;
 import tool.analyzers.IReliabilityAnalysisResults;
+import tool.analyzers.IncrementalAnalysisState;
+import tool.analyzers.MapBasedReliabilityResults;
+import tool.analyzers.ResultsSink;
+import tool.analyzers.SampledReliabilityResults;
+import tool.analyzers.SamplingParameters;
+import tool.analyzers.StrategySelector;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.ProductExecutor;
+import tool.analyzers.buildingblocks.ProductIterationHelper;
 import tool.analyzers.strategies.FamilyBasedAnalyzer;
 import tool.analyzers.strategies.FamilyProductBasedAnalyzer;
 import tool.analyzers.strategies.FeatureFamilyBasedAnalyzer;
 import tool.analyzers.strategies.FeatureProductBasedAnalyzer;
+import tool.analyzers.strategies.MonteCarloAnalyzer;
 import tool.analyzers.strategies.ProductBasedAnalyzer;
+import tool.analyzers.strategies.SensitivityAnalyzer;
 import tool.stats.IFormulaCollector;
 import tool.stats.ITimeCollector;
 import tool.stats.NoopFormulaCollector;
@@ -36,13 +61,30 @@ import expressionsolver.ExpressionSolver;
  * @author thiago
  */
 public class Analyzer {
+    private static final Logger LOGGER = Logger.getLogger(Analyzer.class.getName());
 
     private ADD featureModel;
+    private ParametricModelChecker rawModelChecker;
+    /**
+     * Decorators of the given model checker (see {@link #setIsomorphismDeduplication(int)}).
+     */
+    private volatile ParametricModelChecker decoratedModelChecker;
+    private ParametricModelChecker baseModelChecker;
     private ParametricModelChecker modelChecker;
     private ExpressionSolver expressionSolver;
     private JADD jadd;
 
     private ConcurrencyStrategy concurrencyStrategy = ConcurrencyStrategy.PARALLEL;
+    private int batchSize = ProductIterationHelper.DEFAULT_BATCH_SIZE;
+    private int productParallelism = Runtime.getRuntime().availableProcessors();
+    private SamplingParameters samplingParameters = SamplingParameters.DEFAULT;
+    private IPruningStrategy pruningStrategy;
+    private Executor derivationExecutor;
+    /**
+     * Budget of every analysis run by this instance, if any. Only the
+     * short-lived copies made by {@link #evaluateAutoReliability} have one.
+     */
+    private AnalysisBudget budget;
 
     private ITimeCollector timeCollector;
     private IFormulaCollector formulaCollector;
@@ -52,6 +94,8 @@ public class Analyzer {
     ProductBasedAnalyzer productBasedAnalyzerImpl;
     FamilyBasedAnalyzer familyBasedAnalyzerImpl;
     FamilyProductBasedAnalyzer familyProductBasedAnalyzerImpl;
+    SensitivityAnalyzer sensitivityAnalyzerImpl;
+    MonteCarloAnalyzer monteCarloAnalyzerImpl;
 
     /**
      * Creates an Analyzer which will follow the logical rules
@@ -62,7 +106,18 @@ public class Analyzer {
      * @throws IOException if there is a problem reading the file.
      */
     public Analyzer(String featureModel, String paramPath, ITimeCollector timeCollector, IFormulaCollector formulaCollector, IModelCollector modelCollector) {
-        this(new JADD(), featureModel, paramPath, timeCollector, formulaCollector, modelCollector);
+        this(new JADD(), featureModel, ModelCheckerFactory.createModelChecker(paramPath, modelCollector), timeCollector, formulaCollector);
+    }
+
+    /**
+     * Creates an Analyzer which will use the given parametric model checker.
+     *
+     * @param featureModel String containing a CNF view of the Feature Model
+     *          expressed using Java logical operators.
+     * @param modelChecker Model checker to be used for computing reliability expressions.
+     */
+    public Analyzer(String featureModel, ParametricModelChecker modelChecker, ITimeCollector timeCollector, IFormulaCollector formulaCollector) {
+        this(new JADD(), featureModel, modelChecker, timeCollector, formulaCollector);
     }
 
     /**
@@ -72,7 +127,7 @@ public class Analyzer {
      * @param featureModel
      */
     Analyzer(JADD jadd, String featureModel, String paramPath) {
-        this(jadd, featureModel, paramPath, null, null, null);
+        this(jadd, featureModel, ModelCheckerFactory.createModelChecker(paramPath, null), null, null);
     }
 
 
@@ -81,7 +136,7 @@ public class Analyzer {
      * @param jadd
      * @param featureModel
      */
-    private Analyzer(JADD jadd, String featureModel, String paramPath, ITimeCollector timeCollector, IFormulaCollector formulaCollector, IModelCollector modelCollector) {
+    private Analyzer(JADD jadd, String featureModel, ParametricModelChecker modelChecker, ITimeCollector timeCollector, IFormulaCollector formulaCollector) {
         this.jadd = jadd;
         this.expressionSolver = new ExpressionSolver(jadd);
         this.featureModel = expressionSolver.encodeFormula(featureModel);
@@ -91,8 +146,49 @@ public class Analyzer {
 
         this.timeCollector = (timeCollector != null) ? timeCollector : new NoopTimeCollector();
         this.formulaCollector = (formulaCollector != null) ? formulaCollector : new NoopFormulaCollector();
-        this.modelChecker = (modelCollector != null) ? new ParamWrapper(paramPath, modelCollector) : new ParamWrapper(paramPath);
+        this.rawModelChecker = modelChecker;
+        setIsomorphismDeduplication(IsomorphismDeduplicatingModelChecker.DEFAULT_MAX_MODELS);
+        this.baseModelChecker = fdtmc -> decoratedModelChecker.getReliability(fdtmc);
+        this.modelChecker = this.baseModelChecker;
+        createStrategies();
+    }
+
+    /**
+     * Creates a copy of {@code parent} (sharing its ADD processor, feature
+     * model, model checker and settings) whose analyses are bounded by the
+     * given budget. It is checked before each model checking task, between
+     * the steps of family-wide solving and between chunks of products.
+     *
+     * @param parent
+     * @param budget
+     */
+    private Analyzer(Analyzer parent, AnalysisBudget budget) {
+        this.jadd = parent.jadd;
+        this.expressionSolver = parent.expressionSolver;
+        this.featureModel = parent.featureModel;
+        this.timeCollector = parent.timeCollector;
+        this.formulaCollector = parent.formulaCollector;
+        this.concurrencyStrategy = parent.concurrencyStrategy;
+        this.batchSize = parent.batchSize;
+        this.productParallelism = parent.productParallelism;
+        this.samplingParameters = parent.samplingParameters;
 
+        this.budget = budget;
+        this.baseModelChecker = parent.baseModelChecker;
+        this.modelChecker = fdtmc -> {
+            budget.check();
+            return baseModelChecker.getReliability(fdtmc);
+        };
+        createStrategies();
+        if (parent.pruningStrategy != null) {
+            setPruningStrategy(parent.pruningStrategy);
+        }
+        if (parent.derivationExecutor != null) {
+            setDerivationExecutor(parent.derivationExecutor);
+        }
+    }
+
+    private void createStrategies() {
         this.featureFamilyBasedAnalyzerImpl = new FeatureFamilyBasedAnalyzer(this.jadd,
                                                                              this.featureModel,
                                                                              this.modelChecker,
@@ -115,6 +211,19 @@ public class Analyzer {
                                                                              this.modelChecker,
                                                                              this.timeCollector,
                                                                              this.formulaCollector);
+        this.sensitivityAnalyzerImpl = new SensitivityAnalyzer(this.jadd,
+                                                               this.featureModel,
+                                                               this.modelChecker,
+                                                               this.timeCollector,
+                                                               this.formulaCollector);
+        this.monteCarloAnalyzerImpl = new MonteCarloAnalyzer(this.jadd,
+                                                             this.modelChecker,
+                                                             this.timeCollector,
+                                                             this.formulaCollector);
+        if (budget != null) {
+            this.featureFamilyBasedAnalyzerImpl.setCheckpoint(budget::check);
+            this.familyBasedAnalyzerImpl.setCheckpoint(budget::check);
+        }
     }
 
     /**
@@ -146,13 +255,88 @@ public class Analyzer {
      * @param pruningStrategy the pruningStrategy to set
      */
     public void setPruningStrategy(IPruningStrategy pruningStrategy) {
+        this.pruningStrategy = pruningStrategy;
         this.featureFamilyBasedAnalyzerImpl.setPruningStrategy(pruningStrategy);
     }
 
+    /**
+     * Sets the maximum number of distinct models (up to isomorphism) whose
+     * reliability formulae are kept for reuse by isomorphic fragments, which
+     * are frequent (defaults to
+     * {@link IsomorphismDeduplicatingModelChecker#DEFAULT_MAX_MODELS}).
+     * The least recently used formulae are evicted first.
+     *
+     * @param maxModels the number of formulae to keep, or 0 for checking
+     *          every model anew.
+     */
+    public void setIsomorphismDeduplication(int maxModels) {
+        ParametricModelChecker checker = (maxModels > 0)
+                ? new IsomorphismDeduplicatingModelChecker(rawModelChecker, maxModels)
+                : rawModelChecker;
+        // Models are reduced before anything else.
+        this.decoratedModelChecker = new ReducingModelChecker(checker);
+    }
+
     public void setConcurrencyStrategy(ConcurrencyStrategy concurrencyStrategy) {
         this.concurrencyStrategy = concurrencyStrategy;
     }
 
+    /**
+     * Sets the executor in which independent components are model checked
+     * or derived concurrently, if the concurrency strategy is PARALLEL
+     * (defaults to the common fork-join pool). Product evaluations have
+     * their own threads (see {@link #setProductParallelism(int)}).
+     *
+     * @param derivationExecutor the derivationExecutor to set
+     */
+    public void setDerivationExecutor(Executor derivationExecutor) {
+        this.derivationExecutor = derivationExecutor;
+        this.featureFamilyBasedAnalyzerImpl.setExecutor(derivationExecutor);
+        this.featureProductBasedAnalyzerImpl.setExecutor(derivationExecutor);
+        this.productBasedAnalyzerImpl.setExecutor(derivationExecutor);
+        this.familyBasedAnalyzerImpl.setExecutor(derivationExecutor);
+        this.familyProductBasedAnalyzerImpl.setExecutor(derivationExecutor);
+        this.sensitivityAnalyzerImpl.setExecutor(derivationExecutor);
+        this.monteCarloAnalyzerImpl.setExecutor(derivationExecutor);
+    }
+
+    /**
+     * Sets the maximum number of configurations evaluated at a time by the
+     * sink-based (streaming) per-product analyses.
+     *
+     * @param batchSize the batchSize to set
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sets the number of threads evaluating products in per-product
+     * analyses, if the concurrency strategy is PARALLEL (defaults to the
+     * number of available processors).
+     *
+     * @param productParallelism the productParallelism to set
+     */
+    public void setProductParallelism(int productParallelism) {
+        this.productParallelism = productParallelism;
+    }
+
+    /**
+     * Sets the confidence level and stopping criteria of statistical
+     * (Monte Carlo) analyses.
+     *
+     * @param samplingParameters the samplingParameters to set
+     */
+    public void setSamplingParameters(SamplingParameters samplingParameters) {
+        this.samplingParameters = samplingParameters;
+    }
+
+    private ProductExecutor makeProductExecutor() {
+        int parallelism = (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) ? productParallelism : 1;
+        ProductExecutor executor = new ProductExecutor(parallelism);
+        return (budget != null) ? executor.withCheckpoint(budget::check) : executor;
+    }
+
     /**
      * Evaluates the feature-family-based reliability function of an RDG node, based
      * on the reliabilities of the nodes on which it depends.
@@ -179,6 +363,24 @@ public class Analyzer {
         return evaluateFeatureFamilyBasedReliability(node, null);
     }
 
+    /**
+     * Evaluates the feature-family-based reliability function of an RDG node
+     * incrementally, i.e., reusing the reliability expressions and functions
+     * computed by a previous analysis for the nodes which did not change
+     * (as told by their fingerprints).
+     *
+     * This is meant for edit-analyze cycles: the same state object is given
+     * to successive calls (starting with a fresh one) on this same analyzer.
+     *
+     * @param node RDG node whose reliability is to be evaluated.
+     * @param state State of the previous analysis, updated for the current one.
+     * @return
+     * @throws CyclicRdgException
+     */
+    public IReliabilityAnalysisResults evaluateFeatureFamilyBasedReliabilityIncrementally(RDGNode node, IncrementalAnalysisState state) throws CyclicRdgException {
+        return featureFamilyBasedAnalyzerImpl.evaluateReliabilityIncrementally(node, this.concurrencyStrategy, state);
+    }
+
     /**
      * Evaluates the feature-product-based reliability value of an RDG node, based
      * on the reliabilities of the nodes on which it depends.
@@ -189,7 +391,24 @@ public class Analyzer {
      * @throws UnknownFeatureException
      */
     public IReliabilityAnalysisResults evaluateFeatureProductBasedReliability(RDGNode node, Stream<Collection<String>> configurations) throws CyclicRdgException, UnknownFeatureException {
-        return featureProductBasedAnalyzerImpl.evaluateReliability(node, configurations, this.concurrencyStrategy);
+        MapBasedReliabilityResults results = new MapBasedReliabilityResults();
+        featureProductBasedAnalyzerImpl.evaluateReliability(node, configurations, this.concurrencyStrategy, makeProductExecutor(), this.batchSize, results);
+        return results;
+    }
+
+    /**
+     * Evaluates the feature-product-based reliability values of an RDG node,
+     * emitting them to a sink as they are computed instead of keeping them
+     * in memory.
+     *
+     * @param node RDG node whose reliability is to be evaluated.
+     * @param configurations
+     * @param sink Consumer of the results (not closed).
+     * @throws CyclicRdgException
+     * @throws UnknownFeatureException
+     */
+    public void evaluateFeatureProductBasedReliability(RDGNode node, Stream<Collection<String>> configurations, ResultsSink sink) throws CyclicRdgException, UnknownFeatureException {
+        featureProductBasedAnalyzerImpl.evaluateReliability(node, configurations, this.concurrencyStrategy, makeProductExecutor(), this.batchSize, sink);
     }
 
     /**
@@ -202,7 +421,24 @@ public class Analyzer {
      * @throws UnknownFeatureException
      */
     public IReliabilityAnalysisResults evaluateProductBasedReliability(RDGNode node, Stream<Collection<String>> configurations) throws CyclicRdgException, UnknownFeatureException {
-        return productBasedAnalyzerImpl.evaluateReliability(node, configurations, this.concurrencyStrategy);
+        MapBasedReliabilityResults results = new MapBasedReliabilityResults();
+        productBasedAnalyzerImpl.evaluateReliability(node, configurations, this.concurrencyStrategy, makeProductExecutor(), this.batchSize, results);
+        return results;
+    }
+
+    /**
+     * Evaluates the product-based reliability values of an RDG node,
+     * emitting them to a sink as they are computed instead of keeping them
+     * in memory.
+     *
+     * @param node RDG node whose reliability is to be evaluated.
+     * @param configurations
+     * @param sink Consumer of the results (not closed).
+     * @throws CyclicRdgException
+     * @throws UnknownFeatureException
+     */
+    public void evaluateProductBasedReliability(RDGNode node, Stream<Collection<String>> configurations, ResultsSink sink) throws CyclicRdgException, UnknownFeatureException {
+        productBasedAnalyzerImpl.evaluateReliability(node, configurations, this.concurrencyStrategy, makeProductExecutor(), this.batchSize, sink);
     }
 
     /**
@@ -228,7 +464,163 @@ public class Analyzer {
      * @throws UnknownFeatureException
      */
     public IReliabilityAnalysisResults evaluateFamilyProductBasedReliability(RDGNode node, Stream<Collection<String>> configurations) throws CyclicRdgException, UnknownFeatureException {
-        return familyProductBasedAnalyzerImpl.evaluateReliability(node, configurations, this.concurrencyStrategy);
+        MapBasedReliabilityResults results = new MapBasedReliabilityResults();
+        familyProductBasedAnalyzerImpl.evaluateReliability(node, configurations, this.concurrencyStrategy, makeProductExecutor(), this.batchSize, results);
+        return results;
+    }
+
+    /**
+     * Estimates the distribution of the reliabilities of an RDG node over
+     * the valid configurations, by evaluating a uniform random sample of them
+     * (see {@link #setSamplingParameters(SamplingParameters)}).
+     *
+     * @param node RDG node whose reliability is to be evaluated.
+     * @return the estimate, along with exact results for any configuration.
+     * @throws CyclicRdgException
+     */
+    public SampledReliabilityResults evaluateMonteCarloReliability(RDGNode node) throws CyclicRdgException {
+        return monteCarloAnalyzerImpl.estimateReliability(node,
+                                                          this.featureModel,
+                                                          this.concurrencyStrategy,
+                                                          makeProductExecutor(),
+                                                          this.batchSize,
+                                                          this.samplingParameters);
+    }
+
+    /**
+     * Evaluates the reliability of an RDG node with the given (concrete) strategy.
+     *
+     * @param strategy Any analysis strategy but AUTO.
+     * @param node RDG node whose reliability is to be evaluated.
+     * @param configurations Configurations of interest (ignored by family-wide strategies).
+     * @return
+     * @throws CyclicRdgException
+     * @throws UnknownFeatureException
+     */
+    public IReliabilityAnalysisResults evaluateReliability(AnalysisStrategy strategy, RDGNode node, Stream<Collection<String>> configurations) throws CyclicRdgException, UnknownFeatureException {
+        switch (strategy) {
+        case FEATURE_FAMILY:
+            return evaluateFeatureFamilyBasedReliability(node);
+        case FEATURE_PRODUCT:
+            return evaluateFeatureProductBasedReliability(node, configurations);
+        case PRODUCT:
+            return evaluateProductBasedReliability(node, configurations);
+        case FAMILY:
+            return evaluateFamilyBasedReliability(node, configurations);
+        case FAMILY_PRODUCT:
+            return evaluateFamilyProductBasedReliability(node, configurations);
+        case MONTE_CARLO:
+            return evaluateMonteCarloReliability(node);
+        default:
+            throw new IllegalArgumentException("Not a concrete analysis strategy: " + strategy);
+        }
+    }
+
+    /**
+     * Gathers the metrics on which the choice of an analysis strategy for
+     * an RDG is based.
+     *
+     * @param node Root of the RDG.
+     * @return
+     * @throws CyclicRdgException
+     */
+    public AnalysisMetrics collectMetrics(RDGNode node) throws CyclicRdgException {
+        return AnalysisMetrics.of(node, featureModel);
+    }
+
+    /**
+     * Evaluates the reliability of an RDG node with the strategy deemed
+     * cheapest by the {@link StrategySelector}.
+     *
+     * Each strategy but the last one in the ranking is run with the given
+     * budget, by a copy of this analyzer bounded by it (so that concurrent
+     * calls do not interfere). If it is exceeded, the run is aborted (at the
+     * next model checking, ADD solving or product chunk) and the next
+     * strategy is tried.
+     *
+     * @param node RDG node whose reliability is to be evaluated.
+     * @param configurations Supplier of the configurations of interest,
+     *          called anew for each tried strategy.
+     * @param timeBudgetMillis Time budget of each try, in milliseconds (0 for no limit).
+     * @param nodeBudget Number of ADD nodes each try may create (0 for no limit).
+     * @return the results, along with the strategy which computed them.
+     * @throws CyclicRdgException
+     * @throws UnknownFeatureException
+     */
+    public AutoReliabilityResults evaluateAutoReliability(RDGNode node,
+                                                               Supplier<Stream<Collection<String>>> configurations,
+                                                               long timeBudgetMillis,
+                                                               long nodeBudget) throws CyclicRdgException, UnknownFeatureException {
+        AnalysisMetrics metrics = collectMetrics(node);
+        List<AnalysisStrategy> ranking = StrategySelector.rank(metrics);
+        LOGGER.info("SPL metrics: " + metrics);
+        LOGGER.info(() -> "Analysis strategies by estimated cost: " + ranking);
+
+        boolean bounded = timeBudgetMillis > 0 || nodeBudget > 0;
+        List<AnalysisStrategy> aborted = new ArrayList<AnalysisStrategy>();
+        for (int i = 0; i < ranking.size(); i++) {
+            AnalysisStrategy strategy = ranking.get(i);
+            boolean last = !bounded || i == ranking.size() - 1;
+            LOGGER.info("Selected analysis strategy: " + strategy);
+            Analyzer runner = last
+                    ? this
+                    : new Analyzer(this, new AnalysisBudget(timeBudgetMillis, nodeBudget, jadd::getNodeCount));
+            try {
+                IReliabilityAnalysisResults results = runner.evaluateReliability(strategy, node, configurations.get());
+                return new AutoReliabilityResults(results, strategy, aborted);
+            } catch (BudgetExceededException e) {
+                LOGGER.warning(strategy + " aborted (" + e.getMessage() + "), falling back to " + ranking.get(i + 1));
+                aborted.add(strategy);
+            }
+        }
+        throw new IllegalStateException("Unreachable: the last strategy has no budget");
+    }
+
+    /**
+     * Evaluates the family-product-based reliability values of an RDG node,
+     * emitting them to a sink as they are computed instead of keeping them
+     * in memory.
+     *
+     * @param node RDG node whose reliability is to be evaluated.
+     * @param configurations
+     * @param sink Consumer of the results (not closed).
+     * @throws CyclicRdgException
+     */
+    public void evaluateFamilyProductBasedReliability(RDGNode node, Stream<Collection<String>> configurations, ResultsSink sink) throws CyclicRdgException {
+        familyProductBasedAnalyzerImpl.evaluateReliability(node, configurations, this.concurrencyStrategy, makeProductExecutor(), this.batchSize, sink);
+    }
+
+    /**
+     * Evaluates the feature-family-based sensitivity of the reliability of an
+     * RDG node, i.e., its partial derivatives with respect to the reliabilities
+     * of the nodes on which it depends and to the probabilities of the given
+     * messages. A single parametric model checking pass is needed, regardless
+     * of the number of partial derivatives.
+     *
+     * @param node RDG node whose reliability is to be analyzed.
+     * @param messages Names of the messages whose probabilities are to be
+     *          taken into account (possibly none).
+     * @return a mapping from dependency ids and message names to ADD-based
+     *          partial derivatives.
+     * @throws CyclicRdgException
+     */
+    public Map<String, IReliabilityAnalysisResults> evaluateFeatureFamilyBasedSensitivity(RDGNode node, Collection<String> messages) throws CyclicRdgException {
+        Map<String, IReliabilityAnalysisResults> results = new LinkedHashMap<String, IReliabilityAnalysisResults>();
+        sensitivityAnalyzerImpl.evaluateSensitivity(node, messages, this.concurrencyStrategy)
+            .forEach((variable, derivative) -> results.put(variable, new ADDReliabilityResults(derivative)));
+        return results;
+    }
+
+    /**
+     * Evaluates the sensitivity of the reliability of an RDG node for each of
+     * the given configurations.
+     *
+     * @see {@link Analyzer.evaluateFeatureFamilyBasedSensitivity(RDGNode, Collection)}
+     * @throws CyclicRdgException
+     * @throws UnknownFeatureException
+     */
+    public Map<String, IReliabilityAnalysisResults> evaluateFeatureProductBasedSensitivity(RDGNode node, Collection<String> messages, Stream<Collection<String>> configurations) throws CyclicRdgException, UnknownFeatureException {
+        return sensitivityAnalyzerImpl.evaluateSensitivity(node, messages, configurations, this.concurrencyStrategy);
     }
 
     /**
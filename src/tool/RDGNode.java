@@ -1,11 +1,13 @@
 package tool;
 
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import tool.analyzers.buildingblocks.Component;
@@ -15,15 +17,12 @@ public class RDGNode {
 
 	private static final int INITIAL_HEIGHT = 0;
 
-	// This reference is used to store all the RDGnodes created during the
-	// evaluation
-	private static Map<String, RDGNode> rdgNodes = new HashMap<String, RDGNode>();
-	private static List<RDGNode> nodesInCreationOrder = new LinkedList<RDGNode>();
 	private TopologicalSorting topoSort = new TopologicalSorting();
 	private TopologicalSortingPaths topoSortPaths = new TopologicalSortingPaths();
 
-	private static int lastNodeIndex = 0;
-
+	// Session which keeps track of all the RDG nodes created during the
+	// evaluation
+	private RdgSession session;
 	// Node identifier
 	private String id;
 	// This attribute is used to store the FDTMC for the RDG node.
@@ -34,34 +33,45 @@ public class RDGNode {
 	 */
 	private String presenceCondition;
 	// Nodes on which this one depends
-	private Collection<RDGNode> dependencies;
+	private Set<RDGNode> dependencies;
+	// Whether the hash code of a dependency changed since it was added
+	private boolean dependenciesNeedRehash;
+	// Nodes which depend on this one (by identity)
+	private Set<RDGNode> dependents;
 	/**
 	 * Height of the RDGNode.
 	 */
 	private int height;
+	/**
+	 * Structural hash code and fingerprints. They are computed on demand and
+	 * reset whenever the structure they depend on changes, i.e., whenever
+	 * the FDTMC of this node or of any node it (transitively) depends on
+	 * changes, or a dependency is added to any of these nodes.
+	 */
+	private Integer structuralHashCode;
+	private String fingerprint;
+	private String modelFingerprint;
 
 	/**
 	 * The id, presence condition and model (FDTMC) of an RDG node must be
 	 * immutable, so there must be no setters for them. Hence, they must be set
-	 * at construction-time.
-	 *
-	 * @param id
-	 *            Node's identifier. It is preferably a valid Java identifier.
-	 * @param presenceCondition
-	 *            Boolean expression over features (using Java operators).
-	 * @param fdtmc
-	 *            Stochastic model of the piece of behavioral model represented
-	 *            by this node.
+	 * at construction-time. Every node belongs to a session, so nodes are
+	 * created by {@link RdgSession#createNode(String, String, FDTMC)}.
 	 */
-	public RDGNode(String id, String presenceCondition, FDTMC fdtmc) {
+	RDGNode(RdgSession session, String id, String presenceCondition, FDTMC fdtmc) {
+		this.session = session;
 		this.id = id;
 		this.presenceCondition = presenceCondition;
 		this.fdtmc = fdtmc;
 		this.dependencies = new HashSet<RDGNode>();
+		this.dependents = Collections.newSetFromMap(new IdentityHashMap<RDGNode, Boolean>());
 		this.height = INITIAL_HEIGHT;
+		if (fdtmc != null) {
+			// Models are usually filled in after the node is created.
+			fdtmc.addChangeListener(this::modelChanged);
+		}
 
-		rdgNodes.put(id, this);
-		nodesInCreationOrder.add(this);
+		session.register(this);
 	}
 
 	public FDTMC getFDTMC() {
@@ -69,14 +79,52 @@ public class RDGNode {
 	}
 
 	public void addDependency(RDGNode child) {
-		this.dependencies.add(child);
+		dependencies().add(child);
+		child.dependents.add(this);
 		height = Math.max(height, child.height + 1);
+		structureChanged();
 	}
 
+	/**
+	 * @return the (unmodifiable) dependencies of this node. They are added
+	 *         by {@link #addDependency(RDGNode)}.
+	 */
 	public Collection<RDGNode> getDependencies() {
+		return Collections.unmodifiableSet(dependencies());
+	}
+
+	private Set<RDGNode> dependencies() {
+		if (dependenciesNeedRehash) {
+			dependencies = new HashSet<RDGNode>(dependencies);
+			dependenciesNeedRehash = false;
+		}
 		return dependencies;
 	}
 
+	private void modelChanged() {
+		modelFingerprint = null;
+		structureChanged();
+	}
+
+	/**
+	 * Resets the structural hash code and fingerprint of this node and of
+	 * the nodes which (transitively) depend on it.
+	 */
+	private void structureChanged() {
+		if (structuralHashCode == null && fingerprint == null) {
+			// Dependents cannot have computed theirs without computing this
+			// node's, so they have been reset already.
+			return;
+		}
+		structuralHashCode = null;
+		fingerprint = null;
+		for (RDGNode dependent : dependents) {
+			// This node is in the dependent's hash set.
+			dependent.dependenciesNeedRehash = true;
+			dependent.structureChanged();
+		}
+	}
+
 	public String getPresenceCondition() {
 		return presenceCondition;
 	}
@@ -94,12 +142,8 @@ public class RDGNode {
 		return height;
 	}
 
-	public static RDGNode getById(String id) {
-		return rdgNodes.get(id);
-	}
-
-	public static String getNextId() {
-		return "n" + lastNodeIndex++;
+	public RdgSession getSession() {
+		return session;
 	}
 
 	public TopologicalSorting getTopoSort() {
@@ -118,10 +162,6 @@ public class RDGNode {
 		this.topoSortPaths = topoSortPaths;
 	}
 
-	public static List<RDGNode> getNodesInCreationOrder() {
-		return nodesInCreationOrder;
-	}
-
 	/**
 	 * We consider two RDG nodes to be equal whenever their behavior is modeled
 	 * by equal FDTMCs, their presence condition is the same and their
@@ -144,9 +184,51 @@ public class RDGNode {
 		return isEquals;
 	}
 
+	/**
+	 * The hash code is consistent with {@link #equals(Object)} (hence it does
+	 * not depend on the node's id) and is computed only once, so that hashing
+	 * does not recurse over the whole subgraph on every map operation.
+	 */
 	@Override
 	public int hashCode() {
-		return id.hashCode() + presenceCondition.hashCode() + fdtmc.hashCode() + dependencies.hashCode();
+		if (structuralHashCode == null) {
+			int dependenciesHashCode = 0;
+			for (RDGNode dependency : dependencies()) {
+				dependenciesHashCode += dependency.hashCode();
+			}
+			structuralHashCode = presenceCondition.hashCode() + 31 * fdtmc.hashCode() + dependenciesHashCode;
+		}
+		return structuralHashCode;
+	}
+
+	/**
+	 * Returns a structural fingerprint of this node, i.e., a Merkle hash
+	 * (SHA-256) of its presence condition, its FDTMC (in canonical form,
+	 * along with its parameter names and interfaces) and the fingerprints of
+	 * its dependencies. Unlike {@link #equals(Object)}, it does not depend on
+	 * state numbering or action names, but it takes parameter names into
+	 * account, so that nodes with equal fingerprints can share analysis
+	 * results (e.g., as cache keys).
+	 *
+	 * The fingerprint does not depend on the node's id.
+	 */
+	public String getFingerprint() {
+		if (fingerprint == null) {
+			fingerprint = RDGNodeFingerprint.of(this);
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * Returns a fingerprint of this node's FDTMC only. Unlike
+	 * {@link #getFingerprint()}, it does not change when dependencies do, so
+	 * that it identifies the model checking task of this very node.
+	 */
+	public String getModelFingerprint() {
+		if (modelFingerprint == null) {
+			modelFingerprint = RDGNodeFingerprint.ofModel(fdtmc);
+		}
+		return modelFingerprint;
 	}
 
 	@Override
@@ -177,21 +259,8 @@ public class RDGNode {
 	}
 
 	/**
-	 * Return a {@link #equals(Object)} node
-	 *
-	 * @param candidate
-	 *            comparation element
-	 * @param target
-	 *            submited element
-	 * @return true if some candidate is equals to {@link equals method}
-	 */
-	private static boolean isEqualsButNotSame(RDGNode candidate, RDGNode target) {
-		return (candidate != target && candidate.equals(target));
-	}
-
-	/**
-	 * Returns the first RDG node (in crescent order of creation time) which is
-	 * similar to the one provided.
+	 * Returns the first RDG node of the same session (in crescent order of
+	 * creation time) which is similar to the one provided.
 	 *
 	 * A similar RDG node is one for which equals() returns true.
 	 * 
@@ -199,27 +268,41 @@ public class RDGNode {
 	 * @return a similar RDG node or null in case there is none.
 	 */
 	public static RDGNode getSimilarNode(RDGNode target) {
-		for (RDGNode candidate : getNodesInCreationOrder()) {
-			if (isEqualsButNotSame(candidate, target)) {
-				return candidate;
-			}
-		}
-		return null;
+		return target.getSession().getSimilarNode(target);
 	}
 
 	/**
 	 * Converts this RDG node into a Component<FDTMC>.
+	 *
+	 * Shared dependencies are converted only once, so the resulting
+	 * component graph has the same sharing as the RDG.
 	 * 
 	 * @return
 	 */
 	public Component<FDTMC> toComponent() {
-		Collection<Component<FDTMC>> dependencies = this.getDependencies().stream().map(RDGNode::toComponent)
-				.collect(Collectors.toSet());
-		return new Component<FDTMC>(this.getId(), this.getPresenceCondition(), this.getFDTMC(), dependencies);
+		return toComponent(new IdentityHashMap<RDGNode, Component<FDTMC>>());
 	}
 
+	/**
+	 * Converts a list of RDG nodes into components, converting each distinct
+	 * node exactly once (i.e., components are shared among the results).
+	 */
 	public static List<Component<FDTMC>> toComponentList(List<RDGNode> nodes) {
-		return nodes.stream().map(RDGNode::toComponent).collect(Collectors.toList());
+		Map<RDGNode, Component<FDTMC>> converted = new IdentityHashMap<RDGNode, Component<FDTMC>>();
+		return nodes.stream().map(node -> node.toComponent(converted)).collect(Collectors.toList());
+	}
+
+	private Component<FDTMC> toComponent(Map<RDGNode, Component<FDTMC>> converted) {
+		Component<FDTMC> component = converted.get(this);
+		if (component == null) {
+			Collection<Component<FDTMC>> dependencies = new HashSet<Component<FDTMC>>();
+			for (RDGNode dependency : this.getDependencies()) {
+				dependencies.add(dependency.toComponent(converted));
+			}
+			component = new Component<FDTMC>(this.getId(), this.getPresenceCondition(), this.getFDTMC(), dependencies);
+			converted.put(this, component);
+		}
+		return component;
 	}
 
 }
@@ -0,0 +1,108 @@
+package tool;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import paramwrapper.CanonicalModel;
+import fdtmc.FDTMC;
+import fdtmc.Interface;
+
+/**
+ * Computes Merkle fingerprints of RDG nodes (see {@link RDGNode#getFingerprint()}).
+ *
+ * Models are digested in their {@link CanonicalModel} form, so that the
+ * fingerprint does not depend on state numbering, action names or the
+ * state variable, along with the actual parameter names (hence models with
+ * equal fingerprints have the same reliability expression) and the
+ * interfaces (hence they are also derived alike).
+ */
+final class RDGNodeFingerprint {
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+
+	private RDGNodeFingerprint() {
+		// NO-OP
+	}
+
+	static String of(RDGNode node) {
+		MessageDigest digest = newDigest();
+		update(digest, node.getPresenceCondition());
+		updateWithModel(digest, node.getFDTMC());
+
+		// Dependencies are a set, so their fingerprints are sorted.
+		List<String> dependencies = new ArrayList<String>();
+		for (RDGNode dependency : node.getDependencies()) {
+			dependencies.add(dependency.getFingerprint());
+		}
+		Collections.sort(dependencies);
+		for (String dependency : dependencies) {
+			update(digest, dependency);
+		}
+		return toHex(digest);
+	}
+
+	/**
+	 * Fingerprint of a single model, regardless of the node it belongs to.
+	 */
+	static String ofModel(FDTMC fdtmc) {
+		MessageDigest digest = newDigest();
+		updateWithModel(digest, fdtmc);
+		return toHex(digest);
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(MessageDigest digest) {
+		StringBuilder fingerprint = new StringBuilder();
+		for (byte b : digest.digest()) {
+			fingerprint.append(String.format("%02x", b));
+		}
+		return fingerprint.toString();
+	}
+
+	private static void updateWithModel(MessageDigest digest, FDTMC fdtmc) {
+		if (fdtmc == null || fdtmc.getInitialState() == null) {
+			update(digest, "");
+			return;
+		}
+		CanonicalModel canonical = CanonicalModel.of(fdtmc);
+		update(digest, canonical.getKey());
+		for (String parameter : canonical.getParameters()) {
+			update(digest, parameter);
+		}
+
+		// Interfaces are described by the canonical indices of their states,
+		// and sorted, since their order of creation is irrelevant.
+		List<String> interfaces = new ArrayList<String>();
+		for (Map.Entry<String, List<Interface>> entry : fdtmc.getInterfaces().entrySet()) {
+			for (Interface iface : entry.getValue()) {
+				interfaces.add(entry.getKey()
+						+ "@" + canonical.getStateIndex(iface.getInitial())
+						+ ">" + canonical.getStateIndex(iface.getSuccess())
+						+ "," + canonical.getStateIndex(iface.getError()));
+			}
+		}
+		Collections.sort(interfaces);
+		update(digest, Integer.toString(interfaces.size()));
+		for (String iface : interfaces) {
+			update(digest, iface);
+		}
+	}
+
+	private static void update(MessageDigest digest, String input) {
+		digest.update(input.getBytes(CHARSET));
+		// Separator, so that ("ab", "c") and ("a", "bc") differ.
+		digest.update((byte) 0);
+	}
+
+}
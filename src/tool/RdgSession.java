@@ -0,0 +1,85 @@
+package tool;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import fdtmc.FDTMC;
+
+/**
+ * Container of the RDG nodes built for one analysis. It owns node creation,
+ * id allocation and lookup, so that analyses run in the same JVM neither
+ * share ids nor keep each other's nodes alive: once a session (and the RDG
+ * built with it) is discarded, all of its nodes can be garbage collected.
+ *
+ * Sessions are not meant to be shared between threads while a graph is
+ * being built, but distinct sessions can be used concurrently.
+ */
+public class RdgSession {
+
+	private Map<String, RDGNode> nodesById = new HashMap<String, RDGNode>();
+	private List<RDGNode> nodesInCreationOrder = new LinkedList<RDGNode>();
+	private int lastNodeIndex = 0;
+
+	/**
+	 * Creates an RDG node which belongs to this session.
+	 *
+	 * @param id
+	 *            Node's identifier. It is preferably a valid Java identifier.
+	 * @param presenceCondition
+	 *            Boolean expression over features (using Java operators).
+	 * @param fdtmc
+	 *            Stochastic model of the piece of behavioral model represented
+	 *            by this node.
+	 */
+	public RDGNode createNode(String id, String presenceCondition, FDTMC fdtmc) {
+		return new RDGNode(this, id, presenceCondition, fdtmc);
+	}
+
+	/**
+	 * Called by {@link RDGNode}'s constructor.
+	 */
+	synchronized void register(RDGNode node) {
+		nodesById.put(node.getId(), node);
+		nodesInCreationOrder.add(node);
+	}
+
+	public synchronized RDGNode getById(String id) {
+		return nodesById.get(id);
+	}
+
+	/**
+	 * @return a fresh node id, unique within this session.
+	 */
+	public synchronized String getNextId() {
+		return "n" + lastNodeIndex++;
+	}
+
+	public synchronized List<RDGNode> getNodesInCreationOrder() {
+		return new LinkedList<RDGNode>(nodesInCreationOrder);
+	}
+
+	/**
+	 * Returns the first node of this session (in crescent order of creation
+	 * time) which is similar to the one provided, i.e., one for which
+	 * equals() returns true.
+	 *
+	 * @return a similar RDG node or null in case there is none.
+	 */
+	public synchronized RDGNode getSimilarNode(RDGNode target) {
+		// Lookups are frequent (one per transformed node), so the nodes are
+		// scanned in place rather than copied. Hashes are not indexed, since
+		// they change along with the nodes' structure.
+		int targetHash = target.hashCode();
+		for (RDGNode candidate : nodesInCreationOrder) {
+			if (candidate != target
+					&& candidate.hashCode() == targetHash
+					&& candidate.equals(target)) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+}
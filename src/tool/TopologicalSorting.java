@@ -1,6 +1,6 @@
 package tool;
 
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -13,7 +13,8 @@ public class TopologicalSorting {
 	 */
 
 	public void runTopologicalSortVisit(List<RDGNode> transitiveDependencies, RDGNode node) {
-		Map<RDGNode, Boolean> marks = new HashMap<RDGNode, Boolean>();
+		// Nodes are visited by identity, which spares hashing whole subgraphs.
+		Map<RDGNode, Boolean> marks = new IdentityHashMap<RDGNode, Boolean>();
 
 		topoSortVisit(node, marks, transitiveDependencies);
 	}
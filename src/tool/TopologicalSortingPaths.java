@@ -1,6 +1,6 @@
 package tool;
 
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 public class TopologicalSortingPaths {
@@ -14,7 +14,7 @@ public class TopologicalSortingPaths {
 			// Mark node temporarily (cycle detection)
 			marks.put(node, false);
 
-			Map<RDGNode, Integer> numberOfPaths = new HashMap<RDGNode, Integer>();
+			Map<RDGNode, Integer> numberOfPaths = new IdentityHashMap<RDGNode, Integer>();
 			// A node always has a path to itself.
 			numberOfPaths.put(node, 1);
 			// The number of paths from a node X to a node Y is equal to the
@@ -41,7 +41,7 @@ public class TopologicalSortingPaths {
 	 */
 	private static Map<RDGNode, Integer> sumPaths(Map<RDGNode, Integer> pathsCountA,
 			Map<RDGNode, Integer> pathsCountB) {
-		Map<RDGNode, Integer> numberOfPaths = new HashMap<RDGNode, Integer>(pathsCountA);
+		Map<RDGNode, Integer> numberOfPaths = new IdentityHashMap<RDGNode, Integer>(pathsCountA);
 		for (Map.Entry<RDGNode, Integer> entry : pathsCountB.entrySet()) {
 			RDGNode node = entry.getKey();
 			Integer count = entry.getValue();
@@ -61,7 +61,7 @@ public class TopologicalSortingPaths {
 	 * @throws CyclicRdgException
 	 */
 	public Map<RDGNode, Integer> getNumberOfPaths(RDGNode node) throws CyclicRdgException {
-		Map<RDGNode, Integer> numberOfPaths = new HashMap<RDGNode, Integer>();
+		Map<RDGNode, Integer> numberOfPaths = new IdentityHashMap<RDGNode, Integer>();
 
 		Map<RDGNode, Integer> tmpNumberOfPaths = getNumberMapsOfPathVisited(node);
 		numberOfPaths = sumPaths(numberOfPaths, tmpNumberOfPaths);
@@ -70,8 +70,8 @@ public class TopologicalSortingPaths {
 	}
 
 	private Map<RDGNode, Integer> getNumberMapsOfPathVisited(RDGNode node) {
-		Map<RDGNode, Boolean> marks = new HashMap<RDGNode, Boolean>();
-		Map<RDGNode, Map<RDGNode, Integer>> cache = new HashMap<RDGNode, Map<RDGNode, Integer>>();
+		Map<RDGNode, Boolean> marks = new IdentityHashMap<RDGNode, Boolean>();
+		Map<RDGNode, Map<RDGNode, Integer>> cache = new IdentityHashMap<RDGNode, Map<RDGNode, Integer>>();
 
 		return numPathsVisit(node, marks, cache);
 	}
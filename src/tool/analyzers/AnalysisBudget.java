@@ -0,0 +1,43 @@
+package tool.analyzers;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Time and ADD node budget of a single analysis run.
+ *
+ * Budgets are enforced cooperatively: the analysis calls {@link #check()}
+ * at convenient points (e.g., before each model checking or solving step),
+ * which aborts it by throwing a {@link BudgetExceededException}.
+ */
+public class AnalysisBudget {
+
+    private long deadline;
+    private long nodesLimit;
+    private LongSupplier nodeCount;
+
+    /**
+     * Starts a budget right away.
+     *
+     * @param timeBudgetMillis Maximum running time in milliseconds (0 for no limit).
+     * @param nodeBudget Maximum number of ADD nodes created during the run (0 for no limit).
+     * @param nodeCount Current number of ADD nodes (e.g., {@link jadd.JADD#getNodeCount()}).
+     */
+    public AnalysisBudget(long timeBudgetMillis, long nodeBudget, LongSupplier nodeCount) {
+        this.deadline = (timeBudgetMillis > 0) ? System.currentTimeMillis() + timeBudgetMillis : Long.MAX_VALUE;
+        this.nodesLimit = (nodeBudget > 0) ? nodeCount.getAsLong() + nodeBudget : Long.MAX_VALUE;
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * @throws BudgetExceededException if the time or node budget is exhausted.
+     */
+    public void check() {
+        if (System.currentTimeMillis() > deadline) {
+            throw new BudgetExceededException("Time budget exceeded");
+        }
+        if (nodesLimit != Long.MAX_VALUE && nodeCount.getAsLong() > nodesLimit) {
+            throw new BudgetExceededException("ADD node budget exceeded");
+        }
+    }
+
+}
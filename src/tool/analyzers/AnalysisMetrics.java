@@ -0,0 +1,117 @@
+package tool.analyzers;
+
+import jadd.ADD;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import tool.CyclicRdgException;
+import tool.RDGNode;
+
+/**
+ * Cheaply computed metrics of an SPL, on which the choice of an analysis
+ * strategy is based (see {@link StrategySelector}).
+ */
+public class AnalysisMetrics {
+
+    private int featuresNumber;
+    private double validConfigurationsNumber;
+    private int nodesNumber;
+    private int height;
+    private long statesNumber;
+    private int maxStatesNumber;
+    private int presenceConditionsNumber;
+
+    public AnalysisMetrics(int featuresNumber,
+                           double validConfigurationsNumber,
+                           int nodesNumber,
+                           int height,
+                           long statesNumber,
+                           int maxStatesNumber,
+                           int presenceConditionsNumber) {
+        this.featuresNumber = featuresNumber;
+        this.validConfigurationsNumber = validConfigurationsNumber;
+        this.nodesNumber = nodesNumber;
+        this.height = height;
+        this.statesNumber = statesNumber;
+        this.maxStatesNumber = maxStatesNumber;
+        this.presenceConditionsNumber = presenceConditionsNumber;
+    }
+
+    /**
+     * Gathers the metrics of an RDG and its feature model. No model checking
+     * or ADD operation is performed.
+     *
+     * @param node Root of the RDG.
+     * @param featureModel Feature model's 0,1-ADD.
+     * @throws CyclicRdgException
+     */
+    public static AnalysisMetrics of(RDGNode node, ADD featureModel) throws CyclicRdgException {
+        List<RDGNode> nodes = node.getDependenciesTransitiveClosure();
+        long statesNumber = 0;
+        int maxStatesNumber = 0;
+        Set<String> presenceConditions = new HashSet<String>();
+        for (RDGNode dependency : nodes) {
+            int states = dependency.getFDTMC().getStates().size();
+            statesNumber += states;
+            maxStatesNumber = Math.max(maxStatesNumber, states);
+            presenceConditions.add(dependency.getPresenceCondition());
+        }
+        return new AnalysisMetrics(featureModel.getVariables().size(),
+                                   featureModel.getPathsToNonZeroTerminalsCount(),
+                                   nodes.size(),
+                                   node.getHeight(),
+                                   statesNumber,
+                                   maxStatesNumber,
+                                   presenceConditions.size());
+    }
+
+    public int getFeaturesNumber() {
+        return featuresNumber;
+    }
+
+    /**
+     * @return the number of paths to non-zero terminals of the feature model's
+     *          ADD, which approximates (from below) the number of valid
+     *          configurations.
+     */
+    public double getValidConfigurationsNumber() {
+        return validConfigurationsNumber;
+    }
+
+    public int getNodesNumber() {
+        return nodesNumber;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the number of states of all FDTMCs in the RDG.
+     */
+    public long getStatesNumber() {
+        return statesNumber;
+    }
+
+    public int getMaxStatesNumber() {
+        return maxStatesNumber;
+    }
+
+    public int getPresenceConditionsNumber() {
+        return presenceConditionsNumber;
+    }
+
+    @Override
+    public String toString() {
+        return "features=" + featuresNumber
+                + ", valid configurations=" + validConfigurationsNumber
+                + ", RDG nodes=" + nodesNumber
+                + ", RDG height=" + height
+                + ", FDTMC states=" + statesNumber
+                + " (max " + maxStatesNumber + ")"
+                + ", distinct presence conditions=" + presenceConditionsNumber;
+    }
+
+}
@@ -5,5 +5,16 @@ public enum AnalysisStrategy {
     FEATURE_PRODUCT,
     PRODUCT,
     FAMILY,
-    FAMILY_PRODUCT
+    FAMILY_PRODUCT,
+    /**
+     * One of the above, chosen by {@link StrategySelector} from the metrics
+     * of the SPL at hand.
+     */
+    AUTO,
+    /**
+     * Statistical estimate from a uniform sample of the valid configurations
+     * (see {@link SamplingParameters}). Never chosen by AUTO, since it is
+     * approximate.
+     */
+    MONTE_CARLO
 }
@@ -0,0 +1,53 @@
+package tool.analyzers;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import tool.UnknownFeatureException;
+
+/**
+ * Results of an automatically chosen analysis strategy, along with the
+ * strategy which actually computed them and the ones which were aborted
+ * (in order) for exceeding their budget.
+ */
+public class AutoReliabilityResults implements IReliabilityAnalysisResults {
+
+    private IReliabilityAnalysisResults results;
+    private AnalysisStrategy strategy;
+    private List<AnalysisStrategy> abortedStrategies;
+
+    public AutoReliabilityResults(IReliabilityAnalysisResults results, AnalysisStrategy strategy, List<AnalysisStrategy> abortedStrategies) {
+        this.results = results;
+        this.strategy = strategy;
+        this.abortedStrategies = Collections.unmodifiableList(new ArrayList<AnalysisStrategy>(abortedStrategies));
+    }
+
+    public IReliabilityAnalysisResults getResults() {
+        return results;
+    }
+
+    public AnalysisStrategy getStrategy() {
+        return strategy;
+    }
+
+    public List<AnalysisStrategy> getAbortedStrategies() {
+        return abortedStrategies;
+    }
+
+    @Override
+    public Double getResult(String[] configuration) throws UnknownFeatureException {
+        return results.getResult(configuration);
+    }
+
+    @Override
+    public void printStats(PrintStream output) {
+        output.println("Analysis strategy: " + strategy);
+        if (!abortedStrategies.isEmpty()) {
+            output.println("Aborted strategies: " + abortedStrategies);
+        }
+        results.printStats(output);
+    }
+
+}
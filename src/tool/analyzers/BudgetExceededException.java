@@ -0,0 +1,17 @@
+package tool.analyzers;
+
+/**
+ * Thrown when an analysis exceeds its {@link AnalysisBudget}.
+ */
+public class BudgetExceededException extends RuntimeException {
+
+    /**
+     *
+     */
+    private static final long serialVersionUID = 4630587251948370462L;
+
+    public BudgetExceededException(String message) {
+        super(message);
+    }
+
+}
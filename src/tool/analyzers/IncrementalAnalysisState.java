@@ -0,0 +1,78 @@
+package tool.analyzers;
+
+import jadd.ADD;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * State kept between successive feature-family-based analyses of evolving
+ * models, so that only what changed is analyzed again.
+ *
+ * Reliability expressions are keyed by the fingerprint of the model they
+ * were computed for (see {@link tool.RDGNode#getModelFingerprint()}), hence
+ * a node is only model checked again if its own FDTMC changed. Reliability
+ * functions (ADDs) are keyed by the Merkle fingerprint of their node (see
+ * {@link tool.RDGNode#getFingerprint()}), hence they are only solved again for
+ * changed nodes and their ancestors.
+ *
+ * A state must only be used with the analyzer which created its ADDs (and
+ * with the same pruning strategy). Only entries for the nodes of the latest
+ * analyzed RDG are retained: alternating between unrelated RDGs (e.g. from
+ * different {@link tool.RdgSession}s) with the same state analyzes each of
+ * them from scratch, so keep one state per evolving RDG.
+ */
+public class IncrementalAnalysisState {
+
+    private Map<String, String> expressionsByModel = new HashMap<String, String>();
+    private Map<String, ADD> reliabilitiesByNode = new HashMap<String, ADD>();
+    private int reusedExpressions = 0;
+    private int reusedReliabilities = 0;
+
+    /**
+     * @return the reliability expression of a model or null if it is unknown.
+     */
+    public String getExpression(String modelFingerprint) {
+        return expressionsByModel.get(modelFingerprint);
+    }
+
+    /**
+     * @return the reliability function of an RDG node or null if it is unknown.
+     */
+    public ADD getReliability(String nodeFingerprint) {
+        return reliabilitiesByNode.get(nodeFingerprint);
+    }
+
+    /**
+     * Replaces the state's contents with the ones of the latest analysis.
+     *
+     * @param expressionsByModel Reliability expressions of the current models.
+     * @param reliabilitiesByNode Reliability functions of the current nodes.
+     * @param reusedExpressions Number of expressions which were not recomputed.
+     * @param reusedReliabilities Number of reliability functions which were not recomputed.
+     */
+    public void update(Map<String, String> expressionsByModel,
+                       Map<String, ADD> reliabilitiesByNode,
+                       int reusedExpressions,
+                       int reusedReliabilities) {
+        this.expressionsByModel = new HashMap<String, String>(expressionsByModel);
+        this.reliabilitiesByNode = new HashMap<String, ADD>(reliabilitiesByNode);
+        this.reusedExpressions = reusedExpressions;
+        this.reusedReliabilities = reusedReliabilities;
+    }
+
+    /**
+     * @return the number of reliability expressions reused by the latest analysis.
+     */
+    public int getReusedExpressions() {
+        return reusedExpressions;
+    }
+
+    /**
+     * @return the number of reliability functions reused by the latest analysis.
+     */
+    public int getReusedReliabilities() {
+        return reusedReliabilities;
+    }
+
+}
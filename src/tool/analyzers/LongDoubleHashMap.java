@@ -0,0 +1,171 @@
+package tool.analyzers;
+
+/**
+ * Open-addressing hash map from primitive longs to primitive doubles, so that
+ * neither keys nor values are boxed: an entry takes 16 bytes per slot of
+ * its table, instead of the hundred-odd bytes of a boxed HashMap entry.
+ *
+ * The map is split into segments, each with its own table and lock, so that
+ * concurrent producers only contend when they hit the same segment.
+ */
+final class LongDoubleHashMap {
+
+    private static final int SEGMENTS = 16;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private final Segment[] segments;
+
+    LongDoubleHashMap() {
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Associates a value with a key, replacing any previous one.
+     */
+    void put(long key, double value) {
+        long hash = mix(key);
+        segmentFor(hash).put(key, hash, value);
+    }
+
+    /**
+     * @return the value associated with the key, or {@code defaultValue}
+     *          if there is none.
+     */
+    double get(long key, double defaultValue) {
+        long hash = mix(key);
+        return segmentFor(hash).get(key, hash, defaultValue);
+    }
+
+    boolean containsKey(long key) {
+        long hash = mix(key);
+        return segmentFor(hash).containsKey(key, hash);
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of bytes taken by the tables (the array headers
+     *          and the rest of the object layout are left out).
+     */
+    long getMemoryUsage() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.getMemoryUsage();
+        }
+        return bytes;
+    }
+
+    private Segment segmentFor(long hash) {
+        // The table index is taken from the low bits, so the segment is
+        // taken from the high ones.
+        return segments[(int) (hash >>> 60) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Finalization step of MurmurHash3, which spreads the (mostly low and
+     * sparse) bits of configuration keys over the whole word.
+     */
+    private static long mix(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Linear-probing table. Key 0 marks free slots, so its value (if any) is
+     * kept apart.
+     */
+    private static final class Segment {
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private double[] values = new double[INITIAL_CAPACITY];
+        private int size = 0;
+        private boolean hasZeroKey = false;
+        private double zeroKeyValue;
+
+        synchronized void put(long key, long hash, double value) {
+            if (key == 0) {
+                if (!hasZeroKey) {
+                    hasZeroKey = true;
+                    size++;
+                }
+                zeroKeyValue = value;
+                return;
+            }
+            int slot = find(keys, key, hash);
+            if (keys[slot] == 0) {
+                keys[slot] = key;
+                size++;
+                values[slot] = value;
+                if (size > keys.length * LOAD_FACTOR) {
+                    resize();
+                }
+            } else {
+                values[slot] = value;
+            }
+        }
+
+        synchronized double get(long key, long hash, double defaultValue) {
+            if (key == 0) {
+                return hasZeroKey ? zeroKeyValue : defaultValue;
+            }
+            int slot = find(keys, key, hash);
+            return (keys[slot] != 0) ? values[slot] : defaultValue;
+        }
+
+        synchronized boolean containsKey(long key, long hash) {
+            if (key == 0) {
+                return hasZeroKey;
+            }
+            return keys[find(keys, key, hash)] != 0;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized long getMemoryUsage() {
+            return (long) keys.length * (Long.BYTES + Double.BYTES);
+        }
+
+        /**
+         * @return the slot of the key, or the free slot where it belongs.
+         */
+        private static int find(long[] keys, long key, long hash) {
+            int mask = keys.length - 1;
+            int slot = (int) hash & mask;
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            double[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new double[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = find(keys, oldKeys[i], mix(oldKeys[i]));
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+
+}
@@ -1,75 +1,136 @@
 package tool.analyzers;
 
 import java.io.PrintStream;
-import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import tool.UnknownFeatureException;
 
-public class MapBasedReliabilityResults implements IReliabilityAnalysisResults {
+/**
+ * Per-configuration results kept in memory, for random access. As a
+ * {@link ResultsSink}, it indexes the results emitted by an analysis.
+ *
+ * Feature names are interned into a dictionary which assigns each of them a
+ * bit position, so that a configuration is stored as a bit set instead of a
+ * set of strings. Configurations of the first 64 features (the common case)
+ * are encoded as a single long and kept in a primitive map, with no object
+ * per result; the others are kept as {@link BitSet}s. Results can be added
+ * concurrently.
+ */
+public class MapBasedReliabilityResults implements IReliabilityAnalysisResults, ResultsSink {
 
-    private Map<Set<String>, Double> results;
-    private Set<String> features;
+    /**
+     * Approximate sizes of the objects behind each entry of a boxed map or
+     * the dictionary (64-bit JVM with compressed references).
+     */
+    private static final int MAP_NODE_BYTES = 32 + 4;
+    private static final int BOXED_NUMBER_BYTES = 16;
+    private static final int BITSET_BYTES = 24 + 16;
+    private static final int STRING_BYTES = 24 + 16;
+
+    private Map<String, Integer> featureIndices;
+    private AtomicInteger featuresNumber;
+    private LongDoubleHashMap results;
+    private Map<BitSet, Double> wideResults;
 
     public MapBasedReliabilityResults() {
-        this.results = new HashMap<Set<String>, Double>();
-        this.features = new HashSet<String>();
+        this.featureIndices = new ConcurrentHashMap<String, Integer>();
+        this.featuresNumber = new AtomicInteger();
+        this.results = new LongDoubleHashMap();
+        this.wideResults = new ConcurrentHashMap<BitSet, Double>();
     }
 
     public MapBasedReliabilityResults(Map<Collection<String>, Double> backup) {
-        this.results = backup.entrySet().stream()
-                .collect(Collectors.toMap(e -> new HashSet<String>(e.getKey()),
-                                          e -> e.getValue()));
-        this.features = backup.keySet().stream()
-                .map(Collection::stream)
-                .flatMap(Function.identity())
-                .collect(Collectors.toSet());
+        this();
+        backup.forEach(this::accept);
     }
 
+    /**
+     * Gets the result of a configuration, or 0 if none was added for it
+     * (e.g., because it is invalid), as stated by
+     * {@link IReliabilityAnalysisResults#getResult(String[])}.
+     *
+     * @throws UnknownFeatureException if the configuration has a feature
+     *          which occurs in no added configuration.
+     */
     @Override
     public Double getResult(String[] configuration) throws UnknownFeatureException {
-        Set<String> configurationAsSet = new HashSet<String>(Arrays.asList(configuration));
-        if (results.containsKey(configurationAsSet)) {
-            return results.get(configurationAsSet);
-        } else if (hasUnknownFeature(configurationAsSet)) {
-            throw new UnknownFeatureException(configuration.toString());
+        long bits = 0;
+        BitSet wideBits = null;
+        for (String feature : configuration) {
+            Integer index = featureIndices.get(feature);
+            if (index == null) {
+                throw new UnknownFeatureException(feature);
+            }
+            if (index < Long.SIZE) {
+                bits |= 1L << index;
+            } else {
+                if (wideBits == null) {
+                    wideBits = new BitSet();
+                }
+                wideBits.set(index);
+            }
+        }
+        if (wideBits == null) {
+            return results.get(bits, 0.0);
         }
-        return 0.0;
+        wideBits.or(BitSet.valueOf(new long[] {bits}));
+        return wideResults.getOrDefault(wideBits, 0.0);
     }
 
-    public synchronized void putResult(List<String> configuration, Double value) {
-        Set<String> configurationAsSet = new HashSet<String>(configuration);
-        results.put(configurationAsSet, value);
-        features.addAll(configurationAsSet);
+    public void putResult(List<String> configuration, Double value) {
+        accept(configuration, value);
+    }
 
+    @Override
+    public void accept(Collection<String> configuration, double reliability) {
+        long bits = 0;
+        BitSet wideBits = null;
+        for (String feature : configuration) {
+            int index = featureIndices.computeIfAbsent(feature, f -> featuresNumber.getAndIncrement());
+            if (index < Long.SIZE) {
+                bits |= 1L << index;
+            } else {
+                if (wideBits == null) {
+                    wideBits = new BitSet();
+                }
+                wideBits.set(index);
+            }
+        }
+        if (wideBits == null) {
+            results.put(bits, reliability);
+        } else {
+            wideBits.or(BitSet.valueOf(new long[] {bits}));
+            wideResults.put(wideBits, reliability);
+        }
+    }
+
+    /**
+     * @return the number of configurations with a result.
+     */
+    public int size() {
+        return results.size() + wideResults.size();
     }
 
     /**
-     * Prints the size of the reliability mapping, but not taking
-     * into account the inner structures used by java.util.HashMap
-     * and java.util.HashSet.
+     * Prints the number of stored results and an estimate of the memory they
+     * take, including the feature dictionary and the unused table slots.
      */
     @Override
     public void printStats(PrintStream output) {
-        long size = 0;
-        for (Set<String> result: results.keySet()) {
-            for (String feature: result) {
-                size += feature.length();
-            }
-            size += 8;  // reliability's size (double)
+        long size = results.getMemoryUsage();
+        for (BitSet configuration : wideResults.keySet()) {
+            size += MAP_NODE_BYTES + BOXED_NUMBER_BYTES + BITSET_BYTES + configuration.size() / Byte.SIZE;
+        }
+        for (String feature : featureIndices.keySet()) {
+            size += MAP_NODE_BYTES + BOXED_NUMBER_BYTES + STRING_BYTES + feature.length();
         }
+        output.println("Results: " + size() + " configuration(s) over " + featureIndices.size() + " feature(s)");
         output.println("Result's size in bytes: " + size);
     }
 
-    private boolean hasUnknownFeature(Set<String> configuration) {
-        return features.containsAll(configuration);
-    }
-
 }
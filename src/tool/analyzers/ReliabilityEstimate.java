@@ -0,0 +1,191 @@
+package tool.analyzers;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Statistical estimate of the distribution of the reliabilities of an SPL's
+ * valid configurations, from a uniform random sample of them.
+ *
+ * The confidence interval of the mean is based on the normal approximation,
+ * and those of the percentiles on order statistics (distribution-free). The
+ * minimum of a sample is no estimate of the true minimum; instead, it comes
+ * with an upper bound on the fraction of configurations which may be less
+ * reliable than it.
+ */
+public class ReliabilityEstimate {
+
+    /**
+     * Percentiles reported by {@link #print(PrintStream)}.
+     */
+    private static final double[] REPORTED_QUANTILES = {0.01, 0.05, 0.25, 0.5, 0.75, 0.95};
+
+    private final double[] sortedSamples;
+    private final double confidence;
+    private final double z;
+    private final double mean;
+    private final double standardDeviation;
+    private final long elapsedTime;
+
+    /**
+     * @param samples Reliabilities of the sampled configurations (the array
+     *          is sorted in place and kept).
+     * @param confidence Confidence level of the intervals (e.g., 0.95).
+     * @param elapsedTime Time taken by the sampling, in milliseconds.
+     */
+    public ReliabilityEstimate(double[] samples, double confidence, long elapsedTime) {
+        if (samples.length == 0) {
+            throw new IllegalArgumentException("No samples to estimate from");
+        }
+        Arrays.sort(samples);
+        this.sortedSamples = samples;
+        this.confidence = confidence;
+        this.z = normalQuantile(1 - (1 - confidence) / 2);
+        this.elapsedTime = elapsedTime;
+
+        double sum = 0;
+        for (double sample : samples) {
+            sum += sample;
+        }
+        this.mean = sum / samples.length;
+        double squares = 0;
+        for (double sample : samples) {
+            squares += (sample - mean) * (sample - mean);
+        }
+        this.standardDeviation = (samples.length > 1) ? Math.sqrt(squares / (samples.length - 1)) : 0;
+    }
+
+    public int getSampleSize() {
+        return sortedSamples.length;
+    }
+
+    public double getConfidence() {
+        return confidence;
+    }
+
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    public Interval getMean() {
+        double halfWidth = meanHalfWidth(standardDeviation, sortedSamples.length, z);
+        return new Interval(mean, mean - halfWidth, mean + halfWidth);
+    }
+
+    /**
+     * @param quantile Between 0 and 1 (e.g., 0.05 for the 5th percentile).
+     */
+    public Interval getPercentile(double quantile) {
+        int n = sortedSamples.length;
+        double center = n * quantile;
+        double spread = z * Math.sqrt(n * quantile * (1 - quantile));
+        int estimate = clamp((int) Math.ceil(center) - 1, n);
+        int lower = clamp((int) Math.floor(center - spread) - 1, n);
+        int upper = clamp((int) Math.ceil(center + spread) - 1, n);
+        return new Interval(sortedSamples[estimate], sortedSamples[lower], sortedSamples[upper]);
+    }
+
+    /**
+     * @return the least sampled reliability.
+     */
+    public double getMinimum() {
+        return sortedSamples[0];
+    }
+
+    /**
+     * @return an upper bound, at the given confidence level, on the fraction
+     *          of valid configurations which are less reliable than the
+     *          sampled minimum (roughly 3/n at 95%).
+     */
+    public double getMinimumTailBound() {
+        return 1 - Math.pow(1 - confidence, 1.0 / sortedSamples.length);
+    }
+
+    public void print(PrintStream output) {
+        long percentage = Math.round(confidence * 100);
+        output.println("Reliability estimate from " + getSampleSize() + " sampled configuration(s) ("
+                + percentage + "% confidence, " + elapsedTime + " ms):");
+        output.println("Mean: " + getMean());
+        for (double quantile : REPORTED_QUANTILES) {
+            output.println("Percentile " + Math.round(quantile * 100) + ": " + getPercentile(quantile));
+        }
+        output.println("Minimum: " + getMinimum()
+                + " (at most " + getMinimumTailBound() * 100 + "% of configurations are less reliable)");
+    }
+
+    /**
+     * Half-width of the confidence interval of a sample mean.
+     */
+    public static double meanHalfWidth(double standardDeviation, long sampleSize, double z) {
+        return z * standardDeviation / Math.sqrt(sampleSize);
+    }
+
+    /**
+     * Inverse of the standard normal distribution function (Acklam's rational
+     * approximation, with relative error below 1.2e-9).
+     *
+     * @param p Probability, strictly between 0 and 1.
+     */
+    public static double normalQuantile(double p) {
+        if (p <= 0 || p >= 1) {
+            throw new IllegalArgumentException("Probability out of (0, 1): " + p);
+        }
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                            1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                            6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                            -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                            3.754408661907416e+00};
+        final double low = 0.02425;
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0]*q + c[1])*q + c[2])*q + c[3])*q + c[4])*q + c[5])
+                    / ((((d[0]*q + d[1])*q + d[2])*q + d[3])*q + 1);
+        } else if (p > 1 - low) {
+            return -normalQuantile(1 - p);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0]*r + a[1])*r + a[2])*r + a[3])*r + a[4])*r + a[5])*q
+                / (((((b[0]*r + b[1])*r + b[2])*r + b[3])*r + b[4])*r + 1);
+    }
+
+    private static int clamp(int index, int size) {
+        return Math.max(0, Math.min(size - 1, index));
+    }
+
+    /**
+     * Point estimate with a confidence interval.
+     */
+    public static class Interval {
+        private final double estimate;
+        private final double lower;
+        private final double upper;
+
+        Interval(double estimate, double lower, double upper) {
+            this.estimate = estimate;
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        public double getEstimate() {
+            return estimate;
+        }
+
+        public double getLower() {
+            return lower;
+        }
+
+        public double getUpper() {
+            return upper;
+        }
+
+        @Override
+        public String toString() {
+            return estimate + " [" + lower + ", " + upper + "]";
+        }
+    }
+
+}
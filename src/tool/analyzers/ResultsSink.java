@@ -0,0 +1,28 @@
+package tool.analyzers;
+
+import java.util.Collection;
+
+/**
+ * Consumer of per-configuration analysis results, to which per-product
+ * strategies emit results as soon as they are computed (see, e.g.,
+ * {@link tool.Analyzer#evaluateProductBasedReliability(tool.RDGNode, java.util.stream.Stream, ResultsSink)}),
+ * so that they need not be kept in memory.
+ *
+ * Results are emitted from a single thread at a time, in the order of the
+ * configurations given to the analysis. An invalid configuration has
+ * reliability 0.
+ */
+public interface ResultsSink extends AutoCloseable {
+
+    void accept(Collection<String> configuration, double reliability);
+
+    /**
+     * Flushes any pending results and releases the sink's resources.
+     *
+     * @throws java.io.UncheckedIOException if an I/O error occurs.
+     */
+    @Override
+    default void close() {
+    }
+
+}
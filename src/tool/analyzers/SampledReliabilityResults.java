@@ -0,0 +1,52 @@
+package tool.analyzers;
+
+import jadd.ADD;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Function;
+
+import tool.UnknownFeatureException;
+
+/**
+ * Results of a statistical analysis: an estimate of the distribution of
+ * reliabilities over the whole configuration space, along with the means
+ * to evaluate any given configuration exactly.
+ */
+public class SampledReliabilityResults implements IReliabilityAnalysisResults {
+
+    private ReliabilityEstimate estimate;
+    private ADD featureModel;
+    private Function<Collection<String>, Double> evaluator;
+
+    /**
+     * @param estimate Estimate from the sampled configurations.
+     * @param featureModel 0,1-ADD of the valid configurations.
+     * @param evaluator Exact reliability of a valid configuration.
+     */
+    public SampledReliabilityResults(ReliabilityEstimate estimate, ADD featureModel, Function<Collection<String>, Double> evaluator) {
+        this.estimate = estimate;
+        this.featureModel = featureModel;
+        this.evaluator = evaluator;
+    }
+
+    public ReliabilityEstimate getEstimate() {
+        return estimate;
+    }
+
+    @Override
+    public Double getResult(String[] configuration) throws UnknownFeatureException {
+        Collection<String> configurationAsList = Arrays.asList(configuration);
+        if (!featureModel.isValidConfiguration(configurationAsList)) {
+            return 0.0;
+        }
+        return evaluator.apply(configurationAsList);
+    }
+
+    @Override
+    public void printStats(PrintStream output) {
+        estimate.print(output);
+    }
+
+}
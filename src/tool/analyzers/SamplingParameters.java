@@ -0,0 +1,60 @@
+package tool.analyzers;
+
+/**
+ * Parameters of statistical (Monte Carlo) analyses, which sample
+ * configurations until the confidence interval of the mean reliability is
+ * narrow enough, the time budget is exhausted or the maximum number of
+ * samples is reached, whichever comes first.
+ */
+public class SamplingParameters {
+
+    public static final SamplingParameters DEFAULT = new SamplingParameters(0.95, 1E-4, 0, 1000000, 0);
+
+    private final double confidence;
+    private final double precision;
+    private final long timeBudget;
+    private final long maxSamples;
+    private final long seed;
+
+    /**
+     * @param confidence Confidence level of the estimates, in (0, 1).
+     * @param precision Target half-width of the confidence interval of the mean.
+     * @param timeBudget Time in milliseconds after which sampling stops (0 for no limit).
+     * @param maxSamples Maximum number of sampled configurations.
+     * @param seed Seed of the random sampling, for reproducibility.
+     */
+    public SamplingParameters(double confidence, double precision, long timeBudget, long maxSamples, long seed) {
+        if (confidence <= 0 || confidence >= 1) {
+            throw new IllegalArgumentException("Confidence out of (0, 1): " + confidence);
+        }
+        if (maxSamples < 1) {
+            throw new IllegalArgumentException("At least one sample is needed");
+        }
+        this.confidence = confidence;
+        this.precision = precision;
+        this.timeBudget = timeBudget;
+        this.maxSamples = maxSamples;
+        this.seed = seed;
+    }
+
+    public double getConfidence() {
+        return confidence;
+    }
+
+    public double getPrecision() {
+        return precision;
+    }
+
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+
+    public long getMaxSamples() {
+        return maxSamples;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+}
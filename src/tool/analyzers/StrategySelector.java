@@ -0,0 +1,99 @@
+package tool.analyzers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Cost model for choosing an analysis strategy from the metrics of an SPL.
+ *
+ * Costs are rough estimates of the work (in states or ADD nodes visited) of
+ * each strategy, only meant to be compared to each other:
+ * <ul>
+ *   <li>PRODUCT checks the whole derived model of every configuration;</li>
+ *   <li>FEATURE_PRODUCT checks every node once and then evaluates every
+ *       node's expression for every configuration;</li>
+ *   <li>FEATURE_FAMILY checks every node once and then solves one ADD per
+ *       node, whose size is bounded both by the number of configurations and
+ *       by the number of distinct presence conditions (an ADD node costs
+ *       more than a plain arithmetic operation);</li>
+ *   <li>FAMILY and FAMILY_PRODUCT check a single 150% model, whose
+ *       expression grows exponentially in the number of presence conditions,
+ *       and then evaluate it as an ADD or for every configuration.</li>
+ * </ul>
+ */
+public class StrategySelector {
+
+    /**
+     * Cost of an ADD node relative to a floating-point operation (unique
+     * table lookup and reference counting).
+     */
+    private static final double ADD_NODE_COST = 2;
+
+    /**
+     * Strategies among which the selector chooses, in order of preference
+     * for equal costs.
+     */
+    private static final AnalysisStrategy[] CANDIDATES = {
+        AnalysisStrategy.FEATURE_FAMILY,
+        AnalysisStrategy.FEATURE_PRODUCT,
+        AnalysisStrategy.PRODUCT,
+        AnalysisStrategy.FAMILY,
+        AnalysisStrategy.FAMILY_PRODUCT
+    };
+
+    /**
+     * Estimates the cost of analyzing an SPL with the given strategy.
+     *
+     * @param strategy A concrete (i.e., not AUTO) analysis strategy.
+     * @param metrics Metrics of the SPL.
+     * @return the estimated cost (in arbitrary units).
+     */
+    public static double estimateCost(AnalysisStrategy strategy, AnalysisMetrics metrics) {
+        double configurations = Math.max(1, metrics.getValidConfigurationsNumber());
+        double nodes = metrics.getNodesNumber();
+        double states = metrics.getStatesNumber();
+        double presenceConditions = metrics.getPresenceConditionsNumber();
+        double familyBlowUp = Math.pow(2, Math.min(presenceConditions, 60));
+        double addSize = Math.min(configurations, familyBlowUp);
+
+        switch (strategy) {
+        case FEATURE_FAMILY:
+            return states + ADD_NODE_COST * nodes * addSize;
+        case FEATURE_PRODUCT:
+            return states + configurations * nodes;
+        case PRODUCT:
+            return configurations * states;
+        case FAMILY:
+            return states * familyBlowUp + ADD_NODE_COST * presenceConditions * addSize;
+        case FAMILY_PRODUCT:
+            return states * familyBlowUp + configurations * presenceConditions;
+        default:
+            throw new IllegalArgumentException("No cost model for strategy " + strategy);
+        }
+    }
+
+    /**
+     * Ranks the concrete analysis strategies by estimated cost.
+     *
+     * @param metrics Metrics of the SPL.
+     * @return all concrete strategies, cheapest first.
+     */
+    public static List<AnalysisStrategy> rank(AnalysisMetrics metrics) {
+        List<AnalysisStrategy> ranking = new ArrayList<AnalysisStrategy>();
+        for (AnalysisStrategy candidate : CANDIDATES) {
+            ranking.add(candidate);
+        }
+        // List.sort is stable, so ties keep the order of preference.
+        ranking.sort(Comparator.comparingDouble(strategy -> estimateCost(strategy, metrics)));
+        return ranking;
+    }
+
+    /**
+     * @return the strategy with the least estimated cost.
+     */
+    public static AnalysisStrategy select(AnalysisMetrics metrics) {
+        return rank(metrics).get(0);
+    }
+
+}
@@ -3,8 +3,10 @@ package tool.analyzers.buildingblocks;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -54,28 +56,96 @@ public class Component<T> {
      *
      * This characterizes Component as a functor.
      *
+     * Shared dependencies are mapped only once, so the result has the same
+     * sharing as this component's graph.
+     *
      * @param mapper
      * @return
      */
     public <U> Component<U> fmap(Function<T, U> mapper) {
-        Collection<Component<U>> mappedDependencies = this.getDependencies().stream()
-                .map(c -> c.fmap(mapper))
-                .collect(Collectors.toSet());
-        return new Component<U>(this.getId(),
-                                this.getPresenceCondition(),
-                                mapper.apply(this.getAsset()),
-                                mappedDependencies);
+        return fmap(c -> mapper.apply(c.getAsset()),
+                    new IdentityHashMap<Component<T>, Component<U>>());
+    }
+
+    /**
+     * Maps a list of components (e.g., the transitive closure of some
+     * component's dependencies) by means of a function of each component,
+     * preserving the sharing between them: every distinct component is
+     * mapped exactly once, regardless of the number of paths leading to it.
+     *
+     * @param components
+     * @param mapper
+     * @return the mapped components, in the same order.
+     */
+    public static <T, U> List<Component<U>> fmapAll(List<Component<T>> components, Function<Component<T>, U> mapper) {
+        Map<Component<T>, Component<U>> mapped = new IdentityHashMap<Component<T>, Component<U>>();
+        return components.stream()
+                .map(c -> c.fmap(mapper, mapped))
+                .collect(Collectors.toList());
+    }
+
+    private <U> Component<U> fmap(Function<Component<T>, U> mapper, Map<Component<T>, Component<U>> mapped) {
+        Component<U> result = mapped.get(this);
+        if (result == null) {
+            Collection<Component<U>> mappedDependencies = new HashSet<Component<U>>();
+            for (Component<T> dependency : this.getDependencies()) {
+                mappedDependencies.add(dependency.fmap(mapper, mapped));
+            }
+            result = new Component<U>(this.getId(),
+                                      this.getPresenceCondition(),
+                                      mapper.apply(this),
+                                      mappedDependencies);
+            mapped.put(this, result);
+        }
+        return result;
     }
 
     // TODO Candidate!
     public static <P, A, V> V deriveFromMany(List<Component<A>> dependencies,
                                              DerivationFunction<P, A, V> derive,
                                              IsPresent<A, P> isPresent) {
+        return deriveFromMany(ComponentGraph.of(dependencies), derive, isPresent);
+    }
+
+    /**
+     * Derives the value of the last component of a graph, deriving each
+     * one of the components in order.
+     */
+    public static <P, A, V> V deriveFromMany(ComponentGraph<A> graph,
+                                             DerivationFunction<P, A, V> derive,
+                                             IsPresent<A, P> isPresent) {
         Map<String, V> derivedModels = new HashMap<String, V>();
-        return dependencies.stream()
-                .map(c -> deriveSingle(c, isPresent, derive, derivedModels))
-                .reduce((first, actual) -> actual)
-                .get();
+        V derived = null;
+        for (int i = 0; i < graph.size(); i++) {
+            derived = deriveSingle(graph.getComponent(i), isPresent, derive, derivedModels);
+        }
+        return derived;
+    }
+
+    /**
+     * Derives the value of the last component of a graph, level by level
+     * (see {@link ComponentGraph#getLevels()}). The components of each level
+     * are derived concurrently in {@code executor}, since they only depend on
+     * values derived in previous levels.
+     *
+     * The derivation and presence functions must be thread-safe, and so must
+     * the derived values be for reading. Derived values must not be null.
+     *
+     * @param graph
+     * @param derive
+     * @param isPresent
+     * @param executor Executor in which derivations are run.
+     * @return
+     */
+    public static <P, A, V> V deriveFromMany(ComponentGraph<A> graph,
+                                             DerivationFunction<P, A, V> derive,
+                                             IsPresent<A, P> isPresent,
+                                             Executor executor) {
+        Map<String, V> derivedModels = graph.deriveByLevels((index, values) -> {
+            Component<A> component = graph.getComponent(index);
+            return derive.apply(isPresent.apply(component), component.getAsset(), values);
+        }, executor);
+        return derivedModels.get(graph.getComponent(graph.size() - 1).getId());
     }
 
     // TODO Candidate!
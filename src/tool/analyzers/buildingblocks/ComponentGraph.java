@@ -0,0 +1,164 @@
+package tool.analyzers.buildingblocks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Flat, indexed view of a topologically sorted list of components, for
+ * derivation functions to iterate over: components are addressed by their
+ * position in the list and dependencies are given as arrays of positions.
+ *
+ * @param <T> Type of asset.
+ */
+public class ComponentGraph<T> {
+
+    private Component<T>[] components;
+    private int[][] dependencies;
+
+    private ComponentGraph(Component<T>[] components, int[][] dependencies) {
+        this.components = components;
+        this.dependencies = dependencies;
+    }
+
+    /**
+     * @param components Components in topological order (i.e., every
+     *          component comes after the ones on which it depends). Ids must
+     *          be unique.
+     * @throws IllegalArgumentException if a dependency does not precede
+     *          its dependent component.
+     */
+    public static <T> ComponentGraph<T> of(List<Component<T>> components) {
+        @SuppressWarnings("unchecked")
+        Component<T>[] componentsArray = (Component<T>[]) components.toArray(new Component<?>[components.size()]);
+        int[][] dependencies = new int[componentsArray.length][];
+        Map<String, Integer> indices = new HashMap<String, Integer>();
+        for (int i = 0; i < componentsArray.length; i++) {
+            Component<T> component = componentsArray[i];
+            int[] componentDependencies = new int[component.getDependencies().size()];
+            int j = 0;
+            for (Component<T> dependency : component.getDependencies()) {
+                Integer index = indices.get(dependency.getId());
+                if (index == null) {
+                    throw new IllegalArgumentException("Component " + component.getId()
+                            + " comes before its dependency " + dependency.getId());
+                }
+                componentDependencies[j++] = index;
+            }
+            dependencies[i] = componentDependencies;
+            indices.put(component.getId(), i);
+        }
+        return new ComponentGraph<T>(componentsArray, dependencies);
+    }
+
+    public int size() {
+        return components.length;
+    }
+
+    public Component<T> getComponent(int index) {
+        return components[index];
+    }
+
+    /**
+     * @return the positions of the dependencies of the component at {@code index}.
+     */
+    public int[] getDependencies(int index) {
+        return dependencies[index];
+    }
+
+    /**
+     * Groups the components by height (as in {@link tool.RDGNode#getHeight()}):
+     * level 0 holds the components with no dependencies and every other
+     * component is one level above its highest dependency. Components of the
+     * same level are independent of each other.
+     *
+     * @return the positions of the components of each level, bottom-up.
+     */
+    public List<int[]> getLevels() {
+        int[] heights = new int[components.length];
+        int[] levelSizes = new int[components.length];
+        int levelsNumber = 0;
+        for (int i = 0; i < components.length; i++) {
+            int height = 0;
+            for (int dependency : dependencies[i]) {
+                height = Math.max(height, heights[dependency] + 1);
+            }
+            heights[i] = height;
+            levelSizes[height]++;
+            levelsNumber = Math.max(levelsNumber, height + 1);
+        }
+        List<int[]> levels = new ArrayList<int[]>(levelsNumber);
+        for (int level = 0; level < levelsNumber; level++) {
+            levels.add(new int[levelSizes[level]]);
+        }
+        int[] filled = new int[levelsNumber];
+        for (int i = 0; i < components.length; i++) {
+            levels.get(heights[i])[filled[heights[i]]++] = i;
+        }
+        return levels;
+    }
+
+    /**
+     * Derives a value for every component, level by level (see
+     * {@link #getLevels()}). The components of each level are derived
+     * concurrently in {@code executor}, since they only depend on values
+     * derived in previous levels.
+     *
+     * The derivation function must be thread-safe, and so must the derived
+     * values be for reading. Derived values must not be null.
+     *
+     * @param derive Function of a component's position and of the values
+     *          derived so far (by component id).
+     * @param executor Executor in which derivations are run.
+     * @return the derived values, by component id.
+     */
+    public <V> Map<String, V> deriveByLevels(BiFunction<Integer, Map<String, V>, V> derive, Executor executor) {
+        Map<String, V> derivedModels = new ConcurrentHashMap<String, V>();
+        for (int[] level : getLevels()) {
+            if (level.length == 1) {
+                derivedModels.put(components[level[0]].getId(), derive.apply(level[0], derivedModels));
+                continue;
+            }
+            CompletableFuture<?>[] derivations = new CompletableFuture<?>[level.length];
+            for (int i = 0; i < level.length; i++) {
+                int index = level[i];
+                derivations[i] = CompletableFuture.runAsync(() -> derivedModels.put(components[index].getId(),
+                                                                                    derive.apply(index, derivedModels)),
+                                                            executor);
+            }
+            PipelinedDerivation.join(CompletableFuture.allOf(derivations));
+        }
+        return derivedModels;
+    }
+
+    /**
+     * Maps every component concurrently in {@code executor}. Unlike
+     * derivations, mappings do not depend on the values of dependencies,
+     * so all components are mapped at once instead of level by level.
+     *
+     * @param mapper Thread-safe function of a component.
+     * @param executor Executor in which mappings are run.
+     * @return the mapped values, in the same order as the components.
+     */
+    public <V> List<V> mapConcurrently(Function<Component<T>, V> mapper, Executor executor) {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<V>[] mappings = (CompletableFuture<V>[]) new CompletableFuture<?>[components.length];
+        for (int i = 0; i < components.length; i++) {
+            Component<T> component = components[i];
+            mappings[i] = CompletableFuture.supplyAsync(() -> mapper.apply(component), executor);
+        }
+        PipelinedDerivation.join(CompletableFuture.allOf(mappings));
+        List<V> mapped = new ArrayList<V>(components.length);
+        for (CompletableFuture<V> mapping : mappings) {
+            mapped.add(mapping.join());
+        }
+        return mapped;
+    }
+
+}
@@ -1,6 +1,9 @@
 package tool.analyzers.buildingblocks;
 
 import jadd.ADD;
+
+import java.util.List;
+
 import expressionsolver.Expression;
 import expressionsolver.ExpressionSolver;
 
@@ -23,4 +26,11 @@ public class FamilyBasedHelper {
         return expression.fmap(this::lift);
     }
 
+    /**
+     * Lifts a list of components, lifting each distinct one only once.
+     */
+    public List<Component<Expression<ADD>>> lift(List<Component<String>> expressions) {
+        return Component.fmapAll(expressions, c -> lift(c.getAsset()));
+    }
+
 }
@@ -0,0 +1,125 @@
+package tool.analyzers.buildingblocks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Dependency-driven counterpart of {@link Component#deriveFromMany(List, DerivationFunction, IsPresent)}
+ * for two-stage analyses (e.g., model checking followed by expression solving).
+ *
+ * The first stage of every component is started right away in its own
+ * executor. The second stage (presence and derivation) of a component starts
+ * as soon as its own first stage and the second stages of its dependencies
+ * are done, so that the stages overlap and the total time approaches the
+ * critical path of the dependency graph instead of the sum of both stages.
+ *
+ * Second stages are run in their own executor, which must be single-threaded
+ * if the derived values are not thread-safe (e.g., ADDs). The map of derived
+ * values handed to the derivation function is only ever accessed from it.
+ *
+ * @param <F> Type of the first stage's result
+ * @param <V> Value (derived) type
+ */
+public class PipelinedDerivation<F, V> {
+
+    private CompletableFuture<?>[] firstStages;
+    private CompletableFuture<Void> firstStage;
+    private CompletableFuture<V> result;
+
+    private PipelinedDerivation(CompletableFuture<?>[] firstStages, CompletableFuture<V> result) {
+        this.firstStages = firstStages;
+        this.firstStage = CompletableFuture.allOf(firstStages);
+        this.result = result;
+    }
+
+    /**
+     * Schedules the derivation of a list of components.
+     *
+     * @param components Components in topological order (dependencies first).
+     *          The value derived for the last one is the result.
+     * @param process First stage, run for every component in {@code processExecutor}.
+     * @param processExecutor Executor for the first stage.
+     * @param derive Derivation function, applied to the first stage's result.
+     * @param isPresent Presence function.
+     * @param deriveExecutor Executor for presence and derivation.
+     */
+    public static <P, A, F, V> PipelinedDerivation<F, V> start(List<Component<A>> components,
+                                                               Function<Component<A>, F> process,
+                                                               Executor processExecutor,
+                                                               DerivationFunction<P, F, V> derive,
+                                                               IsPresent<A, P> isPresent,
+                                                               Executor deriveExecutor) {
+        Map<String, V> derivedModels = new HashMap<String, V>();
+        Map<String, CompletableFuture<V>> derivations = new HashMap<String, CompletableFuture<V>>();
+        CompletableFuture<?>[] processed = new CompletableFuture<?>[components.size()];
+
+        CompletableFuture<V> last = null;
+        int i = 0;
+        for (Component<A> component : components) {
+            CompletableFuture<F> processing = CompletableFuture.supplyAsync(() -> process.apply(component),
+                                                                            processExecutor);
+            processed[i++] = processing;
+
+            CompletableFuture<?>[] prerequisites = component.getDependencies().stream()
+                    .map(dependency -> derivations.get(dependency.getId()))
+                    .toArray(CompletableFuture<?>[]::new);
+            CompletableFuture<V> derivation = CompletableFuture.allOf(prerequisites)
+                    .thenCombineAsync(processing, (ignored, processedAsset) -> {
+                        P presence = isPresent.apply(component);
+                        V derived = derive.apply(presence, processedAsset, derivedModels);
+                        derivedModels.put(component.getId(), derived);
+                        return derived;
+                    }, deriveExecutor);
+            derivations.put(component.getId(), derivation);
+            last = derivation;
+        }
+        return new PipelinedDerivation<F, V>(processed, last);
+    }
+
+    /**
+     * Blocks until the first stage is done for all components.
+     */
+    public void awaitFirstStage() {
+        join(firstStage);
+    }
+
+    /**
+     * Blocks until the value of the last component is derived.
+     */
+    public V awaitResult() {
+        return join(result);
+    }
+
+    /**
+     * Keeps the first stages which have not started yet from running (e.g.,
+     * after a failure), which matters if their executor is shared. Stages
+     * under way are not interrupted. Has no effect once all stages are done.
+     */
+    public void cancel() {
+        for (CompletableFuture<?> stage : firstStages) {
+            stage.cancel(false);
+        }
+    }
+
+    /**
+     * Joins a future, rethrowing unchecked failures as they were thrown.
+     */
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+}
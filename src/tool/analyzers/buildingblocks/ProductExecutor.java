@@ -0,0 +1,298 @@
+package tool.analyzers.buildingblocks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Evaluates batches of products on a dedicated set of worker threads.
+ *
+ * Product costs vary wildly (e.g., some configurations inline far larger
+ * models than others), so workers do not get fixed shares of a batch.
+ * Instead, they repeatedly claim chunks of the products left, sized as a
+ * fraction of the remaining work (guided scheduling): chunks are large at
+ * first, to keep claiming cheap, and shrink towards the end of the batch,
+ * so that no worker is left with a long tail of costly products while the
+ * others are idle.
+ *
+ * Results are written to disjoint positions of an array, so there is
+ * nothing to merge. Each worker keeps its timings in its own shard, and the
+ * shards are merged once per run into {@link ProductTimings}.
+ *
+ * Instances are immutable; the worker threads of a run are released when
+ * the run is over.
+ *
+ * An optional checkpoint is run by each worker before it claims a chunk, so
+ * that long batches can be aborted (e.g., when an
+ * {@link tool.analyzers.AnalysisBudget} is exceeded) by throwing from it.
+ */
+public class ProductExecutor {
+
+    /**
+     * Number of chunks per worker into which the remaining products are split
+     * on each claim.
+     */
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final int parallelism;
+    private final int maxChunkSize;
+    private final Runnable checkpoint;
+
+    /**
+     * @param parallelism Number of threads evaluating products, including
+     *          the calling one.
+     * @param maxChunkSize Maximum number of products claimed at a time.
+     */
+    public ProductExecutor(int parallelism, int maxChunkSize) {
+        this(parallelism, maxChunkSize, () -> {});
+    }
+
+    private ProductExecutor(int parallelism, int maxChunkSize, Runnable checkpoint) {
+        if (parallelism < 1 || maxChunkSize < 1) {
+            throw new IllegalArgumentException("Parallelism and chunk size must be positive");
+        }
+        this.parallelism = parallelism;
+        this.maxChunkSize = maxChunkSize;
+        this.checkpoint = checkpoint;
+    }
+
+    public ProductExecutor(int parallelism) {
+        this(parallelism, 256);
+    }
+
+    /**
+     * @return an executor with one thread per available processor if the
+     *          strategy is PARALLEL, or one which evaluates products in the
+     *          calling thread otherwise.
+     */
+    public static ProductExecutor of(ConcurrencyStrategy concurrencyStrategy) {
+        if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
+            return new ProductExecutor(Runtime.getRuntime().availableProcessors());
+        }
+        return new ProductExecutor(1);
+    }
+
+    /**
+     * @param checkpoint Action run before each chunk is evaluated. It may
+     *          abort the run under way by throwing an unchecked exception.
+     * @return an executor like this one, but with the given checkpoint.
+     */
+    public ProductExecutor withCheckpoint(Runnable checkpoint) {
+        return new ProductExecutor(parallelism, maxChunkSize, checkpoint);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Starts a run, i.e., a sequence of batches sharing the same workers.
+     * The run must be closed in order to release them.
+     */
+    public Run start() {
+        return new Run();
+    }
+
+    /**
+     * Size of the next chunk to be claimed when {@code remaining} products
+     * are left.
+     */
+    int chunkSize(int remaining) {
+        return Math.max(1, Math.min(maxChunkSize, remaining / (CHUNKS_PER_WORKER * parallelism)));
+    }
+
+    /**
+     * Sequence of batches evaluated by the same workers.
+     */
+    public class Run implements AutoCloseable {
+        private final ExecutorService workers;
+        private final List<ProductTimings.Shard> shards = new ArrayList<ProductTimings.Shard>();
+        /**
+         * Each worker (including the calling thread) records its timings in
+         * its own shard, so that recording needs no synchronization.
+         */
+        private final ThreadLocal<ProductTimings.Shard> shard = ThreadLocal.withInitial(this::newShard);
+        private final long startTime = System.nanoTime();
+
+        private Run() {
+            this.workers = (parallelism > 1) ? Executors.newFixedThreadPool(parallelism - 1, runnable -> {
+                Thread thread = new Thread(runnable, "product-evaluation");
+                thread.setDaemon(true);
+                return thread;
+            }) : null;
+        }
+
+        /**
+         * Evaluates a batch of products, blocking until all of them are done.
+         *
+         * @param eval Evaluation function.
+         * @param batch Products to be evaluated.
+         * @param results Array into which the result of {@code batch.get(i)}
+         *          is written at position {@code i}.
+         * @throws RuntimeException (or Error) thrown by {@code eval} for any
+         *          product, after the other workers have stopped.
+         */
+        public void evaluate(Function<Collection<String>, Double> eval,
+                             List<Collection<String>> batch,
+                             double[] results) {
+            submit(eval, batch, results).await();
+        }
+
+        /**
+         * Starts evaluating a batch of products in the workers, returning
+         * right away, so that the calling thread may do something else
+         * (e.g., prepare the next batch) in the meantime. It joins the
+         * workers when it {@link Batch#await() awaits} the batch, which it
+         * must do before submitting another one.
+         *
+         * If there are no workers (i.e., parallelism is 1), the whole batch
+         * is evaluated upon awaiting.
+         *
+         * @param eval Evaluation function.
+         * @param batch Products to be evaluated. It must not be changed
+         *          until the batch is done.
+         * @param results Array into which the result of {@code batch.get(i)}
+         *          is written at position {@code i}.
+         */
+        public Batch submit(Function<Collection<String>, Double> eval,
+                            List<Collection<String>> batch,
+                            double[] results) {
+            Batch submitted = new Batch(eval, batch, results);
+            int helpers = Math.min(parallelism - 1, batch.size());
+            for (int i = 0; i < helpers; i++) {
+                submitted.pending.add(workers.submit(submitted::work));
+            }
+            return submitted;
+        }
+
+        /**
+         * Batch of products under evaluation.
+         */
+        public class Batch {
+            private final Function<Collection<String>, Double> eval;
+            private final List<Collection<String>> products;
+            private final double[] results;
+            private final AtomicInteger next = new AtomicInteger();
+            private final List<Future<?>> pending = new ArrayList<Future<?>>();
+
+            private Batch(Function<Collection<String>, Double> eval,
+                          List<Collection<String>> products,
+                          double[] results) {
+                this.eval = eval;
+                this.products = products;
+                this.results = results;
+            }
+
+            /**
+             * Helps the workers with the products left, and then waits for
+             * them to finish.
+             *
+             * @throws RuntimeException (or Error) thrown by {@code eval} for
+             *          any product, after the other workers have stopped.
+             */
+            public void await() {
+                Throwable failure = null;
+                try {
+                    work();
+                } catch (RuntimeException | Error e) {
+                    failure = e;
+                }
+                for (Future<?> future : pending) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        if (failure == null) {
+                            failure = e.getCause();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        if (failure == null) {
+                            failure = new IllegalStateException("Interrupted while evaluating products", e);
+                        }
+                    }
+                }
+                if (failure instanceof RuntimeException) {
+                    throw (RuntimeException) failure;
+                } else if (failure instanceof Error) {
+                    throw (Error) failure;
+                } else if (failure != null) {
+                    throw new IllegalStateException(failure);
+                }
+            }
+
+            /**
+             * Makes the workers stop claiming products of this batch (e.g.,
+             * because the calling thread has failed while it was running).
+             * The products already claimed are still evaluated.
+             */
+            public void cancel() {
+                next.set(products.size());
+            }
+
+            /**
+             * Claims and evaluates chunks until the batch is exhausted (or
+             * another worker has failed, or the checkpoint has thrown).
+             */
+            private void work() {
+                ProductTimings.Shard timings = shard.get();
+                int size = products.size();
+                while (true) {
+                    int start = next.get();
+                    if (start >= size) {
+                        return;
+                    }
+                    int end = start + chunkSize(size - start);
+                    if (!next.compareAndSet(start, end)) {
+                        continue;
+                    }
+                    try {
+                        checkpoint.run();
+                        for (int i = start; i < end; i++) {
+                            Collection<String> product = products.get(i);
+                            long before = System.nanoTime();
+                            results[i] = eval.apply(product);
+                            timings.record(product, System.nanoTime() - before);
+                        }
+                    } catch (RuntimeException | Error e) {
+                        // Makes the other workers stop claiming.
+                        cancel();
+                        throw e;
+                    }
+                }
+            }
+        }
+
+        private synchronized ProductTimings.Shard newShard() {
+            ProductTimings.Shard shard = new ProductTimings.Shard();
+            shards.add(shard);
+            return shard;
+        }
+
+        /**
+         * @return the timings of the products evaluated so far in this run.
+         */
+        public synchronized ProductTimings getTimings() {
+            return ProductTimings.merge(shards, System.nanoTime() - startTime, parallelism);
+        }
+
+        @Override
+        public void close() {
+            if (workers != null) {
+                workers.shutdownNow();
+                try {
+                    workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+}
@@ -1,24 +1,193 @@
 package tool.analyzers.buildingblocks;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.logging.Logger;
 import java.util.stream.Stream;
 
+import tool.analyzers.ResultsSink;
+
 public class ProductIterationHelper {
+    private static final Logger LOGGER = Logger.getLogger(ProductIterationHelper.class.getName());
+
+    /**
+     * Default number of configurations evaluated at a time by the
+     * sink-based evaluation methods.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 4096;
 
     public static <T> Map<Collection<String>, Double> evaluate(Function<Collection<String>, Double> eval,
                                                                Stream<Collection<String>> configurations,
                                                                ConcurrencyStrategy concurrencyStrategy) {
-        Stream<Collection<String>> configs = concurrencyStrategy == ConcurrencyStrategy.PARALLEL ?
-                                                        configurations.parallel()
-                                                        : configurations.sequential();
-
-        Map<Collection<String>, Double> results = configs
-                .collect(Collectors.toMap(Function.identity(),
-                                          eval));
+        // Results are emitted from the calling thread, so a plain map will
+        // do, and there are no partial maps to be merged.
+        Map<Collection<String>, Double> results = new HashMap<Collection<String>, Double>();
+        evaluate(eval,
+                 configurations,
+                 ProductExecutor.of(concurrencyStrategy),
+                 DEFAULT_BATCH_SIZE,
+                 results::put);
         return results;
     }
 
+    /**
+     * Evaluates configurations in batches, emitting each result to a sink.
+     *
+     * Configurations are pulled from the stream {@code batchSize} at a time,
+     * so that the stream need not split well for parallelism. The
+     * configurations of a batch are evaluated by the executor's workers
+     * while the calling thread pulls the next batch and emits the results of
+     * the previous one, in order (double buffering). It then joins the
+     * workers until the batch is done. Hence at most two batches of results
+     * are ever kept in memory, and the sink need not be thread-safe.
+     *
+     * @param eval Evaluation function.
+     * @param configurations
+     * @param executor Executor of the evaluations.
+     * @param batchSize Maximum number of configurations evaluated at a time.
+     * @param sink Consumer of the results.
+     */
+    public static void evaluate(Function<Collection<String>, Double> eval,
+                                Stream<Collection<String>> configurations,
+                                ProductExecutor executor,
+                                int batchSize,
+                                ResultsSink sink) {
+        Iterator<Collection<String>> iterator = configurations.sequential().iterator();
+        int capacity = Math.min(batchSize, DEFAULT_BATCH_SIZE);
+        List<Collection<String>> batch = new ArrayList<Collection<String>>(capacity);
+        List<Collection<String>> previousBatch = new ArrayList<Collection<String>>(capacity);
+        double[] results = new double[0];
+        double[] previousResults = new double[0];
+        try (ProductExecutor.Run run = executor.start()) {
+            ProductExecutor.Run.Batch running = null;
+            try {
+                pull(iterator, batchSize, batch);
+                while (!batch.isEmpty()) {
+                    if (results.length < batch.size()) {
+                        results = new double[batch.size()];
+                    }
+                    running = run.submit(eval, batch, results);
+                    emit(previousBatch, previousResults, sink);
+                    pull(iterator, batchSize, previousBatch);
+                    running.await();
+                    running = null;
+
+                    // The batch just evaluated is emitted while the one just
+                    // pulled is evaluated.
+                    List<Collection<String>> pulled = previousBatch;
+                    previousBatch = batch;
+                    batch = pulled;
+                    double[] evaluated = results;
+                    results = previousResults;
+                    previousResults = evaluated;
+                }
+                emit(previousBatch, previousResults, sink);
+            } catch (RuntimeException | Error e) {
+                if (running != null) {
+                    running.cancel();
+                }
+                throw e;
+            }
+            // Diagnostics of a single call, which may be one of many per
+            // analysis (e.g., AUTO attempts).
+            LOGGER.fine(() -> "Product timings: " + run.getTimings());
+        }
+    }
+
+    /**
+     * Replaces the contents of {@code batch} with up to {@code batchSize}
+     * configurations from {@code iterator}.
+     */
+    private static void pull(Iterator<Collection<String>> iterator,
+                             int batchSize,
+                             List<Collection<String>> batch) {
+        batch.clear();
+        while (batch.size() < batchSize && iterator.hasNext()) {
+            batch.add(iterator.next());
+        }
+    }
+
+    private static void emit(List<Collection<String>> batch, double[] results, ResultsSink sink) {
+        for (int i = 0; i < batch.size(); i++) {
+            sink.accept(batch.get(i), results[i]);
+        }
+        batch.clear();
+    }
+
+    /**
+     * Evaluates configurations by their projections onto a set of relevant
+     * features (see {@link #project(Collection, Set)}): {@code eval} is
+     * applied only once per distinct projection, and its result is shared by
+     * all configurations with the same projection.
+     *
+     * This is sound as long as the result of {@code eval} only depends on
+     * the presence of relevant features. Besides a batch of configurations
+     * (see {@link #evaluate(Function, Stream, ProductExecutor, int, ResultsSink)}),
+     * only the result of each distinct projection is kept in memory.
+     *
+     * @param eval Evaluation function, applied to projections.
+     * @param configurations
+     * @param relevantFeatures Features on which the results depend.
+     * @param executor Executor of the evaluations.
+     * @param batchSize Maximum number of configurations evaluated at a time.
+     * @param sink Consumer of the results of the (original) configurations.
+     */
+    public static void evaluateByProjection(Function<Collection<String>, Double> eval,
+                                            Stream<Collection<String>> configurations,
+                                            Set<String> relevantFeatures,
+                                            ProductExecutor executor,
+                                            int batchSize,
+                                            ResultsSink sink) {
+        Map<List<String>, Double> resultsByProjection = new ConcurrentHashMap<List<String>, Double>();
+        LongAdder configurationsNumber = new LongAdder();
+        evaluate(configuration -> {
+                     configurationsNumber.increment();
+                     // Not computeIfAbsent, which would run the evaluation
+                     // while holding a lock on the map bin. Concurrent
+                     // workers may evaluate the same projection twice.
+                     List<String> projection = project(configuration, relevantFeatures);
+                     Double result = resultsByProjection.get(projection);
+                     if (result == null) {
+                         result = eval.apply(projection);
+                         Double previous = resultsByProjection.putIfAbsent(projection, result);
+                         if (previous != null) {
+                             result = previous;
+                         }
+                     }
+                     return result;
+                 },
+                 configurations,
+                 executor,
+                 batchSize,
+                 sink);
+        LOGGER.fine(() -> resultsByProjection.size() + " distinct product(s) for "
+                + configurationsNumber.sum() + " configuration(s)");
+    }
+
+    /**
+     * Projects a configuration onto a set of features.
+     *
+     * @return the (sorted) features of {@code configuration} which are also
+     *          in {@code features}, so that configurations with equal
+     *          projections yield equal lists regardless of ordering.
+     */
+    public static List<String> project(Collection<String> configuration, Set<String> features) {
+        TreeSet<String> projection = new TreeSet<String>();
+        for (String feature : configuration) {
+            if (features.contains(feature)) {
+                projection.add(feature);
+            }
+        }
+        return new ArrayList<String>(projection);
+    }
+
 }
@@ -0,0 +1,146 @@
+package tool.analyzers.buildingblocks;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timings of the products evaluated by a {@link ProductExecutor}, for
+ * analyzing the skew of product costs and the utilization of the workers.
+ *
+ * Durations are kept in a histogram of power-of-two buckets, so percentiles
+ * are upper bounds within a factor of 2.
+ */
+public class ProductTimings {
+
+    private static final int BUCKETS = Long.SIZE;
+
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final Collection<String> slowestProduct;
+    private final long[] histogram;
+    private final long wallNanos;
+    private final int parallelism;
+
+    private ProductTimings(long count, long totalNanos, long maxNanos, Collection<String> slowestProduct,
+                           long[] histogram, long wallNanos, int parallelism) {
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.slowestProduct = slowestProduct;
+        this.histogram = histogram;
+        this.wallNanos = wallNanos;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Merges the shards of the workers of a run.
+     *
+     * @param wallNanos Elapsed time of the run.
+     * @param parallelism Number of workers of the run.
+     */
+    static ProductTimings merge(Collection<Shard> shards, long wallNanos, int parallelism) {
+        long count = 0;
+        long totalNanos = 0;
+        long maxNanos = 0;
+        Collection<String> slowestProduct = null;
+        long[] histogram = new long[BUCKETS];
+        for (Shard shard : shards) {
+            count += shard.count;
+            totalNanos += shard.totalNanos;
+            if (shard.slowestProduct != null && shard.maxNanos >= maxNanos) {
+                maxNanos = shard.maxNanos;
+                slowestProduct = shard.slowestProduct;
+            }
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] += shard.histogram[i];
+            }
+        }
+        return new ProductTimings(count, totalNanos, maxNanos, slowestProduct, histogram, wallNanos, parallelism);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @return the costliest product, or null if none was evaluated.
+     */
+    public Collection<String> getSlowestProduct() {
+        return slowestProduct;
+    }
+
+    /**
+     * @param quantile Between 0 and 1 (e.g., 0.99 for the 99th percentile).
+     * @return an upper bound (within a factor of 2) of the time within which
+     *          the given fraction of the products was evaluated.
+     */
+    public long getPercentileNanos(double quantile) {
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram[i];
+            if (seen >= rank && seen > 0) {
+                return Math.min(maxNanos, (i == BUCKETS - 1) ? Long.MAX_VALUE : (1L << i));
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the fraction of the workers' time spent evaluating products
+     *          (1 means that no worker was ever idle).
+     */
+    public double getUtilization() {
+        if (wallNanos == 0) {
+            return 0;
+        }
+        return Math.min(1.0, totalNanos / ((double) wallNanos * parallelism));
+    }
+
+    @Override
+    public String toString() {
+        return count + " product(s) on " + parallelism + " worker(s): "
+                + "mean " + toMillis((count > 0) ? totalNanos / count : 0) + " ms, "
+                + "median <= " + toMillis(getPercentileNanos(0.5)) + " ms, "
+                + "p99 <= " + toMillis(getPercentileNanos(0.99)) + " ms, "
+                + "max " + toMillis(maxNanos) + " ms (" + slowestProduct + "), "
+                + "utilization " + Math.round(getUtilization() * 100) + "%";
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Timings recorded by a single worker.
+     */
+    static class Shard {
+        private long count = 0;
+        private long totalNanos = 0;
+        private long maxNanos = 0;
+        private Collection<String> slowestProduct = null;
+        private final long[] histogram = new long[BUCKETS];
+
+        void record(Collection<String> product, long nanos) {
+            count++;
+            totalNanos += nanos;
+            if (slowestProduct == null || nanos > maxNanos) {
+                maxNanos = nanos;
+                slowestProduct = product;
+            }
+            // Bucket i holds durations in (2^(i-1), 2^i].
+            int bucket = (nanos <= 1) ? 0 : BUCKETS - Long.numberOfLeadingZeros(nanos - 1);
+            histogram[Math.min(bucket, BUCKETS - 1)]++;
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package tool.analyzers.sinks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import tool.analyzers.ResultsSink;
+
+/**
+ * Writes results in a compact binary format: for each configuration, the
+ * number of features (int), each feature (modified UTF-8) and the
+ * reliability (double). They can be read back by {@link #readAll(InputStream, ResultsSink)}.
+ */
+public class BinaryResultsSink implements ResultsSink {
+
+    private DataOutputStream output;
+
+    public BinaryResultsSink(OutputStream output) {
+        this.output = new DataOutputStream(new BufferedOutputStream(output));
+    }
+
+    @Override
+    public void accept(Collection<String> configuration, double reliability) {
+        try {
+            write(output, configuration, reliability);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            output.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Emits the results read from a stream written by a BinaryResultsSink,
+     * in the order they were written. The sink is not closed.
+     */
+    public static void readAll(InputStream input, ResultsSink sink) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(input));
+        Record record = read(data);
+        while (record != null) {
+            sink.accept(record.configuration, record.reliability);
+            record = read(data);
+        }
+    }
+
+    static void write(DataOutput output, Collection<String> configuration, double reliability) throws IOException {
+        output.writeInt(configuration.size());
+        for (String feature : configuration) {
+            output.writeUTF(feature);
+        }
+        output.writeDouble(reliability);
+    }
+
+    /**
+     * @return the next record or null at the end of the input.
+     */
+    static Record read(DataInput input) throws IOException {
+        int size;
+        try {
+            size = input.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        List<String> configuration = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            configuration.add(input.readUTF());
+        }
+        return new Record(configuration, input.readDouble());
+    }
+
+    static class Record {
+        final List<String> configuration;
+        final double reliability;
+
+        Record(List<String> configuration, double reliability) {
+            this.configuration = configuration;
+            this.reliability = reliability;
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package tool.analyzers.sinks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Collection;
+
+import tool.analyzers.ResultsSink;
+
+/**
+ * Writes results as CSV, with a header line and one line per configuration.
+ * The features of a configuration are separated by semicolons, and invalid
+ * configurations have reliability 0.
+ */
+public class CsvResultsSink implements ResultsSink {
+
+    public static final String HEADER = "configuration,reliability";
+
+    private BufferedWriter writer;
+
+    public CsvResultsSink(Writer writer) {
+        this.writer = (writer instanceof BufferedWriter) ? (BufferedWriter) writer : new BufferedWriter(writer);
+        try {
+            this.writer.write(HEADER);
+            this.writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void accept(Collection<String> configuration, double reliability) {
+        try {
+            writer.write(String.join(";", configuration));
+            writer.write(',');
+            writer.write(Double.toString(reliability));
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package tool.analyzers.sinks;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+import tool.analyzers.ResultsSink;
+
+/**
+ * Formats in which results can be written by a {@link ResultsSink}.
+ */
+public enum ResultsFormat {
+    /**
+     * Same lines as the command-line report ({@link TextResultsSink}).
+     */
+    TEXT,
+    /**
+     * {@link CsvResultsSink}.
+     */
+    CSV,
+    /**
+     * {@link BinaryResultsSink}.
+     */
+    BINARY;
+
+    /**
+     * Creates a sink writing results in this format to a stream, which is
+     * closed along with the sink.
+     */
+    public ResultsSink createSink(OutputStream output) {
+        switch (this) {
+        case TEXT:
+            return new TextResultsSink(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        case CSV:
+            return new CsvResultsSink(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        case BINARY:
+            return new BinaryResultsSink(output);
+        default:
+            throw new IllegalArgumentException("Unknown results format: " + this);
+        }
+    }
+}
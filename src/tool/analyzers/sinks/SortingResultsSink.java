@@ -0,0 +1,167 @@
+package tool.analyzers.sinks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import tool.analyzers.ResultsSink;
+
+/**
+ * Forwards results to another sink ordered by the string representation of
+ * their configurations (as in the command-line report), by external sorting:
+ * at most {@code batchSize} results are kept in memory, and each full batch
+ * is sorted and spilled to a temporary file. The sorted runs are merged into
+ * the delegate when the sink is closed.
+ */
+public class SortingResultsSink implements ResultsSink {
+
+    private static final Comparator<Entry> ORDER = Comparator.comparing(entry -> entry.key);
+
+    private ResultsSink delegate;
+    private int batchSize;
+    private Path tempDir;
+
+    private List<Entry> buffer = new ArrayList<Entry>();
+    private List<Path> runs = new ArrayList<Path>();
+
+    /**
+     * @param delegate Sink to receive the sorted results.
+     * @param batchSize Maximum number of results kept in memory.
+     * @param tempDir Directory for the sorted runs.
+     */
+    public SortingResultsSink(ResultsSink delegate, int batchSize, Path tempDir) {
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        this.tempDir = tempDir;
+    }
+
+    @Override
+    public void accept(Collection<String> configuration, double reliability) {
+        buffer.add(new Entry(configuration, reliability));
+        if (buffer.size() >= batchSize) {
+            spill();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (runs.isEmpty()) {
+                buffer.sort(ORDER);
+                for (Entry entry : buffer) {
+                    delegate.accept(entry.configuration, entry.reliability);
+                }
+            } else {
+                if (!buffer.isEmpty()) {
+                    spill();
+                }
+                merge();
+            }
+        } finally {
+            buffer.clear();
+            deleteRuns();
+            delegate.close();
+        }
+    }
+
+    private void spill() {
+        buffer.sort(ORDER);
+        try {
+            Path run = Files.createTempFile(tempDir, "results-run", ".bin");
+            runs.add(run);
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+                for (Entry entry : buffer) {
+                    BinaryResultsSink.write(output, entry.configuration, entry.reliability);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    private void merge() {
+        List<DataInputStream> inputs = new ArrayList<DataInputStream>();
+        try {
+            PriorityQueue<Head> heads = new PriorityQueue<Head>(Comparator.comparing(head -> head.entry, ORDER));
+            for (Path run : runs) {
+                DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+                inputs.add(input);
+                Head head = Head.next(input);
+                if (head != null) {
+                    heads.add(head);
+                }
+            }
+            while (!heads.isEmpty()) {
+                Head head = heads.poll();
+                delegate.accept(head.entry.configuration, head.entry.reliability);
+                Head next = Head.next(head.input);
+                if (next != null) {
+                    heads.add(next);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (DataInputStream input : inputs) {
+                try {
+                    input.close();
+                } catch (IOException e) {
+                    // Nothing left to read from it anyway.
+                }
+            }
+        }
+    }
+
+    private void deleteRuns() {
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException e) {
+                // Temporary file: left for the system to clean up.
+            }
+        }
+        runs.clear();
+    }
+
+    private static class Entry {
+        final String key;
+        final Collection<String> configuration;
+        final double reliability;
+
+        Entry(Collection<String> configuration, double reliability) {
+            this.key = configuration.toString();
+            this.configuration = configuration;
+            this.reliability = reliability;
+        }
+    }
+
+    /**
+     * Smallest unmerged entry of a run.
+     */
+    private static class Head {
+        final Entry entry;
+        final DataInputStream input;
+
+        Head(Entry entry, DataInputStream input) {
+            this.entry = entry;
+            this.input = input;
+        }
+
+        static Head next(DataInputStream input) throws IOException {
+            BinaryResultsSink.Record record = BinaryResultsSink.read(input);
+            return (record != null) ? new Head(new Entry(record.configuration, record.reliability), input) : null;
+        }
+    }
+
+}
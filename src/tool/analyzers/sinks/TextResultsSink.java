@@ -0,0 +1,54 @@
+package tool.analyzers.sinks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Collection;
+
+import tool.analyzers.ResultsSink;
+
+/**
+ * Writes results as text lines in the format of the command-line report,
+ * i.e., "[features] --> reliability" (or INVALID for invalid configurations).
+ */
+public class TextResultsSink implements ResultsSink {
+
+    private BufferedWriter writer;
+
+    public TextResultsSink(Writer writer) {
+        this.writer = (writer instanceof BufferedWriter) ? (BufferedWriter) writer : new BufferedWriter(writer);
+    }
+
+    @Override
+    public void accept(Collection<String> configuration, double reliability) {
+        try {
+            writer.write(format(configuration, reliability));
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Formats a result as a line of the command-line report.
+     */
+    public static String format(Collection<String> configuration, double reliability) {
+        String message = configuration + " --> ";
+        if (Double.doubleToRawLongBits(reliability) != 0) {
+            return message + reliability;
+        } else {
+            return message + "INVALID";
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package tool.analyzers.sinks;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import tool.analyzers.ResultsSink;
+
+/**
+ * Lets an analysis see only the valid configurations of a stream, while the
+ * delegate sink receives every configuration in stream order, with
+ * reliability 0 for the invalid ones. Hence the configurations need to be
+ * enumerated only once.
+ *
+ * Configurations which have been pulled from the stream behind a valid one
+ * whose result has not been emitted yet (i.e., within a batch) are queued,
+ * so that the invalid ones can be emitted right after it. Pulling and
+ * emitting may happen in different threads.
+ */
+public class ValidityRoutingResultsSink implements ResultsSink {
+
+    private ResultsSink delegate;
+    private Predicate<Collection<String>> isValid;
+
+    private Deque<Pending> pending = new ArrayDeque<Pending>();
+
+    /**
+     * @param delegate Sink to receive the results of all configurations.
+     * @param isValid Validity of a configuration.
+     */
+    public ValidityRoutingResultsSink(ResultsSink delegate, Predicate<Collection<String>> isValid) {
+        this.delegate = delegate;
+        this.isValid = isValid;
+    }
+
+    /**
+     * @param configurations All configurations of interest.
+     * @return the valid ones, whose results are to be emitted to this sink
+     *          in the same order.
+     */
+    public Stream<Collection<String>> filterValid(Stream<Collection<String>> configurations) {
+        return configurations.filter(configuration -> {
+            boolean valid = isValid.test(configuration);
+            synchronized (this) {
+                if (!valid && pending.isEmpty()) {
+                    delegate.accept(configuration, 0);
+                } else {
+                    pending.addLast(new Pending(configuration, valid));
+                }
+            }
+            return valid;
+        });
+    }
+
+    @Override
+    public synchronized void accept(Collection<String> configuration, double reliability) {
+        emitInvalid();
+        pending.pollFirst();
+        delegate.accept(configuration, reliability);
+    }
+
+    /**
+     * Emits the invalid configurations pulled after the last valid one, and
+     * closes the delegate.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            while (!pending.isEmpty()) {
+                emitInvalid();
+                // A valid configuration left without result (e.g., because
+                // the analysis failed) is skipped.
+                pending.pollFirst();
+            }
+        } finally {
+            delegate.close();
+        }
+    }
+
+    private void emitInvalid() {
+        while (!pending.isEmpty() && !pending.peekFirst().valid) {
+            delegate.accept(pending.pollFirst().configuration, 0);
+        }
+    }
+
+    private static class Pending {
+        Collection<String> configuration;
+        boolean valid;
+
+        Pending(Collection<String> configuration, boolean valid) {
+            this.configuration = configuration;
+            this.valid = valid;
+        }
+    }
+
+}
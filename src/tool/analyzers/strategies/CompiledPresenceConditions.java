@@ -0,0 +1,81 @@
+package tool.analyzers.strategies;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import expressionsolver.CompiledExpression;
+
+/**
+ * Presence conditions compiled for evaluation over a feature bit set, so
+ * that checking them for a configuration needs neither the ADD manager nor
+ * a JEP parser. Any number of threads can share an instance.
+ */
+final class CompiledPresenceConditions {
+
+    private final CompiledExpression[] conditions;
+    private final Map<String, Integer> featureIndices;
+    private final ThreadLocal<Scratch> scratch;
+
+    private CompiledPresenceConditions(CompiledExpression[] conditions, Map<String, Integer> featureIndices, int stackSize) {
+        this.conditions = conditions;
+        this.featureIndices = featureIndices;
+        int bitSetSize = (featureIndices.size() + 63) / 64;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(bitSetSize, stackSize));
+    }
+
+    /**
+     * @throws IllegalArgumentException if a presence condition cannot be compiled.
+     */
+    static CompiledPresenceConditions compile(List<String> presenceConditions) {
+        Map<String, Integer> featureIndices = new HashMap<String, Integer>();
+        CompiledExpression[] conditions = new CompiledExpression[presenceConditions.size()];
+        int stackSize = 1;
+        for (int i = 0; i < conditions.length; i++) {
+            conditions[i] = CompiledExpression.compile(presenceConditions.get(i),
+                                                       feature -> featureIndices.computeIfAbsent(feature, f -> featureIndices.size()));
+            stackSize = Math.max(stackSize, conditions[i].getStackSize());
+        }
+        return new CompiledPresenceConditions(conditions, featureIndices, stackSize);
+    }
+
+    int size() {
+        return conditions.length;
+    }
+
+    /**
+     * Evaluates every presence condition for a configuration. Features which
+     * occur in no presence condition are ignored.
+     *
+     * @param configuration Names of the present features.
+     * @param presence Array (of {@link #size()} elements) to be filled in
+     *          with the truth value of each presence condition.
+     */
+    void evaluate(Collection<String> configuration, boolean[] presence) {
+        Scratch current = scratch.get();
+        long[] features = current.features;
+        Arrays.fill(features, 0L);
+        for (String feature : configuration) {
+            Integer index = featureIndices.get(feature);
+            if (index != null) {
+                features[index >>> 6] |= 1L << index;
+            }
+        }
+        for (int i = 0; i < conditions.length; i++) {
+            presence[i] = conditions[i].evaluate(features, current.stack) == 1.0;
+        }
+    }
+
+    private static class Scratch {
+        final long[] features;
+        final double[] stack;
+
+        Scratch(int bitSetSize, int stackSize) {
+            this.features = new long[bitSetSize];
+            this.stack = new double[stackSize];
+        }
+    }
+
+}
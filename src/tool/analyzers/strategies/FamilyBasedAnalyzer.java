@@ -5,6 +5,7 @@ import jadd.JADD;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -35,6 +36,7 @@ public class FamilyBasedAnalyzer {
 
     private FamilyBasedFirstPhase firstPhase;
     private FamilyBasedHelper helper;
+    private Runnable checkpoint = () -> {};
 
     private ITimeCollector timeCollector;
     private IFormulaCollector formulaCollector;
@@ -55,6 +57,30 @@ public class FamilyBasedAnalyzer {
         this.helper = new FamilyBasedHelper(expressionSolver);
     }
 
+    /**
+     * Sets the executor of the concurrent parts of the first phase.
+     *
+     * @see FamilyBasedFirstPhase#setExecutor(Executor)
+     */
+    public void setExecutor(Executor executor) {
+        firstPhase.setExecutor(executor);
+    }
+
+    /**
+     * Sets an action to be run between the steps of the evaluation of the
+     * 150% reliability expression (e.g., for enforcing an
+     * {@link tool.analyzers.AnalysisBudget}). It may abort the analysis by
+     * throwing an unchecked exception.
+     *
+     * The solving of the lifted expression itself is a single step, so it
+     * is checked only before and after.
+     *
+     * @param checkpoint the checkpoint to set
+     */
+    public void setCheckpoint(Runnable checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
     /**
      * Evaluates the family-based reliability function of an RDG node.
      *
@@ -64,16 +90,19 @@ public class FamilyBasedAnalyzer {
      * @throws CyclicRdgException
      */
     public IReliabilityAnalysisResults evaluateReliability(RDGNode node, ConcurrencyStrategy concurrencyStrategy) throws CyclicRdgException, UnknownFeatureException {
-        LOGGER.warning("Family-based analysis does not support parallel execution.");
+        if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
+            LOGGER.info("Deriving the 150% model in parallel.");
+        }
         List<RDGNode> dependencies = node.getDependenciesTransitiveClosure();
 
         timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
         // Lambda_v + alpha_v
-        String expression = firstPhase.getReliabilityExpression(dependencies);
+        String expression = firstPhase.getReliabilityExpression(dependencies, concurrencyStrategy);
         formulaCollector.collectFormula(node, expression);
         timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
 
         timeCollector.startTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
+        checkpoint.run();
         // Lift
         Expression<ADD> liftedExpression = helper.lift(expression);
 
@@ -88,10 +117,15 @@ public class FamilyBasedAnalyzer {
 
         Map<String, ADD> values = eqClassToPC.entrySet().stream()
                 .collect(Collectors.toMap(e -> e.getKey(),
-                                          e -> expressionSolver.encodeFormula(e.getValue())));
+                                          e -> {
+                                              checkpoint.run();
+                                              return expressionSolver.encodeFormula(e.getValue());
+                                          }));
 
+        checkpoint.run();
         // Sigma'_v
         ADD reliability = liftedExpression.solve(values);
+        checkpoint.run();
         ADD result = featureModel.times(reliability);
 
         timeCollector.stopTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
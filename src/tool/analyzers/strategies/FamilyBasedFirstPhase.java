@@ -2,6 +2,8 @@ package tool.analyzers.strategies;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -9,6 +11,8 @@ import paramwrapper.ParametricModelChecker;
 import tool.Analyzer;
 import tool.RDGNode;
 import tool.analyzers.buildingblocks.Component;
+import tool.analyzers.buildingblocks.ComponentGraph;
+import tool.analyzers.buildingblocks.ConcurrencyStrategy;
 import tool.analyzers.buildingblocks.DerivationFunction;
 import tool.analyzers.buildingblocks.PresenceConditions;
 import fdtmc.FDTMC;
@@ -22,7 +26,7 @@ public class FamilyBasedFirstPhase {
      * LAMBDA_v
      */
     private DerivationFunction<String, FDTMC, FDTMC> derive150Model;
-
+    private Executor executor = ForkJoinPool.commonPool();
 
     public FamilyBasedFirstPhase(ParametricModelChecker modelChecker) {
         this.modelChecker = modelChecker;
@@ -32,6 +36,17 @@ public class FamilyBasedFirstPhase {
                                                                new FDTMC());
     }
 
+    /**
+     * Sets the executor in which independent fragments of the 150% model
+     * are derived under the PARALLEL concurrency strategy (defaults to the
+     * common fork-join pool).
+     *
+     * @param executor the executor to set
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
     /**
      * Computes the reliability expression for the 150% model of the given RDG node,
      * using the given order of nodes for sequential composition.
@@ -40,21 +55,33 @@ public class FamilyBasedFirstPhase {
      * RDG nodes (components).
      *
      * This function implements the family-based first phase of analyses.
+     * Independent fragments of the 150% model are derived concurrently if
+     * the concurrency strategy is PARALLEL.
      *
      * @see {@link Analyzer.getReliabilityExpression}
      * @param node
+     * @param concurrencyStrategy
      * @return
      */
-    public String getReliabilityExpression(List<RDGNode> dependencies) {
+    public String getReliabilityExpression(List<RDGNode> dependencies, ConcurrencyStrategy concurrencyStrategy) {
         List<Component<FDTMC>> components = RDGNode.toComponentList(dependencies);
         List<String> presenceConditions = components.stream()
                 .map(Component::getPresenceCondition)
                 .collect(Collectors.toList());
 
         Map<String, String> pcEquivalence = PresenceConditions.toEquivalenceClasses(presenceConditions);
-        FDTMC derived150Model = Component.deriveFromMany(components,
-                                                         derive150Model,
-                                                         c -> pcEquivalence.get(c.getPresenceCondition()));
+        ComponentGraph<FDTMC> graph = ComponentGraph.of(components);
+        FDTMC derived150Model;
+        if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
+            derived150Model = Component.deriveFromMany(graph,
+                                                       derive150Model,
+                                                       c -> pcEquivalence.get(c.getPresenceCondition()),
+                                                       executor);
+        } else {
+            derived150Model = Component.deriveFromMany(graph,
+                                                       derive150Model,
+                                                       c -> pcEquivalence.get(c.getPresenceCondition()));
+        }
         String expression = modelChecker.getReliability(derived150Model);
         LOGGER.info("Parametric model-checking ok...");
         return expression;
@@ -2,10 +2,13 @@ package tool.analyzers.strategies;
 
 import jadd.JADD;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -15,14 +18,14 @@ import tool.CyclicRdgException;
 import tool.RDGNode;
 import tool.analyzers.IReliabilityAnalysisResults;
 import tool.analyzers.MapBasedReliabilityResults;
+import tool.analyzers.ResultsSink;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.ProductExecutor;
 import tool.analyzers.buildingblocks.PresenceConditions;
 import tool.analyzers.buildingblocks.ProductIterationHelper;
 import tool.stats.CollectibleTimers;
 import tool.stats.IFormulaCollector;
 import tool.stats.ITimeCollector;
-import expressionsolver.Expression;
-import expressionsolver.ExpressionSolver;
 
 /**
  * Orchestrator of family-product-based analyses.
@@ -30,9 +33,13 @@ import expressionsolver.ExpressionSolver;
 public class FamilyProductBasedAnalyzer {
     private static final Logger LOGGER = Logger.getLogger(FamilyProductBasedAnalyzer.class.getName());
 
-    private ExpressionSolver expressionSolver;
-
     private FamilyBasedFirstPhase firstPhase;
+    /**
+     * Results of the family-wide expressions solved so far, by number of
+     * presence-condition classes and expression, then by vector of class
+     * values.
+     */
+    private Map<String, Map<BitSet, Double>> resultsByExpression = new ConcurrentHashMap<String, Map<BitSet, Double>>();
 
     private ITimeCollector timeCollector;
     private IFormulaCollector formulaCollector;
@@ -41,14 +48,21 @@ public class FamilyProductBasedAnalyzer {
                                ParametricModelChecker modelChecker,
                                ITimeCollector timeCollector,
                                IFormulaCollector formulaCollector) {
-        this.expressionSolver = new ExpressionSolver(jadd);
-
         this.firstPhase = new FamilyBasedFirstPhase(modelChecker);
 
         this.timeCollector = timeCollector;
         this.formulaCollector = formulaCollector;
     }
 
+    /**
+     * Sets the executor of the concurrent parts of the first phase.
+     *
+     * @see FamilyBasedFirstPhase#setExecutor(Executor)
+     */
+    public void setExecutor(Executor executor) {
+        firstPhase.setExecutor(executor);
+    }
+
     /**
      * Evaluates the family-product-based reliability function of an RDG node.
      *
@@ -57,14 +71,32 @@ public class FamilyProductBasedAnalyzer {
      * @throws CyclicRdgException
      */
     public IReliabilityAnalysisResults evaluateReliability(RDGNode node, Stream<Collection<String>> configurations, ConcurrencyStrategy concurrencyStrategy) throws CyclicRdgException {
-        if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
+        MapBasedReliabilityResults results = new MapBasedReliabilityResults();
+        evaluateReliability(node, configurations, concurrencyStrategy, ProductExecutor.of(concurrencyStrategy), ProductIterationHelper.DEFAULT_BATCH_SIZE, results);
+        return results;
+    }
+
+    /**
+     * Evaluates the family-product-based reliability values of an RDG node,
+     * emitting them to a sink as they are computed.
+     *
+     * @param node RDG node whose reliability is to be evaluated.
+     * @param configurations
+     * @param concurrencyStrategy
+     * @param executor Executor of the per-product evaluations.
+     * @param batchSize Maximum number of configurations evaluated at a time.
+     * @param sink Consumer of the results (not closed).
+     * @throws CyclicRdgException
+     */
+    public void evaluateReliability(RDGNode node, Stream<Collection<String>> configurations, ConcurrencyStrategy concurrencyStrategy, ProductExecutor executor, int batchSize, ResultsSink sink) throws CyclicRdgException {
+        if (executor.getParallelism() > 1) {
             LOGGER.info("Solving the family-wide expression for each product in parallel.");
         }
         List<RDGNode> dependencies = node.getDependenciesTransitiveClosure();
 
         timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
         // Lambda_v + alpha_v
-        String expression = firstPhase.getReliabilityExpression(dependencies);
+        String expression = firstPhase.getReliabilityExpression(dependencies, concurrencyStrategy);
         formulaCollector.collectFormula(node, expression);
         timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
 
@@ -79,42 +111,27 @@ public class FamilyProductBasedAnalyzer {
                                           e -> e.getKey(),
                                           (a, b) -> a));
 
-        Map<Collection<String>, Double> results;
-        if (concurrencyStrategy == ConcurrencyStrategy.SEQUENTIAL) {
-            Expression<Double> parsedExpression = expressionSolver.parseExpression(expression);
-            results = ProductIterationHelper.evaluate(configuration -> evaluateSingle(parsedExpression,
-                                                                                      configuration,
-                                                                                      eqClassToPC),
-                                                      configurations,
-                                                      concurrencyStrategy);
-        } else {
-            results = ProductIterationHelper.evaluate(configuration -> evaluateSingle(expression,
-                                                                                      configuration,
-                                                                                      eqClassToPC),
-                                                      configurations,
-                                                      concurrencyStrategy);
-        }
+        FamilyProductPlan plan = FamilyProductPlan.compile(expression, eqClassToPC);
+        // Configurations with equal vectors of class values share the result,
+        // also with the ones of previous calls for the same expression.
+        Map<BitSet, Double> resultsByVector = resultsByExpression.computeIfAbsent(eqClassToPC.size() + "|" + expression,
+                                                                                  e -> new ConcurrentHashMap<BitSet, Double>());
+        int knownVectors = resultsByVector.size();
+        LongAdder configurationsNumber = new LongAdder();
+        ProductIterationHelper.evaluate(configuration -> {
+                                            configurationsNumber.increment();
+                                            return resultsByVector.computeIfAbsent(plan.classify(configuration),
+                                                                                   plan::evaluate);
+                                        },
+                                        configurations,
+                                        executor,
+                                        batchSize,
+                                        sink);
+        LOGGER.info(() -> "Expression solved for " + (resultsByVector.size() - knownVectors)
+                + " new presence vector(s) out of " + configurationsNumber.sum() + " configuration(s)");
 
         timeCollector.stopTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
         LOGGER.info("Formulae evaluation ok...");
-        return new MapBasedReliabilityResults(results);
-    }
-
-    private Double evaluateSingle(Expression<Double> expression, Collection<String> configuration, Map<String, String> eqClassToPC) {
-        Function<Map.Entry<String, String>, Boolean> isPresent = e -> PresenceConditions.isPresent(e.getValue(),
-                                                                                                   configuration,
-                                                                                                   expressionSolver);
-        Map<String, Double> values = eqClassToPC.entrySet().stream()
-            .collect(Collectors.toMap(e -> e.getKey(),
-                                      isPresent.andThen(present -> present ? 1.0 : 0.0)));
-
-        return expression.solve(values);
-
-    }
-
-    private Double evaluateSingle(String expression, Collection<String> configuration, Map<String, String> eqClassToPC) {
-        Expression<Double> parsedExpression = expressionSolver.parseExpression(expression);
-        return evaluateSingle(parsedExpression, configuration, eqClassToPC);
     }
 
 }
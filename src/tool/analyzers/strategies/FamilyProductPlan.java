@@ -0,0 +1,106 @@
+package tool.analyzers.strategies;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import expressionsolver.CompiledExpression;
+
+/**
+ * Compiled family-wide reliability expression, for evaluating it for many
+ * configurations.
+ *
+ * The expression only depends on the truth values of the presence-condition
+ * equivalence classes (see {@link tool.analyzers.buildingblocks.PresenceConditions#toEquivalenceClasses(List)}).
+ * Hence a configuration is first mapped to its vector of class values
+ * ({@link #classify(Collection)}), which is all that {@link #evaluate(BitSet)}
+ * needs, so that configurations with equal vectors can share the result.
+ * Any number of threads can share a plan.
+ */
+final class FamilyProductPlan {
+
+    private final CompiledExpression expression;
+    private final CompiledPresenceConditions presenceConditions;
+    private final ThreadLocal<Scratch> scratch;
+
+    private FamilyProductPlan(CompiledExpression expression, CompiledPresenceConditions presenceConditions) {
+        this.expression = expression;
+        this.presenceConditions = presenceConditions;
+        int classesNumber = presenceConditions.size();
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(classesNumber, expression.getStackSize()));
+    }
+
+    /**
+     * @param expression Family-wide reliability expression over the ids of
+     *          presence-condition equivalence classes.
+     * @param eqClassToPC Mapping from class ids to presence conditions.
+     * @throws IllegalArgumentException if the expression or a presence
+     *          condition cannot be compiled, or the expression has a variable
+     *          other than a class id.
+     */
+    static FamilyProductPlan compile(String expression, Map<String, String> eqClassToPC) {
+        Map<String, Integer> classIndices = new HashMap<String, Integer>();
+        List<String> presenceConditions = new ArrayList<String>();
+        // Classes are indexed in the order of their ids (s0, s1, ..., s10, ...),
+        // so that vectors mean the same for equal numbers of classes.
+        eqClassToPC.keySet().stream()
+                .sorted(Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder()))
+                .forEach(eqClass -> {
+                    classIndices.put(eqClass, presenceConditions.size());
+                    presenceConditions.add(eqClassToPC.get(eqClass));
+                });
+        CompiledExpression compiled = CompiledExpression.compile(expression, eqClass -> {
+            Integer index = classIndices.get(eqClass);
+            if (index == null) {
+                throw new IllegalArgumentException("Unknown presence condition class " + eqClass);
+            }
+            return index;
+        });
+        return new FamilyProductPlan(compiled, CompiledPresenceConditions.compile(presenceConditions));
+    }
+
+    /**
+     * @return the truth values of the presence-condition classes for the
+     *          given configuration, by class index.
+     */
+    BitSet classify(Collection<String> configuration) {
+        boolean[] presence = scratch.get().presence;
+        presenceConditions.evaluate(configuration, presence);
+        BitSet vector = new BitSet(presence.length);
+        for (int i = 0; i < presence.length; i++) {
+            if (presence[i]) {
+                vector.set(i);
+            }
+        }
+        return vector;
+    }
+
+    /**
+     * Evaluates the expression for a vector of class values.
+     */
+    double evaluate(BitSet vector) {
+        Scratch current = scratch.get();
+        double[] values = current.values;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = vector.get(i) ? 1.0 : 0.0;
+        }
+        return expression.evaluate(values, current.stack);
+    }
+
+    private static class Scratch {
+        final boolean[] presence;
+        final double[] values;
+        final double[] stack;
+
+        Scratch(int classesNumber, int stackSize) {
+            this.presence = new boolean[classesNumber];
+            this.values = new double[classesNumber];
+            this.stack = new double[Math.max(1, stackSize)];
+        }
+    }
+
+}
@@ -1,15 +1,19 @@
 package tool.analyzers.strategies;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import paramwrapper.ParametricModelChecker;
 import tool.Analyzer;
 import tool.RDGNode;
 import tool.analyzers.buildingblocks.Component;
+import tool.analyzers.buildingblocks.ComponentGraph;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
 import tool.stats.IFormulaCollector;
 import fdtmc.FDTMC;
@@ -22,6 +26,7 @@ public class FeatureBasedFirstPhase {
 
     ParametricModelChecker modelChecker;
     private IFormulaCollector formulaCollector;
+    private Executor executor = ForkJoinPool.commonPool();
 
     public FeatureBasedFirstPhase(ParametricModelChecker modelChecker,
                                   IFormulaCollector formulaCollector) {
@@ -29,6 +34,16 @@ public class FeatureBasedFirstPhase {
         this.formulaCollector = formulaCollector;
     }
 
+    /**
+     * Sets the executor in which models are checked under the PARALLEL
+     * concurrency strategy (defaults to the common fork-join pool).
+     *
+     * @param executor the executor to set
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
     /**
      * Computes the reliability expression for the model of the given RDG nodes,
      * returning them in a map which is conveniently sorted in the same order as
@@ -42,32 +57,69 @@ public class FeatureBasedFirstPhase {
      * @return
      */
     public List<Component<String>> getReliabilityExpressions(List<RDGNode> nodes, ConcurrencyStrategy concurrencyStrategy) {
+        return getReliabilityExpressions(nodes, RDGNode::getFDTMC, concurrencyStrategy);
+    }
+
+    /**
+     * Computes the reliability expression for the models of the given RDG nodes
+     * as they are provided by {@code models}. This allows for the analysis of
+     * models derived from the ones in the RDG (e.g., with extra parameters).
+     *
+     * @see {@link #getReliabilityExpressions(List, ConcurrencyStrategy)}
+     * @param nodes
+     * @param models Function yielding the model to be checked for a given node.
+     * @param concurrencyStrategy
+     * @return
+     */
+    public List<Component<String>> getReliabilityExpressions(List<RDGNode> nodes, Function<RDGNode, FDTMC> models, ConcurrencyStrategy concurrencyStrategy) {
         if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
             LOGGER.info("Performing model checking in parallel for each FDTMC.");
         }
         // Expressions can be calculated concurrently...
-        Stream<RDGNode> expressionStream = (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) ? nodes.parallelStream()
-                                                                                                 : nodes.stream();
-        Map<String, String> expressionsByNode = expressionStream
-            .collect(Collectors.toMap(RDGNode::getId,
-                                      this::getReliabilityExpression));
+        List<Component<FDTMC>> components = RDGNode.toComponentList(nodes);
+        Map<String, RDGNode> nodesById = new HashMap<String, RDGNode>();
+        for (RDGNode node : nodes) {
+            nodesById.put(node.getId(), node);
+        }
+        Function<Component<FDTMC>, String> check = c -> {
+            RDGNode node = nodesById.get(c.getId());
+            return getReliabilityExpression(node, models.apply(node));
+        };
+        List<String> expressions;
+        if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
+            expressions = ComponentGraph.of(components).mapConcurrently(check, executor);
+        } else {
+            expressions = components.stream().map(check).collect(Collectors.toList());
+        }
+        Map<String, String> expressionsByNode = new HashMap<String, String>();
+        for (int i = 0; i < components.size(); i++) {
+            expressionsByNode.put(components.get(i).getId(), expressions.get(i));
+        }
 
         // ... but then we need to recover ordering information
         // so that we can format the response accordingly.
-        return nodes.stream()
-                .map(RDGNode::toComponent)
-                .map(c -> c.fmap((FDTMC f) -> expressionsByNode.get(c.getId())))
-                .collect(Collectors.toList());
+        return Component.fmapAll(components,
+                                 c -> expressionsByNode.get(c.getId()));
+    }
+
+    /**
+     * Computes the reliability expression for the model of a given RDG node.
+     *
+     * @param node
+     * @return an algebraic expression on the variables present in the node's model.
+     */
+    public String getReliabilityExpression(RDGNode node) {
+        return getReliabilityExpression(node, node.getFDTMC());
     }
 
     /**
      * Computes the reliability expression for the model of a given RDG node.
      *
      * @param node
+     * @param model
      * @return an algebraic expression on the variables present in the node's model.
      */
-    private String getReliabilityExpression(RDGNode node) {
-        FDTMC model = node.getFDTMC();
+    private String getReliabilityExpression(RDGNode node, FDTMC model) {
         String reliabilityExpression = modelChecker.getReliability(model);
 
         formulaCollector.collectFormula(node, reliabilityExpression);
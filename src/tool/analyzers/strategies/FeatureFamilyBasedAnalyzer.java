@@ -3,8 +3,21 @@ package tool.analyzers.strategies;
 import jadd.ADD;
 import jadd.JADD;
 
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import paramwrapper.ParametricModelChecker;
 import tool.CyclicRdgException;
@@ -12,17 +25,20 @@ import tool.RDGNode;
 import tool.analyzers.ADDReliabilityResults;
 import tool.analyzers.IPruningStrategy;
 import tool.analyzers.IReliabilityAnalysisResults;
+import tool.analyzers.IncrementalAnalysisState;
 import tool.analyzers.NoPruningStrategy;
 import tool.analyzers.buildingblocks.AssetProcessor;
 import tool.analyzers.buildingblocks.Component;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
 import tool.analyzers.buildingblocks.DerivationFunction;
 import tool.analyzers.buildingblocks.FamilyBasedHelper;
+import tool.analyzers.buildingblocks.PipelinedDerivation;
 import tool.stats.CollectibleTimers;
 import tool.stats.IFormulaCollector;
 import tool.stats.ITimeCollector;
 import expressionsolver.Expression;
 import expressionsolver.ExpressionSolver;
+import fdtmc.FDTMC;
 
 /**
  * Orchestrator of feature-family-based analyses.
@@ -33,6 +49,8 @@ public class FeatureFamilyBasedAnalyzer {
     private JADD jadd;
     private ExpressionSolver expressionSolver;
     private IPruningStrategy pruningStrategy;
+    private Runnable checkpoint = () -> {};
+    private Executor executor = ForkJoinPool.commonPool();
 
     private FeatureBasedFirstPhase firstPhase;
     private FamilyBasedHelper helper;
@@ -62,6 +80,7 @@ public class FeatureFamilyBasedAnalyzer {
         this.helper = new FamilyBasedHelper(expressionSolver);
 
         AssetProcessor<Expression<ADD>, ADD> evalAndPrune = (expr, values) -> {
+            this.checkpoint.run();
             return this.pruningStrategy.pruneInvalidConfigurations(null,
                                                                    expr.solve(values),
                                                                    featureModel);
@@ -87,6 +106,128 @@ public class FeatureFamilyBasedAnalyzer {
     public IReliabilityAnalysisResults evaluateReliability(RDGNode node, ConcurrencyStrategy concurrencyStrategy, String dotOutput) throws CyclicRdgException {
         List<RDGNode> dependencies = node.getDependenciesTransitiveClosure();
 
+        ADD result;
+        if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
+            result = evaluatePipelined(dependencies,
+                                       firstPhase::getReliabilityExpression,
+                                       dependency -> expressionSolver.encodeFormula(dependency.getPresenceCondition()),
+                                       concurrencyStrategy,
+                                       (dependency, presence, expression, values) -> solve.apply(presence, helper.lift(expression), values));
+        } else {
+            result = evaluateInPhases(dependencies, concurrencyStrategy);
+        }
+
+        if (dotOutput != null) {
+            generateDotFile(result, dotOutput);
+        }
+
+        return new ADDReliabilityResults(result);
+    }
+
+    /**
+     * Evaluates the feature-family-based reliability function of an RDG node,
+     * reusing the results of a previous analysis of a possibly different RDG.
+     *
+     * Only nodes whose models are not known to {@code state} are model checked,
+     * and only nodes whose fingerprints are not known to it (i.e., changed nodes
+     * and their ancestors) have their reliability functions solved. The state
+     * is then updated with the results for the current RDG.
+     *
+     * Changed nodes go through the same pipeline as a full analysis (see
+     * {@link #evaluateReliability(RDGNode, ConcurrencyStrategy, String)}),
+     * whereas unchanged ones just pass their known results along.
+     *
+     * @param node RDG node whose reliability is to be evaluated.
+     * @param concurrencyStrategy
+     * @param state Results of the previous analysis (initially empty).
+     * @return
+     * @throws CyclicRdgException
+     */
+    public IReliabilityAnalysisResults evaluateReliabilityIncrementally(RDGNode node, ConcurrencyStrategy concurrencyStrategy, IncrementalAnalysisState state) throws CyclicRdgException {
+        List<RDGNode> dependencies = node.getDependenciesTransitiveClosure();
+
+        Map<String, String> expressionsByModel = new ConcurrentHashMap<String, String>();
+        // Only accessed by the solving lane (once the pipeline is started).
+        Map<String, ADD> reliabilitiesByNode = new HashMap<String, ADD>();
+        int reusedExpressions = 0;
+        int reusedReliabilities = 0;
+        for (RDGNode dependency : dependencies) {
+            String model = dependency.getModelFingerprint();
+            String expression = state.getExpression(model);
+            if (expression != null) {
+                expressionsByModel.put(model, expression);
+                reusedExpressions++;
+            }
+            String fingerprint = dependency.getFingerprint();
+            ADD reliability = state.getReliability(fingerprint);
+            if (reliability != null) {
+                reliabilitiesByNode.put(fingerprint, reliability);
+                reusedReliabilities++;
+            }
+        }
+
+        // Nodes with equal models are checked only once.
+        Map<String, CompletableFuture<String>> checks = new ConcurrentHashMap<String, CompletableFuture<String>>();
+        Set<String> knownReliabilities = new HashSet<String>(reliabilitiesByNode.keySet());
+        Function<RDGNode, String> check = dependency -> {
+            if (knownReliabilities.contains(dependency.getFingerprint())) {
+                // Not needed for solving.
+                return null;
+            }
+            return checkOnce(dependency, expressionsByModel, checks);
+        };
+        Function<RDGNode, ADD> presence = dependency -> reliabilitiesByNode.containsKey(dependency.getFingerprint())
+                ? null
+                : expressionSolver.encodeFormula(dependency.getPresenceCondition());
+        ADD result = evaluatePipelined(dependencies, check, presence, concurrencyStrategy, (dependency, presenceCondition, expression, values) -> {
+            // Unchanged nodes (and nodes equal to one already solved in
+            // this analysis) are not solved again.
+            String fingerprint = dependency.getFingerprint();
+            ADD reliability = reliabilitiesByNode.get(fingerprint);
+            if (reliability == null) {
+                reliability = solve.apply(presenceCondition, helper.lift(expression), values);
+                reliabilitiesByNode.put(fingerprint, reliability);
+            }
+            return reliability;
+        });
+
+        state.update(expressionsByModel, reliabilitiesByNode, reusedExpressions, reusedReliabilities);
+        return new ADDReliabilityResults(result);
+    }
+
+    /**
+     * Model checks a node, unless a node with an equal model has already
+     * been (or is being) checked in the same analysis.
+     */
+    private String checkOnce(RDGNode node,
+                             Map<String, String> expressionsByModel,
+                             Map<String, CompletableFuture<String>> checks) {
+        String model = node.getModelFingerprint();
+        String known = expressionsByModel.get(model);
+        if (known != null) {
+            return known;
+        }
+        CompletableFuture<String> check = new CompletableFuture<String>();
+        CompletableFuture<String> previous = checks.putIfAbsent(model, check);
+        if (previous != null) {
+            return previous.join();
+        }
+        try {
+            String expression = firstPhase.getReliabilityExpression(node);
+            expressionsByModel.put(model, expression);
+            check.complete(expression);
+            return expression;
+        } catch (RuntimeException | Error e) {
+            check.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Model checks all nodes and only then lifts and solves the resulting
+     * expressions, in topological order.
+     */
+    private ADD evaluateInPhases(List<RDGNode> dependencies, ConcurrencyStrategy concurrencyStrategy) {
         timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
         // Alpha_v
         List<Component<String>> expressions = firstPhase.getReliabilityExpressions(dependencies, concurrencyStrategy);
@@ -94,19 +235,101 @@ public class FeatureFamilyBasedAnalyzer {
 
         timeCollector.startTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
         // Lift
-        List<Component<Expression<ADD>>> liftedExpressions = expressions.stream()
-                .map(helper::lift)
-                .collect(Collectors.toList());
+        List<Component<Expression<ADD>>> liftedExpressions = helper.lift(expressions);
         // Sigma_v
         ADD reliability = solveFromMany(liftedExpressions);
         ADD result = featureModel.times(reliability);
         timeCollector.stopTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
+        return result;
+    }
 
-        if (dotOutput != null) {
-            generateDotFile(result, dotOutput);
+    /**
+     * Model checks all nodes concurrently (in the executor set by
+     * {@link #setExecutor(Executor)}), lifting and solving the expression of
+     * each node as soon as it and the ADDs of the node's dependencies are
+     * ready. ADD operations are confined to a dedicated thread, since CUDD is
+     * not thread-safe. Under the SEQUENTIAL strategy, everything is done in
+     * the calling thread instead, still in dependency order.
+     *
+     * Since both phases overlap, the model checking time accounts for the
+     * time until every expression is known, and the expression solving time
+     * only for the solving which remains after that.
+     *
+     * @param check Model checking of a node (first stage).
+     * @param presence Presence condition of a node.
+     * @param solver Solving of a node's expression (second stage).
+     */
+    private ADD evaluatePipelined(List<RDGNode> dependencies,
+                                  Function<RDGNode, String> check,
+                                  Function<RDGNode, ADD> presence,
+                                  ConcurrencyStrategy concurrencyStrategy,
+                                  NodeSolver solver) {
+        Map<String, RDGNode> nodesById = new HashMap<String, RDGNode>();
+        for (RDGNode dependency : dependencies) {
+            nodesById.put(dependency.getId(), dependency);
         }
+        List<Component<FDTMC>> components = RDGNode.toComponentList(dependencies);
 
-        return new ADDReliabilityResults(result);
+        boolean parallel = concurrencyStrategy == ConcurrencyStrategy.PARALLEL;
+        ExecutorService addLane = parallel ? Executors.newSingleThreadExecutor(daemonThreads("add-solving")) : null;
+        PipelinedDerivation<Map.Entry<RDGNode, String>, ADD> pipeline = null;
+        try {
+            timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
+            pipeline = PipelinedDerivation.start(components,
+                    c -> {
+                        RDGNode dependency = nodesById.get(c.getId());
+                        return new AbstractMap.SimpleImmutableEntry<RDGNode, String>(dependency, check.apply(dependency));
+                    },
+                    parallel ? executor : Runnable::run,
+                    (ADD presenceCondition, Map.Entry<RDGNode, String> checked, Map<String, ADD> values) ->
+                            solver.solve(checked.getKey(), presenceCondition, checked.getValue(), values),
+                    c -> presence.apply(nodesById.get(c.getId())),
+                    parallel ? addLane : Runnable::run);
+            pipeline.awaitFirstStage();
+            timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
+
+            timeCollector.startTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
+            ADD reliability = pipeline.awaitResult();
+            ADD result = featureModel.times(reliability);
+            timeCollector.stopTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
+            return result;
+        } finally {
+            if (pipeline != null) {
+                // The executor may be shared, so pending checks of an
+                // aborted analysis are dropped rather than shut down.
+                pipeline.cancel();
+            }
+            if (addLane != null) {
+                addLane.shutdownNow();
+                // If aborted, the solving step under way must not overlap
+                // with whatever the caller does next with the ADD manager.
+                awaitTermination(addLane);
+            }
+        }
+    }
+
+    /**
+     * Second stage of {@link #evaluatePipelined(List, Function, Function, ConcurrencyStrategy, NodeSolver)}.
+     */
+    @FunctionalInterface
+    private interface NodeSolver {
+        ADD solve(RDGNode node, ADD presence, String expression, Map<String, ADD> values);
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 
     /**
@@ -123,6 +346,29 @@ public class FeatureFamilyBasedAnalyzer {
         this.pruningStrategy = pruningStrategy;
     }
 
+    /**
+     * Sets an action to be run before solving the reliability function of
+     * each node (e.g., for enforcing an {@link tool.analyzers.AnalysisBudget}).
+     * It may abort the analysis by throwing an unchecked exception.
+     *
+     * @param checkpoint the checkpoint to set
+     */
+    public void setCheckpoint(Runnable checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Sets the executor in which models are checked under the PARALLEL
+     * concurrency strategy (defaults to the common fork-join pool). ADDs
+     * are solved in a dedicated thread regardless.
+     *
+     * @see FeatureBasedFirstPhase#setExecutor(Executor)
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+        firstPhase.setExecutor(executor);
+    }
+
     /**
      * Dumps the computed family reliability function to the output file
      * in the specified path.
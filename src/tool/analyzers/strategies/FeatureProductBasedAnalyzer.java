@@ -5,6 +5,7 @@ import jadd.JADD;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
 
@@ -14,16 +15,14 @@ import tool.RDGNode;
 import tool.UnknownFeatureException;
 import tool.analyzers.IReliabilityAnalysisResults;
 import tool.analyzers.MapBasedReliabilityResults;
+import tool.analyzers.ResultsSink;
 import tool.analyzers.buildingblocks.Component;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
-import tool.analyzers.buildingblocks.DerivationFunction;
-import tool.analyzers.buildingblocks.IfOperator;
-import tool.analyzers.buildingblocks.PresenceConditions;
+import tool.analyzers.buildingblocks.ProductExecutor;
 import tool.analyzers.buildingblocks.ProductIterationHelper;
 import tool.stats.CollectibleTimers;
 import tool.stats.IFormulaCollector;
 import tool.stats.ITimeCollector;
-import expressionsolver.ExpressionSolver;
 
 /**
  * Orchestrator of feature-product-based analyses.
@@ -31,31 +30,27 @@ import expressionsolver.ExpressionSolver;
 public class FeatureProductBasedAnalyzer {
     private static final Logger LOGGER = Logger.getLogger(FeatureProductBasedAnalyzer.class.getName());
 
-    private ExpressionSolver expressionSolver;
     private FeatureBasedFirstPhase firstPhase;
 
-    /**
-     * Sigma
-     */
-    private DerivationFunction<Boolean, String, Double> solve;
-
     private ITimeCollector timeCollector;
 
     public FeatureProductBasedAnalyzer(JADD jadd,
                                        ParametricModelChecker modelChecker,
                                        ITimeCollector timeCollector,
                                        IFormulaCollector formulaCollector) {
-        this.expressionSolver = new ExpressionSolver(jadd);
-
         this.timeCollector = timeCollector;
 
         this.firstPhase = new FeatureBasedFirstPhase(modelChecker,
                                                      formulaCollector);
+    }
 
-
-        solve = DerivationFunction.abstractDerivation(new IfOperator<Double>(),
-                                                      expressionSolver::solveExpression,
-                                                      1.0);
+    /**
+     * Sets the executor of the concurrent parts of the first phase.
+     *
+     * @see FeatureBasedFirstPhase#setExecutor(Executor)
+     */
+    public void setExecutor(Executor executor) {
+        firstPhase.setExecutor(executor);
     }
 
     /**
@@ -68,6 +63,25 @@ public class FeatureProductBasedAnalyzer {
      * @throws UnknownFeatureException
      */
     public IReliabilityAnalysisResults evaluateReliability(RDGNode node, Stream<Collection<String>> configurations, ConcurrencyStrategy concurrencyStrategy) throws CyclicRdgException, UnknownFeatureException {
+        MapBasedReliabilityResults results = new MapBasedReliabilityResults();
+        evaluateReliability(node, configurations, concurrencyStrategy, ProductExecutor.of(concurrencyStrategy), ProductIterationHelper.DEFAULT_BATCH_SIZE, results);
+        return results;
+    }
+
+    /**
+     * Evaluates the feature-product-based reliability values of an RDG node,
+     * emitting them to a sink as they are computed.
+     *
+     * @param node RDG node whose reliability is to be evaluated.
+     * @param configurations
+     * @param concurrencyStrategy
+     * @param executor Executor of the per-product evaluations.
+     * @param batchSize Maximum number of configurations evaluated at a time.
+     * @param sink Consumer of the results (not closed).
+     * @throws CyclicRdgException
+     * @throws UnknownFeatureException
+     */
+    public void evaluateReliability(RDGNode node, Stream<Collection<String>> configurations, ConcurrencyStrategy concurrencyStrategy, ProductExecutor executor, int batchSize, ResultsSink sink) throws CyclicRdgException, UnknownFeatureException {
         List<RDGNode> dependencies = node.getDependenciesTransitiveClosure();
 
         timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
@@ -76,26 +90,19 @@ public class FeatureProductBasedAnalyzer {
         timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
 
         timeCollector.startTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
+        // Sigma, compiled once for all configurations
+        FeatureProductPlan plan = FeatureProductPlan.compile(expressions);
 
-        if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
+        if (executor.getParallelism() > 1) {
             LOGGER.info("Evaluating all expressions for each product in parallel.");
         }
-        Map<Collection<String>, Double> results = ProductIterationHelper.evaluate(configuration -> evaluateSingle(node,
-                                                                                                                  configuration,
-                                                                                                                  expressions),
-                                                                                  configurations,
-                                                                                  concurrencyStrategy);
+        ProductIterationHelper.evaluate(plan::evaluate,
+                                        configurations,
+                                        executor,
+                                        batchSize,
+                                        sink);
 
         timeCollector.stopTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
-        return new MapBasedReliabilityResults(results);
-    }
-
-    private Double evaluateSingle(RDGNode node, Collection<String> configuration, List<Component<String>> expressions) {
-        return Component.deriveFromMany(expressions,
-                                        solve,
-                                        c -> PresenceConditions.isPresent(c.getPresenceCondition(),
-                                                                          configuration,
-                                                                          expressionSolver));
     }
 
 }
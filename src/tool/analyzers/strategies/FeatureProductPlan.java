@@ -0,0 +1,109 @@
+package tool.analyzers.strategies;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import tool.analyzers.buildingblocks.Component;
+import tool.analyzers.buildingblocks.ComponentGraph;
+import expressionsolver.CompiledExpression;
+
+/**
+ * Compiled counterpart of the feature-product-based derivation (Sigma) of a
+ * list of reliability expressions, for evaluating it for many configurations.
+ *
+ * Reliability expressions and presence conditions are parsed only once, with
+ * dependencies resolved to positions in the topologically sorted component
+ * array and features to positions in a bit set. Evaluating a configuration
+ * then amounts to a pass over primitive arrays, using per-thread scratch
+ * space, so that any number of threads can share a plan.
+ */
+final class FeatureProductPlan {
+
+    private final CompiledExpression[] reliabilities;
+    private final CompiledPresenceConditions presenceConditions;
+    private final ThreadLocal<Scratch> scratch;
+
+    private FeatureProductPlan(CompiledExpression[] reliabilities,
+                               CompiledPresenceConditions presenceConditions,
+                               int stackSize) {
+        this.reliabilities = reliabilities;
+        this.presenceConditions = presenceConditions;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(reliabilities.length, stackSize));
+    }
+
+    /**
+     * Compiles the derivation of a list of reliability expressions.
+     *
+     * @param expressions Components in topological order (dependencies first),
+     *          whose assets are reliability expressions over the ids of
+     *          their dependencies.
+     * @throws IllegalArgumentException if an expression or presence condition
+     *          cannot be compiled, or an expression refers to an unknown
+     *          (or not yet derived) component.
+     */
+    static FeatureProductPlan compile(List<Component<String>> expressions) {
+        ComponentGraph<String> graph = ComponentGraph.of(expressions);
+        int size = graph.size();
+        Map<String, Integer> componentIndices = new HashMap<String, Integer>();
+        CompiledExpression[] reliabilities = new CompiledExpression[size];
+        List<String> presenceConditions = new ArrayList<String>();
+        int stackSize = 1;
+        for (int i = 0; i < size; i++) {
+            Component<String> component = graph.getComponent(i);
+            reliabilities[i] = CompiledExpression.compile(component.getAsset(), dependency -> {
+                Integer index = componentIndices.get(dependency);
+                if (index == null) {
+                    throw new IllegalArgumentException("Unknown dependency " + dependency + " of " + component.getId());
+                }
+                return index;
+            });
+            presenceConditions.add(component.getPresenceCondition());
+            stackSize = Math.max(stackSize, reliabilities[i].getStackSize());
+            componentIndices.put(component.getId(), i);
+        }
+        return new FeatureProductPlan(reliabilities,
+                                      CompiledPresenceConditions.compile(presenceConditions),
+                                      stackSize);
+    }
+
+    /**
+     * Evaluates the reliability of the last component for a configuration.
+     *
+     * Features which occur in no presence condition are ignored.
+     *
+     * @param configuration Names of the present features.
+     */
+    double evaluate(Collection<String> configuration) {
+        Scratch current = scratch.get();
+        boolean[] presence = current.presence;
+        presenceConditions.evaluate(configuration, presence);
+
+        double[] values = current.values;
+        double[] stack = current.stack;
+        for (int i = 0; i < reliabilities.length; i++) {
+            // Same as the IfOperator-based derivation: absent components
+            // have reliability 1.
+            values[i] = presence[i] ? reliabilities[i].evaluate(values, stack) : 1.0;
+        }
+        return values[values.length - 1];
+    }
+
+    /**
+     * Per-thread evaluation state.
+     */
+    private static class Scratch {
+        final double[] values;
+        final boolean[] presence;
+        final double[] stack;
+
+        Scratch(int componentsNumber, int stackSize) {
+            this.values = new double[componentsNumber];
+            this.presence = new boolean[componentsNumber];
+            this.stack = new double[stackSize];
+        }
+    }
+
+}
@@ -0,0 +1,204 @@
+package tool.analyzers.strategies;
+
+import jadd.ADD;
+import jadd.ConfigurationSampler;
+import jadd.JADD;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+import java.util.logging.Logger;
+
+import paramwrapper.ParametricModelChecker;
+import tool.CyclicRdgException;
+import tool.RDGNode;
+import tool.analyzers.ReliabilityEstimate;
+import tool.analyzers.SampledReliabilityResults;
+import tool.analyzers.SamplingParameters;
+import tool.analyzers.buildingblocks.Component;
+import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.ProductExecutor;
+import tool.stats.CollectibleTimers;
+import tool.stats.IFormulaCollector;
+import tool.stats.ITimeCollector;
+
+/**
+ * Orchestrator of statistical (Monte Carlo) analyses, for SPLs whose
+ * configuration spaces are too large to be enumerated and whose family-wide
+ * ADDs blow up.
+ *
+ * Valid configurations are drawn uniformly from the feature model's ADD (see
+ * {@link ConfigurationSampler}) and evaluated with the feature-product
+ * machinery, i.e., reliability expressions are computed once per RDG node
+ * and each sample only costs a compiled evaluation.
+ */
+public class MonteCarloAnalyzer {
+    private static final Logger LOGGER = Logger.getLogger(MonteCarloAnalyzer.class.getName());
+
+    /**
+     * Samples needed before the normal approximation of the mean is trusted
+     * for stopping.
+     */
+    private static final int MIN_SAMPLES = 30;
+
+    /**
+     * Increment of the state of a {@link SplittableRandom} per number
+     * generated (as long as it is not split).
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private FeatureBasedFirstPhase firstPhase;
+
+    private ITimeCollector timeCollector;
+
+    public MonteCarloAnalyzer(JADD jadd,
+                              ParametricModelChecker modelChecker,
+                              ITimeCollector timeCollector,
+                              IFormulaCollector formulaCollector) {
+        this.timeCollector = timeCollector;
+
+        this.firstPhase = new FeatureBasedFirstPhase(modelChecker,
+                                                     formulaCollector);
+    }
+
+    /**
+     * Sets the executor of the concurrent parts of the first phase.
+     *
+     * @see FeatureBasedFirstPhase#setExecutor(Executor)
+     */
+    public void setExecutor(Executor executor) {
+        firstPhase.setExecutor(executor);
+    }
+
+    /**
+     * Estimates the distribution of the reliabilities of an RDG node over
+     * the valid configurations.
+     *
+     * @param node RDG node whose reliability is to be evaluated.
+     * @param featureModel 0,1-ADD of the valid configurations.
+     * @param concurrencyStrategy
+     * @param executor Executor of the per-sample evaluations.
+     * @param batchSize Number of configurations sampled between checks of
+     *          the stopping criteria.
+     * @param parameters Confidence level and stopping criteria.
+     * @throws CyclicRdgException
+     */
+    public SampledReliabilityResults estimateReliability(RDGNode node,
+                                                         ADD featureModel,
+                                                         ConcurrencyStrategy concurrencyStrategy,
+                                                         ProductExecutor executor,
+                                                         int batchSize,
+                                                         SamplingParameters parameters) throws CyclicRdgException {
+        List<RDGNode> dependencies = node.getDependenciesTransitiveClosure();
+
+        timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
+        // Alpha_v
+        List<Component<String>> expressions = firstPhase.getReliabilityExpressions(dependencies, concurrencyStrategy);
+        timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
+
+        timeCollector.startTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
+        FeatureProductPlan plan = FeatureProductPlan.compile(expressions);
+        ConfigurationSampler sampler = featureModel.getConfigurationSampler();
+        LOGGER.info(() -> "Sampling 2^" + sampler.getValidConfigurationsLog2() + " valid configuration(s)");
+
+        ReliabilityEstimate estimate = sample(plan, sampler, executor, batchSize, parameters);
+        timeCollector.stopTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
+        return new SampledReliabilityResults(estimate, featureModel, plan::evaluate);
+    }
+
+    /**
+     * Samples and evaluates configurations, a batch at a time, until any of
+     * the stopping criteria is met.
+     *
+     * Configurations are drawn by the executor's workers themselves, each
+     * with its own {@link Random}. Its seed is split from the sampling seed
+     * for each sample, so that the samples only depend on the seed and not
+     * on which worker draws them.
+     */
+    private ReliabilityEstimate sample(FeatureProductPlan plan,
+                                       ConfigurationSampler sampler,
+                                       ProductExecutor executor,
+                                       int batchSize,
+                                       SamplingParameters parameters) {
+        long startTime = System.currentTimeMillis();
+        double z = ReliabilityEstimate.normalQuantile(1 - (1 - parameters.getConfidence()) / 2);
+        ThreadLocal<Random> randoms = ThreadLocal.withInitial(Random::new);
+
+        double[] samples = new double[(int) Math.min(parameters.getMaxSamples(), batchSize)];
+        int count = 0;
+        // Welford's running mean and sum of squared deviations
+        double mean = 0;
+        double squares = 0;
+        String stopReason = "maximum number of samples";
+
+        double[] results = new double[batchSize];
+        try (ProductExecutor.Run run = executor.start()) {
+            while (count < parameters.getMaxSamples()) {
+                int batchLength = (int) Math.min(batchSize, parameters.getMaxSamples() - count);
+                int firstSample = count;
+                // Each sample is drawn when (and by whichever worker) it is
+                // claimed, i.e., get(i) is called once per sample.
+                List<Collection<String>> batch = new AbstractList<Collection<String>>() {
+                    @Override
+                    public Collection<String> get(int index) {
+                        Random random = randoms.get();
+                        random.setSeed(sampleSeed(parameters.getSeed(), firstSample + index));
+                        return sampler.sample(random);
+                    }
+
+                    @Override
+                    public int size() {
+                        return batchLength;
+                    }
+                };
+                run.evaluate(plan::evaluate, batch, results);
+
+                if (samples.length < count + batchLength) {
+                    samples = Arrays.copyOf(samples,
+                                            (int) Math.min(parameters.getMaxSamples(),
+                                                           Math.max(count + batchLength, 2L * samples.length)));
+                }
+                for (int i = 0; i < batchLength; i++) {
+                    double value = results[i];
+                    samples[count++] = value;
+                    double delta = value - mean;
+                    mean += delta / count;
+                    squares += delta * (value - mean);
+                }
+
+                double standardDeviation = (count > 1) ? Math.sqrt(squares / (count - 1)) : 0;
+                if (count >= MIN_SAMPLES
+                        && ReliabilityEstimate.meanHalfWidth(standardDeviation, count, z) <= parameters.getPrecision()) {
+                    stopReason = "target precision";
+                    break;
+                }
+                if (parameters.getTimeBudget() > 0
+                        && System.currentTimeMillis() - startTime >= parameters.getTimeBudget()) {
+                    stopReason = "time budget";
+                    break;
+                }
+            }
+        }
+        int samplesNumber = count;
+        String reason = stopReason;
+        LOGGER.info(() -> "Sampling stopped after " + samplesNumber + " configuration(s): " + reason + " reached");
+        return new ReliabilityEstimate(Arrays.copyOf(samples, count),
+                                       parameters.getConfidence(),
+                                       System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * @return the seed of the {@code index}-th sample, i.e., the
+     *          {@code index}-th number generated by a
+     *          {@link SplittableRandom} with the sampling seed (without
+     *          generating the previous ones).
+     */
+    private static long sampleSeed(long seed, long index) {
+        return new SplittableRandom(seed + index * GOLDEN_GAMMA).nextLong();
+    }
+
+}
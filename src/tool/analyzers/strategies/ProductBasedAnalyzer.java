@@ -2,9 +2,17 @@ package tool.analyzers.strategies;
 
 import jadd.JADD;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
 
@@ -14,8 +22,11 @@ import tool.RDGNode;
 import tool.UnknownFeatureException;
 import tool.analyzers.IReliabilityAnalysisResults;
 import tool.analyzers.MapBasedReliabilityResults;
+import tool.analyzers.ResultsSink;
 import tool.analyzers.buildingblocks.Component;
+import tool.analyzers.buildingblocks.ComponentGraph;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.ProductExecutor;
 import tool.analyzers.buildingblocks.DerivationFunction;
 import tool.analyzers.buildingblocks.IfOperator;
 import tool.analyzers.buildingblocks.PresenceConditions;
@@ -25,6 +36,7 @@ import tool.stats.IFormulaCollector;
 import tool.stats.ITimeCollector;
 import expressionsolver.ExpressionSolver;
 import fdtmc.FDTMC;
+import fdtmc.InlinedFDTMC;
 import fdtmc.State;
 
 /**
@@ -35,11 +47,7 @@ public class ProductBasedAnalyzer {
 
     private ExpressionSolver expressionSolver;
     ParametricModelChecker modelChecker;
-    /**
-     * LAMBDA
-     */
-    private DerivationFunction<Boolean, FDTMC, FDTMC> derive;
-
+    private Executor executor = ForkJoinPool.commonPool();
 
     private ITimeCollector timeCollector;
     private IFormulaCollector formulaCollector;
@@ -53,10 +61,17 @@ public class ProductBasedAnalyzer {
 
         this.timeCollector = timeCollector;
         this.formulaCollector = formulaCollector;
+    }
 
-        derive = DerivationFunction.abstractDerivation(new IfOperator<FDTMC>(),
-                                                       FDTMC::inline,
-                                                       trivialFdtmc());
+    /**
+     * Sets the executor in which independent components of each product
+     * are derived under the PARALLEL concurrency strategy (defaults to the
+     * common fork-join pool).
+     *
+     * @param executor the executor to set
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
     }
 
     /**
@@ -68,27 +83,75 @@ public class ProductBasedAnalyzer {
      * @throws CyclicRdgException
      */
     public IReliabilityAnalysisResults evaluateReliability(RDGNode node, Stream<Collection<String>> configurations, ConcurrencyStrategy concurrencyStrategy) throws CyclicRdgException, UnknownFeatureException {
-        if (concurrencyStrategy == ConcurrencyStrategy.PARALLEL) {
+        MapBasedReliabilityResults results = new MapBasedReliabilityResults();
+        evaluateReliability(node, configurations, concurrencyStrategy, ProductExecutor.of(concurrencyStrategy), ProductIterationHelper.DEFAULT_BATCH_SIZE, results);
+        return results;
+    }
+
+    /**
+     * Evaluates the product-based reliability values of an RDG node, emitting
+     * them to a sink as they are computed.
+     *
+     * @param node RDG node whose reliability is to be evaluated.
+     * @param configurations
+     * @param concurrencyStrategy
+     * @param executor Executor of the per-product evaluations.
+     * @param batchSize Maximum number of configurations evaluated at a time.
+     * @param sink Consumer of the results (not closed).
+     * @throws CyclicRdgException
+     */
+    public void evaluateReliability(RDGNode node, Stream<Collection<String>> configurations, ConcurrencyStrategy concurrencyStrategy, ProductExecutor executor, int batchSize, ResultsSink sink) throws CyclicRdgException, UnknownFeatureException {
+        if (executor.getParallelism() > 1) {
             LOGGER.info("Running the whole analysis of each product in parallel.");
         }
         List<RDGNode> dependencies = node.getDependenciesTransitiveClosure();
+        ComponentGraph<FDTMC> models = ComponentGraph.of(RDGNode.toComponentList(dependencies));
+        List<Set<String>> localFeatures = getLocalFeatures(models);
+        // Derived views by (position in the graph, local projection).
+        List<Map<List<String>, InlinedFDTMC>> derivedViews = new ArrayList<Map<List<String>, InlinedFDTMC>>();
+        for (int i = 0; i < models.size(); i++) {
+            derivedViews.add(new ConcurrentHashMap<List<String>, InlinedFDTMC>());
+        }
+        // Interned inlining views. Since children are interned before their
+        // parents, products which agree on the presence of all nodes in a
+        // subtree share the view of that subtree.
+        Map<InlinedFDTMC, InlinedFDTMC> views = new ConcurrentHashMap<InlinedFDTMC, InlinedFDTMC>();
+        // LAMBDA. Products are derived as lazy views, so that no states are
+        // copied until the product is actually model checked.
+        DerivationFunction<Boolean, FDTMC, InlinedFDTMC> derive = DerivationFunction.abstractDerivation(new IfOperator<InlinedFDTMC>(),
+                                                                                                         (fdtmc, indexedModels) -> inline(fdtmc, indexedModels, views),
+                                                                                                         InlinedFDTMC.of(trivialFdtmc()));
 
         timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
 
-        Map<Collection<String>, Double> results = ProductIterationHelper.evaluate(configuration -> evaluateSingle(node,
-                                                                                                                  configuration,
-                                                                                                                  dependencies),
-                                                                                  configurations,
-                                                                                  concurrencyStrategy);
+        // Configurations which agree on all features occurring in presence
+        // conditions yield the same product, which is checked only once.
+        boolean concurrently = concurrencyStrategy == ConcurrencyStrategy.PARALLEL;
+        ProductIterationHelper.evaluateByProjection(projection -> evaluateSingle(node,
+                                                                                projection,
+                                                                                models,
+                                                                                localFeatures,
+                                                                                derivedViews,
+                                                                                derive,
+                                                                                concurrently),
+                                                    configurations,
+                                                    localFeatures.get(models.size() - 1),
+                                                    executor,
+                                                    batchSize,
+                                                    sink);
 
         timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
-        return new MapBasedReliabilityResults(results);
     }
 
-    private Double evaluateSingle(RDGNode node, Collection<String> configuration, List<RDGNode> dependencies) throws UnknownFeatureException {
-        List<Component<FDTMC>> models = RDGNode.toComponentList(dependencies);
+    private Double evaluateSingle(RDGNode node,
+                                  Collection<String> configuration,
+                                  ComponentGraph<FDTMC> models,
+                                  List<Set<String>> localFeatures,
+                                  List<Map<List<String>, InlinedFDTMC>> derivedViews,
+                                  DerivationFunction<Boolean, FDTMC, InlinedFDTMC> derive,
+                                  boolean concurrently) throws UnknownFeatureException {
         // Lambda folding
-        FDTMC rootModel = deriveFromMany(models, configuration);
+        FDTMC rootModel = deriveFromMany(models, configuration, localFeatures, derivedViews, derive, concurrently).materialize();
         // Alpha
         String reliabilityExpression = modelChecker.getReliability(rootModel);
         formulaCollector.collectFormula(node, reliabilityExpression);
@@ -96,12 +159,63 @@ public class ProductBasedAnalyzer {
         return expressionSolver.solveExpression(reliabilityExpression);
     }
 
-    private FDTMC deriveFromMany(List<Component<FDTMC>> dependencies, Collection<String> configuration) {
-        return Component.deriveFromMany(dependencies,
-                                        derive,
-                                        c -> PresenceConditions.isPresent(c.getPresenceCondition(),
-                                                                          configuration,
-                                                                          expressionSolver));
+    private static InlinedFDTMC inline(FDTMC fdtmc, Map<String, InlinedFDTMC> indexedModels, Map<InlinedFDTMC, InlinedFDTMC> views) {
+        InlinedFDTMC view = InlinedFDTMC.of(fdtmc, indexedModels);
+        InlinedFDTMC interned = views.putIfAbsent(view, view);
+        return (interned != null) ? interned : view;
+    }
+
+    /**
+     * Derives the product of a configuration, reusing the views derived
+     * for previous configurations which agree with it on the features
+     * occurring in the presence conditions of each subtree.
+     *
+     * Independent components are derived concurrently, level by level, if
+     * {@code concurrently} is set.
+     */
+    private InlinedFDTMC deriveFromMany(ComponentGraph<FDTMC> models,
+                                        Collection<String> configuration,
+                                        List<Set<String>> localFeatures,
+                                        List<Map<List<String>, InlinedFDTMC>> derivedViews,
+                                        DerivationFunction<Boolean, FDTMC, InlinedFDTMC> derive,
+                                        boolean concurrently) {
+        BiFunction<Integer, Map<String, InlinedFDTMC>, InlinedFDTMC> deriveAt = (i, derivedModels) -> {
+            Component<FDTMC> component = models.getComponent(i);
+            List<String> localProjection = ProductIterationHelper.project(configuration, localFeatures.get(i));
+            return derivedViews.get(i).computeIfAbsent(localProjection, key -> {
+                boolean presence = PresenceConditions.isPresent(component.getPresenceCondition(),
+                                                                configuration,
+                                                                expressionSolver);
+                return derive.apply(presence, component.getAsset(), derivedModels);
+            });
+        };
+        String rootId = models.getComponent(models.size() - 1).getId();
+        if (concurrently) {
+            return models.deriveByLevels(deriveAt, executor).get(rootId);
+        }
+        Map<String, InlinedFDTMC> derivedModels = new HashMap<String, InlinedFDTMC>();
+        for (int i = 0; i < models.size(); i++) {
+            derivedModels.put(models.getComponent(i).getId(), deriveAt.apply(i, derivedModels));
+        }
+        return derivedModels.get(rootId);
+    }
+
+    /**
+     * @return for each component of the graph, the features occurring in the
+     *          presence conditions of the component and its (transitive)
+     *          dependencies, on which alone its derived view depends.
+     */
+    private List<Set<String>> getLocalFeatures(ComponentGraph<FDTMC> models) {
+        List<Set<String>> localFeatures = new ArrayList<Set<String>>();
+        for (int i = 0; i < models.size(); i++) {
+            Set<String> features = new HashSet<String>(expressionSolver.encodeFormula(models.getComponent(i).getPresenceCondition())
+                                                                      .getVariables());
+            for (int dependency : models.getDependencies(i)) {
+                features.addAll(localFeatures.get(dependency));
+            }
+            localFeatures.add(features);
+        }
+        return localFeatures;
     }
 
     private FDTMC trivialFdtmc() {
@@ -0,0 +1,307 @@
+package tool.analyzers.strategies;
+
+import jadd.ADD;
+import jadd.JADD;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import paramwrapper.ParametricModelChecker;
+import tool.CyclicRdgException;
+import tool.RDGNode;
+import tool.UnknownFeatureException;
+import tool.analyzers.ADDReliabilityResults;
+import tool.analyzers.IReliabilityAnalysisResults;
+import tool.analyzers.MapBasedReliabilityResults;
+import tool.analyzers.buildingblocks.Component;
+import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.ProductIterationHelper;
+import tool.stats.CollectibleTimers;
+import tool.stats.IFormulaCollector;
+import tool.stats.ITimeCollector;
+import expressionsolver.ExpressionSolver;
+import expressionsolver.SymbolicDifferentiator;
+import fdtmc.FDTMC;
+import fdtmc.State;
+import fdtmc.Transition;
+
+/**
+ * Orchestrator of feature-family-based sensitivity analyses.
+ *
+ * The reliability expression of each RDG node is computed (by parametric model
+ * checking) and symbolically differentiated only once. Partial derivatives of
+ * the root's reliability are then propagated through the RDG by means of the
+ * chain rule:
+ *
+ *     D_v^x = ite(pc_v, sum_{y in deps(v)} (df_v/dy * D_y^x) + df_v/dx, 0)
+ *
+ * where f_v is the reliability expression of node v and x is either a node
+ * (in which case D_x^x = pc_x) or a message whose probability was turned
+ * into a parameter.
+ */
+public class SensitivityAnalyzer {
+    private static final Logger LOGGER = Logger.getLogger(SensitivityAnalyzer.class.getName());
+
+    private static final String MESSAGE_PARAMETER_PREFIX = "msg_";
+
+    private ADD featureModel;
+    private JADD jadd;
+    private ExpressionSolver expressionSolver;
+
+    private FeatureBasedFirstPhase firstPhase;
+
+    private ITimeCollector timeCollector;
+
+    public SensitivityAnalyzer(JADD jadd,
+                               ADD featureModel,
+                               ParametricModelChecker modelChecker,
+                               ITimeCollector timeCollector,
+                               IFormulaCollector formulaCollector) {
+        this.expressionSolver = new ExpressionSolver(jadd);
+        this.jadd = jadd;
+        this.featureModel = featureModel;
+
+        this.timeCollector = timeCollector;
+
+        this.firstPhase = new FeatureBasedFirstPhase(modelChecker,
+                                                     formulaCollector);
+    }
+
+    /**
+     * Sets the executor of the concurrent parts of the first phase.
+     *
+     * @see FeatureBasedFirstPhase#setExecutor(Executor)
+     */
+    public void setExecutor(Executor executor) {
+        firstPhase.setExecutor(executor);
+    }
+
+    /**
+     * Evaluates the partial derivatives of the feature-family-based reliability
+     * function of an RDG node with respect to the reliability of each of the
+     * nodes on which it (transitively) depends and to the probability of
+     * success of each of the given messages.
+     *
+     * The probability of a message is the one of the transitions labeled with
+     * the message's name which lead to a non-error state (the complementary
+     * transition being the one to the error state). Multiple occurrences of the
+     * same message are perturbed simultaneously.
+     *
+     * @param node RDG node whose reliability is to be analyzed.
+     * @param messages Names of the messages whose probabilities are to be
+     *          taken into account. May be empty.
+     * @param concurrencyStrategy
+     * @return a mapping from dependency ids and message names to the respective
+     *          ADD-valued partial derivatives, which are 0 for invalid configurations.
+     * @throws CyclicRdgException
+     */
+    public Map<String, ADD> evaluateSensitivity(RDGNode node, Collection<String> messages, ConcurrencyStrategy concurrencyStrategy) throws CyclicRdgException {
+        List<RDGNode> dependencies = node.getDependenciesTransitiveClosure();
+
+        List<String> targets = new LinkedList<String>();
+        for (RDGNode dependency: dependencies) {
+            if (dependency != node) {
+                targets.add(dependency.getId());
+            }
+        }
+        for (String message: messages) {
+            if (targets.contains(message)) {
+                throw new IllegalArgumentException("Message name clashes with RDG node id: " + message);
+            }
+            targets.add(message);
+        }
+
+        Map<String, ParameterizedModel> models = new HashMap<String, ParameterizedModel>();
+        for (RDGNode dependency: dependencies) {
+            models.put(dependency.getId(), new ParameterizedModel(dependency.getFDTMC(), messages));
+        }
+
+        timeCollector.startTimer(CollectibleTimers.MODEL_CHECKING_TIME);
+        // Alpha_v
+        List<Component<String>> expressions = firstPhase.getReliabilityExpressions(dependencies,
+                                                                                   n -> models.get(n.getId()).model,
+                                                                                   concurrencyStrategy);
+        timeCollector.stopTimer(CollectibleTimers.MODEL_CHECKING_TIME);
+
+        timeCollector.startTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
+        Map<String, ADD> rootDerivatives = propagateDerivatives(expressions, models, targets);
+        Map<String, ADD> results = new LinkedHashMap<String, ADD>();
+        for (String target: targets) {
+            results.put(target, featureModel.times(rootDerivatives.get(target)));
+        }
+        timeCollector.stopTimer(CollectibleTimers.EXPRESSION_SOLVING_TIME);
+
+        return results;
+    }
+
+    /**
+     * Evaluates the partial derivatives of the reliability of an RDG node
+     * for each of the given configurations.
+     *
+     * @see {@link #evaluateSensitivity(RDGNode, Collection, ConcurrencyStrategy)}
+     * @return a mapping from dependency ids and message names to the respective
+     *          per-configuration partial derivatives.
+     * @throws CyclicRdgException
+     * @throws UnknownFeatureException
+     */
+    public Map<String, IReliabilityAnalysisResults> evaluateSensitivity(RDGNode node, Collection<String> messages, Stream<Collection<String>> configurations, ConcurrencyStrategy concurrencyStrategy) throws CyclicRdgException, UnknownFeatureException {
+        Map<String, ADD> derivatives = evaluateSensitivity(node, messages, concurrencyStrategy);
+        List<Collection<String>> targetConfigurations = configurations.collect(Collectors.toList());
+
+        Map<String, IReliabilityAnalysisResults> results = new LinkedHashMap<String, IReliabilityAnalysisResults>();
+        for (Map.Entry<String, ADD> entry: derivatives.entrySet()) {
+            ADDReliabilityResults derivative = new ADDReliabilityResults(entry.getValue());
+            // ADDs must not be concurrently accessed, so evaluation is sequential.
+            Map<Collection<String>, Double> values = ProductIterationHelper.evaluate(configuration -> derivative.getResult(configuration.toArray(new String[configuration.size()])),
+                                                                                     targetConfigurations.stream(),
+                                                                                     ConcurrencyStrategy.SEQUENTIAL);
+            results.put(entry.getKey(), new MapBasedReliabilityResults(values));
+        }
+        return results;
+    }
+
+    /**
+     * Applies the chain rule bottom-up, returning the partial derivatives
+     * of the last (root) node's reliability with respect to each target.
+     */
+    private Map<String, ADD> propagateDerivatives(List<Component<String>> expressions,
+                                                  Map<String, ParameterizedModel> models,
+                                                  List<String> targets) {
+        ADD one = jadd.makeConstant(1.0);
+        ADD zero = jadd.makeConstant(0.0);
+
+        Map<String, ADD> reliabilities = new HashMap<String, ADD>();
+        Map<String, Map<String, ADD>> derivatives = new HashMap<String, Map<String, ADD>>();
+        Map<String, ADD> nodeDerivatives = null;
+        for (Component<String> component: expressions) {
+            String id = component.getId();
+            ParameterizedModel model = models.get(id);
+            ADD presence = expressionSolver.encodeFormula(component.getPresenceCondition());
+
+            Map<String, ADD> interpretation = new HashMap<String, ADD>();
+            for (Component<String> dependency: component.getDependencies()) {
+                interpretation.put(dependency.getId(), reliabilities.get(dependency.getId()));
+            }
+            for (Map.Entry<String, Double> parameter: model.values.entrySet()) {
+                interpretation.put(parameter.getKey(), jadd.makeConstant(parameter.getValue()));
+            }
+
+            String expression = component.getAsset();
+            ADD reliability = expressionSolver.solveExpressionAsFunction(expression, interpretation);
+            reliabilities.put(id, ADD.ite(presence, reliability, one));
+
+            SymbolicDifferentiator differentiator = new SymbolicDifferentiator(expression);
+            Map<String, ADD> partials = new HashMap<String, ADD>();
+            for (String variable: differentiator.getVariables()) {
+                String partial = differentiator.differentiate(variable);
+                LOGGER.fine("Partial derivative of " + id + " w.r.t. " + variable + " -> " + partial);
+                partials.put(variable, expressionSolver.solveExpressionAsFunction(partial, interpretation));
+            }
+
+            nodeDerivatives = new HashMap<String, ADD>();
+            for (String target: targets) {
+                ADD derivative = zero;
+                if (target.equals(id)) {
+                    derivative = one;
+                } else {
+                    for (Component<String> dependency: component.getDependencies()) {
+                        ADD partial = partials.get(dependency.getId());
+                        if (partial != null) {
+                            derivative = derivative.plus(partial.times(derivatives.get(dependency.getId()).get(target)));
+                        }
+                    }
+                    for (Map.Entry<String, String> parameter: model.messages.entrySet()) {
+                        if (parameter.getValue().equals(target) && partials.containsKey(parameter.getKey())) {
+                            derivative = derivative.plus(partials.get(parameter.getKey()));
+                        }
+                    }
+                }
+                nodeDerivatives.put(target, ADD.ite(presence, derivative, zero));
+            }
+            derivatives.put(id, nodeDerivatives);
+        }
+        return nodeDerivatives;
+    }
+
+    /**
+     * FDTMC in which the probabilities of the selected messages are replaced
+     * by parameters (one per occurrence), along with the original values of
+     * these parameters.
+     */
+    private static class ParameterizedModel {
+        FDTMC model;
+        /**
+         * Parameter name -> original probability.
+         */
+        Map<String, Double> values = new HashMap<String, Double>();
+        /**
+         * Parameter name -> message name.
+         */
+        Map<String, String> messages = new HashMap<String, String>();
+
+        ParameterizedModel(FDTMC fdtmc, Collection<String> selectedMessages) {
+            if (selectedMessages.isEmpty()) {
+                this.model = fdtmc;
+                return;
+            }
+            Map<Transition, String> parameterized = new IdentityHashMap<Transition, String>();
+            State error = fdtmc.getErrorState();
+            for (List<Transition> transitions: fdtmc.getTransitions().values()) {
+                if (transitions == null) {
+                    continue;
+                }
+                for (String message: selectedMessages) {
+                    List<Transition> occurrence = transitions.stream()
+                            .filter(t -> t.getActionName().equals(message))
+                            .collect(Collectors.toList());
+                    parameterize(message, occurrence, error, parameterized);
+                }
+            }
+            this.model = fdtmc.withProbabilities(t -> parameterized.getOrDefault(t, t.getProbability()));
+        }
+
+        /**
+         * A message occurrence is parameterizable if it consists of one
+         * transition to a non-error state with a numeric probability
+         * and a complementary one to the error state.
+         */
+        private void parameterize(String message, List<Transition> occurrence, State error, Map<Transition, String> parameterized) {
+            if (occurrence.size() != 2) {
+                return;
+            }
+            Transition success = occurrence.get(0);
+            Transition failure = occurrence.get(1);
+            if (success.getTarget().equals(error)) {
+                success = occurrence.get(1);
+                failure = occurrence.get(0);
+            }
+            if (success.getTarget().equals(error) || !failure.getTarget().equals(error)) {
+                return;
+            }
+            Double probability;
+            try {
+                probability = Double.parseDouble(success.getProbability());
+            } catch (NumberFormatException e) {
+                LOGGER.warning("Non-numeric probability for message " + message + ": " + success.getProbability());
+                return;
+            }
+            String parameter = MESSAGE_PARAMETER_PREFIX
+                    + message.replaceAll("[^A-Za-z0-9_]", "_")
+                    + "_" + values.size();
+            values.put(parameter, probability);
+            messages.put(parameter, message);
+            parameterized.put(success, parameter);
+            parameterized.put(failure, "1 - " + parameter);
+        }
+    }
+
+}
@@ -21,6 +21,7 @@ import parsing.sequencediagrams.Message;
 import parsing.sequencediagrams.MessageType;
 import parsing.sequencediagrams.Operand;
 import tool.RDGNode;
+import tool.RdgSession;
 import fdtmc.FDTMC;
 import fdtmc.State;
 
@@ -33,12 +34,24 @@ public class Transformer {
 	private Map<String, State> stateByActID;
 	private int parNum;
 	private int loopNum;
+	private RdgSession session;
 
 	// Constructors
 
+	/**
+	 * Creates the RDG nodes in a fresh session.
+	 */
 	public Transformer () {
+		this(new RdgSession());
+	}
+
+	/**
+	 * @param session Session to which the created RDG nodes belong.
+	 */
+	public Transformer (RdgSession session) {
 		fdtmcByName = new HashMap<String, FDTMC>();
 		nCallsByName = new HashMap<String, Integer>();
+		this.session = session;
 	}
 
 	// Relevant public methods
@@ -62,9 +75,9 @@ public class Transformer {
 		LOGGER.finer(fdtmc.toString());
 
 		// The method currently does not support variability in ADs.
-		return new RDGNode(adParser.getName(),
-		                   "true",
-		                   fdtmc);
+		return session.createNode(adParser.getName(),
+		                          "true",
+		                          fdtmc);
 	}
 
 	/**
@@ -79,7 +92,7 @@ public class Transformer {
 		countCallsModel (fragment.getName());
 
 		if (!isNew) { /* Fragmento ja foi modelado */
-			return RDGNode.getById(fragment.getName());
+			return session.getById(fragment.getName());
 		}
 
 		FDTMC fdtmc = new FDTMC();
@@ -98,7 +111,7 @@ public class Transformer {
 		error = fdtmc.createErrorState();
 		source = init;
 
-		RDGNode rdgNode = new RDGNode(fragment.getName(), "true", fdtmc);
+		RDGNode rdgNode = session.createNode(fragment.getName(), "true", fdtmc);
 		transformFDTMCNodes(fdtmc, fragment.getNodes(), source, error, rdgNode);
 
 		LOGGER.finer(fdtmc.toString());
@@ -294,7 +307,7 @@ public class Transformer {
 		}
 
 		Operand operand = (Operand)fragment.getNodes().get(0);
-		String name = RDGNode.getNextId();
+		String name = session.getNextId();
 		String guard = operand.getGuard();
 
 //		creates FDTMC for opt content
@@ -366,7 +379,7 @@ public class Transformer {
 		countCallsModel (name);
 
 		if (!isNew) { /* Fragmento ja foi modelado */
-			return RDGNode.getById(name);
+			return session.getById(name);
 		}
 
 		FDTMC fdtmc = new FDTMC();
@@ -378,11 +391,11 @@ public class Transformer {
 		State error = fdtmc.createErrorState();
 		State source = init;
 
-		RDGNode rdgNode = new RDGNode(name, presenceCondition, fdtmc);
+		RDGNode rdgNode = session.createNode(name, presenceCondition, fdtmc);
 		transformFDTMCNodes(fdtmc, operand.getNodes(), source, error, rdgNode);
 		LOGGER.finer(fdtmc.toString());
 
-		RDGNode similarNode = RDGNode.getSimilarNode(rdgNode);
+		RDGNode similarNode = session.getSimilarNode(rdgNode);
 		if (similarNode != null) {
 		    return similarNode;
 		} else {
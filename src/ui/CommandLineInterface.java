@@ -8,6 +8,7 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -19,6 +20,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
@@ -39,7 +41,13 @@ import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
+import paramwrapper.CachingModelChecker;
 import paramwrapper.IModelCollector;
+import paramwrapper.ModelCheckerExecutor;
+import paramwrapper.ModelCheckerFactory;
+import paramwrapper.ModelCheckingCache;
+import paramwrapper.NumericReachabilitySolver;
+import paramwrapper.ParametricModelChecker;
 import parsing.SplGeneratorModels.SplGeneratorModelingAPI;
 import parsing.exceptions.InvalidNodeClassException;
 import parsing.exceptions.InvalidNodeType;
@@ -50,8 +58,15 @@ import tool.Analyzer;
 import tool.CyclicRdgException;
 import tool.PruningStrategyFactory;
 import tool.RDGNode;
+import tool.RdgSession;
 import tool.UnknownFeatureException;
+import tool.analyzers.AnalysisStrategy;
 import tool.analyzers.IReliabilityAnalysisResults;
+import tool.analyzers.ResultsSink;
+import tool.analyzers.SampledReliabilityResults;
+import tool.analyzers.SamplingParameters;
+import tool.analyzers.sinks.SortingResultsSink;
+import tool.analyzers.sinks.ValidityRoutingResultsSink;
 import tool.stats.CollectibleTimers;
 import tool.stats.IFormulaCollector;
 import tool.stats.IMemoryCollector;
@@ -96,6 +111,41 @@ public class CommandLineInterface {
         Analyzer analyzer = makeAnalyzer(options);
         Stream<Collection<String>> targetConfigurations = getTargetConfigurations(options, analyzer);
 
+        if (options.hasSensitivity()) {
+            long analysisStartTime = System.currentTimeMillis();
+            Stream<Collection<String>> validConfigs = targetConfigurations.filter(analyzer::isValidConfiguration);
+            Map<String, IReliabilityAnalysisResults> sensitivities = evaluateSensitivity(analyzer,
+                                                                                         rdgRoot,
+                                                                                         validConfigs,
+                                                                                         options);
+            long totalAnalysisTime = System.currentTimeMillis() - analysisStartTime;
+            if (!options.hasSuppressReport()) {
+                List<Collection<String>> configurations = getTargetConfigurations(options, analyzer)
+                        .filter(analyzer::isValidConfiguration)
+                        .collect(Collectors.toList());
+                printSensitivityResults(configurations, sensitivities);
+            }
+            OUTPUT.println("Total analysis time: " +  totalAnalysisTime + " ms");
+            return;
+        }
+
+        if (options.getResultsFile() != null) {
+            memoryCollector.takeSnapshot("before evaluation");
+            long analysisStartTime = System.currentTimeMillis();
+            IReliabilityAnalysisResults familyReliability = writeResults(analyzer, rdgRoot, options);
+            long totalAnalysisTime = System.currentTimeMillis() - analysisStartTime;
+            memoryCollector.takeSnapshot("after evaluation");
+
+            OUTPUT.println("Results written to " + options.getResultsFile());
+            if (options.hasStatsEnabled()) {
+                printStats(OUTPUT, familyReliability, rdgRoot);
+            }
+            long totalRunningTime = System.currentTimeMillis() - startTime;
+            OUTPUT.println("Total analysis time: " +  totalAnalysisTime + " ms");
+            OUTPUT.println("Total running time: " +  totalRunningTime + " ms");
+            return;
+        }
+
         memoryCollector.takeSnapshot("before evaluation");
         long analysisStartTime = System.currentTimeMillis();
         Stream<Collection<String>> validConfigs = targetConfigurations.filter(analyzer::isValidConfiguration);
@@ -149,6 +199,16 @@ public class CommandLineInterface {
                                           rdgRoot,
                                           validConfigs);
             break;
+        case AUTO:
+            results = evaluateAutoReliability(analyzer,
+                                              rdgRoot,
+                                              options);
+            break;
+        case MONTE_CARLO:
+            results = evaluateMonteCarloReliability(analyzer,
+                                                    rdgRoot,
+                                                    options);
+            break;
         case FEATURE_FAMILY:
         default:
             results = evaluateFeatureFamilyBasedReliability(analyzer,
@@ -158,6 +218,117 @@ public class CommandLineInterface {
         return results;
     }
 
+    /**
+     * Writes the reliabilities of the target configurations to the results
+     * file, in the order they are enumerated (which happens only once).
+     * Per-product strategies stream their results into it; the others are
+     * evaluated as usual and their results are then streamed.
+     *
+     * @return the in-memory results of non-streaming strategies, or null.
+     */
+    private static IReliabilityAnalysisResults writeResults(Analyzer analyzer, RDGNode rdgRoot, Options options) {
+        IReliabilityAnalysisResults results = null;
+        try (ValidityRoutingResultsSink sink = new ValidityRoutingResultsSink(openResultsSink(options),
+                                                                               analyzer::isValidConfiguration)) {
+            Stream<Collection<String>> validConfigs = sink.filterValid(getTargetConfigurations(options, analyzer));
+            switch (options.getAnalysisStrategy()) {
+            case FEATURE_PRODUCT:
+                writeResults(analyzer::evaluateFeatureProductBasedReliability, rdgRoot, validConfigs, sink);
+                break;
+            case PRODUCT:
+                writeResults(analyzer::evaluateProductBasedReliability, rdgRoot, validConfigs, sink);
+                break;
+            case FAMILY_PRODUCT:
+                writeResults(analyzer::evaluateFamilyProductBasedReliability, rdgRoot, validConfigs, sink);
+                break;
+            default:
+                // These strategies do not take the configurations of interest.
+                results = evaluateReliability(analyzer, rdgRoot, Stream.empty(), options);
+                writeResults(results, validConfigs, sink);
+            }
+        } catch (UncheckedIOException e) {
+            LOGGER.severe("Error writing the results file.");
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+            System.exit(3);
+        }
+        return results;
+    }
+
+    private static void writeResults(StreamingAnalysis analysis, RDGNode rdgRoot, Stream<Collection<String>> validConfigs, ResultsSink sink) {
+        try {
+            analysis.apply(rdgRoot, validConfigs, sink);
+        } catch (CyclicRdgException e) {
+            LOGGER.severe("Cyclic dependency detected in RDG.");
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+            System.exit(2);
+        } catch (UnknownFeatureException e) {
+            LOGGER.severe("Unrecognized feature: " + e.getFeatureName());
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+        }
+    }
+
+    private static void writeResults(IReliabilityAnalysisResults results, Stream<Collection<String>> validConfigs, ResultsSink sink) {
+        validConfigs.forEach(validConfig -> {
+            try {
+                String[] configurationAsArray = validConfig.toArray(new String[validConfig.size()]);
+                sink.accept(validConfig, results.getResult(configurationAsArray));
+            } catch (UnknownFeatureException e) {
+                LOGGER.severe("Unrecognized feature: " + e.getFeatureName());
+                LOGGER.log(Level.SEVERE, e.toString(), e);
+            }
+        });
+    }
+
+    private static ResultsSink openResultsSink(Options options) {
+        try {
+            ResultsSink sink = options.getResultsFormat()
+                    .createSink(Files.newOutputStream(Paths.get(options.getResultsFile())));
+            if (options.hasSortResults()) {
+                sink = new SortingResultsSink(sink,
+                                              options.getBatchSize(),
+                                              Paths.get(options.getScratchDir()));
+            }
+            return sink;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Per-product analysis which emits its results to a sink.
+     */
+    @FunctionalInterface
+    private interface StreamingAnalysis {
+        void apply(RDGNode node, Stream<Collection<String>> configurations, ResultsSink sink) throws CyclicRdgException, UnknownFeatureException;
+    }
+
+    private static Map<String, IReliabilityAnalysisResults> evaluateSensitivity(Analyzer analyzer, RDGNode rdgRoot, Stream<Collection<String>> validConfigs, Options options) {
+        Map<String, IReliabilityAnalysisResults> results = null;
+        try {
+            AnalysisStrategy strategy = options.getAnalysisStrategy();
+            if (strategy == AnalysisStrategy.FEATURE_PRODUCT) {
+                results = analyzer.evaluateFeatureProductBasedSensitivity(rdgRoot,
+                                                                          options.getSensitivityMessages(),
+                                                                          validConfigs);
+            } else {
+                if (strategy != AnalysisStrategy.FEATURE_FAMILY) {
+                    LOGGER.warning("Sensitivity analysis is not supported by the " + strategy
+                            + " strategy; using the " + AnalysisStrategy.FEATURE_FAMILY + " one instead.");
+                }
+                results = analyzer.evaluateFeatureFamilyBasedSensitivity(rdgRoot,
+                                                                         options.getSensitivityMessages());
+            }
+        } catch (CyclicRdgException e) {
+            LOGGER.severe("Cyclic dependency detected in RDG.");
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+            System.exit(2);
+        } catch (UnknownFeatureException e) {
+            LOGGER.severe("Unrecognized feature: " + e.getFeatureName());
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+        }
+        return results;
+    }
+
     private static IReliabilityAnalysisResults evaluateFeatureFamilyBasedReliability(Analyzer analyzer, RDGNode rdgRoot, Options options) {
         IReliabilityAnalysisResults results = null;
         String dotOutput = "family-reliability.dot";
@@ -173,6 +344,33 @@ public class CommandLineInterface {
         return results;
     }
 
+    private static IReliabilityAnalysisResults evaluateAutoReliability(Analyzer analyzer, RDGNode rdgRoot, Options options) {
+        analyzer.setPruningStrategy(PruningStrategyFactory.createPruningStrategy(options.getPruningStrategy()));
+        // Each tried strategy needs a fresh stream of configurations.
+        return evaluateReliability((root, ignored) -> analyzer.evaluateAutoReliability(root,
+                                                                                      () -> getTargetConfigurations(options, analyzer)
+                                                                                              .filter(analyzer::isValidConfiguration),
+                                                                                      TimeUnit.SECONDS.toMillis(options.getAutoTimeBudget()),
+                                                                                      options.getAutoNodeBudget()),
+                                   rdgRoot,
+                                   Stream.empty());
+    }
+
+    private static IReliabilityAnalysisResults evaluateMonteCarloReliability(Analyzer analyzer, RDGNode rdgRoot, Options options) {
+        analyzer.setSamplingParameters(new SamplingParameters(options.getSamplingConfidence(),
+                                                              options.getSamplingPrecision(),
+                                                              TimeUnit.SECONDS.toMillis(options.getSamplingTimeBudget()),
+                                                              options.getSamplingMaxSamples(),
+                                                              options.getSamplingSeed()));
+        SampledReliabilityResults results = (SampledReliabilityResults) evaluateReliability((root, ignored) -> analyzer.evaluateMonteCarloReliability(root),
+                                                                                            rdgRoot,
+                                                                                            Stream.empty());
+        if (results != null) {
+            results.getEstimate().print(OUTPUT);
+        }
+        return results;
+    }
+
     private static IReliabilityAnalysisResults evaluateReliability(BiFunction<RDGNode, Stream<Collection<String>>, IReliabilityAnalysisResults> analyzer,
                                                                    RDGNode rdgRoot,
                                                                    Stream<Collection<String>> validConfigs) {
@@ -198,13 +396,42 @@ public class CommandLineInterface {
         File featureModelFile = new File(options.getFeatureModelFilePath());
         String featureModel = readFeatureModel(featureModelFile);
 
-        String paramPath = options.getParamPath();
+        ModelCheckerExecutor executor = new ModelCheckerExecutor(options.getCheckerConcurrency(),
+                                                                 TimeUnit.SECONDS.toMillis(options.getCheckerTimeout()),
+                                                                 options.getCheckerRetries(),
+                                                                 Paths.get(options.getScratchDir()));
+        NumericReachabilitySolver numericSolver = null;
+        if (!options.hasExternalNumericSolver()) {
+            numericSolver = new NumericReachabilitySolver(options.getNumericTolerance(),
+                                                          NumericReachabilitySolver.DEFAULT_MAX_ITERATIONS,
+                                                          options.getNumericSolverMaxStates());
+        }
+        ParametricModelChecker modelChecker = ModelCheckerFactory.createModelChecker(options.getParamPath(),
+                                                                                     modelCollector,
+                                                                                     executor,
+                                                                                     numericSolver);
+        if (options.getCacheDir() != null) {
+            try {
+                ModelCheckingCache cache = new ModelCheckingCache(Paths.get(options.getCacheDir()),
+                                                                  options.getCacheSize()*1024*1024);
+                modelChecker = new CachingModelChecker(modelChecker,
+                                                       cache,
+                                                       CachingModelChecker.getCheckerIdentity(options.getParamPath()),
+                                                       numericSolver,
+                                                       modelCollector);
+            } catch (IOException e) {
+                LOGGER.warning("Model checking cache disabled: could not use " + options.getCacheDir());
+                LOGGER.log(Level.WARNING, e.toString(), e);
+            }
+        }
         Analyzer analyzer = new Analyzer(featureModel,
-                                         paramPath,
+                                         modelChecker,
                                          timeCollector,
-                                         formulaCollector,
-                                         modelCollector);
+                                         formulaCollector);
+        analyzer.setIsomorphismDeduplication(options.getIsomorphismCacheSize());
         analyzer.setConcurrencyStrategy(options.getConcurrencyStrategy());
+        analyzer.setBatchSize(options.getBatchSize());
+        analyzer.setProductParallelism(options.getProductParallelism());
         return analyzer;
     }
 
@@ -273,6 +500,25 @@ public class CommandLineInterface {
         OUTPUT.println(">>>> Total valid configurations: " + splitConfigs.get(true).size());
     }
 
+    private static void printSensitivityResults(List<Collection<String>> validConfigs, Map<String, IReliabilityAnalysisResults> sensitivities) {
+        // Ordered report
+        validConfigs.sort((c1, c2) -> c1.toString().compareTo(c2.toString()));
+        for (Map.Entry<String, IReliabilityAnalysisResults> entry: sensitivities.entrySet()) {
+            OUTPUT.println("Sensitivity with respect to " + entry.getKey() + ":");
+            OUTPUT.println("=========================================");
+            for (Collection<String> validConfig: validConfigs) {
+                try {
+                    String[] configurationAsArray = validConfig.toArray(new String[validConfig.size()]);
+                    OUTPUT.println(validConfig + " --> " + entry.getValue().getResult(configurationAsArray));
+                } catch (UnknownFeatureException e) {
+                    LOGGER.severe("Unrecognized feature: " + e.getFeatureName());
+                    LOGGER.log(Level.SEVERE, e.toString(), e);
+                }
+            }
+            OUTPUT.println("=========================================");
+        }
+    }
+
     private static void printSingleConfiguration(String configuration, double reliability) {
         String message = configuration + " --> ";
         if (Double.doubleToRawLongBits(reliability) != 0) {
@@ -291,7 +537,9 @@ public class CommandLineInterface {
         modelCollector.printStats(out);
         memoryCollector.printStats(out);
         printEvaluationReuse(rdgRoot);
-        familyReliability.printStats(out);
+        if (familyReliability != null) {
+            familyReliability.printStats(out);
+        }
     }
 
     private static void printEvaluationReuse(RDGNode rdgRoot) {
@@ -381,7 +629,7 @@ public class CommandLineInterface {
 		}
 
         
-    	RDGNode result = modeler.transform();
+    	RDGNode result = modeler.transform(new RdgSession());
     	timeCollector.stopTimer(CollectibleTimers.PARSING_TIME);
 
         return result;
@@ -1,13 +1,21 @@
 package ui;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 import joptsimple.OptionParser;
 import joptsimple.OptionSet;
 import joptsimple.OptionSpec;
+import paramwrapper.IsomorphismDeduplicatingModelChecker;
+import paramwrapper.ModelCheckerFactory;
+import paramwrapper.NumericReachabilitySolver;
 import tool.PruningStrategy;
 import tool.analyzers.AnalysisStrategy;
+import tool.analyzers.SamplingParameters;
 import tool.analyzers.buildingblocks.ConcurrencyStrategy;
+import tool.analyzers.buildingblocks.ProductIterationHelper;
+import tool.analyzers.sinks.ResultsFormat;
 
 
 /**
@@ -27,6 +35,30 @@ class Options {
     private ConcurrencyStrategy concurrencyStrategy;
     private PruningStrategy pruningStrategy;
     private AnalysisStrategy analysisStrategy;
+    private long autoTimeBudget;
+    private long autoNodeBudget;
+    private double samplingConfidence;
+    private double samplingPrecision;
+    private long samplingTimeBudget;
+    private long samplingMaxSamples;
+    private long samplingSeed;
+    private int checkerConcurrency;
+    private long checkerTimeout;
+    private int checkerRetries;
+    private String scratchDir;
+    private String cacheDir;
+    private long cacheSize;
+    private boolean externalNumericSolver;
+    private double numericTolerance;
+    private int numericSolverMaxStates;
+    private int isomorphismCacheSize;
+    private String resultsFile;
+    private ResultsFormat resultsFormat;
+    private boolean sortResults;
+    private int batchSize;
+    private int productParallelism;
+    private boolean sensitivity;
+    private List<String> sensitivityMessages;
 
     static Options parseOptions(String[] args) throws IOException {
         OptionParser optionParser = new OptionParser();
@@ -42,10 +74,74 @@ class Options {
                 .describedAs("File");
         OptionSpec<String> paramPathOption = optionParser
                 .accepts("param-path",
-                         "Path to the parametric model checker (either PARAM or Prism)")
+                         "Path to the parametric model checker (either PARAM or Prism), or \"" + ModelCheckerFactory.BUILTIN + "\" for the in-process one")
                 .withRequiredArg()
                 .defaultsTo("/opt/param-2-3-64")
                 .describedAs("Directory");
+        OptionSpec<Integer> checkerConcurrencyOption = optionParser
+                .accepts("checker-concurrency",
+                         "Maximum number of concurrently running model checker processes")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(Runtime.getRuntime().availableProcessors())
+                .describedAs("Processes");
+        OptionSpec<Long> checkerTimeoutOption = optionParser
+                .accepts("checker-timeout",
+                         "Time after which a model checker process is killed (0 for no timeout)")
+                .withRequiredArg()
+                .ofType(Long.class)
+                .defaultsTo(0L)
+                .describedAs("Seconds");
+        OptionSpec<Integer> checkerRetriesOption = optionParser
+                .accepts("checker-retries",
+                         "Number of times a failed model checker run is retried")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(1)
+                .describedAs("Retries");
+        OptionSpec<String> scratchDirOption = optionParser
+                .accepts("scratch-dir",
+                         "Directory for the model checker's temporary files (e.g., a tmpfs mount such as /dev/shm)")
+                .withRequiredArg()
+                .defaultsTo(System.getProperty("java.io.tmpdir"))
+                .describedAs("Directory");
+        OptionSpec<String> cacheDirOption = optionParser
+                .accepts("cache-dir",
+                         "Directory of a persistent cache of model checking results (disabled if not given)")
+                .withRequiredArg()
+                .describedAs("Directory");
+        OptionSpec<Long> cacheSizeOption = optionParser
+                .accepts("cache-size",
+                         "Maximum size of the model checking results cache")
+                .withRequiredArg()
+                .ofType(Long.class)
+                .defaultsTo(256L)
+                .describedAs("MB");
+        OptionSpec<Integer> isomorphismCacheSizeOption = optionParser
+                .accepts("isomorphism-cache-size",
+                         "Maximum number of distinct models whose formulae are reused for isomorphic ones (0 to check every model anew)")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(IsomorphismDeduplicatingModelChecker.DEFAULT_MAX_MODELS)
+                .describedAs("Models");
+        OptionSpec<Void> externalNumericSolverOption = optionParser
+                .accepts("external-numeric-solver",
+                         "Give parameter-free models to the external model checker instead of solving them in-process");
+        OptionSpec<Double> numericToleranceOption = optionParser
+                .accepts("numeric-tolerance",
+                         "Convergence tolerance of the in-process solver for parameter-free models")
+                .withRequiredArg()
+                .ofType(Double.class)
+                .defaultsTo(NumericReachabilitySolver.DEFAULT_TOLERANCE)
+                .describedAs("Tolerance");
+        OptionSpec<Integer> numericSolverMaxStatesOption = optionParser
+                .accepts("numeric-solver-max-states",
+                         "Maximum number of states of a parameter-free model for it to be solved in-process "
+                                 + "(larger ones are given to the external model checker, PRISM importing them in its explicit format)")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(NumericReachabilitySolver.DEFAULT_MAX_STATES)
+                .describedAs("States");
 
         OptionSpec<String> configurationsFileOption = optionParser
                 .accepts("configurations-file")
@@ -61,6 +157,35 @@ class Options {
         OptionSpec<Void> suppressReportOption = optionParser
                 .accepts("suppress-report",
                          "Suppress reliabilities report for all evaluated configurations");
+        OptionSpec<String> resultsFileOption = optionParser
+                .accepts("results-file",
+                         "Write the reliabilities of the evaluated configurations to this file as they are computed, instead of the in-memory report")
+                .withRequiredArg()
+                .describedAs("File");
+        OptionSpec<ResultsFormat> resultsFormatOption = optionParser
+                .accepts("results-format",
+                         "Format of the results file")
+                .withRequiredArg()
+                .ofType(ResultsFormat.class)
+                .defaultsTo(ResultsFormat.TEXT)
+                .describedAs("TEXT | CSV | BINARY");
+        OptionSpec<Void> sortResultsOption = optionParser
+                .accepts("sort-results",
+                         "Sort the results file by configuration (externally, using the scratch directory)");
+        OptionSpec<Integer> batchSizeOption = optionParser
+                .accepts("batch-size",
+                         "Maximum number of configurations (or sorted results) kept in memory at a time by per-product analyses")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(ProductIterationHelper.DEFAULT_BATCH_SIZE)
+                .describedAs("Configurations");
+        OptionSpec<Integer> productParallelismOption = optionParser
+                .accepts("product-parallelism",
+                         "Number of threads evaluating products in per-product analyses (if the concurrency strategy is PARALLEL)")
+                .withRequiredArg()
+                .ofType(Integer.class)
+                .defaultsTo(Runtime.getRuntime().availableProcessors())
+                .describedAs("Threads");
         OptionSpec<Void> statsEnabledOption = optionParser
                 .accepts("stats",
                          "Print profiling stats");
@@ -87,11 +212,74 @@ class Options {
                                  + "FEATURE_PRODUCT (feature-product-based); "
                                  + "FAMILY (family-based); "
                                  + "FAMILY_PRODUCT (family-product-based); "
-                                 + "PRODUCT (product-based).")
+                                 + "PRODUCT (product-based); "
+                                 + "AUTO (chosen from the SPL's metrics by a cost model); "
+                                 + "MONTE_CARLO (statistical estimate from a uniform sample of configurations).")
                 .withRequiredArg()
                 .ofType(AnalysisStrategy.class)
                 .defaultsTo(AnalysisStrategy.FEATURE_FAMILY)
-                .describedAs("FEATURE_FAMILY | FEATURE_PRODUCT | FAMILY | FAMILY_PRODUCT | PRODUCT");
+                .describedAs("FEATURE_FAMILY | FEATURE_PRODUCT | FAMILY | FAMILY_PRODUCT | PRODUCT | AUTO | MONTE_CARLO");
+        OptionSpec<Long> autoTimeBudgetOption = optionParser
+                .accepts("auto-time-budget",
+                         "Time after which the AUTO strategy falls back to the next cheapest strategy (0 for no limit)")
+                .withRequiredArg()
+                .ofType(Long.class)
+                .defaultsTo(0L)
+                .describedAs("Seconds");
+        OptionSpec<Long> autoNodeBudgetOption = optionParser
+                .accepts("auto-node-budget",
+                         "Number of ADD nodes after which the AUTO strategy falls back to the next cheapest strategy (0 for no limit)")
+                .withRequiredArg()
+                .ofType(Long.class)
+                .defaultsTo(0L)
+                .describedAs("Nodes");
+
+        OptionSpec<Double> samplingConfidenceOption = optionParser
+                .accepts("sampling-confidence",
+                         "Confidence level of the MONTE_CARLO strategy's estimates")
+                .withRequiredArg()
+                .ofType(Double.class)
+                .defaultsTo(SamplingParameters.DEFAULT.getConfidence())
+                .describedAs("Level");
+        OptionSpec<Double> samplingPrecisionOption = optionParser
+                .accepts("sampling-precision",
+                         "Half-width of the confidence interval of the mean reliability at which the MONTE_CARLO strategy stops sampling")
+                .withRequiredArg()
+                .ofType(Double.class)
+                .defaultsTo(SamplingParameters.DEFAULT.getPrecision())
+                .describedAs("Precision");
+        OptionSpec<Long> samplingTimeBudgetOption = optionParser
+                .accepts("sampling-time-budget",
+                         "Time after which the MONTE_CARLO strategy stops sampling (0 for no limit)")
+                .withRequiredArg()
+                .ofType(Long.class)
+                .defaultsTo(SamplingParameters.DEFAULT.getTimeBudget())
+                .describedAs("Seconds");
+        OptionSpec<Long> samplingMaxSamplesOption = optionParser
+                .accepts("sampling-max-samples",
+                         "Maximum number of configurations sampled by the MONTE_CARLO strategy")
+                .withRequiredArg()
+                .ofType(Long.class)
+                .defaultsTo(SamplingParameters.DEFAULT.getMaxSamples())
+                .describedAs("Samples");
+        OptionSpec<Long> samplingSeedOption = optionParser
+                .accepts("sampling-seed",
+                         "Seed of the MONTE_CARLO strategy's random sampling")
+                .withRequiredArg()
+                .ofType(Long.class)
+                .defaultsTo(SamplingParameters.DEFAULT.getSeed())
+                .describedAs("Seed");
+
+        OptionSpec<Void> sensitivityOption = optionParser
+                .accepts("sensitivity",
+                         "Compute the partial derivatives of the reliability with respect to the reliability of each RDG node "
+                                 + "(per configuration if the analysis strategy is FEATURE_PRODUCT, family-wide otherwise)");
+        OptionSpec<String> sensitivityMessagesOption = optionParser
+                .accepts("sensitivity-messages",
+                         "Comma-separated names of messages whose probabilities are also taken into account in the sensitivity analysis")
+                .withRequiredArg()
+                .withValuesSeparatedBy(',')
+                .describedAs("Messages");
 
         OptionSpec<Void> helpOption = optionParser
                 .accepts("help")
@@ -102,19 +290,50 @@ class Options {
             optionParser.printHelpOn(System.out);
             System.exit(1);
         }
+        for (OptionSpec<Integer> positiveOption : Arrays.asList(batchSizeOption, productParallelismOption)) {
+            if (options.valueOf(positiveOption) < 1) {
+                System.err.println("Option --" + positiveOption.options().get(0) + " must be at least 1");
+                optionParser.printHelpOn(System.err);
+                System.exit(1);
+            }
+        }
 
         Options result = new Options();
         result.featureModelFilePath = options.valueOf(featureModelOption);
         result.umlModelsFilePath = options.valueOf(umlModelsOption);
         result.paramPath = options.valueOf(paramPathOption);
+        result.checkerConcurrency = options.valueOf(checkerConcurrencyOption);
+        result.checkerTimeout = options.valueOf(checkerTimeoutOption);
+        result.checkerRetries = options.valueOf(checkerRetriesOption);
+        result.scratchDir = options.valueOf(scratchDirOption);
+        result.cacheDir = options.valueOf(cacheDirOption);
+        result.cacheSize = options.valueOf(cacheSizeOption);
+        result.isomorphismCacheSize = options.valueOf(isomorphismCacheSizeOption);
+        result.externalNumericSolver = options.has(externalNumericSolverOption);
+        result.numericTolerance = options.valueOf(numericToleranceOption);
+        result.numericSolverMaxStates = options.valueOf(numericSolverMaxStatesOption);
         result.configuration = options.valueOf(configurationOption);
         result.configurationsFilePath = options.valueOf(configurationsFileOption);
         result.printAllConfigurations = options.has(allConfigurationsOption);
         result.suppressReport = options.has(suppressReportOption);
         result.statsEnabled = options.has(statsEnabledOption);
+        result.resultsFile = options.valueOf(resultsFileOption);
+        result.resultsFormat = options.valueOf(resultsFormatOption);
+        result.sortResults = options.has(sortResultsOption);
+        result.batchSize = options.valueOf(batchSizeOption);
+        result.productParallelism = options.valueOf(productParallelismOption);
         result.concurrencyStrategy = options.valueOf(concurrencyStrategyOption);
         result.pruningStrategy = options.valueOf(pruningStrategyOption);
         result.analysisStrategy = options.valueOf(analysisStrategyOption);
+        result.autoTimeBudget = options.valueOf(autoTimeBudgetOption);
+        result.autoNodeBudget = options.valueOf(autoNodeBudgetOption);
+        result.samplingConfidence = options.valueOf(samplingConfidenceOption);
+        result.samplingPrecision = options.valueOf(samplingPrecisionOption);
+        result.samplingTimeBudget = options.valueOf(samplingTimeBudgetOption);
+        result.samplingMaxSamples = options.valueOf(samplingMaxSamplesOption);
+        result.samplingSeed = options.valueOf(samplingSeedOption);
+        result.sensitivity = options.has(sensitivityOption);
+        result.sensitivityMessages = options.valuesOf(sensitivityMessagesOption);
 
         return result;
     }
@@ -131,6 +350,64 @@ class Options {
         return paramPath;
     }
 
+    public int getCheckerConcurrency() {
+        return checkerConcurrency;
+    }
+
+    /**
+     * @return the model checker timeout in seconds (0 for none).
+     */
+    public long getCheckerTimeout() {
+        return checkerTimeout;
+    }
+
+    public int getCheckerRetries() {
+        return checkerRetries;
+    }
+
+    public String getScratchDir() {
+        return scratchDir;
+    }
+
+    /**
+     * @return the model checking cache directory or null if caching is disabled.
+     */
+    public String getCacheDir() {
+        return cacheDir;
+    }
+
+    /**
+     * @return the maximum size of the model checking cache in MB.
+     */
+    public long getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * @return the maximum number of formulae kept for isomorphic models (0 for none).
+     */
+    public int getIsomorphismCacheSize() {
+        return isomorphismCacheSize;
+    }
+
+    /**
+     * @return whether parameter-free models must be given to the external model checker.
+     */
+    public boolean hasExternalNumericSolver() {
+        return externalNumericSolver;
+    }
+
+    public double getNumericTolerance() {
+        return numericTolerance;
+    }
+
+    /**
+     * @return the maximum number of states of a model solved in-process.
+     */
+    public int getNumericSolverMaxStates() {
+        return numericSolverMaxStates;
+    }
+
     public boolean hasStatsEnabled() {
         return statsEnabled;
     }
@@ -143,6 +420,30 @@ class Options {
         return suppressReport;
     }
 
+    /**
+     * @return the file to which results are streamed or null if results
+     *          are to be reported from memory.
+     */
+    public String getResultsFile() {
+        return resultsFile;
+    }
+
+    public ResultsFormat getResultsFormat() {
+        return resultsFormat;
+    }
+
+    public boolean hasSortResults() {
+        return sortResults;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getProductParallelism() {
+        return productParallelism;
+    }
+
     public String getConfiguration() {
         return configuration;
     }
@@ -163,4 +464,49 @@ class Options {
         return analysisStrategy;
     }
 
+    /**
+     * @return the time budget of each strategy tried by AUTO, in seconds (0 for none).
+     */
+    public long getAutoTimeBudget() {
+        return autoTimeBudget;
+    }
+
+    /**
+     * @return the ADD node budget of each strategy tried by AUTO (0 for none).
+     */
+    public long getAutoNodeBudget() {
+        return autoNodeBudget;
+    }
+
+    public double getSamplingConfidence() {
+        return samplingConfidence;
+    }
+
+    public double getSamplingPrecision() {
+        return samplingPrecision;
+    }
+
+    /**
+     * @return the time budget of the MONTE_CARLO strategy in seconds (0 for none).
+     */
+    public long getSamplingTimeBudget() {
+        return samplingTimeBudget;
+    }
+
+    public long getSamplingMaxSamples() {
+        return samplingMaxSamples;
+    }
+
+    public long getSamplingSeed() {
+        return samplingSeed;
+    }
+
+    public boolean hasSensitivity() {
+        return sensitivity;
+    }
+
+    public List<String> getSensitivityMessages() {
+        return sensitivityMessages;
+    }
+
 }
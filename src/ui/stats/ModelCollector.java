@@ -4,6 +4,7 @@ import java.io.PrintStream;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import paramwrapper.IModelCollector;
 
@@ -15,6 +16,8 @@ public class ModelCollector implements IModelCollector {
 
     private List<Model> models = Collections.synchronizedList(new LinkedList<Model>());
     private List<Double> times = Collections.synchronizedList(new LinkedList<Double>());
+    private AtomicInteger cacheHits = new AtomicInteger();
+    private AtomicInteger cacheMisses = new AtomicInteger();
 
     @Override
     public void collectModel(int variables, int states) {
@@ -29,6 +32,16 @@ public class ModelCollector implements IModelCollector {
         times.add(elapsedTimeNanos/1E+6);
     }
 
+    @Override
+    public void collectCacheHit() {
+        cacheHits.incrementAndGet();
+    }
+
+    @Override
+    public void collectCacheMiss() {
+        cacheMisses.incrementAndGet();
+    }
+
     @Override
     public void printStats(PrintStream out) {
         int maxVars = 0;
@@ -65,6 +78,8 @@ public class ModelCollector implements IModelCollector {
         synchronized (times) {
             out.println("All model checking times (ms): " + times);
         }
+        out.println("Model checking cache hits: " + cacheHits.get());
+        out.println("Model checking cache misses: " + cacheMisses.get());
     }
 
 }
@@ -1,26 +1,72 @@
 
 import jadd.ADDConfigurationsTest;
+import jadd.ConfigurationSamplerTest;
 
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import paramwrapper.CachingModelCheckerTest;
+import paramwrapper.ExplicitModelTest;
 import paramwrapper.FDTMCToParamTest;
+import paramwrapper.IsomorphismDeduplicatingModelCheckerTest;
+import paramwrapper.NumericReachabilitySolverTest;
 import paramwrapper.ReliabilityFormulaTest;
+import paramwrapper.StateEliminationModelCheckerTest;
 import tool.AnalyzerTest;
 import tool.RDGNodeTest;
+import tool.RdgSessionTest;
+import tool.analyzers.LongDoubleHashMapTest;
+import tool.analyzers.MapBasedReliabilityResultsTest;
+import tool.analyzers.ReliabilityEstimateTest;
+import tool.analyzers.StrategySelectorTest;
+import tool.analyzers.buildingblocks.ComponentTest;
+import tool.analyzers.buildingblocks.PipelinedDerivationTest;
+import tool.analyzers.buildingblocks.ProductExecutorTest;
+import tool.analyzers.buildingblocks.ProductIterationHelperTest;
+import tool.analyzers.sinks.ResultsSinksTest;
+import tool.analyzers.strategies.FamilyProductPlanTest;
+import tool.analyzers.strategies.FeatureProductPlanTest;
+import expressionsolver.CompiledExpressionTest;
 import expressionsolver.ExpressionSolverTest;
+import expressionsolver.SymbolicDifferentiatorTest;
+import fdtmc.CompactFDTMCTest;
+import fdtmc.FDTMCReductionTest;
 import fdtmc.FDTMCTest;
+import fdtmc.InlinedFDTMCTest;
 
 @RunWith(Suite.class)
 @SuiteClasses({
     FDTMCTest.class,
+    CompactFDTMCTest.class,
+    InlinedFDTMCTest.class,
+    FDTMCReductionTest.class,
     FDTMCToParamTest.class,
+    ExplicitModelTest.class,
     ReliabilityFormulaTest.class,
+    NumericReachabilitySolverTest.class,
+    StateEliminationModelCheckerTest.class,
+    CachingModelCheckerTest.class,
+    IsomorphismDeduplicatingModelCheckerTest.class,
     ExpressionSolverTest.class,
+    CompiledExpressionTest.class,
+    SymbolicDifferentiatorTest.class,
     AnalyzerTest.class,
     RDGNodeTest.class,
-    ADDConfigurationsTest.class
+    RdgSessionTest.class,
+    StrategySelectorTest.class,
+    ComponentTest.class,
+    PipelinedDerivationTest.class,
+    ProductIterationHelperTest.class,
+    ProductExecutorTest.class,
+    FeatureProductPlanTest.class,
+    FamilyProductPlanTest.class,
+    ResultsSinksTest.class,
+    LongDoubleHashMapTest.class,
+    MapBasedReliabilityResultsTest.class,
+    ReliabilityEstimateTest.class,
+    ADDConfigurationsTest.class,
+    ConfigurationSamplerTest.class
 })
 public class AllTests {
 
@@ -0,0 +1,72 @@
+package expressionsolver;
+
+import static org.junit.Assert.assertEquals;
+import jadd.JADD;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledExpressionTest {
+    private static final double DELTA = 1E-12;
+
+    private ExpressionSolver solver;
+
+    @Before
+    public void setUp() throws Exception {
+        solver = new ExpressionSolver(new JADD());
+    }
+
+    @Test
+    public void testArithmeticMatchesSolver() {
+        List<String> variables = Arrays.asList("r0", "rFail", "x");
+        String expression = "-(x^2)/3*2x + 1 - r0*(1-rFail)/(r0+rFail)";
+        CompiledExpression compiled = CompiledExpression.compile(expression, variables::indexOf);
+
+        double[] values = {0.9, 0.01, 0.5};
+        Map<String, Double> interpretation = new HashMap<String, Double>();
+        for (int i = 0; i < values.length; i++) {
+            interpretation.put(variables.get(i), values[i]);
+        }
+        double[] stack = new double[compiled.getStackSize()];
+        assertEquals(solver.solveExpression(expression, interpretation),
+                     compiled.evaluate(values, stack),
+                     DELTA);
+    }
+
+    @Test
+    public void testConstantExpression() {
+        CompiledExpression compiled = CompiledExpression.compile("0.999*0.999", name -> -1);
+        assertEquals(0.998001, compiled.evaluate(new double[0], new double[compiled.getStackSize()]), DELTA);
+    }
+
+    @Test
+    public void testLogicalFormulaOverBitSet() {
+        List<String> features = Arrays.asList("A", "B", "C");
+        CompiledExpression compiled = CompiledExpression.compile("!A && (B || C) && True", features::indexOf);
+        double[] stack = new double[compiled.getStackSize()];
+
+        assertEquals(1.0, compiled.evaluate(new long[]{0b010}, stack), 0);
+        assertEquals(1.0, compiled.evaluate(new long[]{0b100}, stack), 0);
+        assertEquals(0.0, compiled.evaluate(new long[]{0b011}, stack), 0);
+        assertEquals(0.0, compiled.evaluate(new long[]{0b000}, stack), 0);
+    }
+
+    @Test
+    public void testVariablesBeyondFirstWord() {
+        CompiledExpression compiled = CompiledExpression.compile("F", name -> 70);
+        double[] stack = new double[compiled.getStackSize()];
+        assertEquals(1.0, compiled.evaluate(new long[]{0L, 1L << 6}, stack), 0);
+        assertEquals(0.0, compiled.evaluate(new long[]{1L << 6, 0L}, stack), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedOperator() {
+        CompiledExpression.compile("a == b", name -> 0);
+    }
+
+}
@@ -0,0 +1,79 @@
+package expressionsolver;
+
+import static org.junit.Assert.assertEquals;
+import jadd.JADD;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SymbolicDifferentiatorTest {
+    private static final double DELTA = 1E-12;
+
+    private ExpressionSolver solver;
+
+    @Before
+    public void setUp() throws Exception {
+        solver = new ExpressionSolver(new JADD());
+    }
+
+    @Test
+    public void testVariables() {
+        SymbolicDifferentiator differentiator = new SymbolicDifferentiator("-1*r0*rFail+1*r0");
+        assertEquals("All free variables must be found",
+                new HashSet<String>(Arrays.asList("r0", "rFail")),
+                differentiator.getVariables());
+    }
+
+    @Test
+    public void testConstantDerivative() {
+        SymbolicDifferentiator differentiator = new SymbolicDifferentiator("(9801)/(10000)");
+        assertEquals("0", differentiator.differentiate("r0"));
+    }
+
+    @Test
+    public void testUnknownVariable() {
+        SymbolicDifferentiator differentiator = new SymbolicDifferentiator("1*r0");
+        assertEquals("1", differentiator.differentiate("r0"));
+        assertEquals("0", differentiator.differentiate("r1"));
+    }
+
+    @Test
+    public void testPolynomial() {
+        SymbolicDifferentiator differentiator = new SymbolicDifferentiator("-1*r0*rFail+1*r0");
+        Map<String, Double> values = new HashMap<String, Double>();
+        values.put("r0", 0.9);
+        values.put("rFail", 0.2);
+
+        assertEquals("d/dr0 = 1 - rFail",
+                0.8,
+                solver.solveExpression(differentiator.differentiate("r0"), values),
+                DELTA);
+        assertEquals("d/drFail = -r0",
+                -0.9,
+                solver.solveExpression(differentiator.differentiate("rFail"), values),
+                DELTA);
+    }
+
+    @Test
+    public void testRationalFunction() {
+        SymbolicDifferentiator differentiator = new SymbolicDifferentiator("(x^2 - 1)/(2*x + y)");
+        Map<String, Double> values = new HashMap<String, Double>();
+        values.put("x", 3.0);
+        values.put("y", 1.0);
+
+        // d/dx = (2x(2x+y) - 2(x^2-1))/(2x+y)^2 = (42 - 16)/49
+        assertEquals(26.0/49,
+                solver.solveExpression(differentiator.differentiate("x"), values),
+                DELTA);
+        // d/dy = -(x^2-1)/(2x+y)^2 = -8/49
+        assertEquals(-8.0/49,
+                solver.solveExpression(differentiator.differentiate("y"), values),
+                DELTA);
+    }
+
+}
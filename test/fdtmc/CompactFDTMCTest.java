@@ -0,0 +1,73 @@
+package fdtmc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactFDTMCTest {
+
+	@Test
+	public void testConversionFromFDTMC() {
+		FDTMC fdtmc = new FDTMC();
+		fdtmc.setVariableName("x");
+		State init = fdtmc.createInitialState();
+		State success = fdtmc.createSuccessState();
+		State error = fdtmc.createErrorState();
+		State middle = fdtmc.createState();
+		fdtmc.createTransition(init, middle, "a", "0.95");
+		fdtmc.createTransition(init, error, "a_fail", "1-0.95");
+		fdtmc.createTransition(middle, success, "b", "rB");
+		fdtmc.createTransition(middle, error, "b_fail", "1-rB");
+		fdtmc.createTransition(success, success, "", "1");
+
+		CompactFDTMC compact = CompactFDTMC.of(fdtmc);
+		Assert.assertEquals(4, compact.getStatesNumber());
+		Assert.assertEquals(5, compact.getTransitionsNumber());
+		Assert.assertEquals(0, compact.getInitialState());
+		Assert.assertEquals("success", compact.getLabel(1));
+		Assert.assertEquals("error", compact.getLabel(2));
+		Assert.assertNull(compact.getLabel(3));
+
+		Assert.assertEquals(0, compact.getTransitionsStart(0));
+		Assert.assertEquals(2, compact.getTransitionsEnd(0));
+		Assert.assertEquals(3, compact.getTarget(0));
+		Assert.assertTrue(compact.isNumeric(0));
+		Assert.assertEquals(0.95, compact.getNumericProbability(0), 0);
+		Assert.assertFalse(compact.isNumeric(1));
+		Assert.assertEquals("1-0.95", compact.getProbability(1));
+
+		// No outgoing transitions from the error state.
+		Assert.assertEquals(compact.getTransitionsStart(2), compact.getTransitionsEnd(2));
+
+		Assert.assertEquals(3, compact.getTransitionsStart(3));
+		Assert.assertEquals("rB", compact.getProbability(3));
+		Assert.assertEquals("1-rB", compact.getProbability(4));
+		Assert.assertEquals(3, compact.getSymbolsNumber());
+	}
+
+	@Test
+	public void testBuilderGroupsTransitionsBySource() {
+		CompactFDTMC.Builder builder = new CompactFDTMC.Builder();
+		int s0 = builder.createState();
+		int s1 = builder.createState("success");
+		builder.createTransition(s1, s1, "1");
+		builder.createTransition(s0, s1, "r");
+		builder.createTransition(s0, s0, "1-r");
+		CompactFDTMC compact = builder.build();
+
+		Assert.assertEquals(s0, compact.getInitialState());
+		Assert.assertEquals(2, compact.getTransitionsEnd(s0) - compact.getTransitionsStart(s0));
+		Assert.assertEquals(s1, compact.getTarget(compact.getTransitionsStart(s0)));
+		Assert.assertEquals("1-r", compact.getProbability(compact.getTransitionsStart(s0) + 1));
+		Assert.assertEquals("1", compact.getProbability(compact.getTransitionsStart(s1)));
+		// Equal symbolic probabilities are interned.
+		Assert.assertEquals(2, compact.getSymbolsNumber());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTransitionToUnknownState() {
+		CompactFDTMC.Builder builder = new CompactFDTMC.Builder();
+		int s0 = builder.createState();
+		builder.createTransition(s0, 1, "1");
+	}
+
+}
@@ -0,0 +1,115 @@
+package fdtmc;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import paramwrapper.NumericReachabilitySolver;
+import paramwrapper.StateEliminationModelChecker;
+
+public class FDTMCReductionTest {
+
+	FDTMC fdtmc;
+	State init;
+	State success;
+	State error;
+
+	@Before
+	public void setUp() throws Exception {
+		fdtmc = new FDTMC();
+		fdtmc.setVariableName("s");
+		init = fdtmc.createInitialState();
+		success = fdtmc.createSuccessState();
+		error = fdtmc.createErrorState();
+	}
+
+	@Test
+	public void testConstantChainsAreCollapsed() {
+		State a = fdtmc.createState();
+		State b = fdtmc.createState();
+		fdtmc.createTransition(init, a, "m1", "0.9");
+		fdtmc.createTransition(init, error, "m1_fail", "0.1");
+		fdtmc.createTransition(a, b, "glue", "1");
+		fdtmc.createTransition(b, success, "m2", "0.8");
+		fdtmc.createTransition(b, error, "m2_fail", "0.2");
+
+		FDTMC reduced = fdtmc.reduced();
+		Assert.assertEquals(3, reduced.getStates().size());
+		for (Transition transition: reduced.getTransitions().get(reduced.getInitialState())) {
+			String expected = transition.getTarget().equals(reduced.getSuccessState()) ? "0.72" : "0.28";
+			Assert.assertEquals(expected, transition.getProbability());
+		}
+		Assert.assertEquals(0.72, new NumericReachabilitySolver().solve(reduced), 1e-12);
+	}
+
+	@Test
+	public void testParametricTransitionsAreKept() {
+		State a = fdtmc.createState();
+		fdtmc.createTransition(init, a, "m1", "r1");
+		fdtmc.createTransition(init, error, "m1_fail", "1-r1");
+		fdtmc.createTransition(a, success, "glue", "1");
+
+		FDTMC reduced = fdtmc.reduced();
+		Assert.assertEquals(3, reduced.getStates().size());
+		Assert.assertEquals("1*r1", new StateEliminationModelChecker().getReliability(reduced));
+	}
+
+	@Test
+	public void testUnreachableStatesAreDropped() {
+		State unreachable = fdtmc.createState();
+		fdtmc.createTransition(unreachable, success, "", "r");
+		fdtmc.createTransition(init, success, "", "r0");
+		fdtmc.createTransition(init, error, "", "1-r0");
+
+		Assert.assertEquals(3, fdtmc.reduced().getStates().size());
+	}
+
+	@Test
+	public void testBisimilarStatesAreMerged() {
+		State a = fdtmc.createState();
+		State b = fdtmc.createState();
+		fdtmc.createTransition(init, a, "", "p");
+		fdtmc.createTransition(init, b, "", "1-p");
+		fdtmc.createTransition(a, success, "", "r");
+		fdtmc.createTransition(a, error, "", "1-r");
+		fdtmc.createTransition(b, success, "", "r");
+		fdtmc.createTransition(b, error, "", "1-r");
+
+		FDTMC reduced = fdtmc.reduced();
+		Assert.assertEquals(4, reduced.getStates().size());
+		Assert.assertEquals("1*r", new StateEliminationModelChecker().getReliability(reduced));
+	}
+
+	@Test
+	public void testInterfacesArePreserved() {
+		State a = fdtmc.createState();
+		State ifaceSuccess = fdtmc.createState();
+		fdtmc.createTransition(init, a, "", "1");
+		fdtmc.createInterface("dep", a, ifaceSuccess, error);
+		fdtmc.createTransition(ifaceSuccess, success, "", "0.5");
+		fdtmc.createTransition(ifaceSuccess, error, "", "0.5");
+
+		FDTMC dependency = new FDTMC();
+		dependency.setVariableName("d");
+		State d0 = dependency.createInitialState();
+		State d1 = dependency.createSuccessState();
+		State d2 = dependency.createErrorState();
+		dependency.createTransition(d0, d1, "", "0.9");
+		dependency.createTransition(d0, d2, "", "0.1");
+
+		FDTMC reduced = fdtmc.reduced();
+		Assert.assertEquals(1, reduced.getInterfaces().get("dep").size());
+
+		Map<String, FDTMC> models = new HashMap<String, FDTMC>();
+		models.put("dep", dependency);
+		NumericReachabilitySolver solver = new NumericReachabilitySolver();
+		Assert.assertEquals(solver.solve(fdtmc.inline(models)),
+		                    solver.solve(reduced.inline(models)),
+		                    1e-12);
+		Assert.assertEquals(0.45, solver.solve(reduced.inline(models)), 1e-12);
+	}
+
+}
@@ -286,4 +286,30 @@ public class FDTMCTest {
                 fdtmc1, fdtmc2);
 	}
 
+	/**
+	 * A model decorated with presence must have a single new initial state,
+	 * which enters the original chain or short-circuits to success.
+	 */
+	@Test
+	public void testDecoratedWithPresence() {
+		fdtmc1.setVariableName("s");
+		State init = fdtmc1.createInitialState();
+		State success = fdtmc1.createSuccessState();
+		State error = fdtmc1.createErrorState();
+		fdtmc1.createTransition(init, success, "m", "0.9");
+		fdtmc1.createTransition(init, error, "!m", "0.1");
+
+		FDTMC decorated = fdtmc1.decoratedWithPresence("fPresent");
+		State newInit = decorated.getInitialState();
+
+		Assert.assertEquals(4, decorated.getStates().size());
+		Assert.assertEquals(2, decorated.getTransitions().get(newInit).size());
+		Transition enter = decorated.getTransitions().get(newInit).get(0);
+		Assert.assertEquals(init, enter.getTarget());
+		Assert.assertEquals("fPresent", enter.getProbability());
+		Transition shortCircuit = decorated.getTransitions().get(newInit).get(1);
+		Assert.assertEquals(success, shortCircuit.getTarget());
+		Assert.assertEquals("1-fPresent", shortCircuit.getProbability());
+	}
+
 }
@@ -0,0 +1,87 @@
+package fdtmc;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InlinedFDTMCTest {
+
+	FDTMC root;
+	FDTMC middle;
+	FDTMC leaf;
+
+	@Before
+	public void setUp() throws Exception {
+		leaf = new FDTMC();
+		leaf.setVariableName("l");
+		State l0 = leaf.createInitialState();
+		State l1 = leaf.createSuccessState();
+		State l2 = leaf.createErrorState();
+		leaf.createTransition(l0, l1, "leaf", "0.9");
+		leaf.createTransition(l0, l2, "leaf_fail", "0.1");
+
+		middle = new FDTMC();
+		middle.setVariableName("m");
+		State m0 = middle.createInitialState();
+		State m1 = middle.createState();
+		State m2 = middle.createState();
+		State m3 = middle.createSuccessState();
+		State m4 = middle.createErrorState();
+		middle.createTransition(m0, m1, "middle", "rMiddle");
+		middle.createTransition(m0, m4, "middle_fail", "1-rMiddle");
+		middle.createInterface("leaf", m1, m2, m4);
+		middle.createTransition(m2, m3, "end", "1");
+
+		root = new FDTMC();
+		root.setVariableName("r");
+		State r0 = root.createInitialState();
+		State r1 = root.createState();
+		State r2 = root.createSuccessState();
+		State r3 = root.createErrorState();
+		root.createInterface("middle", r0, r1, r3);
+		root.createInterface("leaf", r1, r2, r3);
+	}
+
+	@Test
+	public void testMaterializationEqualsEagerInlining() {
+		Map<String, FDTMC> eagerMiddleModels = new HashMap<String, FDTMC>();
+		eagerMiddleModels.put("leaf", leaf);
+		Map<String, FDTMC> eagerRootModels = new HashMap<String, FDTMC>();
+		eagerRootModels.put("leaf", leaf);
+		eagerRootModels.put("middle", middle.inline(eagerMiddleModels));
+		FDTMC eager = root.inline(eagerRootModels);
+
+		InlinedFDTMC leafView = InlinedFDTMC.of(leaf);
+		Map<String, InlinedFDTMC> middleViews = new HashMap<String, InlinedFDTMC>();
+		middleViews.put("leaf", leafView);
+		Map<String, InlinedFDTMC> rootViews = new HashMap<String, InlinedFDTMC>();
+		rootViews.put("leaf", leafView);
+		rootViews.put("middle", InlinedFDTMC.of(middle, middleViews));
+		FDTMC lazy = InlinedFDTMC.of(root, rootViews).materialize();
+
+		Assert.assertEquals(eager, lazy);
+		Assert.assertEquals(eager.toString(), lazy.toString());
+	}
+
+	@Test
+	public void testViewsAreComparedByIdentityOfParts() {
+		InlinedFDTMC leafView = InlinedFDTMC.of(leaf);
+		Map<String, InlinedFDTMC> views = new HashMap<String, InlinedFDTMC>();
+		views.put("leaf", leafView);
+		// Fragments which do not match any interface are ignored.
+		views.put("unrelated", InlinedFDTMC.of(root));
+
+		Map<String, InlinedFDTMC> otherViews = new HashMap<String, InlinedFDTMC>();
+		otherViews.put("leaf", leafView);
+
+		Assert.assertEquals(InlinedFDTMC.of(middle, views), InlinedFDTMC.of(middle, otherViews));
+		Assert.assertEquals(InlinedFDTMC.of(middle, views).hashCode(), InlinedFDTMC.of(middle, otherViews).hashCode());
+
+		otherViews.put("leaf", InlinedFDTMC.of(leaf));
+		Assert.assertNotEquals(InlinedFDTMC.of(middle, views), InlinedFDTMC.of(middle, otherViews));
+	}
+
+}
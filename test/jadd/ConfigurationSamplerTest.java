@@ -0,0 +1,78 @@
+package jadd;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConfigurationSamplerTest {
+
+    @Test
+    public void testSamplesValidConfigurationsUniformly() throws UnrecognizedVariableException {
+        JADD jadd = new JADD();
+        ADD a = jadd.getVariable("A");
+        ADD b = jadd.getVariable("B");
+        ADD c = jadd.getVariable("C");
+        // D is left unconstrained ("don't care").
+        jadd.getVariable("D");
+        ADD featureModel = a.and(b.or(c));
+
+        ConfigurationSampler sampler = featureModel.getConfigurationSampler();
+        Assert.assertEquals(6, sampler.getValidConfigurationsCount(), 0);
+
+        Random random = new Random(42);
+        Map<Set<String>, Integer> frequencies = new HashMap<Set<String>, Integer>();
+        int samples = 60000;
+        for (int i = 0; i < samples; i++) {
+            List<String> configuration = sampler.sample(random);
+            Assert.assertEquals(1.0, featureModel.eval(configuration), 0);
+            frequencies.merge(new HashSet<String>(configuration), 1, Integer::sum);
+        }
+
+        Assert.assertEquals(6, frequencies.size());
+        for (int frequency : frequencies.values()) {
+            Assert.assertEquals(samples / 6.0, frequency, samples * 0.01);
+        }
+    }
+
+    @Test
+    public void testWeightsBeyondDoubleRange() throws UnrecognizedVariableException {
+        JADD jadd = new JADD();
+        ADD a = jadd.getVariable("A");
+        // More free variables between A and B than 2^n can hold in a double.
+        for (int i = 0; i < 1100; i++) {
+            jadd.getVariable("X" + i);
+        }
+        ADD b = jadd.getVariable("B");
+        ADD featureModel = a.or(b);
+
+        ConfigurationSampler sampler = featureModel.getConfigurationSampler();
+        Assert.assertEquals(Math.log(3) / Math.log(2) + 1100, sampler.getValidConfigurationsLog2(), 1e-9);
+
+        // A is present in 2 out of 3 valid configurations.
+        Random random = new Random(42);
+        int samples = 3000;
+        int withA = 0;
+        for (int i = 0; i < samples; i++) {
+            List<String> configuration = sampler.sample(random);
+            Assert.assertEquals(1.0, featureModel.eval(configuration), 0);
+            if (configuration.contains("A")) {
+                withA++;
+            }
+        }
+        Assert.assertEquals(samples * 2 / 3.0, withA, samples * 0.03);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNoValidConfiguration() {
+        JADD jadd = new JADD();
+        ADD a = jadd.getVariable("A");
+        a.and(a.complement()).getConfigurationSampler().sample(new Random());
+    }
+
+}
@@ -0,0 +1,121 @@
+package paramwrapper;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fdtmc.FDTMC;
+import fdtmc.State;
+
+public class CachingModelCheckerTest {
+
+	Path cacheDirectory;
+	CountingModelChecker counter;
+	FDTMC fdtmc;
+
+	@Before
+	public void setUp() throws Exception {
+		cacheDirectory = Files.createTempDirectory("cache");
+		cacheDirectory.toFile().deleteOnExit();
+		counter = new CountingModelChecker();
+		fdtmc = new FDTMC();
+		fdtmc.setVariableName("s");
+		State s0 = fdtmc.createState();
+		State s1 = fdtmc.createState("success");
+		State s2 = fdtmc.createState("error");
+		fdtmc.createTransition(s0, s1, null, "r0");
+		fdtmc.createTransition(s0, s2, null, "1-r0");
+		fdtmc.createTransition(s1, s1, null, "1");
+		fdtmc.createTransition(s2, s2, null, "1");
+	}
+
+	@Test
+	public void testSameModelIsCheckedOnce() throws Exception {
+		CachingModelChecker modelChecker = new CachingModelChecker(counter,
+		                                                           new ModelCheckingCache(cacheDirectory, 1024),
+		                                                           "test",
+		                                                           null);
+		assertEquals("1*r0", modelChecker.getReliability(fdtmc));
+		assertEquals("1*r0", modelChecker.getReliability(fdtmc));
+		assertEquals(1, counter.calls);
+	}
+
+	@Test
+	public void testCacheSurvivesAcrossInstances() throws Exception {
+		new CachingModelChecker(counter, new ModelCheckingCache(cacheDirectory, 1024), "test", null)
+		        .getReliability(fdtmc);
+		String formula = new CachingModelChecker(counter, new ModelCheckingCache(cacheDirectory, 1024), "test", null)
+		        .getReliability(fdtmc);
+		assertEquals("1*r0", formula);
+		assertEquals(1, counter.calls);
+	}
+
+	@Test
+	public void testDifferentCheckersDoNotShareResults() throws Exception {
+		ModelCheckingCache cache = new ModelCheckingCache(cacheDirectory, 1024);
+		new CachingModelChecker(counter, cache, "test", null).getReliability(fdtmc);
+		new CachingModelChecker(counter, cache, "other", null).getReliability(fdtmc);
+		assertEquals(2, counter.calls);
+	}
+
+	@Test
+	public void testNumericSolverSettingsDoNotShareResults() throws Exception {
+		ModelCheckingCache cache = new ModelCheckingCache(cacheDirectory, 1024);
+		new CachingModelChecker(counter, cache, "test", null).getReliability(fdtmc);
+		new CachingModelChecker(counter, cache, "test", new NumericReachabilitySolver(1e-12, 100), null)
+		        .getReliability(fdtmc);
+		new CachingModelChecker(counter, cache, "test", new NumericReachabilitySolver(1e-6, 100), null)
+		        .getReliability(fdtmc);
+		new CachingModelChecker(counter, cache, "test", new NumericReachabilitySolver(1e-6, 100), null)
+		        .getReliability(fdtmc);
+		assertEquals(3, counter.calls);
+	}
+
+	@Test
+	public void testModelsSolvedInProcessAreNotCached() throws Exception {
+		FDTMC concrete = new FDTMC();
+		concrete.setVariableName("s");
+		State s0 = concrete.createInitialState();
+		State s1 = concrete.createSuccessState();
+		State s2 = concrete.createErrorState();
+		concrete.createTransition(s0, s1, null, "0.9");
+		concrete.createTransition(s0, s2, null, "0.1");
+
+		CachingModelChecker modelChecker = new CachingModelChecker(counter,
+		                                                           new ModelCheckingCache(cacheDirectory, 1024),
+		                                                           "test",
+		                                                           new NumericReachabilitySolver(),
+		                                                           null);
+		modelChecker.getReliability(concrete);
+		modelChecker.getReliability(concrete);
+		assertEquals(2, counter.calls);
+		try (Stream<Path> entries = Files.list(cacheDirectory)) {
+			assertEquals(0, entries.count());
+		}
+	}
+
+	@Test
+	public void testModelKeyIsDigestedAsWritten() {
+		ParamModel model = new ParamModel(fdtmc);
+		assertEquals(ModelCheckingCache.makeKey(model.toString(), "property", "checker"),
+		             ModelCheckingCache.makeKey(model, "property", "checker"));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEntriesAreEvicted() throws Exception {
+		ModelCheckingCache cache = new ModelCheckingCache(cacheDirectory, 10);
+		cache.put("a", "12345");
+		cache.put("b", "12345");
+		assertEquals("12345", cache.get("a"));
+		cache.put("c", "12345");
+		assertEquals("12345", cache.get("a"));
+		assertNull(cache.get("b"));
+		assertEquals("12345", cache.get("c"));
+	}
+
+}
@@ -0,0 +1,18 @@
+package paramwrapper;
+
+import fdtmc.FDTMC;
+
+/**
+ * Model checker which counts the models actually given to it, so that tests
+ * can tell whether decorators (e.g., caches) spared the checking.
+ */
+class CountingModelChecker implements ParametricModelChecker {
+	private ParametricModelChecker modelChecker = new StateEliminationModelChecker();
+	int calls = 0;
+
+	@Override
+	public String getReliability(FDTMC fdtmc) {
+		calls++;
+		return modelChecker.getReliability(fdtmc);
+	}
+}
@@ -0,0 +1,122 @@
+package paramwrapper;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fdtmc.FDTMC;
+import fdtmc.State;
+
+public class ExplicitModelTest {
+
+	FDTMC fdtmc;
+
+	@Before
+	public void setUp() throws Exception {
+		fdtmc = new FDTMC();
+		fdtmc.setVariableName("s");
+		State s0 = fdtmc.createInitialState();
+		State s1 = fdtmc.createState();
+		State s2 = fdtmc.createSuccessState();
+		State s3 = fdtmc.createErrorState();
+		fdtmc.createTransition(s0, s1, null, "0.9");
+		fdtmc.createTransition(s0, s3, null, "1 - 0.9");
+		fdtmc.createTransition(s1, s2, null, "0.5");
+		fdtmc.createTransition(s1, s2, null, "0.25");
+		fdtmc.createTransition(s1, s3, null, "0.25");
+	}
+
+	@Test
+	public void testTransitions() throws Exception {
+		String expected =
+				"4 6\n"
+				+ "0 1 0.9\n"
+				+ "0 3 0.09999999999999998\n"
+				+ "1 2 0.75\n"
+				+ "1 3 0.25\n"
+				+ "2 2 1\n"
+				+ "3 3 1\n";
+
+		StringWriter writer = new StringWriter();
+		new ExplicitModel(fdtmc).writeTransitions(writer);
+		assertEquals(expected, writer.toString());
+	}
+
+	@Test
+	public void testLabels() throws Exception {
+		String expected =
+				"0=\"init\" 1=\"error\" 2=\"success\"\n"
+				+ "0: 0\n"
+				+ "2: 2\n"
+				+ "3: 1\n";
+
+		StringWriter writer = new StringWriter();
+		new ExplicitModel(fdtmc).writeLabels(writer);
+		assertEquals(expected, writer.toString());
+	}
+
+	@Test
+	public void testLargeConcreteModelsAreGivenToPrismExplicitly() throws Exception {
+		Path directory = Files.createTempDirectory("fake-prism");
+		Path prism = makeFakePrism(directory);
+		NumericReachabilitySolver numericSolver = new NumericReachabilitySolver(NumericReachabilitySolver.DEFAULT_TOLERANCE,
+		                                                                        NumericReachabilitySolver.DEFAULT_MAX_ITERATIONS,
+		                                                                        3);
+		ParamWrapper modelChecker = new ParamWrapper(prism.toString(),
+		                                             new NoopModelCollector(),
+		                                             new ModelCheckerExecutor(),
+		                                             numericSolver);
+
+		assertEquals("0.5", modelChecker.getReliability(fdtmc));
+		String arguments = new String(Files.readAllBytes(directory.resolve("arguments")), "UTF-8");
+		assertTrue(arguments.contains("-importtrans"));
+		assertTrue(arguments.contains("-importlabels"));
+		StringWriter transitions = new StringWriter();
+		new ExplicitModel(fdtmc).writeTransitions(transitions);
+		assertEquals(transitions.toString(),
+		             new String(Files.readAllBytes(directory.resolve("model.tra")), "UTF-8"));
+	}
+
+	@Test
+	public void testSmallConcreteModelsAreSolvedInProcess() throws Exception {
+		Path directory = Files.createTempDirectory("fake-prism");
+		Path prism = makeFakePrism(directory);
+		NumericReachabilitySolver numericSolver = new NumericReachabilitySolver(NumericReachabilitySolver.DEFAULT_TOLERANCE,
+		                                                                        NumericReachabilitySolver.DEFAULT_MAX_ITERATIONS,
+		                                                                        4);
+		ParamWrapper modelChecker = new ParamWrapper(prism.toString(),
+		                                             new NoopModelCollector(),
+		                                             new ModelCheckerExecutor(),
+		                                             numericSolver);
+
+		assertEquals(0.675, Double.parseDouble(modelChecker.getReliability(fdtmc)), 1E-12);
+		assertFalse(Files.exists(directory.resolve("arguments")));
+	}
+
+	/**
+	 * Executable which stands for PRISM: it records its arguments and the
+	 * imported transitions in {@code directory}, and answers 0.5.
+	 */
+	private static Path makeFakePrism(Path directory) throws Exception {
+		Path prism = directory.resolve("prism");
+		String script = "#!/bin/sh\n"
+				+ "echo \"$@\" > '" + directory.resolve("arguments") + "'\n"
+				+ "while [ $# -gt 0 ]; do\n"
+				+ "  case \"$1\" in\n"
+				+ "    -importtrans) cp \"$2\" '" + directory.resolve("model.tra") + "' ;;\n"
+				+ "    -exportresults) results=\"$2\" ;;\n"
+				+ "  esac\n"
+				+ "  shift\n"
+				+ "done\n"
+				+ "printf 'Result\\n0.5\\n' > \"$results\"\n";
+		Files.write(prism, script.getBytes("UTF-8"));
+		prism.toFile().setExecutable(true);
+		return prism;
+	}
+
+}
@@ -2,6 +2,8 @@ package paramwrapper;
 
 import static org.junit.Assert.*;
 
+import java.io.StringWriter;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -117,5 +119,32 @@ public class FDTMCToParamTest {
 		assertEquals(expectedModule, paramWrapper.fdtmcToParam(fdtmc));
 	}
 
+	@Test
+	public void testPrismModelDeclaresConstants() throws Exception {
+		FDTMC fdtmc = new FDTMC();
+		fdtmc.setVariableName("s");
+		State s0 = fdtmc.createState();
+		State s1 = fdtmc.createState("success");
+		fdtmc.createTransition(s0, s1, null, "rParam");
+		fdtmc.createTransition(s0, s0, null, "1-rParam");
+
+		String expectedModule =
+				"dtmc\n"
+				+ "\n"
+				+ "const double rParam;\n"
+				+ "\n"
+				+ "module dummyModule\n"
+				+ "	s : [0..1] init 0;\n"
+				+ "	[] s=0 -> (rParam) : (s'=1) + (1-rParam) : (s'=0);\n"
+				+ "	[] s=1 -> (1) : (s'=1);\n"
+				+ "endmodule\n"
+				+ "\n"
+				+ "label \"success\" = s=1;\n";
+
+		StringWriter writer = new StringWriter();
+		new ParamModel(fdtmc).writeTo(writer, ParamModel.PRISM_KEYWORD);
+		assertEquals(expectedModule, writer.toString());
+	}
+
 	// Many states with one label
 }
@@ -0,0 +1,119 @@
+package paramwrapper;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fdtmc.FDTMC;
+import fdtmc.State;
+
+public class IsomorphismDeduplicatingModelCheckerTest {
+
+	CountingModelChecker counter;
+	IsomorphismDeduplicatingModelChecker modelChecker;
+
+	@Before
+	public void setUp() throws Exception {
+		counter = new CountingModelChecker();
+		modelChecker = new IsomorphismDeduplicatingModelChecker(counter);
+	}
+
+	@Test
+	public void testIsomorphicModelsAreCheckedOnce() {
+		FDTMC first = new FDTMC();
+		first.setVariableName("sA");
+		State a0 = first.createInitialState();
+		State a1 = first.createState();
+		State a2 = first.createSuccessState();
+		State a3 = first.createErrorState();
+		first.createTransition(a0, a1, "msgA", "rA");
+		first.createTransition(a0, a3, "msgA_fail", "1-rA");
+		first.createTransition(a1, a2, "msgB", "rB");
+		first.createTransition(a1, a3, "msgB_fail", "1-rB");
+
+		// Same structure, but different state numbering, transition order,
+		// action and parameter names and number formatting.
+		FDTMC second = new FDTMC();
+		second.setVariableName("sB");
+		State b0 = second.createInitialState();
+		State b3 = second.createErrorState();
+		State b2 = second.createSuccessState();
+		State b1 = second.createState();
+		second.createTransition(b0, b3, "other_fail", "1.0 - rX");
+		second.createTransition(b0, b1, "other", "rX");
+		second.createTransition(b1, b3, "another_fail", "1 - rY");
+		second.createTransition(b1, b2, "another", "rY");
+
+		assertEquals("1*rA*rB", modelChecker.getReliability(first));
+		assertEquals("1*rX*rY", modelChecker.getReliability(second));
+		assertEquals(1, counter.calls);
+	}
+
+	@Test
+	public void testDifferentModelsAreCheckedSeparately() {
+		FDTMC first = new FDTMC();
+		State a0 = first.createInitialState();
+		State a1 = first.createSuccessState();
+		State a2 = first.createErrorState();
+		first.createTransition(a0, a1, "", "r");
+		first.createTransition(a0, a2, "", "1-r");
+
+		FDTMC second = new FDTMC();
+		State b0 = second.createInitialState();
+		State b1 = second.createSuccessState();
+		State b2 = second.createErrorState();
+		second.createTransition(b0, b1, "", "0.9");
+		second.createTransition(b0, b2, "", "0.1");
+
+		assertEquals("1*r", modelChecker.getReliability(first));
+		assertEquals("(9)/(10)", modelChecker.getReliability(second));
+		assertEquals(2, counter.calls);
+	}
+
+	@Test
+	public void testRepeatedParameterIsRenamedConsistently() {
+		FDTMC fdtmc = new FDTMC();
+		State s0 = fdtmc.createInitialState();
+		State s1 = fdtmc.createState();
+		State s2 = fdtmc.createSuccessState();
+		State s3 = fdtmc.createErrorState();
+		fdtmc.createTransition(s0, s1, "", "rSqlite");
+		fdtmc.createTransition(s0, s3, "", "1-rSqlite");
+		fdtmc.createTransition(s1, s2, "", "rSqlite");
+		fdtmc.createTransition(s1, s3, "", "1-rSqlite");
+
+		assertEquals("1*rSqlite^2", modelChecker.getReliability(fdtmc));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedFormulaeAreEvicted() {
+		modelChecker = new IsomorphismDeduplicatingModelChecker(counter, 2);
+		FDTMC first = singleStep("0.9");
+		FDTMC second = singleStep("0.8");
+		FDTMC third = singleStep("0.7");
+
+		modelChecker.getReliability(first);
+		modelChecker.getReliability(second);
+		modelChecker.getReliability(first);
+		modelChecker.getReliability(third);
+		assertEquals(3, counter.calls);
+
+		// The second model was the least recently used one.
+		modelChecker.getReliability(first);
+		assertEquals(3, counter.calls);
+		modelChecker.getReliability(second);
+		assertEquals(4, counter.calls);
+	}
+
+	private static FDTMC singleStep(String probability) {
+		FDTMC fdtmc = new FDTMC();
+		State s0 = fdtmc.createInitialState();
+		State s1 = fdtmc.createSuccessState();
+		State s2 = fdtmc.createErrorState();
+		fdtmc.createTransition(s0, s1, "", probability);
+		fdtmc.createTransition(s0, s2, "", "1-" + probability);
+		return fdtmc;
+	}
+
+}
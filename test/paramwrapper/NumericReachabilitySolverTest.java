@@ -0,0 +1,84 @@
+package paramwrapper;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fdtmc.FDTMC;
+import fdtmc.State;
+
+public class NumericReachabilitySolverTest {
+	private static final double DELTA = 1e-10;
+
+	NumericReachabilitySolver solver;
+	FDTMC fdtmc;
+
+	@Before
+	public void setUp() throws Exception {
+		solver = new NumericReachabilitySolver();
+		fdtmc = new FDTMC();
+		fdtmc.setVariableName("s");
+	}
+
+	@Test
+	public void testAcyclicModel() {
+		State s0 = fdtmc.createState();
+		State s1 = fdtmc.createState();
+		State s2 = fdtmc.createState("success");
+		State s3 = fdtmc.createState("error");
+		fdtmc.createTransition(s0, s3, null, "0.01");
+		fdtmc.createTransition(s0, s1, null, "0.99");
+		fdtmc.createTransition(s1, s2, null, "0.99");
+		fdtmc.createTransition(s1, s3, null, "1 - 0.99");
+		fdtmc.createTransition(s2, s2, null, "1");
+		fdtmc.createTransition(s3, s3, null, "1");
+
+		assertEquals(0.9801, solver.solve(fdtmc), DELTA);
+	}
+
+	@Test
+	public void testSelfLoop() {
+		State s0 = fdtmc.createState();
+		State s1 = fdtmc.createState("success");
+		State s2 = fdtmc.createState("error");
+		fdtmc.createTransition(s0, s0, null, "0.5");
+		fdtmc.createTransition(s0, s1, null, "0.25");
+		fdtmc.createTransition(s0, s2, null, "0.25");
+
+		assertEquals(0.5, solver.solve(fdtmc), DELTA);
+	}
+
+	@Test
+	public void testCycleThroughSeveralStates() {
+		State s0 = fdtmc.createState();
+		State s1 = fdtmc.createState();
+		State s2 = fdtmc.createState("success");
+		State s3 = fdtmc.createState("error");
+		// x0 = 0.5*x1 + 0.5*x3; x1 = 0.5*x0 + 0.5*x2 => x0 = 1/3
+		fdtmc.createTransition(s0, s1, null, "0.5");
+		fdtmc.createTransition(s0, s3, null, "0.5");
+		fdtmc.createTransition(s1, s0, null, "0.5");
+		fdtmc.createTransition(s1, s2, null, "0.5");
+
+		assertEquals(1.0/3, solver.solve(fdtmc), DELTA);
+	}
+
+	@Test
+	public void testNoSuccessState() {
+		State s0 = fdtmc.createState();
+		State s1 = fdtmc.createState("error");
+		fdtmc.createTransition(s0, s1, null, "1");
+
+		assertEquals(0, solver.solve(fdtmc), DELTA);
+	}
+
+	@Test
+	public void testInitialSuccessState() {
+		State s0 = fdtmc.createState("success");
+		fdtmc.createTransition(s0, s0, null, "1");
+
+		assertEquals(1, solver.solve(fdtmc), DELTA);
+	}
+
+}
@@ -86,7 +86,8 @@ public class ReliabilityFormulaTest {
 		fdtmc.createTransition(s2, s2, null, "1");
 		fdtmc.createTransition(s3, s3, null, "1");
 
+		// Parameter-free models are solved numerically.
 		String formula = paramWrapper.getReliability(fdtmc);
-		assertEquals("(9801)/(10000)", formula);
+		assertEquals(0.9801, Double.parseDouble(formula), 1e-12);
 	}
 }
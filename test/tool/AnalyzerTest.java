@@ -6,14 +6,34 @@ import jadd.UnrecognizedVariableException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import paramwrapper.ModelCheckerFactory;
+import paramwrapper.ParametricModelChecker;
+
+import tool.analyzers.AnalysisStrategy;
+import tool.analyzers.AutoReliabilityResults;
 import tool.analyzers.IReliabilityAnalysisResults;
+import tool.analyzers.ReliabilityEstimate;
+import tool.analyzers.SampledReliabilityResults;
+import tool.analyzers.SamplingParameters;
+import tool.analyzers.StrategySelector;
+import tool.analyzers.IncrementalAnalysisState;
+import tool.analyzers.buildingblocks.ConcurrencyStrategy;
 import expressionsolver.ExpressionSolver;
+import fdtmc.FDTMC;
+import fdtmc.State;
 
 public class AnalyzerTest {
     private static final String PARAM_PATH = "/opt/param-2-3-64";
@@ -160,4 +180,361 @@ public class AnalyzerTest {
                 0.994014980014994001, reliability.getResult(fileConfig), 1E-14);
     }
 
+    @Test
+    public void testEvaluateReliabilityOxygenationWithBuiltinModelChecker() throws CyclicRdgException, UnknownFeatureException {
+        Analyzer builtinAnalyzer = new Analyzer(jadd, fmBSN, ModelCheckerFactory.BUILTIN);
+        RDGNode node = BSNNodes.getOxygenationRDGNode();
+        IReliabilityAnalysisResults reliability = builtinAnalyzer.evaluateFeatureFamilyBasedReliability(node);
+
+        String[] sqliteConfig = new String[]{
+                "Root",
+                "Monitoring",
+                "Storage",
+                "SensorInformation",
+                "Sensor",
+                "Oxygenation",
+                "SPO2",
+                "SQLite"};
+        Assert.assertEquals("Configuration with SQLite",
+                0.9920279440699441, reliability.getResult(sqliteConfig), 1E-14);
+
+        String[] fileConfig = new String[]{
+                "Root",
+                "Monitoring",
+                "Storage",
+                "SensorInformation",
+                "Sensor",
+                "Oxygenation",
+                "SPO2",
+                "File"};
+        Assert.assertEquals("Configuration without SQLite or Memory",
+                0.994014980014994001, reliability.getResult(fileConfig), 1E-14);
+    }
+
+    @Test
+    public void testEvaluateFeatureProductReliabilityOxygenationWithBuiltinModelChecker() throws CyclicRdgException, UnknownFeatureException {
+        Analyzer builtinAnalyzer = new Analyzer(jadd, fmBSN, ModelCheckerFactory.BUILTIN);
+        RDGNode node = BSNNodes.getOxygenationRDGNode();
+
+        String[] memoryConfig = new String[]{
+                "Root",
+                "Monitoring",
+                "Storage",
+                "SensorInformation",
+                "Sensor",
+                "Oxygenation",
+                "SPO2",
+                "Memory"};
+        Set<Collection<String>> configurations = new HashSet<Collection<String>>();
+        configurations.add(Arrays.asList(memoryConfig));
+
+        IReliabilityAnalysisResults reliability = builtinAnalyzer.evaluateFeatureProductBasedReliability(node, configurations.stream());
+        Assert.assertEquals("Configuration with Memory",
+                0.9920279440699441, reliability.getResult(memoryConfig), 1E-14);
+    }
+
+    /**
+     * The family-based strategies derive a 150% model in which each optional
+     * fragment is guarded by a presence variable, so they must agree with
+     * the feature-family-based one on every valid configuration.
+     */
+    @Test
+    public void testFamilyStrategiesAgreeWithFeatureFamilyWithBuiltinModelChecker() throws CyclicRdgException, UnknownFeatureException {
+        Analyzer builtinAnalyzer = new Analyzer(jadd, fmBSN, ModelCheckerFactory.BUILTIN);
+        RDGNode node = BSNNodes.getOxygenationWithInterfacesRDGNode();
+        List<Collection<String>> validConfigurations = builtinAnalyzer.getValidConfigurations()
+                .collect(Collectors.toList());
+
+        IReliabilityAnalysisResults expected = builtinAnalyzer.evaluateFeatureFamilyBasedReliability(node);
+        IReliabilityAnalysisResults family = builtinAnalyzer.evaluateFamilyBasedReliability(node, validConfigurations.stream());
+        IReliabilityAnalysisResults familyProduct = builtinAnalyzer.evaluateFamilyProductBasedReliability(node, validConfigurations.stream());
+        for (Collection<String> configuration : validConfigurations) {
+            String[] features = configuration.toArray(new String[configuration.size()]);
+            Assert.assertEquals("FAMILY for " + configuration,
+                    expected.getResult(features), family.getResult(features), 1E-14);
+            Assert.assertEquals("FAMILY_PRODUCT for " + configuration,
+                    expected.getResult(features), familyProduct.getResult(features), 1E-14);
+        }
+    }
+
+    @Test
+    public void testDerivationRunsInTheGivenExecutor() throws CyclicRdgException, UnknownFeatureException {
+        Analyzer builtinAnalyzer = new Analyzer(jadd, fmBSN, ModelCheckerFactory.BUILTIN);
+        RDGNode node = BSNNodes.getOxygenationWithInterfacesRDGNode();
+        // Products without the root feature have no model to be checked.
+        List<Collection<String>> validConfigurations = builtinAnalyzer.getValidConfigurations()
+                .filter(configuration -> configuration.contains("Oxygenation"))
+                .collect(Collectors.toList());
+        IReliabilityAnalysisResults expected = builtinAnalyzer.evaluateFeatureFamilyBasedReliability(node);
+
+        AtomicInteger tasks = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        builtinAnalyzer.setDerivationExecutor(task -> {
+            tasks.incrementAndGet();
+            pool.execute(task);
+        });
+        try {
+            for (AnalysisStrategy strategy : Arrays.asList(AnalysisStrategy.FEATURE_FAMILY,
+                                                           AnalysisStrategy.FEATURE_PRODUCT,
+                                                           AnalysisStrategy.PRODUCT,
+                                                           AnalysisStrategy.FAMILY)) {
+                int tasksBefore = tasks.get();
+                IReliabilityAnalysisResults reliability = builtinAnalyzer.evaluateReliability(strategy, node, validConfigurations.stream());
+                Assert.assertTrue(strategy + " ran no task in the executor", tasks.get() > tasksBefore);
+                for (Collection<String> configuration : validConfigurations) {
+                    String[] features = configuration.toArray(new String[configuration.size()]);
+                    Assert.assertEquals(strategy + " for " + configuration,
+                            expected.getResult(features), reliability.getResult(features), 1E-14);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMonteCarloReliabilityOxygenationWithBuiltinModelChecker() throws CyclicRdgException, UnknownFeatureException {
+        Analyzer builtinAnalyzer = new Analyzer(jadd, fmBSN, ModelCheckerFactory.BUILTIN);
+        builtinAnalyzer.setSamplingParameters(new SamplingParameters(0.95, 0, 0, 2000, 42));
+        RDGNode node = BSNNodes.getOxygenationRDGNode();
+
+        SampledReliabilityResults reliability = builtinAnalyzer.evaluateMonteCarloReliability(node);
+        ReliabilityEstimate estimate = reliability.getEstimate();
+        Assert.assertEquals(2000, estimate.getSampleSize());
+        // The least reliable configurations are those with SQLite (or Memory).
+        Assert.assertEquals(0.9920279440699441, estimate.getMinimum(), 1E-14);
+
+        List<Collection<String>> validConfigurations = builtinAnalyzer.getValidConfigurations()
+                .collect(Collectors.toList());
+        IReliabilityAnalysisResults exact = builtinAnalyzer.evaluateFeatureProductBasedReliability(node, validConfigurations.stream());
+        double exactMean = 0;
+        for (Collection<String> configuration : validConfigurations) {
+            exactMean += exact.getResult(configuration.toArray(new String[configuration.size()]));
+        }
+        exactMean /= validConfigurations.size();
+        Assert.assertTrue(estimate.getMean().getLower() <= exactMean);
+        Assert.assertTrue(estimate.getMean().getUpper() >= exactMean);
+
+        String[] memoryConfig = new String[]{
+                "Root",
+                "Monitoring",
+                "Storage",
+                "SensorInformation",
+                "Sensor",
+                "Oxygenation",
+                "SPO2",
+                "Memory"};
+        Assert.assertEquals("Configuration with Memory",
+                0.9920279440699441, reliability.getResult(memoryConfig), 1E-14);
+    }
+
+    @Test
+    public void testMonteCarloSamplesDoNotDependOnParallelism() throws CyclicRdgException {
+        RDGNode node = BSNNodes.getOxygenationRDGNode();
+        double[] means = new double[2];
+        int[] parallelisms = {1, 4};
+        for (int i = 0; i < parallelisms.length; i++) {
+            Analyzer builtinAnalyzer = new Analyzer(jadd, fmBSN, ModelCheckerFactory.BUILTIN);
+            builtinAnalyzer.setConcurrencyStrategy(ConcurrencyStrategy.PARALLEL);
+            builtinAnalyzer.setProductParallelism(parallelisms[i]);
+            builtinAnalyzer.setBatchSize(64);
+            builtinAnalyzer.setSamplingParameters(new SamplingParameters(0.95, 0, 0, 500, 7));
+            means[i] = builtinAnalyzer.evaluateMonteCarloReliability(node).getEstimate().getMean().getEstimate();
+        }
+        Assert.assertEquals(means[0], means[1], 0);
+    }
+
+    @Test
+    public void testIncrementalFeatureFamilyReliabilityReusesUnchangedNodes() throws CyclicRdgException, UnknownFeatureException {
+        Analyzer builtinAnalyzer = new Analyzer(jadd, fmBSN, ModelCheckerFactory.BUILTIN);
+        IncrementalAnalysisState state = new IncrementalAnalysisState();
+        String[] sqliteConfig = new String[]{
+                "Root",
+                "Monitoring",
+                "Storage",
+                "SensorInformation",
+                "Sensor",
+                "Oxygenation",
+                "SPO2",
+                "SQLite"};
+
+        RDGNode node = BSNNodes.getOxygenationRDGNode();
+        IReliabilityAnalysisResults reliability = builtinAnalyzer.evaluateFeatureFamilyBasedReliabilityIncrementally(node, state);
+        Assert.assertEquals(0.9920279440699441, reliability.getResult(sqliteConfig), 1E-14);
+        Assert.assertEquals(0, state.getReusedExpressions());
+        Assert.assertEquals(0, state.getReusedReliabilities());
+
+        reliability = builtinAnalyzer.evaluateFeatureFamilyBasedReliabilityIncrementally(node, state);
+        Assert.assertEquals(0.9920279440699441, reliability.getResult(sqliteConfig), 1E-14);
+        Assert.assertEquals(4, state.getReusedExpressions());
+        Assert.assertEquals(4, state.getReusedReliabilities());
+
+        // Only the root changes (its presence condition is equivalent
+        // under the feature model), so only it is solved again.
+        RdgSession session = new RdgSession();
+        RDGNode changed = session.createNode("oxygenation", "Oxygenation && SPO2", FDTMCStub.createOxygenationFDTMC());
+        changed.addDependency(BSNNodes.getSQLiteRDGNode());
+        changed.addDependency(BSNNodes.getFileRDGNode());
+        changed.addDependency(BSNNodes.getMemoryRDGNode());
+        reliability = builtinAnalyzer.evaluateFeatureFamilyBasedReliabilityIncrementally(changed, state);
+        Assert.assertEquals(0.9920279440699441, reliability.getResult(sqliteConfig), 1E-14);
+        Assert.assertEquals(4, state.getReusedExpressions());
+        Assert.assertEquals(3, state.getReusedReliabilities());
+    }
+
+    @Test
+    public void testIncrementalFeatureFamilyReliabilityChecksInTheGivenExecutor() throws CyclicRdgException, UnknownFeatureException {
+        Analyzer builtinAnalyzer = new Analyzer(jadd, fmBSN, ModelCheckerFactory.BUILTIN);
+        builtinAnalyzer.setConcurrencyStrategy(ConcurrencyStrategy.PARALLEL);
+        AtomicInteger tasks = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        builtinAnalyzer.setDerivationExecutor(task -> {
+            tasks.incrementAndGet();
+            pool.execute(task);
+        });
+        String[] sqliteConfig = new String[]{
+                "Root",
+                "Monitoring",
+                "Storage",
+                "SensorInformation",
+                "Sensor",
+                "Oxygenation",
+                "SPO2",
+                "SQLite"};
+        try {
+            IReliabilityAnalysisResults reliability = builtinAnalyzer.evaluateFeatureFamilyBasedReliabilityIncrementally(BSNNodes.getOxygenationRDGNode(),
+                                                                                                                        new IncrementalAnalysisState());
+            Assert.assertEquals(0.9920279440699441, reliability.getResult(sqliteConfig), 1E-14);
+            Assert.assertTrue(tasks.get() > 0);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAutoReliabilityFallsBackWhenOverBudget() throws CyclicRdgException, UnknownFeatureException {
+        Analyzer builtinAnalyzer = new Analyzer(jadd, fmBSN, ModelCheckerFactory.BUILTIN);
+        String[] sqliteConfig = new String[]{
+                "Root",
+                "Monitoring",
+                "Storage",
+                "SensorInformation",
+                "Sensor",
+                "Oxygenation",
+                "SPO2",
+                "SQLite"};
+        // Derivation-based strategies need the models with interfaces.
+        RDGNode node = BSNNodes.getOxygenationWithInterfacesRDGNode();
+
+        List<AnalysisStrategy> ranking = StrategySelector.rank(builtinAnalyzer.collectMetrics(node));
+
+        AutoReliabilityResults reliability = builtinAnalyzer.evaluateAutoReliability(node,
+                () -> Stream.<Collection<String>>of(Arrays.asList(sqliteConfig)),
+                0,
+                0);
+        Assert.assertEquals(ranking.get(0), reliability.getStrategy());
+        Assert.assertTrue(reliability.getAbortedStrategies().isEmpty());
+        Assert.assertEquals(0.9920279440699441, reliability.getResult(sqliteConfig), 1E-14);
+
+        // A fresh ADD processor, so that the ADDs of the first run are not
+        // reused: the first nodes solved by FEATURE_FAMILY exhaust the budget,
+        // while the next strategy creates no ADD nodes.
+        Analyzer freshAnalyzer = new Analyzer(new JADD(), fmBSN, ModelCheckerFactory.BUILTIN);
+        reliability = freshAnalyzer.evaluateAutoReliability(node,
+                () -> Stream.<Collection<String>>of(Arrays.asList(sqliteConfig)),
+                0,
+                1);
+        Assert.assertEquals(ranking.get(1), reliability.getStrategy());
+        Assert.assertEquals(Arrays.asList(ranking.get(0)), reliability.getAbortedStrategies());
+        Assert.assertEquals(0.9920279440699441, reliability.getResult(sqliteConfig), 1E-14);
+
+        // Each model checking task outlasts the time budget, so every
+        // strategy but the last one is aborted.
+        ParametricModelChecker builtin = ModelCheckerFactory.createModelChecker(ModelCheckerFactory.BUILTIN, null);
+        ParametricModelChecker slowModelChecker = fdtmc -> {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return builtin.getReliability(fdtmc);
+        };
+        Analyzer slowAnalyzer = new Analyzer(fmBSN, slowModelChecker, null, null);
+        reliability = slowAnalyzer.evaluateAutoReliability(node,
+                () -> Stream.<Collection<String>>of(Arrays.asList(sqliteConfig)),
+                1,
+                0);
+        Assert.assertEquals(ranking.get(ranking.size() - 1), reliability.getStrategy());
+        Assert.assertEquals(ranking.subList(0, ranking.size() - 1), reliability.getAbortedStrategies());
+        Assert.assertEquals(0.9920279440699441, reliability.getResult(sqliteConfig), 1E-14);
+    }
+
+    @Test
+    public void testSensitivityMatchesFiniteDifferences() throws CyclicRdgException, UnknownFeatureException {
+        Analyzer builtinAnalyzer = new Analyzer(jadd, fmBSN, ModelCheckerFactory.BUILTIN);
+        String[] configuration = new String[]{
+                "Root",
+                "Monitoring",
+                "Storage",
+                "SensorInformation",
+                "Sensor",
+                "Oxygenation",
+                "SPO2",
+                "Memory"};
+        double send = 0.9;
+        double work = 0.8;
+        double h = 1E-4;
+
+        Map<String, IReliabilityAnalysisResults> sensitivity = builtinAnalyzer.evaluateFeatureFamilyBasedSensitivity(
+                makeSensitivityRdg("base", send, work),
+                Arrays.asList("send"));
+
+        double sendDerivative = (reliability(builtinAnalyzer, makeSensitivityRdg("sendUp", send + h, work), configuration)
+                - reliability(builtinAnalyzer, makeSensitivityRdg("sendDown", send - h, work), configuration)) / (2 * h);
+        double workDerivative = (reliability(builtinAnalyzer, makeSensitivityRdg("workUp", send, work + h), configuration)
+                - reliability(builtinAnalyzer, makeSensitivityRdg("workDown", send, work - h), configuration)) / (2 * h);
+        Assert.assertEquals(2 * send * work, sendDerivative, 1E-6);
+        Assert.assertEquals(send * send, workDerivative, 1E-6);
+        Assert.assertEquals(sendDerivative, sensitivity.get("send").getResult(configuration), 1E-6);
+        Assert.assertEquals(workDerivative, sensitivity.get("sensitivityChild_base").getResult(configuration), 1E-6);
+    }
+
+    private static double reliability(Analyzer analyzer, RDGNode node, String[] configuration) throws CyclicRdgException, UnknownFeatureException {
+        return analyzer.evaluateFeatureFamilyBasedReliability(node).getResult(configuration);
+    }
+
+    /**
+     * Root which sends a message twice (with the given success probability)
+     * and then calls a child, whose reliability is {@code work}. Thus its
+     * reliability is {@code send^2 * work}.
+     */
+    private static RDGNode makeSensitivityRdg(String tag, double send, double work) {
+        FDTMC child = new FDTMC();
+        child.setVariableName("sChild");
+        State childInit = child.createInitialState();
+        State childSuccess = child.createSuccessState();
+        State childError = child.createErrorState();
+        child.createTransition(childInit, childSuccess, "work", Double.toString(work));
+        child.createTransition(childInit, childError, "work", Double.toString(1 - work));
+
+        String childId = "sensitivityChild_" + tag;
+        FDTMC root = new FDTMC();
+        root.setVariableName("sRoot");
+        State init = root.createInitialState();
+        State success = root.createSuccessState();
+        State error = root.createErrorState();
+        State sent = root.createState();
+        State resent = root.createState();
+        root.createTransition(init, sent, "send", Double.toString(send));
+        root.createTransition(init, error, "send", Double.toString(1 - send));
+        root.createTransition(sent, resent, "send", Double.toString(send));
+        root.createTransition(sent, error, "send", Double.toString(1 - send));
+        root.createInterface(childId, resent, success, error);
+
+        RdgSession session = new RdgSession();
+        RDGNode node = session.createNode("sensitivityRoot_" + tag, "Root", root);
+        node.addDependency(session.createNode(childId, "Oxygenation", child));
+        return node;
+    }
+
 }
@@ -10,42 +10,64 @@ import fdtmc.FDTMC;
  */
 public class BSNNodes {
 
+    /**
+     * Session shared by the BSN nodes, so that each of them is built once.
+     */
+    private static final RdgSession SESSION = new RdgSession();
+
     public static RDGNode getSQLiteRDGNode() {
         String id = "sqlite";
-        RDGNode node = RDGNode.getById(id);
+        RDGNode node = SESSION.getById(id);
         if (node == null) {
             FDTMC fdtmc = FDTMCStub.createSqliteFDTMC();
-            node = new RDGNode(id, "SQLite", fdtmc);
+            node = SESSION.createNode(id, "SQLite", fdtmc);
         }
         return node;
     }
 
     public static RDGNode getFileRDGNode() {
         String id = "file";
-        RDGNode node = RDGNode.getById(id);
+        RDGNode node = SESSION.getById(id);
         if (node == null) {
             FDTMC fdtmc = FDTMCStub.createFileFDTMC();
-            node = new RDGNode(id, "File", fdtmc);
+            node = SESSION.createNode(id, "File", fdtmc);
         }
         return node;
     }
 
     public static RDGNode getMemoryRDGNode() {
         String id = "memory";
-        RDGNode node = RDGNode.getById(id);
+        RDGNode node = SESSION.getById(id);
         if (node == null) {
             FDTMC fdtmc = FDTMCStub.createMemoryFDTMC();
-            node = new RDGNode(id, "Memory", fdtmc);
+            node = SESSION.createNode(id, "Memory", fdtmc);
         }
         return node;
     }
 
     public static RDGNode getOxygenationRDGNode() {
         String id = "oxygenation";
-        RDGNode node = RDGNode.getById(id);
+        RDGNode node = SESSION.getById(id);
         if (node == null) {
             FDTMC fdtmc = FDTMCStub.createOxygenationFDTMC();
-            node = new RDGNode(id, "Oxygenation", fdtmc);
+            node = SESSION.createNode(id, "Oxygenation", fdtmc);
+            node.addDependency(getSQLiteRDGNode());
+            node.addDependency(getFileRDGNode());
+            node.addDependency(getMemoryRDGNode());
+        }
+        return node;
+    }
+
+    /**
+     * Oxygenation node whose model has interfaces to its dependencies, as
+     * needed by the family-based strategies (which inline them).
+     */
+    public static RDGNode getOxygenationWithInterfacesRDGNode() {
+        String id = "oxygenationWithInterfaces";
+        RDGNode node = SESSION.getById(id);
+        if (node == null) {
+            FDTMC fdtmc = FDTMCStub.createOxygenationFDTMCWithInterfaces();
+            node = SESSION.createNode(id, "Oxygenation", fdtmc);
             node.addDependency(getSQLiteRDGNode());
             node.addDependency(getFileRDGNode());
             node.addDependency(getMemoryRDGNode());
@@ -55,10 +77,10 @@ public class BSNNodes {
 
     public static RDGNode getPulseRateRDGNode() {
         String id = "pulseRate";
-        RDGNode node = RDGNode.getById(id);
+        RDGNode node = SESSION.getById(id);
         if (node == null) {
             FDTMC fdtmc = FDTMCStub.createPulseRateFDTMC();
-            node = new RDGNode(id, "PulseRate", fdtmc);
+            node = SESSION.createNode(id, "PulseRate", fdtmc);
             node.addDependency(getSQLiteRDGNode());
             node.addDependency(getFileRDGNode());
             node.addDependency(getMemoryRDGNode());
@@ -68,10 +90,10 @@ public class BSNNodes {
 
     public static RDGNode getSituationRDGNode() {
         String id = "situation";
-        RDGNode node = RDGNode.getById(id);
+        RDGNode node = SESSION.getById(id);
         if (node == null) {
             FDTMC fdtmc = FDTMCStub.createSituationFDTMC();
-            node = new RDGNode(id, "true", fdtmc);
+            node = SESSION.createNode(id, "true", fdtmc);
             node.addDependency(getOxygenationRDGNode());
             node.addDependency(getPulseRateRDGNode());
         }
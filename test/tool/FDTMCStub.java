@@ -6,6 +6,19 @@ import fdtmc.State;
 public class FDTMCStub {
 
 	public static FDTMC createOxygenationFDTMC() {
+		return createOxygenationFDTMC(false);
+	}
+
+	/**
+	 * Same as {@link #createOxygenationFDTMC()}, but with actual interfaces
+	 * to SQLite and Memory, so that their models can be inlined (e.g., into
+	 * a 150% model).
+	 */
+	public static FDTMC createOxygenationFDTMCWithInterfaces() {
+		return createOxygenationFDTMC(true);
+	}
+
+	private static FDTMC createOxygenationFDTMC(boolean withInterfaces) {
 		FDTMC fdtmcOxygenation = new FDTMC();
 		fdtmcOxygenation.setVariableName("sOxygenation");
 
@@ -44,9 +57,13 @@ public class FDTMCStub {
 		State sucessSqlite = fdtmcOxygenation.createState();
 		State failSqlite = fdtmcOxygenation.createState();
 		source = target;
-		fdtmcOxygenation.createTransition(source, sucessSqlite, "", "sqlite");
+		if (withInterfaces) {
+			fdtmcOxygenation.createInterface("sqlite", source, sucessSqlite, failSqlite);
+		} else {
+			fdtmcOxygenation.createTransition(source, sucessSqlite, "", "sqlite");
+			fdtmcOxygenation.createTransition(source, failSqlite, "", "1-sqlite");
+		}
 		fdtmcOxygenation.createTransition(sucessSqlite, target2, "", "1.0");
-		fdtmcOxygenation.createTransition(source, failSqlite, "", "1-sqlite");
 		fdtmcOxygenation.createTransition(failSqlite, fail, "", "1.0");
 
 		//memory selection / interface
@@ -58,9 +75,13 @@ public class FDTMCStub {
 		State sucessMemory = fdtmcOxygenation.createState();
 		State failMemory = fdtmcOxygenation.createState();
 		source = target;
-		fdtmcOxygenation.createTransition(source, sucessMemory, "", "memory");
+		if (withInterfaces) {
+			fdtmcOxygenation.createInterface("memory", source, sucessMemory, failMemory);
+		} else {
+			fdtmcOxygenation.createTransition(source, sucessMemory, "", "memory");
+			fdtmcOxygenation.createTransition(source, failMemory, "", "1-memory");
+		}
 		fdtmcOxygenation.createTransition(sucessMemory, target2, "", "1.0");
-		fdtmcOxygenation.createTransition(source, failMemory, "", "1-memory");
 		fdtmcOxygenation.createTransition(failMemory, fail, "", "1.0");
 
 		source = target2;
@@ -233,9 +254,8 @@ public class FDTMCStub {
 		fdtmcSqlite.createTransition(source, target, "persist_return", "0.999");
 		fdtmcSqlite.createTransition(source, fail, "persist_return", "0.001");
 
-		fdtmcSqlite.createTransition(success, success, "", "1.0");
-		fdtmcSqlite.createTransition(fail, fail, "", "1.0");
-
+		// Terminal states are left without self-loops, as in generated
+		// models, so that this model can be inlined into others.
 		return fdtmcSqlite;
 	}
 
@@ -258,8 +278,6 @@ public class FDTMCStub {
 		fdtmcMemory.createTransition(source, success, "persistReturn", "0.999");
 		fdtmcMemory.createTransition(source, fail, "persistReturn", "0.001");
 
-		fdtmcMemory.createTransition(success, success, "", "1.0");
-		fdtmcMemory.createTransition(fail, fail, "", "1.0");
 		//Transitions creation
 //		fdtmcMem.createTransition(s2, success, "persistReturn", "0.999");
 //		fdtmcMem.createTransition(s2, fail, "persistReturn", "0.001");
@@ -291,10 +309,9 @@ public class FDTMCStub {
 		target = success;
 		fdtmcFile.createTransition(source, target, "persistReturn", "0.999");
 		fdtmcFile.createTransition(source, fail, "persistReturn", "0.001");
-		fdtmcFile.createTransition(success, success, "", "1.0");
-		fdtmcFile.createTransition(fail, fail, "", "1.0");
-
 
+		// Terminal states are left without self-loops, as in generated
+		// models, so that this model can be inlined into others.
 		return fdtmcFile;
 	}
 
@@ -7,12 +7,16 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import tool.analyzers.buildingblocks.Component;
 import fdtmc.FDTMC;
 
 public class RDGNodeTest {
 
+    private RdgSession session;
+
     @Before
     public void setUp() throws Exception {
+        session = new RdgSession();
     }
 
     @Test
@@ -70,8 +74,8 @@ public class RDGNodeTest {
     public void testNodesWithSameFDTMC() {
         FDTMC sqliteFDTMC = FDTMCStub.createSqliteFDTMC();
         String presenceCondition = "SQLite";
-        RDGNode firstSqlite = new RDGNode(RDGNode.getNextId(), presenceCondition, sqliteFDTMC);
-        RDGNode secondSqlite = new RDGNode(RDGNode.getNextId(), presenceCondition, sqliteFDTMC);
+        RDGNode firstSqlite = session.createNode(session.getNextId(), presenceCondition, sqliteFDTMC);
+        RDGNode secondSqlite = session.createNode(session.getNextId(), presenceCondition, sqliteFDTMC);
 
         Assert.assertEquals("Nodes with same FDTMC and presence condition and no dependencies should be equal",
                 firstSqlite, secondSqlite);
@@ -81,9 +85,9 @@ public class RDGNodeTest {
     public void testNodesWithSameFDTMCAndDifferentDependencies() {
         FDTMC pulseRateFDTMC = FDTMCStub.createPulseRateFDTMC();
         String presenceCondition = "SQLite";
-        RDGNode first = new RDGNode(RDGNode.getNextId(), presenceCondition, pulseRateFDTMC);
+        RDGNode first = session.createNode(session.getNextId(), presenceCondition, pulseRateFDTMC);
         first.addDependency(BSNNodes.getMemoryRDGNode());
-        RDGNode second = new RDGNode(RDGNode.getNextId(), presenceCondition, pulseRateFDTMC);
+        RDGNode second = session.createNode(session.getNextId(), presenceCondition, pulseRateFDTMC);
         second.addDependency(BSNNodes.getSQLiteRDGNode());
 
         Assert.assertNotEquals("Nodes with same FDTMC and presence condition and different dependencies should NOT be equal",
@@ -99,9 +103,9 @@ public class RDGNodeTest {
     public void testSimilarNodes() {
         FDTMC pulseRateFDTMC = FDTMCStub.createPulseRateFDTMC();
         String presenceCondition = "SQLite";
-        RDGNode first = new RDGNode(RDGNode.getNextId(), presenceCondition, pulseRateFDTMC);
+        RDGNode first = session.createNode(session.getNextId(), presenceCondition, pulseRateFDTMC);
         first.addDependency(BSNNodes.getMemoryRDGNode());
-        RDGNode second = new RDGNode(RDGNode.getNextId(), presenceCondition, pulseRateFDTMC);
+        RDGNode second = session.createNode(session.getNextId(), presenceCondition, pulseRateFDTMC);
         second.addDependency(BSNNodes.getSQLiteRDGNode());
 
         RDGNode similarCandidate = RDGNode.getSimilarNode(second);
@@ -116,4 +120,104 @@ public class RDGNodeTest {
                 first, similarCandidate);
     }
 
+    @Test
+    public void testEqualNodesHaveSameHashCodeAndFingerprint() {
+        FDTMC pulseRateFDTMC = FDTMCStub.createPulseRateFDTMC();
+        String presenceCondition = "PulseRate";
+        RDGNode first = session.createNode(session.getNextId(), presenceCondition, pulseRateFDTMC);
+        first.addDependency(BSNNodes.getMemoryRDGNode());
+        first.addDependency(BSNNodes.getSQLiteRDGNode());
+        RDGNode second = session.createNode(session.getNextId(), presenceCondition, FDTMCStub.createPulseRateFDTMC());
+        second.addDependency(BSNNodes.getSQLiteRDGNode());
+        second.addDependency(BSNNodes.getMemoryRDGNode());
+
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(first.hashCode(), second.hashCode());
+        Assert.assertEquals(first.getFingerprint(), second.getFingerprint());
+    }
+
+    @Test
+    public void testFingerprintChangesWithStructure() {
+        FDTMC pulseRateFDTMC = FDTMCStub.createPulseRateFDTMC();
+        RDGNode first = session.createNode(session.getNextId(), "PulseRate", pulseRateFDTMC);
+        RDGNode second = session.createNode(session.getNextId(), "Oxygenation", pulseRateFDTMC);
+        Assert.assertNotEquals(first.getFingerprint(), second.getFingerprint());
+
+        String fingerprint = first.getFingerprint();
+        first.addDependency(BSNNodes.getMemoryRDGNode());
+        Assert.assertNotEquals("Adding a dependency should change the fingerprint",
+                fingerprint, first.getFingerprint());
+    }
+
+    @Test
+    public void testHashesFollowLaterChanges() {
+        FDTMC childFDTMC = new FDTMC();
+        childFDTMC.setVariableName("child");
+        fdtmc.State init = childFDTMC.createInitialState();
+        RDGNode child = session.createNode(session.getNextId(), "A", childFDTMC);
+        RDGNode parent = session.createNode(session.getNextId(), "B", FDTMCStub.createPulseRateFDTMC());
+        parent.addDependency(child);
+        int hashCode = parent.hashCode();
+        String fingerprint = parent.getFingerprint();
+        String childModelFingerprint = child.getModelFingerprint();
+
+        // The child's model is completed after the parent's hashes were computed.
+        childFDTMC.createTransition(init, childFDTMC.createSuccessState(), "go", "0.9");
+        Assert.assertNotEquals(childModelFingerprint, child.getModelFingerprint());
+        Assert.assertNotEquals(fingerprint, parent.getFingerprint());
+        Assert.assertNotEquals(hashCode, parent.hashCode());
+        Assert.assertTrue("The parent should still find its dependency",
+                parent.getDependencies().contains(child));
+
+        // A dependency is added two levels down.
+        fingerprint = parent.getFingerprint();
+        child.addDependency(BSNNodes.getMemoryRDGNode());
+        Assert.assertNotEquals(fingerprint, parent.getFingerprint());
+        Assert.assertTrue(parent.getDependencies().contains(child));
+    }
+
+    @Test
+    public void testModelFingerprintIsCanonical() {
+        // Same model, with states created in another order and other action names.
+        FDTMC first = new FDTMC();
+        first.setVariableName("a");
+        fdtmc.State init = first.createInitialState();
+        fdtmc.State error = first.createErrorState();
+        fdtmc.State success = first.createSuccessState();
+        first.createTransition(init, success, "call", "rX");
+        first.createTransition(init, error, "fail", "1 - rX");
+        FDTMC second = new FDTMC();
+        second.setVariableName("b");
+        init = second.createInitialState();
+        success = second.createSuccessState();
+        error = second.createErrorState();
+        second.createTransition(init, error, "oops", "1-rX");
+        second.createTransition(init, success, "go", "rX");
+        Assert.assertEquals(session.createNode(session.getNextId(), "A", first).getModelFingerprint(),
+                            session.createNode(session.getNextId(), "A", second).getModelFingerprint());
+
+        // Same transitions, but as an interface to the node with id rX.
+        FDTMC third = new FDTMC();
+        third.setVariableName("c");
+        init = third.createInitialState();
+        error = third.createErrorState();
+        success = third.createSuccessState();
+        third.createInterface("rX", init, success, error);
+        Assert.assertNotEquals(session.createNode(session.getNextId(), "A", first).getModelFingerprint(),
+                               session.createNode(session.getNextId(), "A", third).getModelFingerprint());
+    }
+
+    @Test
+    public void testComponentListPreservesSharing() throws CyclicRdgException {
+        RDGNode situation = BSNNodes.getSituationRDGNode();
+        List<Component<FDTMC>> components = RDGNode.toComponentList(situation.getDependenciesTransitiveClosure());
+
+        Component<FDTMC> root = components.get(components.size() - 1);
+        Assert.assertEquals(situation.getId(), root.getId());
+        for (Component<FDTMC> dependency : root.getDependencies()) {
+            Assert.assertTrue("Dependencies should be the very components in the list",
+                    components.stream().anyMatch(c -> c == dependency));
+        }
+    }
+
 }
@@ -0,0 +1,44 @@
+package tool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fdtmc.FDTMC;
+
+public class RdgSessionTest {
+
+    @Test
+    public void testSessionsAllocateIdsIndependently() {
+        RdgSession first = new RdgSession();
+        RdgSession second = new RdgSession();
+
+        Assert.assertEquals("n0", first.getNextId());
+        Assert.assertEquals("n1", first.getNextId());
+        Assert.assertEquals("n0", second.getNextId());
+    }
+
+    @Test
+    public void testLookupIsScopedToSession() {
+        RdgSession first = new RdgSession();
+        RdgSession second = new RdgSession();
+        RDGNode sqlite = first.createNode("sqlite", "SQLite", FDTMCStub.createSqliteFDTMC());
+
+        Assert.assertSame(first, sqlite.getSession());
+        Assert.assertSame(sqlite, first.getById("sqlite"));
+        Assert.assertNull(second.getById("sqlite"));
+    }
+
+    @Test
+    public void testSimilarNodesAreSearchedWithinSession() {
+        FDTMC sqliteFDTMC = FDTMCStub.createSqliteFDTMC();
+        RdgSession first = new RdgSession();
+        RdgSession second = new RdgSession();
+        RDGNode original = first.createNode(first.getNextId(), "SQLite", sqliteFDTMC);
+        RDGNode sameSession = first.createNode(first.getNextId(), "SQLite", sqliteFDTMC);
+        RDGNode otherSession = second.createNode(second.getNextId(), "SQLite", sqliteFDTMC);
+
+        Assert.assertSame(original, RDGNode.getSimilarNode(sameSession));
+        Assert.assertNull(RDGNode.getSimilarNode(otherSession));
+    }
+
+}
@@ -0,0 +1,41 @@
+package tool.analyzers;
+
+import java.util.stream.LongStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LongDoubleHashMapTest {
+
+    @Test
+    public void testPutAndGet() {
+        LongDoubleHashMap map = new LongDoubleHashMap();
+        map.put(0, 0.5);
+        map.put(-1, 0.25);
+        map.put(Long.MIN_VALUE, 0.125);
+        map.put(-1, 0.75);
+
+        Assert.assertEquals(3, map.size());
+        Assert.assertEquals(0.5, map.get(0, -1), 0);
+        Assert.assertEquals(0.75, map.get(-1, -1), 0);
+        Assert.assertEquals(0.125, map.get(Long.MIN_VALUE, -1), 0);
+        Assert.assertEquals(-1, map.get(42, -1), 0);
+        Assert.assertTrue(map.containsKey(0));
+        Assert.assertFalse(map.containsKey(42));
+    }
+
+    @Test
+    public void testConcurrentInsertionWithResizing() {
+        LongDoubleHashMap map = new LongDoubleHashMap();
+        int entries = 100000;
+        LongStream.range(0, entries).parallel().forEach(key -> map.put(key << 3, key));
+
+        Assert.assertEquals(entries, map.size());
+        for (long key = 0; key < entries; key++) {
+            Assert.assertEquals(key, map.get(key << 3, -1), 0);
+        }
+        // Open addressing: at most a few times the 16 bytes per entry.
+        Assert.assertTrue(map.getMemoryUsage() < entries * 16L * 4);
+    }
+
+}
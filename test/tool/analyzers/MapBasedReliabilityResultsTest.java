@@ -0,0 +1,85 @@
+package tool.analyzers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import tool.UnknownFeatureException;
+
+public class MapBasedReliabilityResultsTest {
+
+    @Test
+    public void testResultsAreIndependentOfFeatureOrder() throws UnknownFeatureException {
+        MapBasedReliabilityResults results = new MapBasedReliabilityResults();
+        results.accept(Arrays.asList("Root", "A"), 0.5);
+        results.accept(Arrays.asList("Root"), 0.25);
+
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals(0.5, results.getResult(new String[] {"A", "Root"}), 0);
+        Assert.assertEquals(0.25, results.getResult(new String[] {"Root"}), 0);
+        Assert.assertEquals(0.0, results.getResult(new String[] {"A"}), 0);
+    }
+
+    /**
+     * A configuration without result is only an error if it has a feature
+     * never seen by the analysis. (The former check was inverted: it threw
+     * for unseen configurations of known features, and returned 0 for the
+     * ones with unknown features.)
+     */
+    @Test
+    public void testMissingResultsAreZeroUnlessFeaturesAreUnknown() {
+        MapBasedReliabilityResults results = new MapBasedReliabilityResults();
+        results.accept(Arrays.asList("Root", "A"), 0.5);
+        results.accept(Arrays.asList("Root", "B"), 0.25);
+
+        Assert.assertEquals(0.0, results.getResult(new String[] {"Root", "A", "B"}), 0);
+        Assert.assertEquals(0.0, results.getResult(new String[] {}), 0);
+        try {
+            results.getResult(new String[] {"Root", "C"});
+            Assert.fail("C is unknown");
+        } catch (UnknownFeatureException e) {
+            Assert.assertEquals("C", e.getFeatureName());
+        }
+    }
+
+    @Test(expected = UnknownFeatureException.class)
+    public void testUnknownFeature() throws UnknownFeatureException {
+        MapBasedReliabilityResults results = new MapBasedReliabilityResults();
+        results.accept(Arrays.asList("Root"), 0.5);
+        results.getResult(new String[] {"Root", "B"});
+    }
+
+    @Test
+    public void testMoreThan64Features() throws UnknownFeatureException {
+        MapBasedReliabilityResults results = new MapBasedReliabilityResults();
+        List<String> features = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+            features.add("F" + i);
+        }
+        results.accept(features, 0.5);
+        results.accept(features.subList(0, 10), 0.25);
+        results.accept(Arrays.asList("F99"), 0.125);
+
+        Assert.assertEquals(0.5, results.getResult(features.toArray(new String[0])), 0);
+        Assert.assertEquals(0.25, results.getResult(features.subList(0, 10).toArray(new String[0])), 0);
+        Assert.assertEquals(0.125, results.getResult(new String[] {"F99"}), 0);
+        Assert.assertEquals(0.0, results.getResult(new String[] {"F0", "F99"}), 0);
+    }
+
+    @Test
+    public void testStatsReportMemory() {
+        MapBasedReliabilityResults results = new MapBasedReliabilityResults();
+        results.accept(Arrays.asList("Root"), 0.5);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        results.printStats(new PrintStream(output, true));
+
+        Assert.assertTrue(output.toString().contains("1 configuration(s) over 1 feature(s)"));
+        Assert.assertTrue(output.toString().contains("Result's size in bytes: "));
+    }
+
+}
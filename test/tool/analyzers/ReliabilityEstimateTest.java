@@ -0,0 +1,38 @@
+package tool.analyzers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReliabilityEstimateTest {
+
+    @Test
+    public void testNormalQuantile() {
+        Assert.assertEquals(0, ReliabilityEstimate.normalQuantile(0.5), 1E-9);
+        Assert.assertEquals(1.959963985, ReliabilityEstimate.normalQuantile(0.975), 1E-8);
+        Assert.assertEquals(-2.326347874, ReliabilityEstimate.normalQuantile(0.01), 1E-8);
+    }
+
+    @Test
+    public void testEstimatesOfUniformSample() {
+        double[] samples = new double[1000];
+        for (int i = 0; i < samples.length; i++) {
+            // Shuffled values 0.001, 0.002, ..., 1.0
+            samples[(i * 7) % samples.length] = (i + 1) / 1000.0;
+        }
+        ReliabilityEstimate estimate = new ReliabilityEstimate(samples, 0.95, 0);
+
+        Assert.assertEquals(0.5005, estimate.getMean().getEstimate(), 1E-12);
+        Assert.assertTrue(estimate.getMean().getLower() < 0.5005);
+        Assert.assertTrue(estimate.getMean().getUpper() > 0.5005);
+
+        ReliabilityEstimate.Interval median = estimate.getPercentile(0.5);
+        Assert.assertEquals(0.5, median.getEstimate(), 1E-12);
+        Assert.assertTrue(median.getLower() < 0.5 && median.getLower() > 0.45);
+        Assert.assertTrue(median.getUpper() > 0.5 && median.getUpper() < 0.55);
+
+        Assert.assertEquals(0.001, estimate.getMinimum(), 0);
+        // Roughly the "rule of three" (3/n).
+        Assert.assertEquals(0.003, estimate.getMinimumTailBound(), 1E-4);
+    }
+
+}
@@ -0,0 +1,44 @@
+package tool.analyzers;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StrategySelectorTest {
+
+    @Test
+    public void testFewConfigurationsFavorProducts() {
+        // 3 configurations of an SPL with many optional fragments.
+        AnalysisMetrics metrics = new AnalysisMetrics(40, 3, 40, 3, 4000, 100, 40);
+        Assert.assertEquals(AnalysisStrategy.FEATURE_PRODUCT, StrategySelector.select(metrics));
+        Assert.assertTrue(StrategySelector.estimateCost(AnalysisStrategy.PRODUCT, metrics)
+                < StrategySelector.estimateCost(AnalysisStrategy.FAMILY, metrics));
+    }
+
+    @Test
+    public void testManyConfigurationsFavorFeatureFamily() {
+        AnalysisMetrics metrics = new AnalysisMetrics(30, 1e6, 20, 4, 2000, 100, 12);
+        List<AnalysisStrategy> ranking = StrategySelector.rank(metrics);
+        Assert.assertEquals(AnalysisStrategy.FEATURE_FAMILY, ranking.get(0));
+        Assert.assertEquals(5, ranking.size());
+        Assert.assertFalse(ranking.contains(AnalysisStrategy.AUTO));
+    }
+
+    @Test
+    public void testFewPresenceConditionsFavorFamily() {
+        // A single presence condition: the 150% model is barely larger
+        // than any product, and is checked only once.
+        AnalysisMetrics metrics = new AnalysisMetrics(10, 500, 20, 2, 2000, 100, 1);
+        Assert.assertTrue(StrategySelector.estimateCost(AnalysisStrategy.FAMILY, metrics)
+                < StrategySelector.estimateCost(AnalysisStrategy.PRODUCT, metrics));
+        Assert.assertTrue(StrategySelector.estimateCost(AnalysisStrategy.FAMILY, metrics)
+                < StrategySelector.estimateCost(AnalysisStrategy.FEATURE_PRODUCT, metrics));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAutoHasNoCost() {
+        StrategySelector.estimateCost(AnalysisStrategy.AUTO, new AnalysisMetrics(1, 1, 1, 1, 1, 1, 1));
+    }
+
+}
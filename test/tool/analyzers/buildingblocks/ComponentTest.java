@@ -0,0 +1,133 @@
+package tool.analyzers.buildingblocks;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ComponentTest {
+
+    /**
+     * Diamond: top depends on left and right, which both depend on bottom.
+     */
+    private static List<Component<Integer>> diamond() {
+        Component<Integer> bottom = new Component<Integer>("bottom", "true", 1);
+        Component<Integer> left = new Component<Integer>("left", "true", 2,
+                new HashSet<Component<Integer>>(Arrays.asList(bottom)));
+        Component<Integer> right = new Component<Integer>("right", "true", 3,
+                new HashSet<Component<Integer>>(Arrays.asList(bottom)));
+        Component<Integer> top = new Component<Integer>("top", "true", 4,
+                new HashSet<Component<Integer>>(Arrays.asList(left, right)));
+        return Arrays.asList(bottom, left, right, top);
+    }
+
+    private static Component<String> getDependency(Component<String> component, String id) {
+        for (Component<String> dependency : component.getDependencies()) {
+            if (dependency.getId().equals(id)) {
+                return dependency;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void testFmapPreservesSharing() {
+        AtomicInteger calls = new AtomicInteger();
+        Component<String> top = diamond().get(3).fmap(asset -> {
+            calls.incrementAndGet();
+            return asset.toString();
+        });
+
+        Assert.assertEquals(4, calls.get());
+        Component<String> left = getDependency(top, "left");
+        Component<String> right = getDependency(top, "right");
+        Assert.assertSame(getDependency(left, "bottom"), getDependency(right, "bottom"));
+        Assert.assertEquals("1", getDependency(left, "bottom").getAsset());
+    }
+
+    @Test
+    public void testFmapAllMapsEachComponentOnce() {
+        AtomicInteger calls = new AtomicInteger();
+        List<Component<String>> mapped = Component.fmapAll(diamond(), c -> {
+            calls.incrementAndGet();
+            return c.getId();
+        });
+
+        Assert.assertEquals(4, calls.get());
+        Assert.assertSame(mapped.get(0), getDependency(mapped.get(1), "bottom"));
+        Assert.assertSame(mapped.get(1), getDependency(mapped.get(3), "left"));
+        for (Component<String> component : mapped) {
+            Assert.assertEquals(component.getId(), component.getAsset());
+        }
+    }
+
+    @Test
+    public void testComponentGraphIndexesDependencies() {
+        ComponentGraph<Integer> graph = ComponentGraph.of(diamond());
+
+        Assert.assertEquals(4, graph.size());
+        Assert.assertEquals("top", graph.getComponent(3).getId());
+        Assert.assertArrayEquals(new int[0], graph.getDependencies(0));
+        Assert.assertArrayEquals(new int[] {0}, graph.getDependencies(1));
+        int[] topDependencies = graph.getDependencies(3).clone();
+        Arrays.sort(topDependencies);
+        Assert.assertArrayEquals(new int[] {1, 2}, topDependencies);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testComponentGraphRequiresTopologicalOrder() {
+        List<Component<Integer>> components = diamond();
+        ComponentGraph.of(Arrays.asList(components.get(3), components.get(0)));
+    }
+
+    @Test
+    public void testComponentGraphLevels() {
+        List<int[]> levels = ComponentGraph.of(diamond()).getLevels();
+
+        Assert.assertEquals(3, levels.size());
+        Assert.assertArrayEquals(new int[] {0}, levels.get(0));
+        Assert.assertArrayEquals(new int[] {1, 2}, levels.get(1));
+        Assert.assertArrayEquals(new int[] {3}, levels.get(2));
+    }
+
+    @Test
+    public void testLevelParallelDerivation() {
+        // Each value needs the ones of its dependencies (top is 4, left is 2
+        // and right is 3, both depending on bottom).
+        DerivationFunction<Boolean, Integer, Integer> derive = (Boolean presence, Integer asset, Map<String, Integer> values) -> {
+            if (asset == 4) {
+                return asset + values.get("left") + values.get("right");
+            } else if (asset > 1) {
+                return asset + values.get("bottom");
+            }
+            return asset;
+        };
+        IsPresent<Integer, Boolean> isPresent = c -> Boolean.valueOf(c.getPresenceCondition());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Integer expected = Component.deriveFromMany(diamond(), derive, isPresent);
+            Integer actual = Component.deriveFromMany(ComponentGraph.of(diamond()), derive, isPresent, executor);
+            Assert.assertEquals(expected, actual);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMapConcurrentlyKeepsOrder() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Integer> mapped = ComponentGraph.of(diamond()).mapConcurrently(c -> c.getAsset() * 10, executor);
+            Assert.assertEquals(Arrays.asList(10, 20, 30, 40), mapped);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package tool.analyzers.buildingblocks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PipelinedDerivationTest {
+
+    private ExecutorService pool;
+    private ExecutorService lane;
+
+    @Before
+    public void setUp() {
+        pool = Executors.newFixedThreadPool(4);
+        lane = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+        lane.shutdownNow();
+    }
+
+    /**
+     * Diamond: top depends on left and right, which both depend on bottom.
+     */
+    private static List<Component<Integer>> diamond() {
+        Component<Integer> bottom = new Component<Integer>("bottom", "true", 1);
+        Component<Integer> left = new Component<Integer>("left", "true", 2,
+                new HashSet<Component<Integer>>(Collections.singleton(bottom)));
+        Component<Integer> right = new Component<Integer>("right", "false", 3,
+                new HashSet<Component<Integer>>(Collections.singleton(bottom)));
+        Component<Integer> top = new Component<Integer>("top", "true", 4,
+                new HashSet<Component<Integer>>(Arrays.asList(left, right)));
+        return Arrays.asList(bottom, left, right, top);
+    }
+
+    private static Integer sumOfDependencies(Integer asset, Map<String, Integer> values) {
+        int sum = asset;
+        for (Integer value : values.values()) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Test
+    public void testSameResultAsSequentialDerivation() {
+        DerivationFunction<Boolean, Integer, Integer> derive = DerivationFunction.abstractDerivation(
+                (Boolean presence, Integer ifTrue, Integer ifFalse) -> presence ? ifTrue : ifFalse,
+                PipelinedDerivationTest::sumOfDependencies,
+                0);
+        IsPresent<Integer, Boolean> isPresent = c -> Boolean.valueOf(c.getPresenceCondition());
+
+        Integer expected = Component.deriveFromMany(diamond(), derive, isPresent);
+        Integer actual = PipelinedDerivation.start(diamond(),
+                                                   Component::getAsset,
+                                                   pool,
+                                                   derive,
+                                                   isPresent,
+                                                   lane).awaitResult();
+
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testDerivationsRunOnTheirOwnExecutor() {
+        Set<String> derivingThreads = ConcurrentHashMap.newKeySet();
+        PipelinedDerivation<Integer, Integer> pipeline = PipelinedDerivation.start(diamond(),
+                Component::getAsset,
+                pool,
+                (Boolean presence, Integer asset, Map<String, Integer> values) -> {
+                    derivingThreads.add(Thread.currentThread().getName());
+                    return asset;
+                },
+                c -> Boolean.TRUE,
+                lane);
+        pipeline.awaitFirstStage();
+
+        Assert.assertEquals(Integer.valueOf(4), pipeline.awaitResult());
+        Assert.assertEquals(1, derivingThreads.size());
+        Assert.assertFalse(derivingThreads.contains(Thread.currentThread().getName()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFailuresArePropagated() {
+        PipelinedDerivation.start(diamond(),
+                c -> {
+                    if (c.getId().equals("left")) {
+                        throw new IllegalStateException("Model checking failed");
+                    }
+                    return c.getAsset();
+                },
+                pool,
+                (Boolean presence, Integer asset, Map<String, Integer> values) -> asset,
+                c -> Boolean.TRUE,
+                lane).awaitResult();
+    }
+
+    @Test
+    public void testCancelledFirstStagesDoNotRun() {
+        List<Runnable> queued = new ArrayList<Runnable>();
+        AtomicInteger processed = new AtomicInteger();
+        PipelinedDerivation<Integer, Integer> pipeline = PipelinedDerivation.start(diamond(),
+                c -> processed.incrementAndGet(),
+                queued::add,
+                (Boolean presence, Integer asset, Map<String, Integer> values) -> asset,
+                c -> Boolean.TRUE,
+                lane);
+        pipeline.cancel();
+        for (Runnable task : queued) {
+            task.run();
+        }
+
+        Assert.assertEquals(4, queued.size());
+        Assert.assertEquals(0, processed.get());
+    }
+
+}
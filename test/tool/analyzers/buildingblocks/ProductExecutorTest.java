@@ -0,0 +1,98 @@
+package tool.analyzers.buildingblocks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import tool.analyzers.BudgetExceededException;
+
+public class ProductExecutorTest {
+
+    @Test
+    public void testChunksShrinkWithRemainingWork() {
+        ProductExecutor executor = new ProductExecutor(4, 64);
+        Assert.assertEquals(64, executor.chunkSize(100000));
+        Assert.assertEquals(10, executor.chunkSize(160));
+        Assert.assertEquals(1, executor.chunkSize(3));
+    }
+
+    @Test
+    public void testEvaluatesSkewedBatches() {
+        List<Collection<String>> batch = new ArrayList<Collection<String>>();
+        for (int i = 0; i < 200; i++) {
+            batch.add(Arrays.asList(Integer.toString(i)));
+        }
+        double[] results = new double[batch.size()];
+        ProductExecutor executor = new ProductExecutor(4);
+        try (ProductExecutor.Run run = executor.start()) {
+            for (int round = 0; round < 2; round++) {
+                run.evaluate(product -> {
+                    int value = Integer.parseInt(product.iterator().next());
+                    if (value % 50 == 0) {
+                        // A few costly products.
+                        try {
+                            Thread.sleep(5);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return (double) value;
+                }, batch, results);
+            }
+
+            for (int i = 0; i < batch.size(); i++) {
+                Assert.assertEquals(i, results[i], 0);
+            }
+            ProductTimings timings = run.getTimings();
+            Assert.assertEquals(400, timings.getCount());
+            Assert.assertTrue(timings.getMaxNanos() >= 5000000);
+            Assert.assertEquals(0, Integer.parseInt(timings.getSlowestProduct().iterator().next()) % 50);
+            Assert.assertTrue(timings.getPercentileNanos(0.5) <= timings.getPercentileNanos(0.99));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPropagatesFailures() {
+        List<Collection<String>> batch = new ArrayList<Collection<String>>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(Arrays.asList(Integer.toString(i)));
+        }
+        try (ProductExecutor.Run run = new ProductExecutor(4).start()) {
+            run.evaluate(product -> {
+                if ("42".equals(product.iterator().next())) {
+                    throw new IllegalStateException("Failed product");
+                }
+                return 1.0;
+            }, batch, new double[batch.size()]);
+        }
+    }
+
+    @Test
+    public void testCheckpointAbortsBetweenChunks() {
+        List<Collection<String>> batch = new ArrayList<Collection<String>>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(Arrays.asList(Integer.toString(i)));
+        }
+        AtomicInteger evaluated = new AtomicInteger();
+        AtomicInteger chunks = new AtomicInteger();
+        ProductExecutor executor = new ProductExecutor(1, 10).withCheckpoint(() -> {
+            if (chunks.incrementAndGet() > 2) {
+                throw new BudgetExceededException("Over budget");
+            }
+        });
+        try (ProductExecutor.Run run = executor.start()) {
+            run.evaluate(product -> (double) evaluated.incrementAndGet(), batch, new double[batch.size()]);
+            Assert.fail("The checkpoint should have aborted the batch");
+        } catch (BudgetExceededException e) {
+            // Only the chunks claimed before the checkpoint threw were evaluated.
+            Assert.assertTrue(evaluated.get() > 0);
+            Assert.assertTrue(evaluated.get() < batch.size());
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package tool.analyzers.buildingblocks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProductIterationHelperTest {
+
+    @Test
+    public void testProjectionIsSortedAndFiltered() {
+        Set<String> relevant = new HashSet<String>(Arrays.asList("B", "A"));
+        Assert.assertEquals(Arrays.asList("A", "B"),
+                            ProductIterationHelper.project(Arrays.asList("C", "B", "A"), relevant));
+        Assert.assertEquals(Arrays.asList(),
+                            ProductIterationHelper.project(Arrays.asList("C"), relevant));
+    }
+
+    @Test
+    public void testEvaluatesEachProjectionOnce() {
+        Set<String> relevant = new HashSet<String>(Arrays.asList("A"));
+        List<String> a = Arrays.asList("A");
+        List<String> ac = Arrays.asList("C", "A");
+        List<String> c = Arrays.asList("C");
+        List<String> none = Arrays.<String>asList();
+        AtomicInteger evaluations = new AtomicInteger();
+
+        Map<Collection<String>, Double> results = new HashMap<Collection<String>, Double>();
+        ProductIterationHelper.evaluateByProjection(projection -> {
+                    evaluations.incrementAndGet();
+                    return projection.contains("A") ? 1.0 : 0.0;
+                },
+                Stream.<Collection<String>>of(a, ac, c, none),
+                relevant,
+                new ProductExecutor(4),
+                3,
+                results::put);
+
+        Assert.assertEquals(2, evaluations.get());
+        Assert.assertEquals(4, results.size());
+        Assert.assertEquals(1.0, results.get(a), 0);
+        Assert.assertEquals(1.0, results.get(ac), 0);
+        Assert.assertEquals(0.0, results.get(c), 0);
+        Assert.assertEquals(0.0, results.get(none), 0);
+    }
+
+    @Test
+    public void testEmitsResultsInOrderAcrossBatches() {
+        List<Collection<String>> configurations = new ArrayList<Collection<String>>();
+        for (int i = 0; i < 10; i++) {
+            configurations.add(Arrays.asList("F" + i));
+        }
+        List<Collection<String>> emitted = new ArrayList<Collection<String>>();
+        List<Double> reliabilities = new ArrayList<Double>();
+
+        ProductIterationHelper.evaluate(configuration -> (double) configuration.iterator().next().length(),
+                                        configurations.stream(),
+                                        new ProductExecutor(4),
+                                        3,
+                                        (configuration, reliability) -> {
+                                            emitted.add(configuration);
+                                            reliabilities.add(reliability);
+                                        });
+
+        Assert.assertEquals(configurations, emitted);
+        Assert.assertEquals(2.0, reliabilities.get(0), 0);
+    }
+
+    @Test
+    public void testPullsNextBatchWhileEvaluating() {
+        int configurationsNumber = 5;
+        List<Collection<String>> configurations = new ArrayList<Collection<String>>();
+        for (int i = 0; i < configurationsNumber; i++) {
+            configurations.add(Arrays.asList(Integer.toString(i)));
+        }
+        AtomicInteger pulled = new AtomicInteger();
+        List<Collection<String>> emitted = new ArrayList<Collection<String>>();
+
+        ProductIterationHelper.evaluate(configuration -> {
+                    // Waits for the next batch (i.e., the next configuration)
+                    // to be pulled, which only happens if pulling overlaps
+                    // evaluation.
+                    int index = Integer.parseInt(configuration.iterator().next());
+                    int awaited = Math.min(index + 2, configurationsNumber);
+                    long deadline = System.currentTimeMillis() + 1000;
+                    while (pulled.get() < awaited && System.currentTimeMillis() < deadline) {
+                        Thread.yield();
+                    }
+                    return pulled.get() >= awaited ? 1.0 : 0.0;
+                },
+                configurations.stream().peek(configuration -> pulled.incrementAndGet()),
+                new ProductExecutor(2),
+                1,
+                (configuration, reliability) -> {
+                    emitted.add(configuration);
+                    Assert.assertEquals(1.0, reliability, 0);
+                });
+
+        Assert.assertEquals(configurations, emitted);
+    }
+
+}
@@ -0,0 +1,123 @@
+package tool.analyzers.sinks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import tool.analyzers.ResultsSink;
+
+public class ResultsSinksTest {
+
+    @Test
+    public void testTextFormatMatchesReport() {
+        StringWriter output = new StringWriter();
+        try (ResultsSink sink = new TextResultsSink(output)) {
+            sink.accept(Arrays.asList("Root", "A"), 0.5);
+            sink.accept(Arrays.asList("B"), 0);
+        }
+        String[] lines = output.toString().split("\\R");
+        Assert.assertArrayEquals(new String[] {"[Root, A] --> 0.5", "[B] --> INVALID"}, lines);
+    }
+
+    @Test
+    public void testCsvFormat() {
+        StringWriter output = new StringWriter();
+        try (ResultsSink sink = new CsvResultsSink(output)) {
+            sink.accept(Arrays.asList("Root", "A"), 0.5);
+        }
+        String[] lines = output.toString().split("\\R");
+        Assert.assertArrayEquals(new String[] {CsvResultsSink.HEADER, "Root;A,0.5"}, lines);
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ResultsSink sink = new BinaryResultsSink(output)) {
+            sink.accept(Arrays.asList("Root", "A"), 0.5);
+            sink.accept(Arrays.<String>asList(), 0);
+        }
+        Collector collector = new Collector();
+        BinaryResultsSink.readAll(new ByteArrayInputStream(output.toByteArray()), collector);
+
+        Assert.assertEquals(Arrays.asList(Arrays.asList("Root", "A"), Arrays.asList()), collector.configurations);
+        Assert.assertEquals(Arrays.asList(0.5, 0.0), collector.reliabilities);
+    }
+
+    @Test
+    public void testSortingSpillsAndMerges() throws IOException {
+        Path tempDir = Files.createTempDirectory("sinks-test");
+        Collector collector = new Collector();
+        try (ResultsSink sink = new SortingResultsSink(collector, 2, tempDir)) {
+            for (String feature : Arrays.asList("E", "B", "D", "A", "C")) {
+                sink.accept(Arrays.asList(feature), feature.charAt(0));
+            }
+        }
+
+        Assert.assertEquals(Arrays.asList(Arrays.asList("A"),
+                                          Arrays.asList("B"),
+                                          Arrays.asList("C"),
+                                          Arrays.asList("D"),
+                                          Arrays.asList("E")),
+                            collector.configurations);
+        Assert.assertEquals((double) 'A', collector.reliabilities.get(0), 0);
+        Assert.assertTrue(collector.closed);
+        try (Stream<Path> leftovers = Files.list(tempDir)) {
+            Assert.assertEquals(0, leftovers.count());
+        }
+        Files.delete(tempDir);
+    }
+
+    @Test
+    public void testValidityRoutingKeepsStreamOrder() {
+        Collector collector = new Collector();
+        List<Collection<String>> configurations = Arrays.asList(Arrays.asList("X"),
+                                                                Arrays.asList("A"),
+                                                                Arrays.asList("Y"),
+                                                                Arrays.asList("Z"),
+                                                                Arrays.asList("B"),
+                                                                Arrays.asList("W"));
+        try (ValidityRoutingResultsSink sink = new ValidityRoutingResultsSink(collector,
+                configuration -> !configuration.iterator().next().matches("[W-Z]"))) {
+            // Results are emitted after a batch of configurations is pulled.
+            List<Collection<String>> valid = new ArrayList<Collection<String>>();
+            sink.filterValid(configurations.stream()).forEach(valid::add);
+            Assert.assertEquals(Arrays.asList(Arrays.asList("A"), Arrays.asList("B")), valid);
+            for (Collection<String> configuration : valid) {
+                sink.accept(configuration, 0.5);
+            }
+        }
+
+        Assert.assertEquals(configurations, collector.configurations);
+        Assert.assertEquals(Arrays.asList(0.0, 0.5, 0.0, 0.0, 0.5, 0.0), collector.reliabilities);
+        Assert.assertTrue(collector.closed);
+    }
+
+    private static class Collector implements ResultsSink {
+        List<Collection<String>> configurations = new ArrayList<Collection<String>>();
+        List<Double> reliabilities = new ArrayList<Double>();
+        boolean closed = false;
+
+        @Override
+        public void accept(Collection<String> configuration, double reliability) {
+            configurations.add(configuration);
+            reliabilities.add(reliability);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package tool.analyzers.strategies;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FamilyProductPlanTest {
+
+    private static FamilyProductPlan plan() {
+        Map<String, String> eqClassToPC = new HashMap<String, String>();
+        eqClassToPC.put("s0", "A");
+        eqClassToPC.put("s1", "B || C");
+        return FamilyProductPlan.compile("s0*0.9 + (1-s0)*(s1*0.8 + (1-s1))", eqClassToPC);
+    }
+
+    @Test
+    public void testClassify() {
+        FamilyProductPlan plan = plan();
+        BitSet onlyFirst = new BitSet();
+        onlyFirst.set(0);
+        BitSet onlySecond = new BitSet();
+        onlySecond.set(1);
+
+        Assert.assertEquals(onlyFirst, plan.classify(Arrays.asList("A", "D")));
+        Assert.assertEquals(onlySecond, plan.classify(Arrays.asList("C")));
+        Assert.assertEquals(plan.classify(Arrays.asList("B")), plan.classify(Arrays.asList("B", "C", "D")));
+        Assert.assertEquals(new BitSet(), plan.classify(Arrays.asList("D")));
+    }
+
+    @Test
+    public void testEvaluate() {
+        FamilyProductPlan plan = plan();
+        Assert.assertEquals(0.9, plan.evaluate(plan.classify(Arrays.asList("A", "B"))), 1E-14);
+        Assert.assertEquals(0.8, plan.evaluate(plan.classify(Arrays.asList("B"))), 1E-14);
+        Assert.assertEquals(1.0, plan.evaluate(plan.classify(Arrays.asList("D"))), 1E-14);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownClass() {
+        FamilyProductPlan.compile("s0*s7", new HashMap<String, String>());
+    }
+
+}
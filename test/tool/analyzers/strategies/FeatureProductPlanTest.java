@@ -0,0 +1,52 @@
+package tool.analyzers.strategies;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import tool.analyzers.buildingblocks.Component;
+
+public class FeatureProductPlanTest {
+
+    /**
+     * Root (always present) depends on an optional storage, which depends
+     * on one of two alternative back ends.
+     */
+    private static List<Component<String>> expressions() {
+        Component<String> sqlite = new Component<String>("sqlite", "SQLite", "0.99");
+        Component<String> memory = new Component<String>("memory", "Memory", "0.9");
+        Component<String> storage = new Component<String>("storage", "Storage", "0.999*sqlite*memory",
+                new HashSet<Component<String>>(Arrays.asList(sqlite, memory)));
+        Component<String> root = new Component<String>("root", "true", "0.5*storage + 0.5",
+                new HashSet<Component<String>>(Arrays.asList(storage)));
+        return Arrays.asList(sqlite, memory, storage, root);
+    }
+
+    @Test
+    public void testEvaluate() {
+        FeatureProductPlan plan = FeatureProductPlan.compile(expressions());
+        Assert.assertEquals(0.5*0.999*0.99 + 0.5,
+                            plan.evaluate(Arrays.asList("Storage", "SQLite")), 1E-14);
+        Assert.assertEquals(0.5*0.999*0.9 + 0.5,
+                            plan.evaluate(Arrays.asList("Storage", "Memory", "Unrelated")), 1E-14);
+        // Absent components have reliability 1.
+        Assert.assertEquals(1.0, plan.evaluate(Arrays.asList("SQLite")), 1E-14);
+    }
+
+    @Test
+    public void testEvaluateInParallel() {
+        FeatureProductPlan plan = FeatureProductPlan.compile(expressions());
+        double expected = 0.5*0.999*0.99 + 0.5;
+        Assert.assertTrue(Arrays.asList(new Object[1000]).parallelStream()
+                .allMatch(ignored -> Math.abs(plan.evaluate(Arrays.asList("Storage", "SQLite")) - expected) < 1E-14));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownDependency() {
+        FeatureProductPlan.compile(Arrays.asList(new Component<String>("root", "true", "0.9*missing")));
+    }
+
+}